@@ -49,7 +49,14 @@
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.console.ConsolePlugin;
@@ -63,6 +70,14 @@
  * This is an implementation of a writer which logs to the ConsoleView inside
  * Eclipse.
  *
+ * <p>
+ * Writes are not forwarded to the console immediately. Each appender collects them in a bounded ring buffer and a
+ * single flush, scheduled at most every {@value #FLUSH_INTERVAL_MS}ms on the UI thread, drains the buffers of all
+ * appenders in the order the messages have been written. Consecutive messages of the same appender are printed with a
+ * single stream write. If a buffer is full further messages are dropped and replaced by a "messages suppressed"
+ * marker, see {@link #getDroppedMessageCount()}.
+ * </p>
+ *
  * @author Florian Georg, University of Konstanz
  */
 public final class ConsoleViewAppender extends Writer {
@@ -89,6 +104,19 @@ public final class ConsoleViewAppender extends Writer {
     public static final Color COLOR_DEBUG =
             new Color(Display.getDefault(), 125, 125, 125);
 
+    /** Maximum number of messages each appender buffers between two flushes. */
+    private static final int BUFFER_CAPACITY = 2048;
+
+    /** Minimum delay between two flushes to the console (i.e. 20 flushes per second at most). */
+    private static final int FLUSH_INTERVAL_MS = 50;
+
+    /** Global order of all written messages, used to interleave the buffers of the different appenders. */
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final AtomicBoolean FLUSH_SCHEDULED = new AtomicBoolean();
+
+    private static final List<ConsoleViewAppender> APPENDERS = new CopyOnWriteArrayList<ConsoleViewAppender>();
+
     private final Color m_color;
 
     /** Appender: fatal error. */
@@ -125,6 +153,21 @@ public final class ConsoleViewAppender extends Writer {
 
     private final MessageConsoleStream m_out;
 
+    // ring buffer of messages not yet written to the console, guarded by this
+    private final String[] m_buffer = new String[BUFFER_CAPACITY];
+
+    private final long[] m_bufferSequence = new long[BUFFER_CAPACITY];
+
+    private int m_bufferStart;
+
+    private int m_bufferSize;
+
+    // number of messages dropped since the last flush and the sequence number of the first one, guarded by this
+    private int m_suppressed;
+
+    private long m_suppressedSequence;
+
+    private final AtomicLong m_droppedCount = new AtomicLong();
 
 
     /**
@@ -139,6 +182,7 @@ private ConsoleViewAppender(final Color color, final String name,
 
         MessageConsole console = findConsole(CONSOLE_NAME);
         m_out = console.newMessageStream();
+        APPENDERS.add(this);
     }
 
     /**
@@ -155,6 +199,28 @@ public NodeLogger.LEVEL getLevel() {
         return m_level;
     }
 
+    /**
+     * @return the number of messages of this appender that have been dropped because they were written faster than
+     *         the console could display them
+     * @since 4.2
+     */
+    public long getDroppedMessageCount() {
+        return m_droppedCount.get();
+    }
+
+    /**
+     * @return the number of messages of all appenders that have been dropped because they were written faster than
+     *         the console could display them
+     * @since 4.2
+     */
+    public static long getTotalDroppedMessageCount() {
+        long count = 0;
+        for (ConsoleViewAppender appender : APPENDERS) {
+            count += appender.getDroppedMessageCount();
+        }
+        return count;
+    }
+
     /**
      * Looks up the console view that is responsible for the given event, does
      * not activate the view.
@@ -185,13 +251,91 @@ public void write(final char[] cbuf, final int off, final int len)
         // make new string here as the caller reuses the char[]
         final String str = new String(cbuf, off, len);
 
-        Display.getDefault().asyncExec(new Runnable() {
-            @Override
-            public void run() {
-                m_out.setColor(m_color);
-                m_out.print(str);
+        synchronized (this) {
+            // take the sequence number inside the lock so that it is ascending within the buffer
+            long sequence = SEQUENCE.getAndIncrement();
+            if (m_bufferSize == BUFFER_CAPACITY) {
+                if (m_suppressed == 0) {
+                    m_suppressedSequence = sequence;
+                }
+                m_suppressed++;
+                m_droppedCount.incrementAndGet();
+            } else {
+                int index = (m_bufferStart + m_bufferSize) % BUFFER_CAPACITY;
+                m_buffer[index] = str;
+                m_bufferSequence[index] = sequence;
+                m_bufferSize++;
             }
-        });
+        }
+        scheduleFlush();
+    }
+
+    private static void scheduleFlush() {
+        if (!FLUSH_SCHEDULED.getAndSet(true)) {
+            final Display display = Display.getDefault();
+            display.asyncExec(() -> display.timerExec(FLUSH_INTERVAL_MS, ConsoleViewAppender::flushAll));
+        }
+    }
+
+    /** Writes the buffered messages of all appenders to the console, must be called in the UI thread. */
+    private static void flushAll() {
+        // messages written from now on need another flush
+        FLUSH_SCHEDULED.set(false);
+
+        List<BufferedMessage> messages = new ArrayList<BufferedMessage>();
+        for (ConsoleViewAppender appender : APPENDERS) {
+            appender.drainTo(messages);
+        }
+        messages.sort(Comparator.comparingLong(m -> m.m_sequence));
+
+        StringBuilder buf = new StringBuilder();
+        ConsoleViewAppender current = null;
+        for (BufferedMessage m : messages) {
+            if ((m.m_appender != current) && (current != null)) {
+                current.print(buf.toString());
+                buf.setLength(0);
+            }
+            current = m.m_appender;
+            buf.append(m.m_text);
+        }
+        if (current != null) {
+            current.print(buf.toString());
+        }
+    }
+
+    private synchronized void drainTo(final List<BufferedMessage> messages) {
+        for (int i = 0; i < m_bufferSize; i++) {
+            int index = (m_bufferStart + i) % BUFFER_CAPACITY;
+            messages.add(new BufferedMessage(this, m_bufferSequence[index], m_buffer[index]));
+            m_buffer[index] = null;
+        }
+        m_bufferStart = 0;
+        m_bufferSize = 0;
+        if (m_suppressed > 0) {
+            messages.add(new BufferedMessage(this, m_suppressedSequence,
+                NLS.bind(Messages.ConsoleViewAppender_7, m_suppressed) + System.lineSeparator()));
+            m_suppressed = 0;
+        }
+    }
+
+    private void print(final String text) {
+        m_out.setColor(m_color);
+        m_out.print(text);
+    }
+
+    /** A message waiting to be written to the console. */
+    private static final class BufferedMessage {
+        private final ConsoleViewAppender m_appender;
+
+        private final long m_sequence;
+
+        private final String m_text;
+
+        BufferedMessage(final ConsoleViewAppender appender, final long sequence, final String text) {
+            m_appender = appender;
+            m_sequence = sequence;
+            m_text = text;
+        }
     }
 
     /**
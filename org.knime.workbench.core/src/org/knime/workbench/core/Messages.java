@@ -71,6 +71,8 @@ public class Messages extends NLS {
 
     public static String ConsoleViewAppender_6;
 
+    public static String ConsoleViewAppender_7;
+
     public static String EclipseEncryptionKeySupplier_0;
     public static String KNIMECorePlugin_11;
 
@@ -74,6 +74,12 @@
  * different sizes in different files with different names. The size must be appended (like foo.png -> foo_24x24.png and
  * foo_32x32.png). Images are also scaled. If they are provided in different sizes their file names must be appended
  * with @1.5x and @2x.
+ * <p>
+ * Images returned by the <code>get...</code> methods are kept for the lifetime of the plug-in. Clients that show many
+ * different images for a limited time (e.g. node icons) should use the <code>acquire...</code> methods instead and
+ * {@link #releaseImage(Image) release} the image when they don't need it anymore; these images are accounted for and
+ * evicted by the {@link SharedResourceManager}.
+ * </p>
  *
  * <b>This class is experimental API, please do not use it for now.</b>
  *
@@ -557,6 +563,86 @@ public static Image getUnscaledIconImage(final URL resourceURL) {
       }
 
 
+     /**
+      * Same as {@link #getUnscaledIconImage(URL)} but the image is reference counted instead of being kept forever. The
+      * image must be released with {@link #releaseImage(Image)} and must not be disposed.
+      *
+      * @param resourceURL to the icon image
+      * @return a potentially scaled image, <code>null</code> if the URL is <code>null</code> or can't be read
+      * @since 4.2
+      */
+     public static Image acquireUnscaledIconImage(final URL resourceURL) {
+         if (resourceURL == null) {
+             return null;
+         }
+         return SharedResourceManager.getInstance().acquire(SharedResourceManager.Category.ICON,
+             resourceURL.toString() + ICONIFIED_KEY + NOTSCALED_KEY, () -> {
+                 try {
+                     return new Image(Display.getDefault(), new KNIMENonscalingIconProvider(resourceURL));
+                 } catch (IOException e) {
+                     LOGGER.coding(Messages.ImageRepository_7 + e.getMessage(), e);
+                     return null;
+                 }
+             });
+     }
+
+     /**
+      * Same as {@link #getIconImage(URL)} but the image is reference counted instead of being kept forever. The image
+      * must be released with {@link #releaseImage(Image)} and must not be disposed.
+      *
+      * @param resourceURL to the icon image
+      * @return a potentially scaled image, <code>null</code> if the URL is <code>null</code> or can't be read
+      * @since 4.2
+      */
+     public static Image acquireIconImage(final URL resourceURL) {
+         if (resourceURL == null) {
+             return null;
+         }
+         return SharedResourceManager.getInstance().acquire(SharedResourceManager.Category.ICON,
+             resourceURL.toString() + ICONIFIED_KEY, () -> {
+                 try {
+                     return new Image(Display.getDefault(), new KNIMEIconImageProvider(resourceURL));
+                 } catch (IOException e) {
+                     LOGGER.coding(Messages.ImageRepository_9 + e.getMessage(), e);
+                     return null;
+                 }
+             });
+     }
+
+     /**
+      * Same as {@link #getImage(URL)} but the image is reference counted instead of being kept forever. The image must
+      * be released with {@link #releaseImage(Image)} and must not be disposed.
+      *
+      * @param resourceURL to the image
+      * @return the image, <code>null</code> if the URL is <code>null</code> or can't be read
+      * @since 4.2
+      */
+     public static Image acquireImage(final URL resourceURL) {
+         if (resourceURL == null) {
+             return null;
+         }
+         return SharedResourceManager.getInstance().acquire(SharedResourceManager.Category.IMAGE,
+             resourceURL.toString(), () -> {
+                 try {
+                     return new Image(Display.getDefault(), new KNIMEImageProvider(resourceURL));
+                 } catch (IOException e) {
+                     LOGGER.coding(Messages.ImageRepository_2 + resourceURL.toString() + ": " + e.getMessage(), e); //$NON-NLS-1$
+                     return null;
+                 }
+             });
+     }
+
+     /**
+      * Releases an image returned by one of the <code>acquire...</code> methods. Images returned by the
+      * <code>get...</code> methods are ignored.
+      *
+      * @param image the image, may be <code>null</code>
+      * @since 4.2
+      */
+     public static void releaseImage(final Image image) {
+         SharedResourceManager.getInstance().release(image);
+     }
+
      /**
       * Returns the 16x16 version of the specified image with the passed decorators.<p>
       * The current implementation requires each icon that may be requested with decorators to be present in the
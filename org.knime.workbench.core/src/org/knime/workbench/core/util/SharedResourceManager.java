@@ -0,0 +1,417 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.core.util;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.eclipse.jface.resource.ImageRegistry;
+import org.eclipse.swt.graphics.Resource;
+import org.eclipse.swt.widgets.Display;
+import org.knime.core.node.NodeLogger;
+import org.knime.workbench.core.KNIMECorePlugin;
+
+/**
+ * Accounts for the SWT images and fonts shared across the workbench and bounds the number of handles they use.
+ * Resources are created on first {@link #acquire(Category, Object, Supplier) acquire} of their key, reference counted
+ * and shared by all clients asking for the same key. Each acquire must be paired with a {@link #release(Resource)}.
+ *
+ * <p>
+ * A resource whose last reference has been released is not disposed right away but kept idle, so that it can be
+ * reused when it is asked for again (e.g. when a workflow is closed and opened again). Once the number of handles
+ * exceeds the budget, the least recently released idle resources are disposed. Resources that are still referenced are
+ * never evicted, hence the budget is a soft limit. The budget can be set with the system property
+ * {@value #BUDGET_PROPERTY}.
+ * </p>
+ *
+ * <p>
+ * All methods are thread-safe. Evicted resources are disposed in the display thread.
+ * </p>
+ *
+ * @since 4.2
+ */
+public final class SharedResourceManager {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(SharedResourceManager.class);
+
+    /** System property for the maximum number of handles held by the manager. */
+    static final String BUDGET_PROPERTY = "knime.swt.resource.budget"; //$NON-NLS-1$
+
+    private static final int DEFAULT_BUDGET = 1024;
+
+    private static final SharedResourceManager INSTANCE =
+        new SharedResourceManager(Math.max(0, Integer.getInteger(BUDGET_PROPERTY, DEFAULT_BUDGET)));
+
+    /** The kinds of resources, accounted for separately. */
+    public enum Category {
+        /** Images, e.g. those of the {@link ImageRepository}. */
+        IMAGE("Images"), //$NON-NLS-1$
+        /** Icons, e.g. the node icons on the workflow canvas. */
+        ICON("Icons"), //$NON-NLS-1$
+        /** Fonts, e.g. those of the workflow annotations. */
+        FONT("Fonts"); //$NON-NLS-1$
+
+        private final String m_label;
+
+        private Category(final String label) {
+            m_label = label;
+        }
+
+        /**
+         * @return a short label used in the diagnostics
+         */
+        public String getLabel() {
+            return m_label;
+        }
+    }
+
+    /** Keys of different categories never collide. */
+    private static final class ResourceKey {
+        private final Category m_category;
+
+        private final Object m_key;
+
+        ResourceKey(final Category category, final Object key) {
+            m_category = category;
+            m_key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * m_category.hashCode() + m_key.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof ResourceKey)) {
+                return false;
+            }
+            ResourceKey other = (ResourceKey)obj;
+            return m_category == other.m_category && m_key.equals(other.m_key);
+        }
+    }
+
+    private static final class Entry {
+        private final ResourceKey m_key;
+
+        private final Resource m_resource;
+
+        private int m_references;
+
+        Entry(final ResourceKey key, final Resource resource) {
+            m_key = key;
+            m_resource = resource;
+        }
+    }
+
+    /** Counters per category, all guarded by the manager's monitor. */
+    private static final class Usage {
+        private int m_handles;
+
+        private int m_references;
+
+        private int m_idle;
+
+        private long m_created;
+
+        private long m_hits;
+
+        private long m_evicted;
+    }
+
+    private final Map<ResourceKey, Entry> m_entries = new LinkedHashMap<ResourceKey, Entry>();
+
+    private final Map<Resource, Entry> m_entriesByResource = new IdentityHashMap<Resource, Entry>();
+
+    /** Unreferenced entries, least recently released first. */
+    private final Map<ResourceKey, Entry> m_idle = new LinkedHashMap<ResourceKey, Entry>();
+
+    private final Map<Category, Usage> m_usage = new EnumMap<Category, Usage>(Category.class);
+
+    private int m_budget;
+
+    /**
+     * Creates a manager independent of the shared instance, only used by tests.
+     *
+     * @param budget the maximum number of handles
+     */
+    SharedResourceManager(final int budget) {
+        for (Category c : Category.values()) {
+            m_usage.put(c, new Usage());
+        }
+        m_budget = budget;
+    }
+
+    /**
+     * @return the manager shared by the whole workbench
+     */
+    public static SharedResourceManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the resource for the given key and increases its reference count. If there is no resource for the key
+     * yet, it is created with the given factory.
+     *
+     * @param category the category of the resource
+     * @param key the key identifying the resource within its category, must implement equals and hashCode
+     * @param factory creates the resource if it doesn't exist yet; may return <code>null</code> if the resource can't
+     *            be created
+     * @return the shared resource or <code>null</code> if the factory returned <code>null</code>
+     */
+    public <R extends Resource> R acquire(final Category category, final Object key, final Supplier<R> factory) {
+        ResourceKey resourceKey = new ResourceKey(Objects.requireNonNull(category), Objects.requireNonNull(key));
+        synchronized (this) {
+            Entry entry = m_entries.get(resourceKey);
+            if (entry != null) {
+                m_usage.get(category).m_hits++;
+                return reference(entry);
+            }
+        }
+        // create outside the lock, factories may take a while or need the display thread
+        R resource = factory.get();
+        if (resource == null) {
+            return null;
+        }
+        List<Resource> toDispose = new ArrayList<Resource>();
+        R result;
+        synchronized (this) {
+            Entry entry = m_entries.get(resourceKey);
+            if (entry != null) {
+                // somebody else was faster
+                toDispose.add(resource);
+                m_usage.get(category).m_hits++;
+            } else {
+                entry = new Entry(resourceKey, resource);
+                m_entries.put(resourceKey, entry);
+                m_entriesByResource.put(resource, entry);
+                Usage usage = m_usage.get(category);
+                usage.m_handles++;
+                usage.m_created++;
+            }
+            result = reference(entry);
+            evict(toDispose);
+        }
+        dispose(toDispose);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R extends Resource> R reference(final Entry entry) {
+        Usage usage = m_usage.get(entry.m_key.m_category);
+        if (entry.m_references == 0 && m_idle.remove(entry.m_key) != null) {
+            usage.m_idle--;
+        }
+        entry.m_references++;
+        usage.m_references++;
+        return (R)entry.m_resource;
+    }
+
+    /**
+     * Releases a resource returned by {@link #acquire(Category, Object, Supplier)}. The resource is kept for reuse
+     * after its last reference has been released, until it is evicted.
+     *
+     * @param resource the resource, may be <code>null</code> or a resource not managed by this class (then nothing
+     *            happens)
+     * @return the number of references left, 0 if the resource isn't managed by this class
+     */
+    public int release(final Resource resource) {
+        if (resource == null) {
+            return 0;
+        }
+        List<Resource> toDispose = new ArrayList<Resource>();
+        int references;
+        synchronized (this) {
+            Entry entry = m_entriesByResource.get(resource);
+            if (entry == null || entry.m_references == 0) {
+                return 0;
+            }
+            Usage usage = m_usage.get(entry.m_key.m_category);
+            entry.m_references--;
+            usage.m_references--;
+            references = entry.m_references;
+            if (references == 0) {
+                m_idle.put(entry.m_key, entry);
+                usage.m_idle++;
+                evict(toDispose);
+            }
+        }
+        dispose(toDispose);
+        return references;
+    }
+
+    /**
+     * @param resource a resource
+     * @return <code>true</code> if the resource was created by this manager and is not yet evicted
+     */
+    public synchronized boolean isManaged(final Resource resource) {
+        return resource != null && m_entriesByResource.containsKey(resource);
+    }
+
+    /**
+     * Removes the least recently released idle entries until the budget is met; must hold the monitor.
+     */
+    private void evict(final List<Resource> toDispose) {
+        Iterator<Entry> it = m_idle.values().iterator();
+        while (m_entriesByResource.size() > m_budget && it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            m_entries.remove(entry.m_key);
+            m_entriesByResource.remove(entry.m_resource);
+            Usage usage = m_usage.get(entry.m_key.m_category);
+            usage.m_idle--;
+            usage.m_handles--;
+            usage.m_evicted++;
+            toDispose.add(entry.m_resource);
+        }
+    }
+
+    private static void dispose(final List<Resource> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+        Runnable disposer = () -> {
+            for (Resource r : resources) {
+                if (!r.isDisposed()) {
+                    r.dispose();
+                }
+            }
+        };
+        if (Display.getCurrent() != null) {
+            disposer.run();
+        } else {
+            Display display = Display.getDefault();
+            if (!display.isDisposed()) {
+                display.asyncExec(disposer);
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum number of handles the manager holds and evicts idle resources if it is exceeded.
+     *
+     * @param budget the new budget, not negative
+     */
+    public void setBudget(final int budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + budget); //$NON-NLS-1$
+        }
+        List<Resource> toDispose = new ArrayList<Resource>();
+        synchronized (this) {
+            m_budget = budget;
+            evict(toDispose);
+        }
+        dispose(toDispose);
+        LOGGER.debug("SWT resource budget set to " + budget + " handles"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * @return the maximum number of handles the manager holds (unless they are all referenced)
+     */
+    public synchronized int getBudget() {
+        return m_budget;
+    }
+
+    /**
+     * @param category a category
+     * @return the number of live handles of the category, referenced or idle
+     */
+    public synchronized int getHandleCount(final Category category) {
+        return m_usage.get(category).m_handles;
+    }
+
+    /**
+     * @param category a category
+     * @return the number of references to resources of the category
+     */
+    public synchronized int getReferenceCount(final Category category) {
+        return m_usage.get(category).m_references;
+    }
+
+    /**
+     * @param category a category
+     * @return the number of live but unreferenced handles of the category, i.e. the candidates for eviction
+     */
+    public synchronized int getIdleCount(final Category category) {
+        return m_usage.get(category).m_idle;
+    }
+
+    /**
+     * Returns a summary of the current usage, one line per category plus one line for the images of the plug-in's
+     * image registry (which are never evicted).
+     *
+     * @return a multi-line summary of the current usage, for diagnostics
+     */
+    public String getDiagnostics() {
+        StringBuilder b = new StringBuilder();
+        synchronized (this) {
+            b.append("SWT resources: ").append(m_entriesByResource.size()).append(" handles, budget ") //$NON-NLS-1$ //$NON-NLS-2$
+                .append(m_budget);
+            for (Map.Entry<Category, Usage> e : m_usage.entrySet()) {
+                Usage u = e.getValue();
+                b.append('\n').append(e.getKey().getLabel()).append(": ").append(u.m_handles) //$NON-NLS-1$
+                    .append(" handles, ").append(u.m_references).append(" references, ") //$NON-NLS-1$ //$NON-NLS-2$
+                    .append(u.m_idle).append(" idle, ").append(u.m_created).append(" created, ") //$NON-NLS-1$ //$NON-NLS-2$
+                    .append(u.m_hits).append(" hits, ").append(u.m_evicted).append(" evicted"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        KNIMECorePlugin plugin = KNIMECorePlugin.getDefault();
+        if (plugin != null) {
+            ImageRegistry registry = plugin.getImageRegistry();
+            if (registry instanceof ThreadsafeImageRegistry) {
+                b.append("\nRegistry images: ") //$NON-NLS-1$
+                    .append(((ThreadsafeImageRegistry)registry).getImageCount()).append(" handles (not evicted)"); //$NON-NLS-1$
+            }
+        }
+        return b.toString();
+    }
+}
@@ -223,11 +223,34 @@ public void run() {
             return null;
         }
 
-        if (entry.image == null) {
-            entry.image = manager.createImageWithDefault(entry.descriptor);
+        // several threads may ask for the same image, make sure only one handle is created
+        synchronized (entry) {
+            if (entry.image == null) {
+                entry.image = manager.createImageWithDefault(entry.descriptor);
+            }
+            return entry.image;
         }
+    }
 
-        return entry.image;
+    /**
+     * Returns the number of images (i.e. SWT image handles) currently allocated by this registry. Descriptors whose
+     * image has not been requested yet are not counted.
+     *
+     * @return the number of allocated images
+     * @since 4.2
+     */
+    public int getImageCount() {
+        Map<String, Entry> t = table;
+        if (t == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Entry entry : t.values()) {
+            if (entry.image != null) {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
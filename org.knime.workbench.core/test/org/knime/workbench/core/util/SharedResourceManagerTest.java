@@ -0,0 +1,245 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.swt.graphics.Resource;
+import org.eclipse.swt.widgets.Display;
+import org.knime.workbench.core.util.SharedResourceManager.Category;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the reference counting and eviction contract of the {@link SharedResourceManager}: referenced resources are
+ * never evicted, idle ones are evicted least recently released first once the budget is exceeded, and releasing
+ * unmanaged or unreferenced resources has no effect.
+ */
+public class SharedResourceManagerTest extends TestCase {
+
+    /** A resource that only records whether it has been disposed. */
+    private static final class TestResource extends Resource {
+        private final String m_name;
+
+        private boolean m_disposed;
+
+        TestResource(final String name) {
+            m_name = name;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return m_disposed;
+        }
+
+        @Override
+        public void dispose() {
+            m_disposed = true;
+        }
+
+        @Override
+        public String toString() {
+            return m_name;
+        }
+    }
+
+    private static TestResource acquire(final SharedResourceManager manager, final String key) {
+        return manager.acquire(Category.IMAGE, key, () -> new TestResource(key));
+    }
+
+    /** Evicted resources are disposed in the display thread, possibly asynchronously. */
+    private static void runPendingDisposals() {
+        Display display = Display.getDefault();
+        if (Display.getCurrent() == display) {
+            while (display.readAndDispatch()) {
+                // process the queued disposals
+            }
+        } else {
+            display.syncExec(() -> {
+            });
+        }
+    }
+
+    /**
+     * Acquiring the same key shares one resource, created once; categories don't share keys.
+     */
+    public void testSharing() {
+        SharedResourceManager manager = new SharedResourceManager(10);
+        AtomicInteger created = new AtomicInteger();
+        TestResource first = manager.acquire(Category.ICON, "a", () -> {
+            created.incrementAndGet();
+            return new TestResource("a");
+        });
+        TestResource second = manager.acquire(Category.ICON, "a", () -> {
+            created.incrementAndGet();
+            return new TestResource("a");
+        });
+        assertSame("Same key must return the same resource", first, second);
+        assertEquals("Resource must be created once", 1, created.get());
+        assertEquals("Wrong number of references", 2, manager.getReferenceCount(Category.ICON));
+        assertEquals("Wrong number of handles", 1, manager.getHandleCount(Category.ICON));
+
+        TestResource image = manager.acquire(Category.IMAGE, "a", () -> new TestResource("a"));
+        assertNotSame("Categories must not share keys", first, image);
+
+        assertNull("Failed creation must return null", manager.acquire(Category.FONT, "b", () -> null));
+        assertEquals("Failed creation must not be counted", 0, manager.getHandleCount(Category.FONT));
+    }
+
+    /**
+     * Referenced resources stay alive even if the budget is exceeded.
+     */
+    public void testReferencedNeverEvicted() {
+        SharedResourceManager manager = new SharedResourceManager(2);
+        TestResource a = acquire(manager, "a");
+        TestResource b = acquire(manager, "b");
+        TestResource c = acquire(manager, "c");
+        runPendingDisposals();
+        assertEquals("The budget is a soft limit for referenced resources", 3,
+            manager.getHandleCount(Category.IMAGE));
+        for (TestResource r : new TestResource[]{a, b, c}) {
+            assertTrue(r + " must still be managed", manager.isManaged(r));
+            assertFalse(r + " must not be disposed", r.isDisposed());
+        }
+
+        manager.setBudget(0);
+        runPendingDisposals();
+        assertEquals("Referenced resources must survive a smaller budget", 3,
+            manager.getHandleCount(Category.IMAGE));
+        assertFalse("Referenced resource must not be disposed", a.isDisposed());
+    }
+
+    /**
+     * Idle resources are reused when asked for again and evicted least recently released first.
+     */
+    public void testLeastRecentlyReleasedEvictedFirst() {
+        SharedResourceManager manager = new SharedResourceManager(3);
+        TestResource a = acquire(manager, "a");
+        TestResource b = acquire(manager, "b");
+        TestResource c = acquire(manager, "c");
+        assertEquals(0, manager.release(a));
+        assertEquals(0, manager.release(b));
+        assertEquals(0, manager.release(c));
+        runPendingDisposals();
+        assertEquals("Released resources must be kept within the budget", 3, manager.getIdleCount(Category.IMAGE));
+
+        assertSame("Idle resource must be reused", a, acquire(manager, "a"));
+        assertEquals("Reused resource is not idle anymore", 2, manager.getIdleCount(Category.IMAGE));
+
+        // exceeds the budget, b was released before c
+        TestResource d = acquire(manager, "d");
+        runPendingDisposals();
+        assertTrue("Least recently released resource must be disposed", b.isDisposed());
+        assertFalse("Evicted resource must not be managed anymore", manager.isManaged(b));
+        assertFalse("More recently released resource must be kept", c.isDisposed());
+        assertFalse("Referenced resource must be kept", a.isDisposed());
+        assertFalse("Referenced resource must be kept", d.isDisposed());
+        assertEquals("Wrong number of handles", 3, manager.getHandleCount(Category.IMAGE));
+
+        TestResource newB = acquire(manager, "b");
+        assertNotSame("Evicted resource must be created again", b, newB);
+        assertFalse(newB.isDisposed());
+    }
+
+    /**
+     * A smaller budget evicts idle resources right away, in release order.
+     */
+    public void testSetBudgetShrinks() {
+        SharedResourceManager manager = new SharedResourceManager(10);
+        TestResource[] resources = new TestResource[5];
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] = acquire(manager, "r" + i);
+        }
+        for (TestResource r : resources) {
+            manager.release(r);
+        }
+        manager.setBudget(2);
+        runPendingDisposals();
+        assertEquals("Wrong budget", 2, manager.getBudget());
+        assertEquals("Wrong number of handles", 2, manager.getHandleCount(Category.IMAGE));
+        for (int i = 0; i < resources.length; i++) {
+            assertEquals("Wrong eviction of " + resources[i], i < 3, resources[i].isDisposed());
+        }
+        try {
+            manager.setBudget(-1);
+            fail("Negative budget must be rejected");
+        } catch (IllegalArgumentException e) {
+            // O.K.
+        }
+    }
+
+    /**
+     * Releasing resources that aren't managed, aren't referenced anymore or have been evicted has no effect.
+     */
+    public void testReleaseUnmanagedOrTwice() {
+        SharedResourceManager manager = new SharedResourceManager(10);
+        assertEquals(0, manager.release(null));
+        TestResource unmanaged = new TestResource("unmanaged");
+        assertEquals("Unmanaged resource must be ignored", 0, manager.release(unmanaged));
+        runPendingDisposals();
+        assertFalse("Unmanaged resource must not be disposed", unmanaged.isDisposed());
+
+        TestResource a = acquire(manager, "a");
+        acquire(manager, "a");
+        assertEquals("Wrong number of remaining references", 1, manager.release(a));
+        assertEquals("Wrong number of remaining references", 0, manager.release(a));
+        assertEquals("Releasing an idle resource must be ignored", 0, manager.release(a));
+        assertEquals("Reference count must not become negative", 0, manager.getReferenceCount(Category.IMAGE));
+        assertEquals("Resource must be idle once", 1, manager.getIdleCount(Category.IMAGE));
+
+        assertSame(a, acquire(manager, "a"));
+        assertEquals("Wrong number of references after reacquire", 1, manager.getReferenceCount(Category.IMAGE));
+        assertEquals("Wrong number of idle resources after reacquire", 0, manager.getIdleCount(Category.IMAGE));
+
+        // evicted as soon as it's released
+        manager.setBudget(0);
+        assertEquals(0, manager.release(a));
+        runPendingDisposals();
+        assertTrue("Resource must be evicted", a.isDisposed());
+        assertEquals("Releasing an evicted resource must be ignored", 0, manager.release(a));
+        assertEquals("Wrong number of handles", 0, manager.getHandleCount(Category.IMAGE));
+        assertEquals("Wrong number of idle resources", 0, manager.getIdleCount(Category.IMAGE));
+    }
+}
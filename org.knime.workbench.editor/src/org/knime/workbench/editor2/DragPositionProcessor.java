@@ -89,6 +89,12 @@ class DragPositionProcessor {
      */
     private static final int USER_DRAG_SLOP_FOR_BOUNDS = 10;
 
+    /**
+     * Distance within which parts of the spatial index are considered for hit detection (connections accept hits
+     * slightly outside of their bounds).
+     */
+    private static final int HIT_TOLERANCE = 16;
+
     /**
      * Implementors of this interface will have the method invoked on the SWT thread; it will not be invoked for
      * successive hits on the same target, if that target has not been vetoed by any vetoers.
@@ -215,7 +221,7 @@ void processDragEventAtPoint(final Point p, final boolean shouldAffectMark,
             }
         }
 
-        if (ep == null) {
+        if ((ep == null) && mayHitEditPart(m_lastPosition)) {
             ep = m_parentViewer.findObjectAt(m_lastPosition);
         }
 
@@ -301,6 +307,18 @@ void processDragEventAtPoint(final Point p, final boolean shouldAffectMark,
         }
     }
 
+    /*
+     * Only nodes, connections and annotations are of interest as targets; if the spatial index of the workflow knows
+     * none of them near the location, the figure tree doesn't need to be searched.
+     */
+    private boolean mayHitEditPart(final org.eclipse.draw2d.geometry.Point location) {
+        final EditPart contents = m_parentViewer.getContents();
+        if (!(contents instanceof WorkflowRootEditPart)) {
+            return true;
+        }
+        return !((WorkflowRootEditPart)contents).getSpatialIndex().getEditPartsAt(location, HIT_TOLERANCE).isEmpty();
+    }
+
     void addVetoer(final TargetVetoer tv) {
         synchronized (m_vetoers) {
             m_vetoers.add(tv);
@@ -43,6 +43,7 @@
 import org.knime.workbench.editor2.editparts.AnnotationEditPart;
 import org.knime.workbench.editor2.editparts.ConnectionContainerEditPart;
 import org.knime.workbench.editor2.editparts.NodeContainerEditPart;
+import org.knime.workbench.editor2.editparts.WorkflowRootEditPart;
 import org.knime.workbench.editor2.figures.WorkflowAnnotationFigure;
 
 /**
@@ -112,7 +113,7 @@ public class WorkflowMarqueeSelectionTool extends AbstractTool implements DragTr
 
     private Collection<GraphicalEditPart> deselectedEditParts;
 
-    private Collection<GraphicalEditPart> alreadySelectedEditParts;
+    private Set<GraphicalEditPart> alreadySelectedEditParts;
 
     private Request targetRequest;
 
@@ -208,7 +209,12 @@ private void calculateConnections(final Collection<GraphicalEditPart> newSelecti
     private void calculateNewSelection(final Collection<GraphicalEditPart> newSelections,
             final Collection<GraphicalEditPart> deselections) {
         Rectangle marqueeRect = getMarqueeSelectionRectangle();
-        for (Iterator<GraphicalEditPart> itr = getAllChildren().iterator(); itr.hasNext();) {
+        // only the parts overlapping the marquee can be included; in toggle
+        // mode all other parts need to be visited as well (they are readded
+        // or deselected) but without testing their geometry
+        Set<GraphicalEditPart> candidates = getCandidates(marqueeRect);
+        Collection<GraphicalEditPart> children = isToggle() ? getAllChildren() : candidates;
+        for (Iterator<GraphicalEditPart> itr = children.iterator(); itr.hasNext();) {
             GraphicalEditPart child = itr.next();
             IFigure figure = child.getFigure();
             if (!child.isSelectable()
@@ -223,6 +229,15 @@ private void calculateNewSelection(final Collection<GraphicalEditPart> newSelect
                 continue;
             }
 
+            if (!candidates.contains(child)) {
+                if (wasSelected(child)) {
+                    newSelections.add(child);
+                } else {
+                    deselections.add(child);
+                }
+                continue;
+            }
+
             Rectangle r = figure.getBounds().getCopy();
             figure.translateToAbsolute(r);
             boolean included = false;
@@ -273,12 +288,31 @@ private void calculateNewSelection(final Collection<GraphicalEditPart> newSelect
     }
 
     private boolean wasSelected(final EditPart part) {
-        for (Object o : alreadySelectedEditParts) {
-            if (o == part) {
-                return true;
+        return alreadySelectedEditParts.contains(part);
+    }
+
+    /*
+     * Returns the parts which are considered by the current marquee behavior
+     * and whose bounds intersect the marquee rectangle, queried from the
+     * spatial index of the workflow.
+     */
+    private Set<GraphicalEditPart> getCandidates(final Rectangle marqueeRect) {
+        EditPart contents = getCurrentViewer().getContents();
+        if (!(contents instanceof WorkflowRootEditPart)) {
+            return getAllChildren();
+        }
+        Set<GraphicalEditPart> candidates =
+                ((WorkflowRootEditPart)contents).getSpatialIndex().getEditPartsIntersecting(marqueeRect);
+        for (Iterator<GraphicalEditPart> itr = candidates.iterator(); itr.hasNext();) {
+            if (itr.next() instanceof ConnectionEditPart) {
+                if (marqueeBehavior == BEHAVIOR_NODES_CONTAINED) {
+                    itr.remove();
+                }
+            } else if (marqueeBehavior == BEHAVIOR_CONNECTIONS_TOUCHED) {
+                itr.remove();
             }
         }
-        return false;
+        return candidates;
     }
 
     private Request createTargetRequest() {
@@ -399,8 +433,7 @@ protected boolean handleButtonDown(final int button) {
                 setSelectionMode(DEFAULT_MODE);
             }
         }
-        alreadySelectedEditParts = new ArrayList<GraphicalEditPart>();
-        alreadySelectedEditParts.addAll(getCurrentViewer()
+        alreadySelectedEditParts = new HashSet<GraphicalEditPart>(getCurrentViewer()
                 .getSelectedEditParts());
         return true;
     }
@@ -424,19 +457,14 @@ boolean nodesAndConnectionsEqual(final Collection<GraphicalEditPart> c1, final C
         if (c1.size() != c2.size()) {
             return false;
         }
+        Set<GraphicalEditPart> set2 = new HashSet<GraphicalEditPart>(c2);
         for (EditPart o : c1) {
             // only node and connection container parts are relevant
             if ((o instanceof NodeContainerEditPart)
                     || (o instanceof ConnectionContainerEditPart)
                     || (o instanceof AbstractWorkflowPortBarEditPart)) {
                 // now check if o is also in c2
-                boolean found = false;
-                for (EditPart o2 : c2) {
-                    if (o2.equals(o)) {
-                        found = true;
-                    }
-                }
-                if (!found) {
+                if (!set2.contains(o)) {
                     // the second list does not contain the object
                     return false;
                 }
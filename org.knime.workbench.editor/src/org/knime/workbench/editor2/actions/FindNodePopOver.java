@@ -102,6 +102,7 @@
 import org.knime.workbench.editor2.WorkflowEditor;
 import org.knime.workbench.editor2.WorkflowManagerInput;
 import org.knime.workbench.editor2.editparts.NodeContainerEditPart;
+import org.knime.workbench.editor2.editparts.NodeIconCache;
 import org.knime.workbench.editor2.figures.DisplayableNodeType;
 
 /**
@@ -573,6 +574,7 @@ private NodeContainerDisplayWrapper(final NodeContainerUI ncUI, final Display di
                 final int x = (backgroundBounds.width - iconBounds.width) / 2;
                 final int y = (backgroundBounds.height - iconBounds.height) / 2;
                 gc.drawImage(nodeIcon, x, y);
+                NodeIconCache.getInstance().release(nodeIcon);
             }
 
             gc.dispose();
@@ -164,6 +164,11 @@ public WorkflowManagerUI getWorkflowManager() {
     public void activate() {
         super.activate();
         getModel().addUIInformationListener(this);
+        EditPart contents = getViewer().getContents();
+        if (contents instanceof WorkflowRootEditPart) {
+            ((ProgressPolylineConnection)getFigure()).setAnimationClock(
+                ((WorkflowRootEditPart)contents).getFigure().getConnectionAnimationClock());
+        }
         getModel().addProgressListener(this);
     }
 
@@ -172,6 +177,7 @@ public void activate() {
     public void deactivate() {
         getModel().removeUIInformationListener(this);
         getModel().removeProgressListener(this);
+        ((ProgressPolylineConnection)getFigure()).setAnimationClock(null);
         super.deactivate();
     }
 
@@ -0,0 +1,289 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.editor2.editparts;
+
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.FigureListener;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.GraphicalEditPart;
+
+/**
+ * Uniform grid over the bounds of the nodes, annotations, workflow port bars and connections of one workflow editor.
+ * It allows to find the edit parts in a region (e.g. the marquee rectangle or the location of a drop) without visiting
+ * all edit parts of the workflow.
+ *
+ * <p>
+ * The index is built lazily on the first query. It is invalidated by the workflow notifications of the
+ * {@link WorkflowRootEditPart} (parts added or removed) and updates single parts when their figures move or their
+ * connection points change. The index must only be used in the display thread, except for {@link #invalidate()}.
+ * </p>
+ *
+ * @since 4.2
+ */
+public final class EditPartSpatialIndex {
+
+    /** Edge length of the grid cells, in the (unzoomed) coordinates of the workflow figure. */
+    static final int CELL_SIZE = 256;
+
+    /** Bounds are padded by this amount to compensate rounding errors when translating zoomed coordinates. */
+    private static final int PADDING = 2;
+
+    private final WorkflowRootEditPart m_rootPart;
+
+    /** The parts in each cell, the key is the packed cell coordinate. */
+    private final Map<Long, List<GraphicalEditPart>> m_cells = new HashMap<Long, List<GraphicalEditPart>>();
+
+    /** The indexed bounds of each part, in the coordinates of the workflow figure. */
+    private final Map<GraphicalEditPart, Rectangle> m_bounds = new IdentityHashMap<GraphicalEditPart, Rectangle>();
+
+    /** Listeners registered on the figures of the indexed parts, to be removed when the index is rebuilt. */
+    private final Map<IFigure, Object> m_figureListeners = new IdentityHashMap<IFigure, Object>();
+
+    /** Number of registered edit parts when the index was built, a cheap check for missed structural changes. */
+    private int m_registrySize = -1;
+
+    private volatile boolean m_valid;
+
+    EditPartSpatialIndex(final WorkflowRootEditPart rootPart) {
+        m_rootPart = rootPart;
+    }
+
+    /**
+     * Marks the index as outdated, it is rebuilt on the next query. May be called from any thread.
+     */
+    public void invalidate() {
+        m_valid = false;
+    }
+
+    /**
+     * Returns the indexed edit parts whose bounds intersect the given rectangle. The result may contain parts that
+     * don't intersect the rectangle exactly (e.g. a connection whose bounding box intersects it but not the line
+     * itself); callers still have to do their exact tests, but only on these candidates.
+     *
+     * @param absoluteRect the rectangle in absolute coordinates (as e.g. the marquee rectangle)
+     * @return the candidate edit parts, never <code>null</code>
+     */
+    public Set<GraphicalEditPart> getEditPartsIntersecting(final Rectangle absoluteRect) {
+        ensureValid();
+        if (m_bounds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final Rectangle rect = absoluteRect.getCopy();
+        m_rootPart.getFigure().translateToRelative(rect);
+        rect.expand(PADDING, PADDING);
+
+        final Set<GraphicalEditPart> result = new LinkedHashSet<GraphicalEditPart>();
+        final int minX = cell(rect.x);
+        final int maxX = cell(rect.x + rect.width);
+        final int minY = cell(rect.y);
+        final int maxY = cell(rect.y + rect.height);
+        if ((long)(maxX - minX + 1) * (maxY - minY + 1) > m_cells.size()) {
+            // large rectangle, cheaper to visit all occupied cells
+            for (Map.Entry<Long, List<GraphicalEditPart>> e : m_cells.entrySet()) {
+                final int x = (int)(e.getKey() >> 32);
+                final int y = (int)e.getKey().longValue();
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    addIntersecting(e.getValue(), rect, result);
+                }
+            }
+        } else {
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    final List<GraphicalEditPart> parts = m_cells.get(key(x, y));
+                    if (parts != null) {
+                        addIntersecting(parts, rect, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexed edit parts whose bounds are within the given distance of a point.
+     *
+     * @param absolutePoint the location in absolute coordinates (as e.g. a mouse location)
+     * @param tolerance the maximum distance in pixels
+     * @return the candidate edit parts, never <code>null</code>
+     */
+    public Set<GraphicalEditPart> getEditPartsAt(final Point absolutePoint, final int tolerance) {
+        return getEditPartsIntersecting(new Rectangle(absolutePoint.x - tolerance, absolutePoint.y - tolerance,
+            2 * tolerance + 1, 2 * tolerance + 1));
+    }
+
+    /**
+     * Removes the listeners from the figures and clears the index.
+     */
+    void dispose() {
+        clear();
+        m_valid = false;
+    }
+
+    private void addIntersecting(final List<GraphicalEditPart> parts, final Rectangle rect,
+        final Set<GraphicalEditPart> result) {
+        for (GraphicalEditPart part : parts) {
+            if (part.isActive() && m_bounds.get(part).intersects(rect)) {
+                result.add(part);
+            }
+        }
+    }
+
+    private void ensureValid() {
+        if (m_valid && m_registrySize == m_rootPart.getViewer().getEditPartRegistry().size()) {
+            return;
+        }
+        clear();
+        m_valid = true;
+        addParts(m_rootPart);
+        m_registrySize = m_rootPart.getViewer().getEditPartRegistry().size();
+    }
+
+    private void clear() {
+        for (Map.Entry<IFigure, Object> e : m_figureListeners.entrySet()) {
+            if (e.getValue() instanceof FigureListener) {
+                e.getKey().removeFigureListener((FigureListener)e.getValue());
+            } else {
+                e.getKey().removePropertyChangeListener(Connection.PROPERTY_POINTS,
+                    (PropertyChangeListener)e.getValue());
+            }
+        }
+        m_figureListeners.clear();
+        m_cells.clear();
+        m_bounds.clear();
+    }
+
+    /* Same traversal as the marquee selection: all descendants and the connections attached to them. */
+    private void addParts(final EditPart parent) {
+        @SuppressWarnings("unchecked")
+        final List<GraphicalEditPart> children = parent.getChildren();
+        for (GraphicalEditPart child : children) {
+            add(child);
+            @SuppressWarnings("unchecked")
+            final List<GraphicalEditPart> sourceConnections = child.getSourceConnections();
+            for (GraphicalEditPart conn : sourceConnections) {
+                add(conn);
+            }
+            @SuppressWarnings("unchecked")
+            final List<GraphicalEditPart> targetConnections = child.getTargetConnections();
+            for (GraphicalEditPart conn : targetConnections) {
+                add(conn);
+            }
+            addParts(child);
+        }
+    }
+
+    private void add(final GraphicalEditPart part) {
+        if (!(part instanceof NodeContainerEditPart || part instanceof ConnectionContainerEditPart
+            || part instanceof AbstractWorkflowPortBarEditPart || part instanceof AnnotationEditPart)
+            || m_bounds.containsKey(part)) {
+            return;
+        }
+        final IFigure figure = part.getFigure();
+        insert(part, figure);
+        if (part instanceof ConnectionContainerEditPart) {
+            final PropertyChangeListener l = evt -> update(part);
+            figure.addPropertyChangeListener(Connection.PROPERTY_POINTS, l);
+            m_figureListeners.put(figure, l);
+        } else {
+            final FigureListener l = source -> update(part);
+            figure.addFigureListener(l);
+            m_figureListeners.put(figure, l);
+        }
+    }
+
+    private void update(final GraphicalEditPart part) {
+        final Rectangle old = m_bounds.remove(part);
+        if (old == null) {
+            return;
+        }
+        for (int x = cell(old.x); x <= cell(old.x + old.width); x++) {
+            for (int y = cell(old.y); y <= cell(old.y + old.height); y++) {
+                final Long key = key(x, y);
+                final List<GraphicalEditPart> parts = m_cells.get(key);
+                if (parts != null) {
+                    parts.remove(part);
+                    if (parts.isEmpty()) {
+                        m_cells.remove(key);
+                    }
+                }
+            }
+        }
+        insert(part, part.getFigure());
+    }
+
+    private void insert(final GraphicalEditPart part, final IFigure figure) {
+        final Rectangle r = figure.getBounds().getCopy();
+        figure.translateToAbsolute(r);
+        m_rootPart.getFigure().translateToRelative(r);
+        r.expand(PADDING, PADDING);
+        m_bounds.put(part, r);
+        for (int x = cell(r.x); x <= cell(r.x + r.width); x++) {
+            for (int y = cell(r.y); y <= cell(r.y + r.height); y++) {
+                m_cells.computeIfAbsent(key(x, y), k -> new ArrayList<GraphicalEditPart>(4)).add(part);
+            }
+        }
+    }
+
+    private static int cell(final int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static Long key(final int cellX, final int cellY) {
+        return Long.valueOf(((long)cellX << 32) | (cellY & 0xFFFFFFFFL));
+    }
+}
@@ -47,10 +47,7 @@
  */
 package org.knime.workbench.editor2.editparts;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -65,6 +62,7 @@
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.ViewUtils;
 import org.knime.core.node.workflow.AnnotationData;
+import org.knime.workbench.core.util.SharedResourceManager;
 import org.knime.workbench.ui.KNIMEUIPlugin;
 import org.knime.workbench.ui.preferences.PreferenceConstants;
 
@@ -72,6 +70,10 @@
  * Used by the workflow editor, annotations, annotation editor and figure to create or reuse a font according to user
  * set name and attributes or reusing a default font. This class scales the font according to the system zoom level
  * (for high dpi displays) - that is, it downscales (!) the size by the corresponding factor!
+ * <p>
+ * The fonts are reference counted and accounted for by the {@link SharedResourceManager}, which keeps released fonts
+ * for reuse until the resource budget is exceeded. The store may be used from any thread.
+ * </p>
  *
  * @author ohl, KNIME AG, Zurich, Switzerland
  */
@@ -79,9 +81,6 @@ public class FontStore {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(FontStore.class);
 
-    private final Map<StoreKey, StoreValue> m_fontMap =
-            new HashMap<StoreKey, StoreValue>();
-
     private final String m_defFontName;
 
     private final int m_defFontStyle;
@@ -189,15 +188,8 @@ public Font getFont(final String name, final int size, final int style) {
             }
         }
         StoreKey key = new StoreKey(name, pt, style);
-        StoreValue value = m_fontMap.get(key);
-        if (value != null) {
-            value.incrUseCount();
-        } else {
-            value = new StoreValue(name, pt, style);
-            m_fontMap.put(key, value);
-        }
-        return value.getFont();
-
+        return SharedResourceManager.getInstance().acquire(SharedResourceManager.Category.FONT, key,
+            () -> new Font(null, key.m_name, key.m_height, style));
     }
 
     /** Get font according to KNIME style range. If font name and/or font
@@ -391,22 +383,12 @@ public Font getSystemDefFontNodeAnnotations() {
 
     /**
      * @param font releases one reference count of the specified font. If the
-     *            reference count is at zero, the font is disposed.
+     *            reference count is at zero, the font may be disposed (once
+     *            the resource budget is exceeded).
      * @return the reference count after this release
      */
     public int releaseFont(final Font font) {
-        StoreKey key = new StoreKey(font);
-        StoreValue val = m_fontMap.get(key);
-        if (val == null) {
-            // strange
-            return 0;
-        }
-        int usage = val.decrUseCount();
-        if (usage == 0) {
-            m_fontMap.remove(key);
-            val.getFont().dispose();
-        }
-        return usage;
+        return SharedResourceManager.getInstance().release(font);
     }
 
     private final class StoreKey {
@@ -416,13 +398,6 @@ private final class StoreKey {
 
         private final int m_style;
 
-        private StoreKey(final Font font) {
-            FontData fd = font.getFontData()[0];
-            m_name = fd.getName();
-            m_height = fd.getHeight();
-            m_style = fd.getStyle();
-        }
-
         private StoreKey(final String name, final int height, final int style) {
             if (name != null && !name.isEmpty()) {
                 m_name = name;
@@ -442,7 +417,8 @@ private StoreKey(final String name, final int height, final int style) {
          */
         @Override
         public int hashCode() {
-            return m_name.hashCode() ^ m_height ^ m_style;
+            // names are compared case insensitive
+            return m_name.toLowerCase().hashCode() ^ m_height ^ m_style;
         }
 
         /**
@@ -459,52 +435,6 @@ public boolean equals(final Object obj) {
         }
     }
 
-    private final class StoreValue {
-        private final Font m_font;
-
-        private AtomicInteger m_useCount = new AtomicInteger();
-
-        /**
-         * Initializes the usage count with one (meaning the font is tagged
-         * being used once - no need to increment usage after creation).
-         *
-         * @param value
-         */
-        private StoreValue(final String name, final int height, final int style) {
-            String fName = name;
-            if (fName == null || fName.isEmpty()) {
-                fName = m_defFontName;
-            }
-            int fHeight = height;
-            if (fHeight <= 0) {
-                fHeight = getFontSizeFromKNIMEPrefPage();
-            }
-
-            m_font = new Font(null, fName, fHeight, style);
-            m_useCount.set(1);
-        }
-
-        private StoreValue(final Font value) {
-            m_font = value;
-            m_useCount.set(1);
-        }
-
-        private Font getFont() {
-            return m_font;
-        }
-
-        /**
-         * @return the new (incremented) usage count
-         */
-        private int incrUseCount() {
-            return m_useCount.incrementAndGet();
-        }
-
-        private int decrUseCount() {
-            return m_useCount.decrementAndGet();
-        }
-    }
-
     /**
      * Returns the font size value entered by the user in the pref page. Fonts usually size with the system zoom
      * factor (high dpi display). Depending on where you use this, you may need to scale the returned value.</br>
@@ -47,10 +47,6 @@
  */
 package org.knime.workbench.editor2.editparts;
 
-import static org.knime.workbench.editor2.figures.NodeContainerFigure.scaleImageTo;
-
-import java.io.IOException;
-import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -66,7 +62,6 @@
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -99,20 +94,17 @@
 import org.eclipse.jface.dialogs.MessageDialogWithToggle;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.preference.IPreferenceStore;
-import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.jface.window.Window;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Image;
-import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.MessageBox;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.views.properties.IPropertySource;
-import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeFactory.NodeType;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NotConfigurableException;
@@ -209,32 +201,15 @@ public Thread newThread(final Runnable r) {
         ImageRepository.getImage(KNIMEEditorPlugin.PLUGIN_ID, "icons/meta/metanode_lock_decorator.png"); //$NON-NLS-1$
 
     /**
-     * Given the node container, return the icon displayed in the workflow canvas node.
+     * Given the node container, return the icon displayed in the workflow canvas node. The icon is shared with all
+     * nodes having the same icon; it must not be disposed but released with {@link NodeIconCache#release(Image)} once
+     * it isn't used anymore.
+     *
      * @param nodeContainer
      * @return the icon displayed in the workflow canvas node
      */
     public static Image getIconImageForNodeContainer(final NodeContainerUI nodeContainer) {
-        Image icon = null;
-
-        try (InputStream iconStream = nodeContainer.getIconAsStream()) {
-            if (iconStream != null) {
-                final ImageData imageData = new ImageData(iconStream);
-                icon = new Image(Display.getDefault(), scaleImageTo(16, imageData));
-                // TODO this is a source of a potential SWT handle leak (this is not new code though) - Nov.2019
-            }
-        } catch (IOException e) {
-            //should never happen
-            LOGGER.error(Messages.NodeContainerEditPart_0, e);
-        }
-
-        if (icon == null) {
-            icon = ImageRepository.getUnscaledIconImage(nodeContainer.getIcon());
-        }
-        if (icon == null) { // get default image if null
-            icon = ImageRepository.getUnscaledIconImage(NodeFactory.getDefaultIcon());
-        }
-
-        return icon;
+        return NodeIconCache.getInstance().acquire(nodeContainer);
     }
 
 
@@ -247,6 +222,12 @@ public static Image getIconImageForNodeContainer(final NodeContainerUI nodeConta
 
     private WorkflowEditorMode m_currentEditorMode = WorkflowEditor.INITIAL_EDITOR_MODE;
 
+    /** The icon acquired from the {@link NodeIconCache}, released when it changes or the part is deactivated. */
+    private Image m_icon;
+
+    /** The editor's dispatcher for model notifications, set while the part is active. */
+    private volatile WorkflowUpdateDispatcher m_updateDispatcher;
+
     /**
      * @return The <code>NodeContainer</code>(= model)
      */
@@ -309,6 +290,9 @@ public void activate() {
         IPreferenceStore store = KNIMEUIPlugin.getDefault().getPreferenceStore();
         store.addPropertyChangeListener(this);
 
+        m_updateDispatcher = ((WorkflowRootEditPart)getParent()).getUpdateDispatcher();
+        m_updateDispatcher.register(this);
+
         // listen to node container (= model object)
         cont.addNodeStateChangeListener(this);
         cont.addNodeMessageListener(this);
@@ -343,6 +327,10 @@ public void deactivate() {
         nc.removeNodeProgressListener(this);
         nc.removeUIInformationListener(this);
         nc.removeNodePropertyChangedListener(this);
+        WorkflowUpdateDispatcher dispatcher = m_updateDispatcher;
+        if (dispatcher != null) {
+            dispatcher.unregister(this);
+        }
 
         removeEditPartListener(this);
 
@@ -357,6 +345,8 @@ public void deactivate() {
         }
 
         ((NodeContainerFigure)figure).figureIsBeingDisposed();
+        NodeIconCache.getInstance().release(m_icon);
+        m_icon = null;
 
         super.deactivate();
     }
@@ -439,45 +429,12 @@ protected List<NodePortUI> getModelChildren() {
         return ports;
     }
 
-    private final AtomicBoolean m_updateInProgress = new AtomicBoolean(false);
-
     /** {@inheritDoc} */
     @Override
     public void stateChanged(final NodeStateEvent state) {
-        // if another state is waiting to be processed, simply return
-        // and leave the work to the previously started thread. This
+        // several state changes until the next update are applied only once. This
         // works because we are retrieving the current state information!
-        if (m_updateInProgress.compareAndSet(false, true)) {
-            Display display = Display.getDefault();
-            if (display.isDisposed()) {
-                return;
-            }
-            display.asyncExec(new Runnable() {
-                @Override
-                public void run() {
-                    // let others know we are in the middle of processing
-                    // this update - they will now need to start their own job.
-                    NodeContainerFigure fig = (NodeContainerFigure)getFigure();
-                    m_updateInProgress.set(false);
-                    if (isActive()) {
-                        NodeContainerUI nc = getNodeContainer();
-                        fig.setStateFromNC(nc);
-                        updateNodeMessage();
-                        // reset the tooltip text of the outports
-                        for (Object part : getChildren()) {
-                            if (part instanceof NodeOutPortEditPart || part instanceof WorkflowInPortEditPart
-                                || part instanceof MetaNodeOutPortEditPart) {
-                                AbstractPortEditPart outPortPart = (AbstractPortEditPart)part;
-                                outPortPart.rebuildTooltip();
-                            }
-                        }
-                        // always refresh visuals (does not seem to do anything
-                        // by default though: call repaints on updated figures).
-                        refreshVisuals();
-                    }
-                }
-            });
-        }
+        postUpdate(WorkflowUpdateDispatcher.NODE_STATE);
     }
 
     /** {@inheritDoc} */
@@ -487,34 +444,11 @@ public void progressChanged(final NodeProgressEvent pe) {
         ((NodeContainerFigure)getFigure()).getProgressFigure().progressChanged(pe.getNodeProgress());
     }
 
-    private final AtomicBoolean m_messageUpdateInProgress = new AtomicBoolean();
-
     /** {@inheritDoc} */
     @Override
     public void messageChanged(final NodeMessageEvent ignored) {
-        if (m_messageUpdateInProgress.compareAndSet(false, true)) {
-            Display display = Display.getDefault();
-            if (display.isDisposed()) {
-                return;
-            }
-            display.asyncExec(new Runnable() {
-                @Override
-                public void run() {
-                    Display.getDefault().asyncExec(new Runnable() {
-                        @Override
-                        public void run() {
-                            m_messageUpdateInProgress.set(false);
-                            if (isActive()) {
-                                // must ignore event content - as this runnable
-                                // may be processing another (following) event
-                                updateNodeMessage();
-                                refreshVisuals();
-                            }
-                        }
-                    });
-                }
-            });
-        }
+        // must ignore event content - the update may be processing another (following) event
+        postUpdate(WorkflowUpdateDispatcher.NODE_MESSAGE);
     }
 
     /** {@inheritDoc} */
@@ -528,16 +462,44 @@ public void nodeUIInformationChanged(final NodeUIInformationEvent evt) {
         //
         // As this code updates the UI it must be executed in the UI thread.
         //
-        Display.getDefault().asyncExec(new Runnable() {
-            @Override
-            public void run() {
-                if (isActive()) {
+        postUpdate(WorkflowUpdateDispatcher.NODE_UI_INFO);
+    }
+
+    private void postUpdate(final int updates) {
+        WorkflowUpdateDispatcher dispatcher = m_updateDispatcher;
+        if (dispatcher != null) {
+            dispatcher.postNodeUpdate(getNodeContainer().getID(), updates);
+        }
+    }
 
-                    NodeUIInformation uiInfo = getNodeContainer().getUIInformation();
-                    updateFigureFromUIinfo(uiInfo);
+    /**
+     * Applies the model changes collected by the {@link WorkflowUpdateDispatcher}, called in the display thread.
+     *
+     * @param updates the kind of updates, a combination of the WorkflowUpdateDispatcher.NODE_* constants
+     */
+    void applyNodeUpdates(final int updates) {
+        NodeContainerUI nc = getNodeContainer();
+        if ((updates & WorkflowUpdateDispatcher.NODE_STATE) != 0) {
+            NodeContainerFigure fig = (NodeContainerFigure)getFigure();
+            fig.setStateFromNC(nc);
+            // reset the tooltip text of the outports
+            for (Object part : getChildren()) {
+                if (part instanceof NodeOutPortEditPart || part instanceof WorkflowInPortEditPart
+                    || part instanceof MetaNodeOutPortEditPart) {
+                    AbstractPortEditPart outPortPart = (AbstractPortEditPart)part;
+                    outPortPart.rebuildTooltip();
                 }
             }
-        });
+        }
+        if ((updates & WorkflowUpdateDispatcher.NODE_UI_INFO) != 0) {
+            // also updates the node message and refreshes the visuals
+            updateFigureFromUIinfo(nc.getUIInformation());
+            return;
+        }
+        updateNodeMessage();
+        // always refresh visuals (does not seem to do anything
+        // by default though: call repaints on updated figures).
+        refreshVisuals();
     }
 
     private void updateFigureFromUIinfo(final NodeUIInformation uiInfo) {
@@ -677,9 +639,12 @@ private void initFigure() {
 
     private void updateIcon() {
         final Image icon = getIconImageForNodeContainer(getNodeContainer());
-        if (icon != null) {
+        if ((icon != null) && (icon != m_icon)) {
             ((NodeContainerFigure)getFigure()).setIcon(icon);
         }
+        // release the previous icon after the figure has switched (usually it's the same shared image)
+        NodeIconCache.getInstance().release(m_icon);
+        m_icon = icon;
     }
 
     private void updateDisplayType() {
@@ -1086,7 +1051,7 @@ private void updateJobManagerIcon() {
         }
         Image icon = null;
         if (iconURL != null) {
-            icon = ImageDescriptor.createFromURL(iconURL).createImage();
+            icon = ImageRepository.acquireImage(iconURL);
         }
         ((NodeContainerFigure)getFigure()).setJobExecutorIcon(icon);
     }
@@ -0,0 +1,172 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.editor2.editparts;
+
+import static org.knime.workbench.editor2.figures.NodeContainerFigure.scaleImageTo;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.widgets.Display;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.ui.node.workflow.NodeContainerUI;
+import org.knime.workbench.core.util.ImageRepository;
+import org.knime.workbench.core.util.SharedResourceManager;
+
+/**
+ * Shares the (scaled) node icons shown on the workflow canvas between all nodes with the same icon. Icons are keyed
+ * by the content of the icon file, so that e.g. 1,500 nodes of 40 distinct types use 40 images. The images are
+ * reference counted by the {@link SharedResourceManager}: each {@link #acquire(NodeContainerUI)} must be paired with a
+ * {@link #release(Image)}, unreferenced images are disposed once the resource budget is exceeded.
+ *
+ * <p>
+ * Icons that can only be loaded from the node's icon URL are acquired from the {@link ImageRepository} and released
+ * the same way.
+ * </p>
+ *
+ * @since 4.2
+ */
+public final class NodeIconCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeIconCache.class);
+
+    /** Size of the icons on the canvas, in pixels. */
+    private static final int ICON_SIZE = 16;
+
+    private static final NodeIconCache INSTANCE = new NodeIconCache();
+
+    /** Key wrapping the raw bytes of an icon file, compared by content. */
+    private static final class IconKey {
+        private final byte[] m_bytes;
+
+        private final int m_hash;
+
+        IconKey(final byte[] bytes) {
+            m_bytes = bytes;
+            m_hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return m_hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return (obj instanceof IconKey) && (((IconKey)obj).m_hash == m_hash)
+                && Arrays.equals(((IconKey)obj).m_bytes, m_bytes);
+        }
+    }
+
+    private NodeIconCache() {
+    }
+
+    /**
+     * @return the cache shared by all workflow editors
+     */
+    public static NodeIconCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the canvas icon of the given node and increases its reference count.
+     *
+     * @param nodeContainer the node
+     * @return the icon, <code>null</code> only if neither the node's icon nor the default icon are available
+     */
+    public Image acquire(final NodeContainerUI nodeContainer) {
+        byte[] bytes = null;
+        try (InputStream iconStream = nodeContainer.getIconAsStream()) {
+            if (iconStream != null) {
+                bytes = IOUtils.toByteArray(iconStream);
+            }
+        } catch (IOException e) {
+            //should never happen
+            LOGGER.error(Messages.NodeContainerEditPart_0, e);
+        }
+        if (bytes != null) {
+            Image image = acquireImage(bytes);
+            if (image != null) {
+                return image;
+            }
+        }
+
+        Image icon = ImageRepository.acquireUnscaledIconImage(nodeContainer.getIcon());
+        if (icon == null) { // get default image if null
+            icon = ImageRepository.acquireUnscaledIconImage(NodeFactory.getDefaultIcon());
+        }
+        return icon;
+    }
+
+    private static Image acquireImage(final byte[] bytes) {
+        return SharedResourceManager.getInstance().acquire(SharedResourceManager.Category.ICON, new IconKey(bytes),
+            () -> {
+                ImageData imageData;
+                try {
+                    imageData = new ImageData(new ByteArrayInputStream(bytes));
+                } catch (RuntimeException e) {
+                    // SWTException for unsupported or corrupt image data
+                    LOGGER.debug("Could not read node icon: " + e.getMessage(), e);
+                    return null;
+                }
+                return new Image(Display.getDefault(), scaleImageTo(ICON_SIZE, imageData));
+            });
+    }
+
+    /**
+     * Releases an icon returned by {@link #acquire(NodeContainerUI)}.
+     *
+     * @param image the icon, may be <code>null</code>
+     */
+    public void release(final Image image) {
+        SharedResourceManager.getInstance().release(image);
+    }
+}
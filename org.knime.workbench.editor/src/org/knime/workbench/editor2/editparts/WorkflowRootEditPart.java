@@ -53,7 +53,6 @@
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.draw2d.ConnectionLayer;
 import org.eclipse.draw2d.LayoutManager;
@@ -129,6 +128,11 @@ public class WorkflowRootEditPart extends AbstractWorkflowEditPart implements
 
     private ProgressToolTipHelper m_toolTipHelper;
 
+    private final WorkflowUpdateDispatcher m_updateDispatcher =
+        new WorkflowUpdateDispatcher(this, Display.getDefault());
+
+    private final EditPartSpatialIndex m_spatialIndex = new EditPartSpatialIndex(this);
+
     private WorkflowPortBar m_inBar;
 
     private WorkflowPortBar m_outBar;
@@ -308,6 +312,9 @@ public void activate() {
         // register as listener on model object
         getWorkflowManager().addListener(this);
 
+        // the connection animation pauses while the editor is hidden
+        getFigure().getConnectionAnimationClock().setControl(getViewer().getControl());
+
         // add as listener on the command stack
         getViewer().getEditDomain().getCommandStack()
                 .addCommandStackListener(this);
@@ -332,6 +339,9 @@ public void deactivate() {
         while (editPolicyIterator.hasNext()) {
             editPolicyIterator.next().deactivate();
         }
+        getFigure().disposeProgressRepaintTicker();
+        m_updateDispatcher.dispose();
+        m_spatialIndex.dispose();
         super.deactivate();
     }
 
@@ -395,8 +405,6 @@ protected void createEditPolicies() {
 //        installEditPolicy(EditPolicy.SELECTION_FEEDBACK_ROLE, new WorkflowSelectionFeedbackPolicy());
     }
 
-    private final AtomicBoolean m_workflowChangedOngoingBoolean = new AtomicBoolean();
-
     /**
      * Controller is getting notified about model changes. This invokes
      * <code>refreshChildren</code> keep in sync with the model.
@@ -405,61 +413,67 @@ protected void createEditPolicies() {
      */
     @Override
     public void workflowChanged(final WorkflowEvent event) {
+        m_spatialIndex.invalidate();
+        m_updateDispatcher.postWorkflowUpdate(WorkflowUpdateDispatcher.WORKFLOW_STRUCTURE);
+    }
 
-        if (m_workflowChangedOngoingBoolean.compareAndSet(false, true)) {
-            Display.getDefault().asyncExec(new Runnable() {
-                @Override
-                public void run() {
-                    m_workflowChangedOngoingBoolean.set(false);
-
-                    // refreshing the children
-                    refreshChildren();
+    /**
+     * Called by the workflow manager after workflow annotations change.
+     * {@inheritDoc}
+     */
+    @Override
+    public void nodeUIInformationChanged(final NodeUIInformationEvent evt) {
+        m_spatialIndex.invalidate();
+        m_updateDispatcher.postWorkflowUpdate(WorkflowUpdateDispatcher.WORKFLOW_ANNOTATIONS);
+    }
 
-                    // refresing connections
-                    refreshSourceConnections();
-                    refreshTargetConnections();
+    /**
+     * Applies the model changes collected by the {@link WorkflowUpdateDispatcher}, called in the display thread.
+     *
+     * @param updates the kind of updates, a combination of the WorkflowUpdateDispatcher.WORKFLOW_* constants
+     */
+    void applyWorkflowUpdates(final int updates) {
+        // refreshing the children (annotations are children of the workflow, too)
+        refreshChildren();
+        m_spatialIndex.invalidate();
 
-                    // update out port (workflow in port) tooltips
+        if ((updates & WorkflowUpdateDispatcher.WORKFLOW_STRUCTURE) != 0) {
+            // refresing connections
+            refreshSourceConnections();
+            refreshTargetConnections();
 
-                    for (Object part : getChildren()) {
+            // update out port (workflow in port) tooltips
 
-                        if (part instanceof NodeOutPortEditPart
-                                || part instanceof WorkflowInPortEditPart) {
-                            AbstractPortEditPart outPortPart =
-                                    (AbstractPortEditPart)part;
-                            outPortPart.rebuildTooltip();
-                        }
-                    }
+            for (Object part : getChildren()) {
 
-                    // always refresh visuals
-                    getFigure().revalidate();
-                    refreshVisuals();
+                if (part instanceof NodeOutPortEditPart
+                        || part instanceof WorkflowInPortEditPart) {
+                    AbstractPortEditPart outPortPart =
+                            (AbstractPortEditPart)part;
+                    outPortPart.rebuildTooltip();
                 }
-            });
+            }
         }
+
+        // always refresh visuals
+        getFigure().revalidate();
+        refreshVisuals();
     }
 
-    private final AtomicBoolean m_nodeUIChangedOngoingBoolean = new AtomicBoolean();
+    /**
+     * @return the dispatcher applying the model notifications of this workflow to its edit parts
+     * @since 4.2
+     */
+    public WorkflowUpdateDispatcher getUpdateDispatcher() {
+        return m_updateDispatcher;
+    }
 
     /**
-     * Called by the workflow manager after workflow annotations change.
-     * {@inheritDoc}
+     * @return the index of the bounds of the nodes, annotations and connections of this workflow
+     * @since 4.2
      */
-    @Override
-    public void nodeUIInformationChanged(final NodeUIInformationEvent evt) {
-        if (m_nodeUIChangedOngoingBoolean.compareAndSet(false, true)) {
-            Display.getDefault().asyncExec(new Runnable() {
-                @Override
-                public void run() {
-                    m_nodeUIChangedOngoingBoolean.set(false);
-                    // annotations are children of the workflow
-                    refreshChildren();
-                    // always refresh visuals
-                    getFigure().revalidate();
-                    refreshVisuals();
-                }
-            });
-        }
+    public EditPartSpatialIndex getSpatialIndex() {
+        return m_spatialIndex;
     }
 
     /**
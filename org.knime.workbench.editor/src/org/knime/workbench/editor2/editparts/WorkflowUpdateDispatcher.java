@@ -0,0 +1,333 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.editor2.editparts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.swt.widgets.Display;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.NodeID;
+
+/**
+ * Collects the model notifications of one workflow editor (node state, node message and node UI information changes
+ * as well as workflow structure changes) and applies them to the edit parts in batched passes on the display thread.
+ * Notifications can be posted from any thread, they only mark the affected node (or the workflow) as dirty. Several
+ * notifications for the same node until the next pass are applied only once and a pass runs at most every
+ * {@value #FRAME_INTERVAL}ms, so that executing large workflows doesn't flood the display with runnables.
+ *
+ * <p>
+ * One instance is held by the {@link WorkflowRootEditPart} of an editor.
+ * </p>
+ *
+ * @since 4.2
+ */
+public final class WorkflowUpdateDispatcher {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(WorkflowUpdateDispatcher.class);
+
+    /** Minimum delay between two passes, in ms. */
+    static final int FRAME_INTERVAL = 40;
+
+    /** Update of the node's state (and everything derived from it). */
+    static final int NODE_STATE = 1;
+
+    /** Update of the node's message. */
+    static final int NODE_MESSAGE = 1 << 1;
+
+    /** Update of the node's bounds, description, etc. */
+    static final int NODE_UI_INFO = 1 << 2;
+
+    /** Nodes or connections have been added or removed. */
+    static final int WORKFLOW_STRUCTURE = 1;
+
+    /** Workflow annotations have changed. */
+    static final int WORKFLOW_ANNOTATIONS = 1 << 1;
+
+    private final WorkflowRootEditPart m_rootPart;
+
+    private final Display m_display;
+
+    /** Pending updates of the nodes, the values are bit masks of the NODE_* constants. */
+    private final Map<NodeID, Integer> m_dirtyNodes = new ConcurrentHashMap<NodeID, Integer>();
+
+    /** Pending updates of the workflow, a bit mask of the WORKFLOW_* constants. */
+    private final AtomicInteger m_dirtyWorkflow = new AtomicInteger();
+
+    /** The active node edit parts by the ID of their node. */
+    private final Map<NodeID, NodeContainerEditPart> m_nodeParts = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean m_passScheduled = new AtomicBoolean();
+
+    private final Runnable m_pass = this::runPass;
+
+    private final Runnable m_schedulePass = this::schedulePassInDisplayThread;
+
+    private long m_lastPassTimestamp;
+
+    private volatile boolean m_disposed;
+
+    // metrics
+    private final AtomicInteger m_maxQueueDepth = new AtomicInteger();
+
+    private final AtomicLong m_postedCount = new AtomicLong();
+
+    private volatile long m_passCount;
+
+    private volatile long m_appliedCount;
+
+    private volatile long m_lastPassNanos;
+
+    private volatile long m_maxPassNanos;
+
+    private volatile long m_totalPassNanos;
+
+    /**
+     * @param rootPart the root edit part of the editor
+     * @param display the display the editor is shown on
+     */
+    WorkflowUpdateDispatcher(final WorkflowRootEditPart rootPart, final Display display) {
+        m_rootPart = rootPart;
+        m_display = display;
+    }
+
+    /**
+     * Registers an active node edit part, pending updates of its node are applied to it from now on.
+     *
+     * @param part the activated part
+     */
+    void register(final NodeContainerEditPart part) {
+        m_nodeParts.put(part.getNodeContainer().getID(), part);
+    }
+
+    /**
+     * Unregisters a node edit part when it is deactivated.
+     *
+     * @param part the deactivated part
+     */
+    void unregister(final NodeContainerEditPart part) {
+        m_nodeParts.remove(part.getNodeContainer().getID(), part);
+    }
+
+    /**
+     * Marks a node as dirty. Can be called from any thread and does not block.
+     *
+     * @param id the ID of the changed node
+     * @param updates the kind of updates, a combination of the NODE_* constants
+     */
+    void postNodeUpdate(final NodeID id, final int updates) {
+        if (m_disposed) {
+            return;
+        }
+        m_dirtyNodes.merge(id, updates, (a, b) -> a | b);
+        m_postedCount.incrementAndGet();
+        int depth = m_dirtyNodes.size();
+        m_maxQueueDepth.accumulateAndGet(depth, Math::max);
+        schedulePass();
+    }
+
+    /**
+     * Marks the workflow as dirty. Can be called from any thread and does not block.
+     *
+     * @param updates the kind of updates, a combination of the WORKFLOW_* constants
+     */
+    void postWorkflowUpdate(final int updates) {
+        if (m_disposed) {
+            return;
+        }
+        m_dirtyWorkflow.getAndUpdate(u -> u | updates);
+        m_postedCount.incrementAndGet();
+        schedulePass();
+    }
+
+    /**
+     * Drops all pending updates and ignores further ones, called when the editor is closed.
+     */
+    void dispose() {
+        m_disposed = true;
+        LOGGER.debug("Workflow editor update statistics: " + this); //$NON-NLS-1$
+        m_dirtyNodes.clear();
+        m_nodeParts.clear();
+    }
+
+    private void schedulePass() {
+        if (m_display.isDisposed() || m_passScheduled.getAndSet(true)) {
+            return;
+        }
+        if (Display.getCurrent() == m_display) {
+            schedulePassInDisplayThread();
+        } else {
+            m_display.asyncExec(m_schedulePass);
+        }
+    }
+
+    private void schedulePassInDisplayThread() {
+        // an isolated update is applied as soon as possible, frequent updates at most once per frame; never run the
+        // pass right here, the notification may come from the model while it holds the workflow lock
+        long delay = m_lastPassTimestamp + FRAME_INTERVAL - System.currentTimeMillis();
+        if (delay <= 0) {
+            m_display.asyncExec(m_pass);
+        } else {
+            m_display.timerExec((int)delay, m_pass);
+        }
+    }
+
+    private void runPass() {
+        // updates posted from now on need another pass
+        m_passScheduled.set(false);
+        if (m_disposed) {
+            return;
+        }
+        final long start = System.nanoTime();
+
+        int applied = 0;
+        // structural changes first, they create the edit parts of new nodes
+        int workflowUpdates = m_dirtyWorkflow.getAndSet(0);
+        if (workflowUpdates != 0) {
+            m_rootPart.applyWorkflowUpdates(workflowUpdates);
+            applied++;
+        }
+
+        List<NodeID> dirtyIDs = new ArrayList<NodeID>(m_dirtyNodes.keySet());
+        for (NodeID id : dirtyIDs) {
+            Integer nodeUpdates = m_dirtyNodes.remove(id);
+            NodeContainerEditPart part = m_nodeParts.get(id);
+            if ((nodeUpdates == null) || (part == null) || !part.isActive()) {
+                continue;
+            }
+            try {
+                part.applyNodeUpdates(nodeUpdates);
+            } catch (RuntimeException e) {
+                // one broken node must not prevent the others from being updated
+                LOGGER.error("Unable to update the figure of node " + id + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            applied++;
+        }
+
+        long duration = System.nanoTime() - start;
+        m_lastPassTimestamp = System.currentTimeMillis();
+        m_passCount++;
+        m_appliedCount += applied;
+        m_lastPassNanos = duration;
+        m_totalPassNanos += duration;
+        if (duration > m_maxPassNanos) {
+            m_maxPassNanos = duration;
+        }
+    }
+
+    /**
+     * @return the number of nodes with pending updates
+     */
+    public int getQueueDepth() {
+        return m_dirtyNodes.size();
+    }
+
+    /**
+     * @return the largest number of nodes with pending updates seen so far
+     */
+    public int getMaxQueueDepth() {
+        return m_maxQueueDepth.get();
+    }
+
+    /**
+     * @return the number of notifications posted so far
+     */
+    public long getPostedUpdateCount() {
+        return m_postedCount.get();
+    }
+
+    /**
+     * @return the number of updates applied so far, i.e. notifications minus those coalesced
+     */
+    public long getAppliedUpdateCount() {
+        return m_appliedCount;
+    }
+
+    /**
+     * @return the number of passes run so far
+     */
+    public long getPassCount() {
+        return m_passCount;
+    }
+
+    /**
+     * @return the time the last pass took, in ms
+     */
+    public double getLastPassTime() {
+        return m_lastPassNanos / (double)TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the time the slowest pass took, in ms
+     */
+    public double getMaxPassTime() {
+        return m_maxPassNanos / (double)TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the average time a pass took, in ms
+     */
+    public double getAveragePassTime() {
+        long passes = m_passCount;
+        return passes == 0 ? 0 : m_totalPassNanos / (double)TimeUnit.MILLISECONDS.toNanos(1) / passes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("queue depth: %d (max %d), updates: %d posted, %d applied in %d passes, " //$NON-NLS-1$
+            + "pass time: %.2fms last, %.2fms avg, %.2fms max", getQueueDepth(), getMaxQueueDepth(), //$NON-NLS-1$
+            getPostedUpdateCount(), getAppliedUpdateCount(), getPassCount(), getLastPassTime(), getAveragePassTime(),
+            getMaxPassTime());
+    }
+}
@@ -48,10 +48,12 @@
 package org.knime.workbench.editor2.editparts.snap;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.draw2d.Connection;
 import org.eclipse.draw2d.IFigure;
@@ -203,6 +205,123 @@ public String toString() {
         }
     }
 
+    /**
+     * The offsets of row entries of one port type and direction, sorted ascending. Each distinct offset is stored once
+     * together with the smallest index of an entry with that offset, so that ties are resolved as by a linear scan over
+     * the entries.
+     */
+    private static final class SortedRows {
+        private final PortType m_portType;
+
+        private final boolean m_inport;
+
+        private int[] m_offsets = new int[8];
+
+        private int[] m_indices = new int[8];
+
+        private int m_size;
+
+        SortedRows(final PortType portType, final boolean inport) {
+            m_portType = portType;
+            m_inport = inport;
+        }
+
+        private void add(final int offset, final int index) {
+            if (m_size == m_offsets.length) {
+                m_offsets = Arrays.copyOf(m_offsets, 2 * m_size);
+                m_indices = Arrays.copyOf(m_indices, 2 * m_size);
+            }
+            m_offsets[m_size] = offset;
+            m_indices[m_size] = index;
+            m_size++;
+        }
+
+        /* Sorts by offset and collapses equal offsets, keeping the smallest index (entries are added in order). */
+        private void sort() {
+            long[] packed = new long[m_size];
+            for (int i = 0; i < m_size; i++) {
+                packed[i] = ((long)m_offsets[i] << 32) | m_indices[i];
+            }
+            Arrays.sort(packed);
+            int n = 0;
+            for (int i = 0; i < packed.length; i++) {
+                int offset = (int)(packed[i] >> 32);
+                if (n == 0 || m_offsets[n - 1] != offset) {
+                    m_offsets[n] = offset;
+                    m_indices[n] = (int)packed[i];
+                    n++;
+                }
+            }
+            m_size = n;
+        }
+    }
+
+    /**
+     * The row entries grouped by port type and direction, built once per drag
+     * so that a drag step only needs binary searches.
+     */
+    private static final class RowIndex {
+        private final List<SortedRows> m_groups = new ArrayList<SortedRows>();
+
+        RowIndex(final Entry[] entries) {
+            for (int i = 0; i < entries.length; i++) {
+                getGroup(entries[i].m_portType, entries[i].m_inport, true).add(entries[i].m_offset, i);
+            }
+            for (SortedRows group : m_groups) {
+                group.sort();
+            }
+        }
+
+        /* there are only few port types, therefore a linear search (by equals, as before) suffices */
+        private SortedRows getGroup(final PortType portType, final boolean inport, final boolean create) {
+            for (SortedRows group : m_groups) {
+                if (group.m_inport == inport && portType.equals(group.m_portType)) {
+                    return group;
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            SortedRows group = new SortedRows(portType, inport);
+            m_groups.add(group);
+            return group;
+        }
+
+        /**
+         * Same result as comparing all entries with all ys: the smallest distance of an entry of opposite direction
+         * and the same port type; on ties the first entry (and the first y) wins.
+         */
+        double getCorrection(final Entry[] ys, final int moveDelta) {
+            double result = Double.MAX_VALUE;
+            int resultIndex = Integer.MAX_VALUE;
+            for (Entry y : ys) {
+                SortedRows rows = getGroup(y.m_portType, !y.m_inport, false);
+                if (rows == null || rows.m_size == 0) {
+                    continue;
+                }
+                int target = y.m_offset + moveDelta;
+                int pos = Arrays.binarySearch(rows.m_offsets, 0, rows.m_size, target);
+                if (pos < 0) {
+                    pos = -pos - 1;
+                }
+                // the nearest offsets are at pos (>= target) and pos - 1 (< target)
+                for (int i = pos - 1; i <= pos; i++) {
+                    if (i < 0 || i >= rows.m_size) {
+                        continue;
+                    }
+                    double diff = rows.m_offsets[i] - target;
+                    int index = rows.m_indices[i];
+                    if (Math.abs(diff) < Math.abs(result)
+                            || (Math.abs(diff) == Math.abs(result) && index < resultIndex)) {
+                        result = diff;
+                        resultIndex = index;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
     /**
      * The sensitivity of the snapping. Corrections greater than this value will
      * not occur.
@@ -216,6 +335,11 @@ public String toString() {
      */
     private Entry[] m_rows;
 
+    /**
+     * The rows sorted by port type and direction.
+     */
+    private RowIndex m_rowIndex;
+
     /**
      * The vertical columnd being snapped to.
      */
@@ -260,18 +384,14 @@ public SnapToPortGeometry(final GraphicalEditPart container) {
      */
     protected List generateSnapPartsList(final List exclusions) {
         // Don't snap to any figure that is being dragged
-        List<Object> children = new ArrayList<Object>(m_container.getChildren());
-        children.removeAll(exclusions);
-
-        // Don't snap to hidden figures
-        List hiddenChildren = new ArrayList();
-        for (Iterator iter = children.iterator(); iter.hasNext();) {
-            GraphicalEditPart child = (GraphicalEditPart)iter.next();
-            if (!child.getFigure().isVisible()) {
-                hiddenChildren.add(child);
+        Set<Object> excluded = new HashSet<Object>(exclusions);
+        List<Object> children = new ArrayList<Object>();
+        for (Object o : m_container.getChildren()) {
+            // Don't snap to hidden figures
+            if (!excluded.contains(o) && ((GraphicalEditPart)o).getFigure().isVisible()) {
+                children.add(o);
             }
         }
-        children.removeAll(hiddenChildren);
 
         return children;
     }
@@ -322,29 +442,12 @@ protected double getCorrectionFor(final Entry[] entries,
     protected double getCorrectionForY(final Entry[] entries,
             final Map extendedData, final Entry[] ys, final int moveDelta) {
 
-        // get the smallest distance to the next y value
-        double result = Double.MAX_VALUE;
-        for (Entry entry : entries) {
-            for (Entry y : ys) {
-
-                // only compare inports to outports as only oposite parts
-                // can connect and must be alligned
-                if (!(entry.m_inport ^ y.m_inport)) {
-                    continue;
-                }
-
-                // and only ports of same type (data - data, model-model)
-                // are snaped
-                if (!entry.m_portType .equals(y.m_portType)) {
-                    continue;
-                }
-
-                double diff = entry.m_offset - (y.m_offset + moveDelta);
-                if (Math.abs(diff) < Math.abs(result)) {
-                    result = diff;
-                }
-            }
-        }
+        // get the smallest distance to the next y value; only inports are
+        // compared to outports as only oposite parts can connect and must be
+        // alligned, and only ports of same type (data - data, model-model)
+        // are snaped
+        RowIndex index = (entries == m_rows) ? m_rowIndex : new RowIndex(entries);
+        double result = index.getCorrection(ys, moveDelta);
 
         return Math.round(result);
     }
@@ -527,6 +630,7 @@ protected void populateRowsAndCols(final List parts, final List dragedParts) {
 
         m_rows = rowVector.toArray(new Entry[rowVector.size()]);
         m_cols = colVector.toArray(new Entry[colVector.size()]);
+        m_rowIndex = new RowIndex(m_rows);
     }
 
     /**
@@ -0,0 +1,223 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.editor2.figures;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Listener;
+
+/**
+ * Advances the flow animation of the {@link ProgressPolylineConnection}s of one workflow editor. Connections only
+ * record their latest progress event (from any thread) and queue themselves once; all queued connections are
+ * advanced in a single pass on the display thread every {@value #ANIMATION_INTERVAL}ms, and the areas of the
+ * advanced connections are repainted as one region.
+ *
+ * <p>
+ * While the editor's control is hidden (e.g. another editor is on top) or its shell is minimized, the clock pauses
+ * completely. Only the latest event of each connection is kept, and the pass resumes on the next paint of the
+ * control.
+ * </p>
+ *
+ * <p>
+ * One instance is held by the {@link WorkflowFigure} of an editor.
+ * </p>
+ *
+ * @since 4.2
+ */
+public final class ConnectionAnimationClock {
+
+    /** Minimum delay between two animation steps, in ms. */
+    static final int ANIMATION_INTERVAL = 250;
+
+    private final Display m_display;
+
+    /** Connections with a pending progress event; each connection is queued at most once. */
+    private final Queue<ProgressPolylineConnection> m_dirtyConnections =
+        new ConcurrentLinkedQueue<ProgressPolylineConnection>();
+
+    private final AtomicBoolean m_tickScheduled = new AtomicBoolean();
+
+    private final Runnable m_tick = this::tick;
+
+    private final Runnable m_scheduleTick = () -> {
+        if (!m_display.isDisposed()) {
+            m_display.timerExec(ANIMATION_INTERVAL, m_tick);
+        }
+    };
+
+    /** Resumes a paused clock as soon as the control is painted again. */
+    private final Listener m_resumeListener = e -> resume();
+
+    private Control m_control;
+
+    /** true if the last pass found the control hidden, accessed in the display thread only. */
+    private boolean m_paused;
+
+    private volatile boolean m_disposed;
+
+    ConnectionAnimationClock(final Display display) {
+        m_display = display;
+    }
+
+    /**
+     * Sets the control the connections are painted on. The clock pauses while it is not visible. Must be called in
+     * the display thread.
+     *
+     * @param control the control of the editor, may be <code>null</code>
+     */
+    public void setControl(final Control control) {
+        if (m_control != null && !m_control.isDisposed()) {
+            m_control.removeListener(SWT.Paint, m_resumeListener);
+        }
+        m_control = control;
+        if (control != null) {
+            control.addListener(SWT.Paint, m_resumeListener);
+        }
+    }
+
+    /**
+     * Queues a connection to be advanced with the next pass. Can be called from any thread and does not block.
+     *
+     * @param connection the connection with a pending progress event
+     */
+    void markDirty(final ProgressPolylineConnection connection) {
+        m_dirtyConnections.add(connection);
+        scheduleTick();
+    }
+
+    /**
+     * Stops the clock, called when the editor is closed. Subsequent calls to any method have no effect.
+     */
+    void dispose() {
+        m_disposed = true;
+        m_dirtyConnections.clear();
+        if (m_display.isDisposed()) {
+            return;
+        }
+        if (Display.getCurrent() == m_display) {
+            setControl(null);
+        } else {
+            m_display.asyncExec(() -> setControl(null));
+        }
+    }
+
+    private void scheduleTick() {
+        if (m_disposed || m_display.isDisposed() || m_tickScheduled.getAndSet(true)) {
+            return;
+        }
+        if (Display.getCurrent() == m_display) {
+            m_scheduleTick.run();
+        } else {
+            m_display.asyncExec(m_scheduleTick);
+        }
+    }
+
+    /** Called in the display thread on paint events of the control. */
+    private void resume() {
+        if (m_paused) {
+            m_paused = false;
+            m_tickScheduled.set(false);
+            if (!m_dirtyConnections.isEmpty()) {
+                scheduleTick();
+            }
+        }
+    }
+
+    private boolean isControlVisible() {
+        Control control = m_control;
+        if (control == null) {
+            // unknown, animate
+            return true;
+        }
+        return !control.isDisposed() && control.isVisible() && !control.getShell().getMinimized();
+    }
+
+    /** Called in the display thread. */
+    private void tick() {
+        if (m_disposed) {
+            return;
+        }
+        if (!isControlVisible()) {
+            // stay scheduled (i.e. ignore new events) until the next paint
+            m_paused = true;
+            return;
+        }
+        // events arriving from now on need another pass
+        m_tickScheduled.set(false);
+
+        // merge the areas to repaint per parent (i.e. connection layer)
+        Map<IFigure, Rectangle> damage = new IdentityHashMap<IFigure, Rectangle>();
+        ProgressPolylineConnection connection;
+        while ((connection = m_dirtyConnections.poll()) != null) {
+            IFigure parent = connection.getParent();
+            if (parent == null) {
+                // removed from the editor meanwhile
+                connection.applyPendingProgress();
+                continue;
+            }
+            if (connection.applyPendingProgress()) {
+                Rectangle r = damage.get(parent);
+                if (r == null) {
+                    damage.put(parent, connection.getBounds().getCopy());
+                } else {
+                    r.union(connection.getBounds());
+                }
+            }
+        }
+        for (Map.Entry<IFigure, Rectangle> e : damage.entrySet()) {
+            Rectangle r = e.getValue();
+            e.getKey().repaint(r.x, r.y, r.width, r.height);
+        }
+    }
+}
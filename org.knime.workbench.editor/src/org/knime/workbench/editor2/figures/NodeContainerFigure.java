@@ -315,8 +315,10 @@ public void setShowFlowVarPorts(final boolean showPorts) {
      */
     public void figureIsBeingDisposed() {
         // The other figures containing images contains class-static Image instances, so we are only concerned
-        //      with the SymbolFigure instance.
+        //      with the SymbolFigure instance and the shared job executor icon.
         m_symbolFigure.disposeGhostlyImage();
+        ImageRepository.releaseImage(m_jobExec);
+        m_jobExec = null;
     }
 
     /**
@@ -407,12 +409,12 @@ public void setType(final NodeType type, final boolean isComponent) {
     }
 
     /**
-     * @param jobExecIcon the icon associated with job execution
+     * @param jobExecIcon the icon associated with job execution, acquired with
+     *            {@link ImageRepository#acquireImage(java.net.URL)}; the figure releases it when it is replaced or the
+     *            figure is disposed
      */
     public void setJobExecutorIcon(final Image jobExecIcon) {
-        if (m_jobExec != null) {
-            m_jobExec.dispose();
-        }
+        ImageRepository.releaseImage(m_jobExec);
 
         m_jobExec = jobExecIcon;
         m_symbolFigure.refreshJobManagerIcon();
@@ -47,10 +47,7 @@
  */
 package org.knime.workbench.editor2.figures;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.draw2d.ColorConstants;
 import org.eclipse.draw2d.DelegatingLayout;
@@ -97,8 +94,6 @@ public class ProgressFigure extends RectangleFigure implements MouseMotionListen
 
     private static final Color PROGRESS_BAR_COLOR = ColorConstants.darkBlue;
 
-    private static final UnknownProgressTimer unknownProgressTimer;
-
     static {
         Display current = Display.getCurrent();
         Font systemFont = current.getSystemFont();
@@ -111,13 +106,28 @@ public class ProgressFigure extends RectangleFigure implements MouseMotionListen
         PROGRESS_FONT = new Font(current, name, height, SWT.NORMAL);
         QUEUED_FONT = new Font(current, name, 7, SWT.NORMAL);
         QUEUED_FONT_SMALL = new Font(current, name, 6, SWT.NORMAL);
-
-        // instantiate and start the unkown progress timer
-        unknownProgressTimer = new UnknownProgressTimer();
-        unknownProgressTimer.start();
     }
 
-    private boolean m_unknownProgress = false;
+    /*
+     * The progress state is packed into a single int so that node execution threads can update it without locking:
+     * the lowest byte holds the worked value + 1 (0 meaning no known progress), the flags above mark an unknown
+     * progress and updates still to be shown by the repaint ticker.
+     */
+    private static final int WORKED_MASK = 0xFF;
+
+    private static final int UNKNOWN_PROGRESS_FLAG = 1 << 8;
+
+    private static final int REPAINT_PENDING_FLAG = 1 << 9;
+
+    private static final int TOOLTIP_PENDING_FLAG = 1 << 10;
+
+    private static final int PENDING_FLAGS = REPAINT_PENDING_FLAG | TOOLTIP_PENDING_FLAG;
+
+    /** Initially a known progress with worked value 0. */
+    private final AtomicInteger m_state = new AtomicInteger(1);
+
+    /** The ticker of the editor this figure is shown in, set once the figure is added to a workflow figure. */
+    private volatile ProgressRepaintTicker m_repaintTicker;
 
     /** An object that remembers the state for "unknown progress" figures (cycling). It also wraps
      * a timestamp so that frequent repaints (e.g. due to an edit part being moved) don't let the progress
@@ -145,26 +155,16 @@ public static enum ProgressMode {
 
     private ProgressMode m_progressMode;
 
-    private int m_currentWorked;
+    private volatile String m_currentProgressMessage = "";
 
-    private String m_currentProgressMessage = "";
-
-    private String m_stateMessage;
+    private volatile String m_stateMessage;
 
     private Display m_currentDisplay = Display.getCurrent();
 
-    private MouseEvent m_mouseEvent;
+    private volatile MouseEvent m_mouseEvent;
 
     private ProgressToolTipHelper m_toolTipHelper;
 
-    private final Runnable m_repaintObject = new Runnable() {
-        @Override
-        public void run() {
-
-            repaint();
-        }
-    };
-
     /**
      * Creates a new node figure.
      */
@@ -229,6 +229,36 @@ private void drawSmoothRect(final Graphics graphics, final int x, final int y, f
         graphics.drawLine(x + w - 1, y + 1, x + w - 1, y + h - 2);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        ProgressRepaintTicker ticker = findRepaintTicker();
+        m_repaintTicker = ticker;
+        if (ticker == null) {
+            return;
+        }
+        int state = m_state.get();
+        if ((state & PENDING_FLAGS) != 0) {
+            // updates that arrived while the figure was not shown
+            ticker.markDirty(this);
+        }
+        if ((m_progressMode == ProgressMode.EXECUTING) && ((state & UNKNOWN_PROGRESS_FLAG) != 0)) {
+            ticker.addAnimatedFigure(this);
+        }
+    }
+
+    private ProgressRepaintTicker findRepaintTicker() {
+        for (IFigure f = getParent(); f != null; f = f.getParent()) {
+            if (f instanceof WorkflowFigure) {
+                return ((WorkflowFigure)f).getProgressRepaintTicker();
+            }
+        }
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -252,20 +282,22 @@ public void paintFigure(final Graphics graphics) {
         graphics.setForegroundColor(PROGRESS_BAR_COLOR);
         graphics.setBackgroundColor(PROGRESS_BAR_COLOR);
 
+        final int state = m_state.get();
+        final int currentWorked = getWorked(state);
         switch (m_progressMode) {
             case EXECUTING:
-                if (!m_unknownProgress) {
+                if ((state & UNKNOWN_PROGRESS_FLAG) == 0) {
 
                     // calculate the progress bar width from the percentage
                     // current worked value
-                    int barWidth = (int)Math.round((WIDTH - 2) / 100.0D * m_currentWorked);
+                    int barWidth = (int)Math.round((WIDTH - 2) / 100.0D * currentWorked);
 
                     graphics.fillRectangle(x + 1, y + 1, barWidth, h - 2);
 
                     graphics.setFont(PROGRESS_FONT);
 
                     // create the percentage string
-                    String progressString = m_currentWorked + "%";
+                    String progressString = currentWorked + "%";
 
                     graphics.setXORMode(true);
                     graphics.setForegroundColor(ColorConstants.white);
@@ -316,31 +348,48 @@ public void paintFigure(final Graphics graphics) {
      * Stops the rendering of an unknown progress.
      */
     public void stopUnknownProgress() {
-        m_unknownProgress = false;
-        unknownProgressTimer.removeFigure(this);
+        m_state.updateAndGet(s -> s & ~UNKNOWN_PROGRESS_FLAG);
+        removeFromAnimation();
     }
 
     /**
      * Activates this progress bar to render an unknown progress.
      */
     public void activateUnknownProgress() {
-        // check if there is still a progress to render
-        if (m_currentWorked >= 0) {
-            m_unknownProgress = false;
+        // check if there is still a progress to render, otherwise switch to unknown progress
+        int state = m_state.updateAndGet(s -> getWorked(s) >= 0 ? s & ~UNKNOWN_PROGRESS_FLAG
+            : (s & ~WORKED_MASK) | UNKNOWN_PROGRESS_FLAG);
+        if ((state & UNKNOWN_PROGRESS_FLAG) == 0) {
             repaint();
             return;
         }
 
-        m_unknownProgress = true;
+        ProgressRepaintTicker ticker = m_repaintTicker;
+        if ((m_currentDisplay == null) || (ticker == null)) {
+            return;
+        }
 
-        // reset the worked value
-        m_currentWorked = -1;
+        ticker.addAnimatedFigure(this);
+    }
 
-        if (m_currentDisplay == null) {
-            return;
+    private void removeFromAnimation() {
+        ProgressRepaintTicker ticker = m_repaintTicker;
+        if (ticker != null) {
+            ticker.removeAnimatedFigure(this);
         }
+    }
+
+    private static int getWorked(final int state) {
+        return (state & WORKED_MASK) - 1;
+    }
 
-        unknownProgressTimer.addFigure(this);
+    /**
+     * @param timestamp the current time
+     * @return whether the cycling bar of an unknown progress needs to move
+     */
+    boolean isUnknownProgressUpdateDue(final long timestamp) {
+        return timestamp - m_unknownProgressBarRenderingStatus.m_lastUpdateTimestamp
+            > UNKNOWN_PROGRESS_UPDATE_INTERVAL;
     }
 
     /**
@@ -362,64 +411,76 @@ public ProgressMode getProgressMode() {
     }
 
     /**
-     * Updates UI after progress has changed.
+     * Updates UI after progress has changed. This method is called by the executing thread of the node, it only records
+     * the new progress and leaves the repaint to the editor's repaint ticker, i.e. it never waits for the display.
      *
      * @param pe the new progress to display
      */
-    public synchronized void progressChanged(final NodeProgress pe) {
-        int newWorked = m_currentWorked;
+    public void progressChanged(final NodeProgress pe) {
+        int newWorked = -1;
         if (pe.hasProgress()) {
             double progress = pe.getProgress().doubleValue();
             newWorked = (int)Math.round(Math.max(0, Math.min(progress * 100, 100)));
-        }
-
-        // if something changed, change the values and repaint
-        boolean changed = false;
-        if (newWorked > m_currentWorked) {
-
-            // switch to known progress
-            // this causes another rendering type and stops the thread
-            // for unknown redering triggering started in
-            // activateUnknownProgress
-            m_unknownProgress = false;
-            unknownProgressTimer.removeFigure(this);
-
-            m_currentWorked = newWorked;
-
             // to ensure that a 100 % bar is not shown the current work
             // can be at most 99%
-            if (m_currentWorked > 99) {
-                m_currentWorked = 99;
-            }
-            changed = true;
+            newWorked = Math.min(newWorked, 99);
         }
 
+        boolean showToolTip = false;
         String message = pe.getMessage();
-        if (!m_currentProgressMessage.equals(message)) {
-
-            String meString = m_currentProgressMessage;
-            m_currentProgressMessage = message == null ? "" : m_stateMessage + " - " + message;
-
-            if (!m_currentProgressMessage.equals(meString) && (m_mouseEvent != null) && (m_currentDisplay != null)
-                && !m_currentDisplay.isDisposed() /* bugfix: 1392 */) {
-                m_currentDisplay.syncExec(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (m_mouseEvent != null) {
-                            getToolTipHelper().displayToolTipNear(ProgressFigure.this,
-                                new Label(m_currentProgressMessage), m_mouseEvent.x, m_mouseEvent.y);
-                        }
-                    }
-                });
+        String oldProgressMessage = m_currentProgressMessage;
+        if (!oldProgressMessage.equals(message)) {
+            String newProgressMessage = message == null ? "" : m_stateMessage + " - " + message;
+            m_currentProgressMessage = newProgressMessage;
+            showToolTip = !newProgressMessage.equals(oldProgressMessage) && (m_mouseEvent != null);
+        }
+
+        int oldState;
+        int newState;
+        do {
+            oldState = m_state.get();
+            newState = oldState;
+            if (newWorked > getWorked(oldState)) {
+                // switch to known progress
+                // this causes another rendering type and stops the cycling
+                // of the unknown progress started in activateUnknownProgress
+                newState = (newState & ~(WORKED_MASK | UNKNOWN_PROGRESS_FLAG)) | (newWorked + 1) | REPAINT_PENDING_FLAG;
+            }
+            if (showToolTip) {
+                newState |= TOOLTIP_PENDING_FLAG;
             }
+        } while ((newState != oldState) && !m_state.compareAndSet(oldState, newState));
+
+        if (((oldState & UNKNOWN_PROGRESS_FLAG) != 0) && ((newState & UNKNOWN_PROGRESS_FLAG) == 0)) {
+            removeFromAnimation();
         }
 
-        if (m_currentDisplay == null) {
+        ProgressRepaintTicker ticker = m_repaintTicker;
+        if ((m_currentDisplay == null) || (ticker == null)) {
             return;
         }
+        // the figure is queued only once until the ticker has shown the pending update
+        if (((oldState & PENDING_FLAGS) == 0) && ((newState & PENDING_FLAGS) != 0)) {
+            ticker.markDirty(this);
+        }
+    }
 
-        if (changed) {
-            m_currentDisplay.syncExec(m_repaintObject);
+    /**
+     * Shows the updates recorded by {@link #progressChanged(NodeProgress)}, called by the repaint ticker in the display
+     * thread.
+     */
+    void flushPendingUpdate() {
+        int state = m_state.getAndUpdate(s -> s & ~PENDING_FLAGS);
+        if ((state & TOOLTIP_PENDING_FLAG) != 0) {
+            MouseEvent mouseEvent = m_mouseEvent;
+            ProgressToolTipHelper toolTipHelper = getToolTipHelper();
+            if ((mouseEvent != null) && (toolTipHelper != null)) {
+                toolTipHelper.displayToolTipNear(this, new Label(m_currentProgressMessage), mouseEvent.x,
+                    mouseEvent.y);
+            }
+        }
+        if ((state & REPAINT_PENDING_FLAG) != 0) {
+            repaint();
         }
     }
 
@@ -440,9 +501,8 @@ public void setStateMessage(final String stateMessage) {
      */
     public void reset() {
         m_currentProgressMessage = "";
-        m_currentWorked = -1;
-        m_unknownProgress = true;
-        unknownProgressTimer.removeFigure(this);
+        m_state.updateAndGet(s -> (s & ~WORKED_MASK) | UNKNOWN_PROGRESS_FLAG);
+        removeFromAnimation();
         m_mouseEvent = null;
 
         if (getToolTipHelper() != null) {
@@ -465,13 +525,6 @@ public void setCurrentDisplay(final Display currentDisplay) {
         m_currentDisplay = currentDisplay;
     }
 
-    /**
-     * @return the currentDisplay
-     */
-    Display getCurrentDisplay() {
-        return m_currentDisplay;
-    }
-
     @Override
     public void mouseDragged(final MouseEvent me) {
     }
@@ -483,11 +536,12 @@ public void mouseEntered(final MouseEvent me) {
         // if there is a usefull progress message and there is a tooltip
         // position indicating that a tooltip should be shown, set the
         // tooltip
-        if (m_currentProgressMessage != null && !m_currentProgressMessage.equals("") && m_mouseEvent != null) {
+        String progressMessage = m_currentProgressMessage;
+        if (progressMessage != null && !progressMessage.equals("")) {
 
-            IFigure tip = new Label(m_currentProgressMessage);
+            IFigure tip = new Label(progressMessage);
 
-            getToolTipHelper().displayToolTipNear(ProgressFigure.this, tip, m_mouseEvent.x, m_mouseEvent.y);
+            getToolTipHelper().displayToolTipNear(ProgressFigure.this, tip, me.x, me.y);
 
         }
     }
@@ -524,90 +578,4 @@ public void mouseHover(final MouseEvent me) {
     @Override
     public void mouseMoved(final MouseEvent me) {
     }
-
-    /**
-     * Implements a thread that updates all figures passed to it. The thread for updating the unknown progress figures
-     * (cycling figures) is intended to run just one time. The advantage is that the expensive rendering on the display
-     * thread is only invoked once for all figures to render.
-     *
-     * @author Christoph Sieb, University of Konstanz
-     */
-    private static class UnknownProgressTimer extends Thread {
-
-        private final List<ProgressFigure> m_figuresToPaint = new ArrayList<ProgressFigure>();
-
-        /**
-         * Creats an unknown progress timer for cycling progress bar rendering.
-         */
-        public UnknownProgressTimer() {
-            super("Unknown Progress Timer");
-        }
-
-        @Override
-        public void run() {
-            while (!isInterrupted()) {
-                // if the queue is empty wait for the next
-                // figure to render
-                synchronized (m_figuresToPaint) {
-                    while (m_figuresToPaint.size() == 0) {
-                        try {
-                            m_figuresToPaint.wait();
-                        } catch (InterruptedException e) {
-                            break;
-                        }
-                    }
-                    long timestamp = System.currentTimeMillis();
-
-                    // a map Display to list of prog-figures - presumably this is always a single entry map
-                    Map<Display, List<ProgressFigure>> byDisplayMap = m_figuresToPaint.stream()
-                            // filter those that need updating - some got updated by ordinary repaint events
-                            .filter(p -> (timestamp - p.m_unknownProgressBarRenderingStatus.m_lastUpdateTimestamp
-                                    > UNKNOWN_PROGRESS_UPDATE_INTERVAL))
-                            .collect(Collectors.groupingBy(ProgressFigure::getCurrentDisplay));
-                    for (final Map.Entry<Display, List<ProgressFigure>> entry : byDisplayMap.entrySet()) {
-                        Display dp = entry.getKey();
-                        if ((dp != null) && !dp.isDisposed()) {
-                            dp.asyncExec(new Runnable() {
-                                @Override
-                                public void run() {
-                                    entry.getValue().stream().forEach(f -> f.repaint());
-                                }
-                            });
-                        }
-                    }
-                }
-
-                // figure updates with some delay
-                try {
-                    Thread.sleep(UNKNOWN_PROGRESS_UPDATE_INTERVAL);
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-        }
-
-        /**
-         * Add a progress figure that should be rendered regularly. (Intended for cycling progress bars)
-         *
-         * @param figure The figure to render regularly
-         */
-        public void addFigure(final ProgressFigure figure) {
-            synchronized (m_figuresToPaint) {
-                m_figuresToPaint.add(figure);
-                m_figuresToPaint.notify();
-            }
-        }
-
-        /**
-         * Remove a figure that is no longer intended to be rendered regulary.
-         *
-         * @param figure the figure to remove
-         */
-        public void removeFigure(final ProgressFigure figure) {
-            synchronized (m_figuresToPaint) {
-                m_figuresToPaint.remove(figure);
-            }
-        }
-    }
-
 }
@@ -127,6 +127,20 @@ protected void outlineShape(final Graphics g) {
     /** Next to process update event or null ... used to avoid intermediate updates. */
     private final AtomicReference<ConnectionProgress> m_atomicConnectionProgressReference = new AtomicReference<>();
 
+    /** The animation clock of the editor, null if the connection is not shown in an editor (yet). */
+    private volatile ConnectionAnimationClock m_animationClock;
+
+    /**
+     * Sets the clock advancing the animation of all connections in the editor. Without a clock each connection
+     * schedules its own updates.
+     *
+     * @param clock the clock of the editor showing this connection, or <code>null</code>
+     * @since 4.2
+     */
+    public void setAnimationClock(final ConnectionAnimationClock clock) {
+        m_animationClock = clock;
+    }
+
     /**
      * Update the progress. Calling this method serves two purposes. First, it
      * updates the label. Second it updates the animation.
@@ -135,6 +149,11 @@ protected void outlineShape(final Graphics g) {
      */
     public void progressChanged(final ConnectionProgress e) {
         if (m_atomicConnectionProgressReference.getAndSet(e) == null) {
+            ConnectionAnimationClock clock = m_animationClock;
+            if (clock != null) {
+                clock.markDirty(this);
+                return;
+            }
             UI_PROGESS_UPDATE_SERVICE.schedule(new Runnable() {
                 @Override
                 public void run() {
@@ -155,6 +174,7 @@ private void progressChangedInternal(final ConnectionProgress e) {
         if (e.inProgress()) {
             // currently in-progress--advance to the next position in the animation
             step();
+            repaint();
         } else {
             // not in-progress--set to solid
             setSolid();
@@ -162,13 +182,32 @@ private void progressChangedInternal(final ConnectionProgress e) {
         setLabel(e.hasMessage() ? e.getMessage() : "");
     }
 
+    /**
+     * Shows the latest event recorded by {@link #progressChanged(ConnectionProgress)}, called by the animation clock
+     * in the display thread. Doesn't repaint the dashes, the clock repaints all advanced connections at once.
+     *
+     * @return true if the connection has been advanced and needs to be repainted
+     */
+    boolean applyPendingProgress() {
+        ConnectionProgress e = m_atomicConnectionProgressReference.getAndSet(null);
+        if (e == null) {
+            return false;
+        }
+        setLabel(e.hasMessage() ? e.getMessage() : "");
+        if (e.inProgress()) {
+            step();
+            return true;
+        }
+        setSolid();
+        return false;
+    }
+
     private void step() {
         setLineStyle(SWT.LINE_CUSTOM);
         m_state++;
         if (m_state >= DASHES.length) {
             m_state = 0;
         }
-        repaint();
     }
 
     private void setLabel(final String label) {
@@ -0,0 +1,174 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.editor2.figures;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Repaints the {@link ProgressFigure}s of one workflow editor on the display thread. Node execution threads only mark
+ * their figure as dirty (see {@link #markDirty(ProgressFigure)}), the actual repaint of all dirty figures is done in a
+ * single timer callback at most every {@value #FRAME_INTERVAL}ms, so that progress updates never wait for the display.
+ * The ticker also drives the cycling bars of figures showing an unknown progress.
+ *
+ * <p>
+ * One instance is held by the {@link WorkflowFigure} of an editor.
+ * </p>
+ */
+final class ProgressRepaintTicker {
+
+    /** Minimum delay between two repaints, in ms (i.e. 25 frames per second at most). */
+    static final int FRAME_INTERVAL = 40;
+
+    private final Display m_display;
+
+    /** Figures with a pending update; each figure is queued at most once, see ProgressFigure#progressChanged. */
+    private final Queue<ProgressFigure> m_dirtyFigures = new ConcurrentLinkedQueue<ProgressFigure>();
+
+    /** Figures showing an unknown progress, they are repainted regularly as long as they are registered. */
+    private final Set<ProgressFigure> m_animatedFigures = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean m_tickScheduled = new AtomicBoolean();
+
+    private final Runnable m_tick = this::tick;
+
+    private final Runnable m_scheduleTick = () -> {
+        if (!m_display.isDisposed()) {
+            m_display.timerExec(FRAME_INTERVAL, m_tick);
+        }
+    };
+
+    private volatile boolean m_disposed;
+
+    /**
+     * @param display the display the figures are painted on
+     */
+    ProgressRepaintTicker(final Display display) {
+        m_display = display;
+    }
+
+    /**
+     * Queues a figure for repaint with the next tick. Can be called from any thread and does not block.
+     *
+     * @param figure the figure with a pending update
+     */
+    void markDirty(final ProgressFigure figure) {
+        m_dirtyFigures.add(figure);
+        scheduleTick();
+    }
+
+    /**
+     * Adds a figure to be repainted regularly (intended for cycling progress bars).
+     *
+     * @param figure the figure to animate
+     */
+    void addAnimatedFigure(final ProgressFigure figure) {
+        if (m_animatedFigures.add(figure)) {
+            scheduleTick();
+        }
+    }
+
+    /**
+     * Removes a figure previously added with {@link #addAnimatedFigure(ProgressFigure)}.
+     *
+     * @param figure the figure to stop animating
+     */
+    void removeAnimatedFigure(final ProgressFigure figure) {
+        m_animatedFigures.remove(figure);
+    }
+
+    /**
+     * Stops the ticker, called when the editor is closed. Subsequent calls to any method have no effect.
+     */
+    void dispose() {
+        m_disposed = true;
+        m_dirtyFigures.clear();
+        m_animatedFigures.clear();
+    }
+
+    private void scheduleTick() {
+        if (m_disposed || m_display.isDisposed() || m_tickScheduled.getAndSet(true)) {
+            return;
+        }
+        if (Display.getCurrent() == m_display) {
+            m_scheduleTick.run();
+        } else {
+            m_display.asyncExec(m_scheduleTick);
+        }
+    }
+
+    /** Called in the display thread. */
+    private void tick() {
+        // updates arriving from now on need another tick
+        m_tickScheduled.set(false);
+        if (m_disposed) {
+            return;
+        }
+
+        ProgressFigure figure;
+        while ((figure = m_dirtyFigures.poll()) != null) {
+            figure.flushPendingUpdate();
+        }
+
+        final long timestamp = System.currentTimeMillis();
+        for (ProgressFigure f : m_animatedFigures) {
+            if (f.getParent() == null) {
+                // removed from the editor without stopping the unknown progress
+                m_animatedFigures.remove(f);
+            } else if (f.isUnknownProgressUpdateDue(timestamp)) {
+                // others got updated by ordinary repaint events
+                f.repaint();
+            }
+        }
+        if (!m_animatedFigures.isEmpty()) {
+            scheduleTick();
+        }
+    }
+}
@@ -83,6 +83,11 @@ public class WorkflowFigure extends FreeformLayeredPane implements ControlListen
 
     private ProgressToolTipHelper m_progressToolTipHelper;
 
+    private final ProgressRepaintTicker m_progressRepaintTicker = new ProgressRepaintTicker(Display.getDefault());
+
+    private final ConnectionAnimationClock m_connectionAnimationClock =
+        new ConnectionAnimationClock(Display.getDefault());
+
     private Image m_jobManagerFigure;
 
     private Image m_backgroundWatermark;
@@ -229,6 +234,32 @@ public void setProgressToolTipHelper(final ProgressToolTipHelper progressToolTip
         m_progressToolTipHelper = progressToolTipHelper;
     }
 
+    /**
+     * @return the ticker repainting the progress bars of the nodes in this workflow
+     */
+    ProgressRepaintTicker getProgressRepaintTicker() {
+        return m_progressRepaintTicker;
+    }
+
+    /**
+     * @return the clock advancing the flow animation of the connections in this workflow
+     * @since 4.2
+     */
+    public ConnectionAnimationClock getConnectionAnimationClock() {
+        return m_connectionAnimationClock;
+    }
+
+    /**
+     * Stops the regular repaint of the progress bars and the connection animation in this workflow, to be called when
+     * the editor is closed.
+     *
+     * @since 4.2
+     */
+    public void disposeProgressRepaintTicker() {
+        m_progressRepaintTicker.dispose();
+        m_connectionAnimationClock.dispose();
+    }
+
     /**
      * This drags out the tent stake northwards to create a top-side white space buffer in the canvas of the specified
      * pixel height (so, if the vertical scroll bar were to be moved to the zero location the user would see a
@@ -48,14 +48,11 @@
  */
 package org.knime.workbench.editor2.subnode;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.apache.commons.lang3.StringUtils;
-import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.ScrolledComposite;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -248,10 +245,10 @@ private static Composite createNodeLabelComposite(final Composite parent, final
             iconLabel.setToolTipText(
                 Messages.NodeUsageComposite_9);
         } else {
-            try (InputStream iconURLStream = FileLocator.resolve(nodeContainer.getIcon()).openStream()) {
-                iconLabel.setImage(new Image(Display.getCurrent(), iconURLStream));
-            } catch (IOException e) {
-                /* do nothing */ }
+            // the icon is shared with the other labels showing the same node type and released with the label
+            final Image icon = ImageRepository.acquireUnscaledIconImage(nodeContainer.getIcon());
+            iconLabel.setImage(icon);
+            iconLabel.addDisposeListener(e -> ImageRepository.releaseImage(icon));
         }
 
         Label nodeLabel = new Label(labelComposite, SWT.LEFT);
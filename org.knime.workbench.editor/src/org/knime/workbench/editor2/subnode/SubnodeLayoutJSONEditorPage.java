@@ -607,10 +607,10 @@ private Composite createNodeLabelComposite(final Composite parent, final NodeID
             iconLabel.setToolTipText(
                 Messages.SubnodeLayoutJSONEditorPage_52);
         } else {
-            try (InputStream iconURLStream = FileLocator.resolve(nodeContainer.getIcon()).openStream()) {
-                iconLabel.setImage(new Image(Display.getCurrent(), iconURLStream));
-            } catch (IOException e) {
-                /* do nothing */ }
+            // the icon is shared with the other labels showing the same node type and released with the label
+            final Image icon = ImageRepository.acquireUnscaledIconImage(nodeContainer.getIcon());
+            iconLabel.setImage(icon);
+            iconLabel.addDisposeListener(e -> ImageRepository.releaseImage(icon));
         }
 
         Label nodeLabel = new Label(labelComposite, SWT.LEFT);
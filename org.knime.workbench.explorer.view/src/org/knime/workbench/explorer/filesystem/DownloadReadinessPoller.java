@@ -0,0 +1,113 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.filesystem;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls {@link RemoteDownloadStream#readyForDownload()} of all pending downloads on one small shared scheduler. The
+ * polling interval of a stream starts short, so quickly packed items start downloading almost immediately, and grows
+ * up to one second for items that take the server longer.
+ */
+final class DownloadReadinessPoller {
+
+    private static final long MIN_INTERVAL_MS = 50;
+
+    private static final long MAX_INTERVAL_MS = 1000;
+
+    private static final int POOL_SIZE = 2;
+
+    private static final ScheduledThreadPoolExecutor EXECUTOR;
+
+    static {
+        final AtomicInteger threadCount = new AtomicInteger();
+        EXECUTOR = new ScheduledThreadPoolExecutor(POOL_SIZE, r -> {
+            Thread t = new Thread(r, "KNIME Download Readiness Poller-" + threadCount.incrementAndGet()); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        });
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+        EXECUTOR.setKeepAliveTime(30, TimeUnit.SECONDS);
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private DownloadReadinessPoller() {
+    }
+
+    /**
+     * Starts polling the given stream.
+     *
+     * @param stream the stream to poll
+     * @return a future that is completed once the stream is ready, or exceptionally if polling fails; cancelling it
+     *         stops polling
+     */
+    static CompletableFuture<Void> poll(final RemoteDownloadStream stream) {
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        EXECUTOR.execute(() -> check(stream, ready, MIN_INTERVAL_MS));
+        return ready;
+    }
+
+    private static void check(final RemoteDownloadStream stream, final CompletableFuture<Void> ready,
+        final long interval) {
+        if (ready.isDone()) {
+            // canceled
+            return;
+        }
+        try {
+            if (stream.readyForDownload()) {
+                ready.complete(null);
+                return;
+            }
+        } catch (RuntimeException e) {
+            ready.completeExceptionally(e);
+            return;
+        }
+        final long nextInterval = Math.min(2 * interval, MAX_INTERVAL_MS);
+        EXECUTOR.schedule(() -> check(stream, ready, nextInterval), interval, TimeUnit.MILLISECONDS);
+    }
+}
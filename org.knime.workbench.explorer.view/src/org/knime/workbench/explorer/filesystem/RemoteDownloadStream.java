@@ -46,6 +46,7 @@
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Used to download server items from a remote store location.
@@ -55,6 +56,8 @@
  */
 public abstract class RemoteDownloadStream extends InputStream {
 
+    private CompletableFuture<Void> m_readyFuture;
+
     /**
      * @return true, if the server finished packing the flow and is ready to
      *         provide data for downlaod. If false is returned, other methods
@@ -62,6 +65,26 @@ public abstract class RemoteDownloadStream extends InputStream {
      */
     public abstract boolean readyForDownload();
 
+    /**
+     * Returns a future that completes as soon as the server is ready to provide data, so callers don't need to poll
+     * {@link #readyForDownload()} themselves. Cancelling the future stops waiting (it doesn't cancel the download,
+     * {@link #close()} does).
+     *
+     * <p>
+     * The default implementation polls {@link #readyForDownload()} on a scheduler shared by all pending downloads,
+     * with an interval growing from 50 milliseconds to one second. Implementations that get notified when the server
+     * has finished packing should override this method.
+     *
+     * @return a future completing when the stream is ready for download, the same one for every call
+     * @since 8.7
+     */
+    public synchronized CompletableFuture<Void> whenReadyForDownload() {
+        if (m_readyFuture == null) {
+            m_readyFuture = DownloadReadinessPoller.poll(this);
+        }
+        return m_readyFuture;
+    }
+
     /**
      * @return the number of bytes in the stream (if known), or -1 (if not
      *         known).
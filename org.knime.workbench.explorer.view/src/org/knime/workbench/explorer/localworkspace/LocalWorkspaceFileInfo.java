@@ -45,9 +45,9 @@
 package org.knime.workbench.explorer.localworkspace;
 
 import java.io.File;
+import java.nio.file.Path;
 
 import org.eclipse.core.filesystem.EFS;
-import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.runtime.CoreException;
 import org.knime.core.node.NodeLogger;
@@ -65,6 +65,11 @@ public class LocalWorkspaceFileInfo extends AbstractExplorerFileInfo {
 
     private final IFileStore m_file;
 
+    /** The local path of the file, null if it's not available locally. */
+    private final Path m_path;
+
+    private final LocalWorkspaceItemTypeCache m_cache;
+
     //caches the isComponent flag
     private Boolean m_isComponent = null;
 
@@ -74,6 +79,17 @@ public class LocalWorkspaceFileInfo extends AbstractExplorerFileInfo {
     LocalWorkspaceFileInfo(final IFileStore file) {
         super(file.getName());
         m_file = file;
+        m_path = toPath(file);
+        m_cache = LocalWorkspaceItemTypeCache.getInstance();
+    }
+
+    private static Path toPath(final IFileStore file) {
+        try {
+            File localFile = file.toLocalFile(EFS.NONE, null);
+            return localFile == null ? null : localFile.toPath().toAbsolutePath().normalize();
+        } catch (CoreException ex) {
+            return null;
+        }
     }
 
     /**
@@ -81,7 +97,7 @@ public class LocalWorkspaceFileInfo extends AbstractExplorerFileInfo {
      */
     @Override
     public boolean exists() {
-        return m_file.fetchInfo().exists();
+        return (m_path != null) && m_cache.exists(m_path);
     }
 
     /**
@@ -89,7 +105,7 @@ public boolean exists() {
      */
     @Override
     public boolean isDirectory() {
-        return m_file.fetchInfo().isDirectory();
+        return (m_path != null) && m_cache.isDirectory(m_path);
     }
 
     /**
@@ -129,7 +145,7 @@ public final void setAttribute(final int attribute, final boolean value) {
      */
     @Override
     public boolean isWorkflow() {
-        return exists() && isWorkflow(m_file);
+        return exists() && isWorkflow(m_path);
     }
 
     /**
@@ -137,7 +153,7 @@ public boolean isWorkflow() {
      */
     @Override
     public boolean isWorkflowGroup() {
-        return exists() && isWorkflowGroup(m_file);
+        return exists() && isWorkflowGroup(m_path);
     }
 
     /**
@@ -145,7 +161,7 @@ public boolean isWorkflowGroup() {
      */
     @Override
     public boolean isWorkflowTemplate() {
-        return exists() && isWorkflowTemplate(m_file);
+        return exists() && isWorkflowTemplate(m_path);
     }
 
     /**
@@ -169,7 +185,7 @@ public boolean isMetaNodeTemplate() {
      */
     @Override
     public boolean isNode() {
-        return exists() && isNode(m_file);
+        return exists() && isNode(m_path);
     }
 
     /**
@@ -177,7 +193,7 @@ public boolean isNode() {
      */
     @Override
     public boolean isFile() {
-        return exists() && isDataFile(m_file);
+        return exists() && isDataFile(m_path);
     }
 
     /**
@@ -193,47 +209,42 @@ public boolean isReservedSystemItem() {
      */
     @Override
     public boolean isMetaNode() {
-        return exists() && isMetaNode(m_file);
+        return exists() && isMetaNode(m_path);
     }
 
-    private static boolean isWorkflow(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
+    private boolean isWorkflow(final Path file) {
+        if (file == null || !m_cache.exists(file)) {
             return false;
         }
-        IFileStore tmplateFile = file.getChild(WorkflowPersistor.TEMPLATE_FILE); // metanode, no workflow
-        if (tmplateFile.fetchInfo().exists()) {
+        if (m_cache.hasChild(file, WorkflowPersistor.TEMPLATE_FILE)) { // metanode, no workflow
             return false;
         }
 
-        IFileStore wfFile = file.getChild(WorkflowPersistor.WORKFLOW_FILE); // no workflow at all
-        if (!wfFile.fetchInfo().exists()) {
+        if (!m_cache.hasChild(file, WorkflowPersistor.WORKFLOW_FILE)) { // no workflow at all
             return false;
         }
 
-        IFileStore parentFile = file.getParent();
+        Path parentFile = file.getParent();
         if (parentFile == null) {
             return false;
         }
-        IFileStore parentWfFile = parentFile.getChild(WorkflowPersistor.WORKFLOW_FILE); // metanode inside a workflow
-        return !parentWfFile.fetchInfo().exists();
+        return !m_cache.hasChild(parentFile, WorkflowPersistor.WORKFLOW_FILE); // metanode inside a workflow
     }
 
-    private static boolean isWorkflowGroup(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
+    private boolean isWorkflowGroup(final Path file) {
+        if (file == null || !m_cache.exists(file)) {
             return false;
         }
-        return file.fetchInfo().isDirectory() && !isWorkflow(file)
+        return m_cache.isDirectory(file) && !isWorkflow(file)
                 && !isMetaNode(file) && !isNode(file)
                 && !isWorkflowTemplate(file);
     }
 
-    private static boolean isWorkflowTemplate(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
+    private boolean isWorkflowTemplate(final Path file) {
+        if (file == null || !m_cache.exists(file)) {
             return false;
         }
-        IFileStore templateFile = file.getChild(
-                WorkflowPersistor.TEMPLATE_FILE);
-        return templateFile.fetchInfo().exists();
+        return m_cache.hasChild(file, WorkflowPersistor.TEMPLATE_FILE);
     }
 
     private boolean isComponentTemplate(final IFileStore file) {
@@ -253,36 +264,31 @@ private boolean isComponentTemplate(final IFileStore file) {
         return m_isComponent;
     }
 
-    private static boolean isMetaNode(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
+    private boolean isMetaNode(final Path file) {
+        if (file == null || !m_cache.exists(file)) {
             return false;
         }
-        IFileStore wfFile = file.getChild(WorkflowPersistor.WORKFLOW_FILE);
-        IFileStore parentFile = file.getParent();
+        Path parentFile = file.getParent();
         if (parentFile == null) {
             return false;
         }
-        IFileStore parentWfFile = parentFile.getChild(
-                WorkflowPersistor.WORKFLOW_FILE);
-        return wfFile.fetchInfo().exists() && parentWfFile.fetchInfo().exists();
+        return m_cache.hasChild(file, WorkflowPersistor.WORKFLOW_FILE)
+                && m_cache.hasChild(parentFile, WorkflowPersistor.WORKFLOW_FILE);
     }
 
-    private static boolean isNode(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists() || isMetaNode(file)) {
+    private boolean isNode(final Path file) {
+        if (file == null || !m_cache.exists(file) || isMetaNode(file)) {
             return false;
         }
-        IFileStore containerFile = file.getChild(
-                FileSingleNodeContainerPersistor.SETTINGS_FILE_NAME);
-        return containerFile.fetchInfo().exists()
+        return m_cache.hasChild(file, FileSingleNodeContainerPersistor.SETTINGS_FILE_NAME)
                 && isWorkflow(file.getParent());
     }
 
-    private static boolean isDataFile(final IFileStore file) {
+    private boolean isDataFile(final Path file) {
         if (file == null) {
             return false;
         }
-        final IFileInfo fileInfo = file.fetchInfo();
-        return fileInfo.exists() && !fileInfo.isDirectory();
+        return m_cache.exists(file) && !m_cache.isDirectory(file);
     }
 
     /**
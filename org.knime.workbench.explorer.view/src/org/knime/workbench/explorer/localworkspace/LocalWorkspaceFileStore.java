@@ -48,6 +48,7 @@
 package org.knime.workbench.explorer.localworkspace;
 
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -128,7 +129,11 @@ public boolean equals(final Object obj) {
     @Override
     public void copy(final IFileStore destination, final int options,
             final IProgressMonitor monitor) throws CoreException {
-        super.copy(destination, options, monitor);
+        try {
+            super.copy(destination, options, monitor);
+        } finally {
+            invalidateItemTypes(destination.toLocalFile(EFS.NONE, null), true);
+        }
     }
 
     /**
@@ -233,9 +238,38 @@ public void refresh() {
      */
     @Override
     public void refresh(final IProgressMonitor monitor) {
+        invalidateItemTypes(m_file.toLocalFile(EFS.NONE, null), true);
         refreshResource(this);
     }
 
+    /**
+     * Drops the cached item types of a file (or directory tree) after it has been modified.
+     *
+     * @param file the modified file, may be null
+     * @param tree whether the content of the directory (recursively) might have changed as well
+     */
+    private static void invalidateItemTypes(final File file, final boolean tree) {
+        if (file == null) {
+            return;
+        }
+        LocalWorkspaceItemTypeCache cache = LocalWorkspaceItemTypeCache.getInstance();
+        if (tree) {
+            cache.invalidateTree(file.toPath());
+        } else {
+            cache.invalidate(file.toPath());
+        }
+    }
+
+    /**
+     * Stops watching a directory tree before it's moved or deleted, a watched directory can't be renamed or deleted on
+     * Windows.
+     *
+     * @param file the file or directory to be moved or deleted
+     */
+    private static void unwatchItemTypes(final File file) {
+        LocalWorkspaceItemTypeCache.getInstance().unwatchTree(file.toPath());
+    }
+
     private static void refreshResource(final LocalExplorerFileStore fileStore) {
         fileStore.getContentProvider().refresh(fileStore);
     }
@@ -247,6 +281,7 @@ private static void refreshResource(final LocalExplorerFileStore fileStore) {
     public void delete(final int options, final IProgressMonitor monitor)
             throws CoreException {
         java.nio.file.Path srcFile = toLocalFile(options, monitor).toPath();
+        unwatchItemTypes(srcFile.toFile());
         try {
             if (Files.isDirectory(srcFile)) {
                 PathUtils.deleteDirectoryIfExists(srcFile);
@@ -256,6 +291,8 @@ public void delete(final int options, final IProgressMonitor monitor)
         } catch (IOException e) {
             String message = Messages.LocalWorkspaceFileStore_1 + srcFile.toAbsolutePath() + Messages.LocalWorkspaceFileStore_2;
             throw new CoreException(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID, message, e));
+        } finally {
+            invalidateItemTypes(srcFile.toFile(), true);
         }
         refreshResource(getParent());
     }
@@ -266,7 +303,11 @@ public void delete(final int options, final IProgressMonitor monitor)
     @Override
     public AbstractExplorerFileStore mkdir(final int options,
             final IProgressMonitor monitor) throws CoreException {
-        m_file.mkdir(options, monitor);
+        try {
+            m_file.mkdir(options, monitor);
+        } finally {
+            invalidateItemTypes(m_file.toLocalFile(EFS.NONE, null), false);
+        }
         refreshResource(getParent());
         return this;
     }
@@ -277,7 +318,25 @@ public AbstractExplorerFileStore mkdir(final int options,
     @Override
     public OutputStream openOutputStream(final int options,
             final IProgressMonitor monitor) throws CoreException {
-        return m_file.openOutputStream(options, monitor);
+        final File file = m_file.toLocalFile(EFS.NONE, null);
+        final OutputStream stream = m_file.openOutputStream(options, monitor);
+        // the file might be created, which is visible once the stream is closed (the change of the parent's listing
+        // is also reported by the watch service)
+        return new FilterOutputStream(stream) {
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    invalidateItemTypes(file, false);
+                }
+            }
+        };
     }
 
     /**
@@ -296,8 +355,11 @@ public void move(final IFileStore destination, final int options,
         }
         super.cleanupDestination(destination, options, monitor);
 
+        unwatchItemTypes(srcFile);
         try {
             if (srcFile.renameTo(dstFile)) {
+                invalidateItemTypes(srcFile, true);
+                invalidateItemTypes(dstFile, true);
                 // if rename works: refresh
                 final LocalExplorerFileStore srcParent = getParent();
                 IFileStore destParent = destination.getParent();
@@ -0,0 +1,398 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.localworkspace;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Caches the directory listings of the local workspace, from which the type of an item (workflow, workflow group,
+ * metanode, node, etc.) is derived. Each directory is listed once, the names and directory flags of all its children
+ * are taken from that listing instead of querying every marker file (<code>workflow.knime</code>,
+ * <code>template.knime</code>, <code>settings.xml</code>) separately.
+ *
+ * <p>
+ * Listings are only cached for directories that are registered with a {@link WatchService}; changes reported by the
+ * watch service (or made through {@link LocalWorkspaceFileStore}, see {@link #invalidate(Path)}) drop the affected
+ * listings. Paths outside the workspace as well as directories that cannot be watched are queried directly. The
+ * cache can be disabled with the system property {@value #DISABLE_PROPERTY}.
+ * </p>
+ *
+ * <p>
+ * Every watched directory holds a watch (an inotify watch on Linux, an open directory handle on Windows, which
+ * prevents renaming or deleting the directory and its parents). Therefore at most {@value #MAX_WATCHED_DIRECTORIES}
+ * directories are watched, the least recently used one is dropped (together with its listing) when another one is
+ * listed. {@link LocalWorkspaceFileStore} stops watching a directory tree before it moves or deletes it, see
+ * {@link #unwatchTree(Path)}.
+ * </p>
+ */
+final class LocalWorkspaceItemTypeCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(LocalWorkspaceItemTypeCache.class);
+
+    /** System property to disable the cache. */
+    static final String DISABLE_PROPERTY = "knime.explorer.localworkspace.cache.disabled"; //$NON-NLS-1$
+
+    /** Maximum number of directories watched at the same time. */
+    static final int MAX_WATCHED_DIRECTORIES = 256;
+
+    private static LocalWorkspaceItemTypeCache instance;
+
+    private final Path m_root;
+
+    private final WatchService m_watchService;
+
+    private final Map<Path, Listing> m_listings = new ConcurrentHashMap<>();
+
+    /** The watch keys of the watched directories in access order, guarded by itself. */
+    private final Map<Path, WatchKey> m_watchKeys = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Incremented with every invalidation, a listing is not cached if the directory changed while it was read. */
+    private final AtomicLong m_modificationCount = new AtomicLong();
+
+    /** The names of the children of a directory, and which of them are directories. */
+    private static final class Listing {
+        private final Set<String> m_children;
+
+        private final Set<String> m_directories;
+
+        Listing(final Set<String> children, final Set<String> directories) {
+            m_children = children;
+            m_directories = directories;
+        }
+    }
+
+    private static final Listing EMPTY_LISTING = new Listing(Collections.emptySet(), Collections.emptySet());
+
+    private LocalWorkspaceItemTypeCache(final Path root, final WatchService watchService) {
+        m_root = root;
+        m_watchService = watchService;
+        if (watchService != null) {
+            Thread watcher = new Thread(this::processWatchEvents, "KNIME Workspace Item Type Cache"); //$NON-NLS-1$
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    /**
+     * @return the cache for the current workspace
+     */
+    static synchronized LocalWorkspaceItemTypeCache getInstance() {
+        if (instance == null) {
+            IPath location = ResourcesPlugin.getWorkspace().getRoot().getLocation();
+            Path root = location == null ? null : location.toFile().toPath().toAbsolutePath().normalize();
+            WatchService watchService = null;
+            if ((root != null) && !Boolean.getBoolean(DISABLE_PROPERTY)) {
+                try {
+                    watchService = root.getFileSystem().newWatchService();
+                } catch (IOException | UnsupportedOperationException e) {
+                    LOGGER.debug("Unable to watch the workspace, item types are not cached: " //$NON-NLS-1$
+                        + e.getMessage(), e);
+                }
+            }
+            instance = new LocalWorkspaceItemTypeCache(root, watchService);
+        }
+        return instance;
+    }
+
+    /**
+     * @param path an absolute path
+     * @return whether the file exists
+     */
+    boolean exists(final Path path) {
+        Path parent = path.getParent();
+        if ((parent == null) || !isCacheable(parent)) {
+            return Files.exists(path);
+        }
+        return getListing(parent).m_children.contains(path.getFileName().toString());
+    }
+
+    /**
+     * @param path an absolute path
+     * @return whether the file exists and is a directory
+     */
+    boolean isDirectory(final Path path) {
+        Path parent = path.getParent();
+        if ((parent == null) || !isCacheable(parent)) {
+            return Files.isDirectory(path);
+        }
+        return getListing(parent).m_directories.contains(path.getFileName().toString());
+    }
+
+    /**
+     * @param dir an absolute path
+     * @param name the name of the child
+     * @return whether the directory exists and contains a file or directory of the given name
+     */
+    boolean hasChild(final Path dir, final String name) {
+        if (!isCacheable(dir)) {
+            return Files.exists(dir.resolve(name));
+        }
+        return getListing(dir).m_children.contains(name);
+    }
+
+    /**
+     * Drops the cached listings of a file (if it is a directory) and of its parent directory. To be called after the
+     * workspace has been modified, so that the change is visible before the watch service reports it.
+     *
+     * @param path an absolute path
+     */
+    void invalidate(final Path path) {
+        if (m_watchService == null) {
+            return;
+        }
+        Path normalized = path.toAbsolutePath().normalize();
+        m_modificationCount.incrementAndGet();
+        m_listings.remove(normalized);
+        if (normalized.getParent() != null) {
+            m_listings.remove(normalized.getParent());
+        }
+    }
+
+    /**
+     * Drops the cached listings of a directory and all directories below it.
+     *
+     * @param dir an absolute path
+     */
+    void invalidateTree(final Path dir) {
+        if (m_watchService == null) {
+            return;
+        }
+        Path normalized = dir.toAbsolutePath().normalize();
+        m_modificationCount.incrementAndGet();
+        m_listings.keySet().removeIf(p -> p.startsWith(normalized));
+        if (normalized.getParent() != null) {
+            m_listings.remove(normalized.getParent());
+        }
+    }
+
+    /**
+     * Stops watching a directory and all directories below it and drops their listings. To be called before the
+     * directory is moved, renamed or deleted, an open watch prevents this on Windows. The directories are watched
+     * again once they are listed.
+     *
+     * @param dir an absolute path
+     */
+    void unwatchTree(final Path dir) {
+        if (m_watchService == null) {
+            return;
+        }
+        Path normalized = dir.toAbsolutePath().normalize();
+        m_modificationCount.incrementAndGet();
+        synchronized (m_watchKeys) {
+            for (Iterator<Map.Entry<Path, WatchKey>> it = m_watchKeys.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<Path, WatchKey> e = it.next();
+                if (e.getKey().startsWith(normalized)) {
+                    e.getValue().cancel();
+                    it.remove();
+                }
+            }
+        }
+        m_listings.keySet().removeIf(p -> p.startsWith(normalized));
+    }
+
+    private boolean isCacheable(final Path dir) {
+        return (m_watchService != null) && dir.startsWith(m_root);
+    }
+
+    private Listing getListing(final Path dir) {
+        Listing listing = m_listings.get(dir);
+        if (listing != null) {
+            return listing;
+        }
+        long modificationCount = m_modificationCount.get();
+        // register before listing, so that no change after the listing is missed
+        boolean watched = watch(dir);
+        listing = list(dir);
+        if (watched && (modificationCount == m_modificationCount.get())) {
+            m_listings.putIfAbsent(dir, listing);
+        }
+        return listing;
+    }
+
+    private boolean watch(final Path dir) {
+        synchronized (m_watchKeys) {
+            WatchKey key = m_watchKeys.get(dir);
+            if ((key != null) && key.isValid()) {
+                return true;
+            }
+        }
+        if (!Files.isDirectory(dir)) {
+            return false;
+        }
+        WatchKey key;
+        try {
+            key = dir.register(m_watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        } catch (IOException | ClosedWatchServiceException e) {
+            // e.g. the limit of watched directories is reached
+            LOGGER.debug("Unable to watch " + dir + ", its listing is not cached: " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+            return false;
+        }
+        List<Path> unwatched = new ArrayList<>();
+        synchronized (m_watchKeys) {
+            m_watchKeys.put(dir, key);
+            // drop the least recently listed directories
+            Iterator<Map.Entry<Path, WatchKey>> it = m_watchKeys.entrySet().iterator();
+            while ((m_watchKeys.size() > MAX_WATCHED_DIRECTORIES) && it.hasNext()) {
+                Map.Entry<Path, WatchKey> e = it.next();
+                if (!e.getKey().equals(dir)) {
+                    e.getValue().cancel();
+                    unwatched.add(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+        if (!unwatched.isEmpty()) {
+            // changes of unwatched directories aren't noticed anymore, so their listings can't be cached
+            m_modificationCount.incrementAndGet();
+            unwatched.forEach(m_listings::remove);
+        }
+        return true;
+    }
+
+    private static Listing list(final Path dir) {
+        final Set<String> children = new HashSet<>();
+        final Set<String> directories = new HashSet<>();
+        try {
+            // the attributes of the children are (depending on the platform) read with the listing; links are followed
+            // like File.list() and File.isDirectory() do
+            Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    if (file.equals(dir)) {
+                        // dir is not a directory, it has no children
+                        return FileVisitResult.TERMINATE;
+                    }
+                    String name = file.getFileName().toString();
+                    children.add(name);
+                    if (attrs.isDirectory()) {
+                        directories.add(name);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    if (!file.equals(dir)) {
+                        // exists, but its attributes are not readable
+                        children.add(file.getFileName().toString());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            return EMPTY_LISTING;
+        }
+        return new Listing(children, directories);
+    }
+
+    private void processWatchEvents() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = m_watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = (Path)key.watchable();
+            m_modificationCount.incrementAndGet();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    m_listings.clear();
+                    continue;
+                }
+                Path child = dir.resolve((Path)event.context());
+                m_listings.remove(dir);
+                // the content of a created, deleted or modified child directory may have changed as well
+                m_listings.remove(child);
+                if (event.kind() == ENTRY_DELETE) {
+                    WatchKey childKey;
+                    synchronized (m_watchKeys) {
+                        childKey = m_watchKeys.remove(child);
+                    }
+                    if (childKey != null) {
+                        childKey.cancel();
+                    }
+                }
+            }
+            if (!key.reset()) {
+                // directory no longer accessible or no longer watched
+                m_listings.remove(dir);
+                synchronized (m_watchKeys) {
+                    m_watchKeys.remove(dir, key);
+                }
+            }
+        }
+    }
+}
@@ -79,6 +79,7 @@
 import org.knime.workbench.explorer.ExplorerActivator;
 import org.knime.workbench.explorer.ExplorerMountTable;
 import org.knime.workbench.explorer.MountPoint;
+import org.knime.workbench.explorer.filesystem.AbstractExplorerFileInfo;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
 import org.knime.workbench.explorer.view.preferences.ExplorerPreferenceInitializer;
 import org.knime.workbench.explorer.view.preferences.MountSettings;
@@ -125,6 +126,9 @@ public class ContentDelegator extends LabelProvider
 
     private final boolean m_updateProvSettings;
 
+    /** Fetches children in the background, null if the content is fetched synchronously. */
+    private DeferredContentLoader m_deferredLoader;
+
     /**
      * Creates a new content delegator and registers it for property changes of
      * the explorer mount table. None of the mounted content is visible through
@@ -149,6 +153,28 @@ public ContentDelegator(final boolean updateProvSettings) {
         ExplorerMountTable.addPropertyChangeListener(this);
     }
 
+    /**
+     * Switches to deferred loading: the children of mount points and their content are fetched in the background and
+     * a placeholder is shown until they are available, so that slow mount points don't block the display thread. The
+     * children are cached for a while (depending on whether the mount point is remote) and reloaded when the content
+     * provider reports changes; the previous children stay visible meanwhile. Listeners are notified with a
+     * {@link #CONTENT_CHANGED} event once the children of an element have been loaded. Must be called before the
+     * delegator is set as content provider.
+     *
+     * @since 8.7
+     */
+    public void enableDeferredLoading() {
+        if (m_deferredLoader == null) {
+            m_deferredLoader = new DeferredContentLoader(this::getChildrenNow, ContentDelegator::mayHaveChildren,
+                (provider, element) -> {
+                    // refreshing the element also updates whether its children have children
+                    AbstractExplorerFileStore loaded = element instanceof ContentObject
+                        ? ((ContentObject)element).getObject() : provider.getRootStore();
+                    notifyListeners(new PropertyChangeEvent(provider, CONTENT_CHANGED, null, loaded));
+                });
+        }
+    }
+
     /**
      * Adds the specified content provider to the explorer.
      *
@@ -183,6 +209,9 @@ public void removeAllMountPoints() {
             final AbstractContentProvider provider = mountPoint.getProvider();
             provider.removeListener(this);
             // don't dispose provider (owned by the mount table)
+            if (m_deferredLoader != null) {
+                m_deferredLoader.remove(provider);
+            }
         }
         m_provider.clear();
     }
@@ -197,6 +226,9 @@ public void dispose() {
         }
         removeAllMountPoints();
         ExplorerMountTable.removePropertyChangeListener(this);
+        if (m_deferredLoader != null) {
+            m_deferredLoader.dispose();
+        }
         super.dispose();
     }
 
@@ -241,6 +273,20 @@ public Object[] getChildren(final Object parentElement) {
         if (parentElement == this) {
             return getVisibleContentProvider().toArray();
         }
+        if (m_deferredLoader != null) {
+            AbstractContentProvider prov = getProvider(parentElement);
+            if (prov != null) {
+                return m_deferredLoader.getChildren(prov, parentElement);
+            }
+        }
+        return getChildrenNow(parentElement);
+    }
+
+    /** Fetches the children of a mount point or content object synchronously. */
+    private Object[] getChildrenNow(final Object parentElement) {
+        if (parentElement instanceof DeferredContentLoader.Placeholder) {
+            return NO_CHILDREN;
+        }
         if (parentElement instanceof AbstractContentProvider) {
             AbstractContentProvider prov =
                     (AbstractContentProvider)parentElement;
@@ -293,6 +339,9 @@ public Object getParent(final Object element) {
             // we are the root of the tree
             return null;
         }
+        if (element instanceof DeferredContentLoader.Placeholder) {
+            return ((DeferredContentLoader.Placeholder)element).getParent();
+        }
         if (element instanceof AbstractContentProvider) {
             // content providers are the first level children
             return this;
@@ -325,6 +374,17 @@ public boolean hasChildren(final Object element) {
             // content providers are the first level children
             return !m_provider.isEmpty();
         }
+        if (element instanceof DeferredContentLoader.Placeholder) {
+            return false;
+        }
+        if (m_deferredLoader != null) {
+            AbstractContentProvider prov = getProvider(element);
+            if (prov != null) {
+                // no file store access here, this is called for every visible element in the display thread
+                Boolean loaded = m_deferredLoader.hasLoadedChildren(prov, element);
+                return loaded != null ? loaded : m_deferredLoader.mayHaveChildren(prov, element);
+            }
+        }
         if (element instanceof AbstractContentProvider) {
             // content providers are the first level children
             AbstractContentProvider prov = (AbstractContentProvider)element;
@@ -340,6 +400,94 @@ public boolean hasChildren(final Object element) {
         return c.getProvider().hasChildren(c.getObject());
     }
 
+    /**
+     * Guesses from the type of an element whether it has children, without listing them. The children are only
+     * loaded once the element is expanded. Accesses the file store, hence only called by the deferred loader in a
+     * worker thread.
+     */
+    private static boolean mayHaveChildren(final Object element) {
+        if (!(element instanceof ContentObject)) {
+            // mount points
+            return true;
+        }
+        ContentObject c = (ContentObject)element;
+        AbstractExplorerFileInfo info = c.getObject().fetchInfo();
+        if (!info.exists()) {
+            return false;
+        }
+        if (info.isWorkflowGroup()) {
+            return true;
+        }
+        if (info.isWorkflow()) {
+            // remote mount points show the jobs of a workflow
+            return c.getProvider().isRemote();
+        }
+        // data files, templates, snapshots, nodes
+        return !(info.isFile() || info.isWorkflowTemplate() || info.isSnapshot() || info.isNode()
+            || info.isMetaNode());
+    }
+
+    /**
+     * Whether the content needed to show the given tree objects is loaded, i.e. the children of all their ancestors
+     * are loaded and up to date. Starts loading the missing content, {@link #CONTENT_CHANGED} events are fired once
+     * it's available. Always <code>true</code> if deferred loading is not enabled.
+     *
+     * @param treeObjects the objects (content objects or mount points) to show
+     * @return whether all ancestors of the objects are loaded
+     * @since 8.7
+     */
+    public boolean isLoaded(final Collection<?> treeObjects) {
+        if (m_deferredLoader == null) {
+            return true;
+        }
+        boolean loaded = true;
+        for (Object o : treeObjects) {
+            Object parent = getParent(o);
+            while (parent != null && parent != this) {
+                AbstractContentProvider prov = getProvider(parent);
+                if (prov != null) {
+                    // ask for every ancestor, so all missing loads are started at once
+                    loaded &= m_deferredLoader.isLoaded(prov, parent);
+                }
+                parent = getParent(parent);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Whether the object is shown in place of the children of an element while they are loaded in the background.
+     * Such placeholders don't represent any file store and should be ignored, e.g. when they are selected.
+     *
+     * @param treeObject an object in the explorer tree
+     * @return whether the object is a placeholder for children being loaded
+     * @since 8.7
+     */
+    public static boolean isPlaceholder(final Object treeObject) {
+        return treeObject instanceof DeferredContentLoader.Placeholder;
+    }
+
+    /**
+     * @return whether children are being loaded in the background
+     * @since 8.7
+     */
+    public boolean isLoading() {
+        return m_deferredLoader != null && m_deferredLoader.isLoading();
+    }
+
+    /**
+     * @return the content provider of a mount point or content object, null for other objects
+     */
+    private static AbstractContentProvider getProvider(final Object element) {
+        if (element instanceof AbstractContentProvider) {
+            return (AbstractContentProvider)element;
+        }
+        if (element instanceof ContentObject) {
+            return ((ContentObject)element).getProvider();
+        }
+        return null;
+    }
+
     /**
      * Creates the (new but) same object that is stored in the view tree for the
      * passed file.
@@ -457,6 +605,9 @@ public Image getImage(final Object obj) {
         if (obj instanceof AbstractContentProvider) {
             return ((AbstractContentProvider)obj).getImage();
         }
+        if (obj instanceof DeferredContentLoader.Placeholder) {
+            return null;
+        }
         if (!(obj instanceof ContentObject)) {
             // all children should be of that type!
             LOGGER.coding(Messages.getString("ContentDelegator.11") + obj //$NON-NLS-1$
@@ -479,6 +630,9 @@ public String getText(final Object element) {
             AbstractContentProvider acp = (AbstractContentProvider)element;
             return getMountID(acp) + " (" + acp.toString() + ")"; //$NON-NLS-1$ //$NON-NLS-2$
         }
+        if (element instanceof DeferredContentLoader.Placeholder) {
+            return element.toString();
+        }
         if (!(element instanceof ContentObject)) {
             // all children should be of that type!
             LOGGER.coding(Messages.getString("ContentDelegator.15") + element //$NON-NLS-1$
@@ -633,6 +787,9 @@ public void propertyChange(final PropertyChangeEvent event) {
             if (event.getNewValue() == null) {
                 // mount point was removed
                 mp.getProvider().removeListener(this);
+                if (m_deferredLoader != null) {
+                    m_deferredLoader.remove(mp.getProvider());
+                }
                 boolean removed = m_provider.remove(mp);
                 if (removed) {
                     notifyListeners(new PropertyChangeEvent(mp,
@@ -673,6 +830,19 @@ public void labelProviderChanged(final LabelProviderChangedEvent event) {
             AbstractContentProvider source =
                     (AbstractContentProvider)event.getSource();
             Object refresh = event.getElement();
+            if (m_deferredLoader != null) {
+                Object treeObject = refresh instanceof AbstractExplorerFileStore
+                    ? getTreeObjectFor((AbstractExplorerFileStore)refresh) : null;
+                if (treeObject != null) {
+                    if (m_deferredLoader.reload(source, treeObject)) {
+                        // the current children stay visible, listeners are notified once the new ones are loaded
+                        return;
+                    }
+                } else {
+                    // the current children are shown and reloaded on the refresh
+                    m_deferredLoader.invalidate(source);
+                }
+            }
             if (refresh instanceof AbstractExplorerFileStore) {
                 notifyListeners(new PropertyChangeEvent(source,
                         CONTENT_CHANGED, null, refresh));
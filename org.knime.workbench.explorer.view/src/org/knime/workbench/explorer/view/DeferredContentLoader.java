@@ -0,0 +1,373 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Fetches the children of explorer tree elements in the background, on behalf of the {@link ContentDelegator} in
+ * deferred loading mode. Until the children of an element are available a {@link Placeholder} is shown. Loaded
+ * children are cached per mount point (content provider) for a limited time, concurrent requests for the same element
+ * share one load. Invalidated or outdated children stay visible until their replacement has been loaded.
+ *
+ * <p>
+ * Whether an element has children is answered from its loaded children. For elements that haven't been expanded yet
+ * the load of their parent also determines (in the worker thread) whether they may have children, until then they are
+ * assumed to have some.
+ * </p>
+ */
+final class DeferredContentLoader {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DeferredContentLoader.class);
+
+    /** Number of threads fetching children in parallel. */
+    private static final int POOL_SIZE = 4;
+
+    /** Time loaded children of a local mount point are considered up to date, in ms. */
+    private static final long LOCAL_TTL = 5_000;
+
+    /** Time loaded children of a remote mount point are considered up to date, in ms. */
+    private static final long REMOTE_TTL = 60_000;
+
+    /**
+     * The element shown in place of the children of a tree element while they are loaded.
+     */
+    static final class Placeholder {
+        private final Object m_parent;
+
+        private Placeholder(final Object parent) {
+            m_parent = parent;
+        }
+
+        /**
+         * @return the element whose children are loaded
+         */
+        Object getParent() {
+            return m_parent;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            return (obj instanceof Placeholder) && m_parent.equals(((Placeholder)obj).m_parent);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return m_parent.hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return Messages.getString("ContentDelegator.30"); //$NON-NLS-1$
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Object[] m_children;
+
+        private final long m_expires;
+
+        /** Whether the content changed since the children were loaded. */
+        private final boolean m_invalidated;
+
+        CacheEntry(final Object[] children, final long expires, final boolean invalidated) {
+            m_children = children;
+            m_expires = expires;
+            m_invalidated = invalidated;
+        }
+
+        private CacheEntry invalidate() {
+            return m_invalidated ? this : new CacheEntry(m_children, 0, true);
+        }
+    }
+
+    private final Function<Object, Object[]> m_childrenFetcher;
+
+    private final Predicate<Object> m_childrenGuesser;
+
+    private final BiConsumer<AbstractContentProvider, Object> m_loadedCallback;
+
+    /** Loaded children by element, per mount point. */
+    private final Map<AbstractContentProvider, Map<Object, CacheEntry>> m_cache = new ConcurrentHashMap<>();
+
+    /** Whether elements may have children, determined when their parent was loaded; per mount point. */
+    private final Map<AbstractContentProvider, Map<Object, Boolean>> m_mayHaveChildren = new ConcurrentHashMap<>();
+
+    /** Running loads by element. */
+    private final Map<Object, CompletableFuture<Object[]>> m_pending = new ConcurrentHashMap<>();
+
+    /** Incremented with every invalidation, children loaded during an invalidation are cached as invalidated. */
+    private final AtomicLong m_invalidationCount = new AtomicLong();
+
+    private final ThreadPoolExecutor m_executor;
+
+    private volatile boolean m_disposed;
+
+    /**
+     * @param childrenFetcher fetches the children of an element synchronously, called in a worker thread
+     * @param childrenGuesser determines whether an element may have children without listing them, called in a worker
+     *            thread for the children of every loaded element
+     * @param loadedCallback notified (in a worker thread) with the mount point and the element once its children are
+     *            loaded
+     */
+    DeferredContentLoader(final Function<Object, Object[]> childrenFetcher,
+        final Predicate<Object> childrenGuesser, final BiConsumer<AbstractContentProvider, Object> loadedCallback) {
+        m_childrenFetcher = childrenFetcher;
+        m_childrenGuesser = childrenGuesser;
+        m_loadedCallback = loadedCallback;
+        final AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread t = new Thread(r, "KNIME Explorer Content Loader-" + threadCount.incrementAndGet()); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        };
+        m_executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), threadFactory);
+        m_executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the children of an element if they are loaded, otherwise a placeholder. If the cached children are
+     * outdated or invalidated they are returned nevertheless and reloaded in the background.
+     *
+     * @param provider the mount point of the element
+     * @param element the tree element
+     * @return the children or an array containing only a {@link Placeholder}
+     */
+    Object[] getChildren(final AbstractContentProvider provider, final Object element) {
+        CacheEntry entry = getCacheEntry(provider, element);
+        if ((entry == null) || (entry.m_expires < System.currentTimeMillis())) {
+            load(provider, element);
+        }
+        return entry == null ? new Object[]{new Placeholder(element)} : entry.m_children;
+    }
+
+    /**
+     * Whether an element has children, according to the last loaded children. Doesn't start a load.
+     *
+     * @param provider the mount point of the element
+     * @param element the tree element
+     * @return whether the element has children, <code>null</code> if its children have never been loaded
+     */
+    Boolean hasLoadedChildren(final AbstractContentProvider provider, final Object element) {
+        CacheEntry entry = getCacheEntry(provider, element);
+        return entry == null ? null : entry.m_children.length > 0;
+    }
+
+    /**
+     * Whether an element may have children, as determined when its parent was loaded. Doesn't do any I/O.
+     *
+     * @param provider the mount point of the element
+     * @param element the tree element
+     * @return whether the element may have children, <code>true</code> if not known yet
+     */
+    boolean mayHaveChildren(final AbstractContentProvider provider, final Object element) {
+        Map<Object, Boolean> providerHints = m_mayHaveChildren.get(provider);
+        Boolean hint = providerHints == null ? null : providerHints.get(element);
+        return hint == null || hint;
+    }
+
+    /**
+     * Whether the children of an element are loaded and the content didn't change since. Starts a load otherwise.
+     *
+     * @param provider the mount point of the element
+     * @param element the tree element
+     * @return whether the cached children are up to date
+     */
+    boolean isLoaded(final AbstractContentProvider provider, final Object element) {
+        CacheEntry entry = getCacheEntry(provider, element);
+        if ((entry == null) || entry.m_invalidated) {
+            load(provider, element);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return whether children are being loaded
+     */
+    boolean isLoading() {
+        return !m_pending.isEmpty();
+    }
+
+    private CacheEntry getCacheEntry(final AbstractContentProvider provider, final Object element) {
+        Map<Object, CacheEntry> providerCache = m_cache.get(provider);
+        return providerCache == null ? null : providerCache.get(element);
+    }
+
+    private void load(final AbstractContentProvider provider, final Object element) {
+        if (m_disposed) {
+            return;
+        }
+        // a second request for the same element while it's loading is served by the running load
+        CompletableFuture<Object[]> future = new CompletableFuture<>();
+        if (m_pending.putIfAbsent(element, future) != null) {
+            return;
+        }
+        final long invalidationCount = m_invalidationCount.get();
+        try {
+            m_executor.execute(() -> future.complete(fetch(provider, element, invalidationCount)));
+        } catch (RejectedExecutionException e) {
+            // disposed meanwhile
+            m_pending.remove(element);
+            future.cancel(false);
+        }
+    }
+
+    /** Called in a worker thread. */
+    private Object[] fetch(final AbstractContentProvider provider, final Object element,
+        final long invalidationCount) {
+        Object[] children;
+        try {
+            children = m_childrenFetcher.apply(element);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to list the content of " + element + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+            children = new Object[0];
+        }
+        Map<Object, Boolean> hints = new HashMap<>();
+        for (Object child : children) {
+            try {
+                hints.put(child, m_childrenGuesser.test(child));
+            } catch (RuntimeException e) {
+                LOGGER.debug("Unable to determine whether " + child + " has children: " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        try {
+            if (m_disposed) {
+                return children;
+            }
+            m_mayHaveChildren.computeIfAbsent(provider, p -> new ConcurrentHashMap<>()).putAll(hints);
+            // if the content changed while loading, the children are shown but loaded again when requested next time
+            boolean invalidated = invalidationCount != m_invalidationCount.get();
+            long ttl = provider.isRemote() ? REMOTE_TTL : LOCAL_TTL;
+            m_cache.computeIfAbsent(provider, p -> new ConcurrentHashMap<>()).put(element,
+                new CacheEntry(children, invalidated ? 0 : System.currentTimeMillis() + ttl, invalidated));
+        } finally {
+            m_pending.remove(element);
+        }
+        // if invalidated the callback leads to another load
+        m_loadedCallback.accept(provider, element);
+        return children;
+    }
+
+    /**
+     * Marks the cached children of an element as invalid and reloads them. The invalidated children are returned by
+     * {@link #getChildren(AbstractContentProvider, Object)} until the new children have been loaded, which is
+     * announced by the loaded callback.
+     *
+     * @param provider the mount point of the element
+     * @param element the tree element
+     * @return <code>true</code> if the children of the element were cached (and are reloaded), <code>false</code> if
+     *         they have never been loaded
+     */
+    boolean reload(final AbstractContentProvider provider, final Object element) {
+        m_invalidationCount.incrementAndGet();
+        Map<Object, CacheEntry> providerCache = m_cache.get(provider);
+        if ((providerCache == null) || (providerCache.computeIfPresent(element, (e, c) -> c.invalidate()) == null)) {
+            return false;
+        }
+        load(provider, element);
+        return true;
+    }
+
+    /**
+     * Marks all cached children of a mount point as invalid, they are reloaded when requested the next time but
+     * returned until then.
+     *
+     * @param provider the mount point
+     */
+    void invalidate(final AbstractContentProvider provider) {
+        m_invalidationCount.incrementAndGet();
+        Map<Object, CacheEntry> providerCache = m_cache.get(provider);
+        if (providerCache != null) {
+            providerCache.replaceAll((e, c) -> c.invalidate());
+        }
+    }
+
+    /**
+     * Drops all cached children of a mount point, e.g. because it was removed.
+     *
+     * @param provider the mount point
+     */
+    void remove(final AbstractContentProvider provider) {
+        m_invalidationCount.incrementAndGet();
+        m_cache.remove(provider);
+        m_mayHaveChildren.remove(provider);
+    }
+
+    /**
+     * Drops all cached children and stops the worker threads.
+     */
+    void dispose() {
+        m_disposed = true;
+        m_cache.clear();
+        m_mayHaveChildren.clear();
+        m_executor.shutdownNow();
+    }
+}
@@ -77,6 +77,9 @@ protected boolean doSelect(final Object parentElement,
         // Content delegators are always shown
         if (element instanceof AbstractContentProvider) {
             return true;
+        } else if (element instanceof DeferredContentLoader.Placeholder) {
+            // children still loading
+            return true;
         } else if (element instanceof ContentObject
                 || element instanceof AbstractExplorerFileStore) {
             AbstractExplorerFileStore fileStore = null;
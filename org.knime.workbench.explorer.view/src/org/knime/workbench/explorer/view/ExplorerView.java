@@ -230,6 +230,9 @@ public void focusGained(final FocusEvent e) {
     private final AtomicReference<Collection<AbstractExplorerFileStore>> m_nextSelection =
             new AtomicReference<Collection<AbstractExplorerFileStore>>();
 
+    // expand all again after refreshes, until the children loaded in the background are all expanded
+    private boolean m_expandAllPending;
+
     /**
      * {@inheritDoc}
      */
@@ -242,6 +245,7 @@ public void createPartControl(final Composite parent) {
         data.horizontalIndent = 0;
         overall.setLayoutData(data);
         m_contentDelegator.addPropertyChangeListener(this);
+        m_contentDelegator.enableDeferredLoading();
         createTreeViewer(overall, m_contentDelegator);
         assert m_viewer != null; // should be set by createTreeViewer
         // needed by the toolbar and the menus
@@ -594,18 +598,25 @@ public void run() {
                     } else {
                         m_viewer.refresh();
                     }
-                    Collection<AbstractExplorerFileStore> fs =
-                            m_nextSelection.getAndSet(null);
+                    Collection<AbstractExplorerFileStore> fs = m_nextSelection.get();
                     if (fs != null) {
                         List<Object> sel = ContentDelegator.getTreeObjectList(fs);
-                        m_viewer.setSelection(new StructuredSelection(sel),
-                                true);
+                        // the selection is kept until the parents of the selected items are loaded,
+                        // another refresh follows once they are
+                        if (m_contentDelegator.isLoaded(sel) && m_nextSelection.compareAndSet(fs, null)) {
+                            m_viewer.setSelection(new StructuredSelection(sel),
+                                    true);
+                        }
+                    }
+                    if (m_expandAllPending) {
+                        m_viewer.expandAll();
+                        m_expandAllPending = m_contentDelegator.isLoading();
                     }
 
                     for (ViewerFilter vf : m_viewer.getFilters()) {
                         if ((vf instanceof TextualViewFilter)
                                 && ((TextualViewFilter) vf).hasNonEmptyQuery()) {
-                            m_viewer.expandAll();
+                            expandAll();
                             break;
                         }
                     }
@@ -614,6 +625,17 @@ public void run() {
         });
     }
 
+    /**
+     * Expands all elements of the tree. Elements whose children are still loaded are expanded once they are
+     * available.
+     *
+     * @since 8.7
+     */
+    public void expandAll() {
+        m_viewer.expandAll();
+        m_expandAllPending = m_contentDelegator.isLoading();
+    }
+
     /**
      * Sets the file that should be selected after the next refresh.
      *
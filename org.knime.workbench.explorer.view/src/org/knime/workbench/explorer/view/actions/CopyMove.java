@@ -50,6 +50,7 @@
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -83,6 +84,9 @@ public final class CopyMove {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(CopyMove.class);
 
+    /** How long the deletion of the remaining workflow groups waits for the transfers of a move, in ms. */
+    private static final long TRANSFER_WAIT_MS = 60000;
+
     private final ExplorerView m_view;
 
     private final AbstractExplorerFileStore m_target;
@@ -147,8 +151,9 @@ public CopyMoveResult run(final IProgressMonitor monitor) {
 
         int numFiles = processedTargets.size();
         monitor.beginTask(cmd + " " + numFiles + Messages.getString("CopyMove.1") + m_target.getFullName(), numFiles); //$NON-NLS-1$ //$NON-NLS-2$
-        int iterationCount = processedTargets.size();
-        List<ExplorerJob> moveJobs = new ArrayList<>();
+        final Set<AbstractExplorerFileStore> movedSourceParents = new LinkedHashSet<>();
+        final TransferScheduler scheduler = new TransferScheduler(
+            cmd + " " + numFiles + Messages.getString("CopyMove.1") + m_target.getFullName()); //$NON-NLS-1$ //$NON-NLS-2$
         for (final Map.Entry<AbstractExplorerFileStore, AbstractExplorerFileStore> entry : destCheckerMappings
             .entrySet()) {
             AbstractExplorerFileStore srcFS = entry.getKey();
@@ -196,33 +201,24 @@ public CopyMoveResult run(final IProgressMonitor monitor) {
                     ((RemoteExplorerFileStore)destFS).createSnapshot(info.getComment());
                 }
 
-                AfterRunCallback callback = null; // for async operations
-                if (--iterationCount == 0) {
-                    callback = t -> {
-                        m_view.setNextSelection(processedTargets);
-
-                        // update source folder as we removed an item from it.
-                        if (!srcFS.equals(m_target) && m_performMove) {
-                            srcFS.getParent().refresh();
-                        }
-
-                        m_target.refresh();
-                    };
+                if (!srcFS.equals(m_target) && m_performMove) {
+                    movedSourceParents.add(srcFS.getParent());
                 }
+                // the transfers are started by the scheduler, limited per (remote) mount point
                 if (!isSrcRemote && isDstRemote) { // upload
-                    destFS.getContentProvider().performUploadAsync((LocalExplorerFileStore)srcFS,
-                        (RemoteExplorerFileStore)destFS, m_performMove, m_excludeDataInWorkflows, callback);
+                    scheduler.add(destFS.getMountID(), operation, true,
+                        callback -> destFS.getContentProvider().performUploadAsync((LocalExplorerFileStore)srcFS,
+                            (RemoteExplorerFileStore)destFS, m_performMove, m_excludeDataInWorkflows, callback));
                 } else if (isSrcRemote && !isDstRemote) { // download
                     CheckUtils.checkState(!m_excludeDataInWorkflows, Messages.getString("CopyMove.19")); //$NON-NLS-1$
-                    destFS.getContentProvider().performDownloadAsync((RemoteExplorerFileStore)srcFS,
-                        (LocalExplorerFileStore)destFS, m_performMove, callback);
+                    scheduler.add(srcFS.getMountID(), operation, true,
+                        callback -> destFS.getContentProvider().performDownloadAsync((RemoteExplorerFileStore)srcFS,
+                            (LocalExplorerFileStore)destFS, m_performMove, callback));
                 } else { // regular copy
                     CheckUtils.checkState(!m_excludeDataInWorkflows, Messages.getString("CopyMove.20")); //$NON-NLS-1$
-                    if (m_performMove) {
-                        moveJobs.add(scheduleLocalCopyOrMove(srcFS, destFS, callback, m_performMove, options));
-                    } else {
-                        scheduleLocalCopyOrMove(srcFS, destFS, callback, m_performMove, options);
-                    }
+                    // local copies fail again for the same reason, don't retry them
+                    scheduler.add(destFS.getMountID(), operation, false,
+                        callback -> scheduleLocalCopyOrMove(srcFS, destFS, callback, m_performMove, options));
                 }
             } catch (CoreException e) {
                 LOGGER.debug(cmd + Messages.getString("CopyMove.21") + e.getStatus().getMessage(), e); //$NON-NLS-1$
@@ -243,23 +239,39 @@ public CopyMoveResult run(final IProgressMonitor monitor) {
             }
             monitor.worked(1);
         }
+        ExplorerJob transferJob = null;
+        if (!scheduler.isEmpty()) {
+            transferJob = scheduler.schedule(t -> {
+                m_view.setNextSelection(processedTargets);
+
+                // update source folders as we removed items from them.
+                for (AbstractExplorerFileStore parent : movedSourceParents) {
+                    parent.refresh();
+                }
+
+                m_target.refresh();
+            });
+        }
         if (m_performMove && !m_srcFileStores.isEmpty()) {
-            scheduleDeletionOfRemainingWorkflowGroups(destCheckerMappings, moveJobs);
+            scheduleDeletionOfRemainingWorkflowGroups(destCheckerMappings, transferJob);
         }
         return new CopyMoveResult(statusList, success);
     }
 
     private void scheduleDeletionOfRemainingWorkflowGroups(
         final Map<AbstractExplorerFileStore, AbstractExplorerFileStore> destCheckerMappings,
-        final List<ExplorerJob> moveJobs) {
+        final ExplorerJob transferJob) {
         ExplorerJob job = new ExplorerJob(Messages.getString("CopyMove.24")) { //$NON-NLS-1$
 
             @Override
             protected IStatus run(final IProgressMonitor monitor) {
-                // wait for the move jobs to move all the files
-                for (ExplorerJob moveJob : moveJobs) {
+                // wait for the transfers to move all the files
+                if (transferJob != null) {
                     try {
-                        moveJob.join(60000, monitor);
+                        if (!transferJob.join(TRANSFER_WAIT_MS, monitor)) {
+                            LOGGER.debug("Transfers not completed after " + TRANSFER_WAIT_MS //$NON-NLS-1$
+                                + " ms, deleting the remaining workflow groups nevertheless"); //$NON-NLS-1$
+                        }
                     } catch (InterruptedException e) {
                         return Status.CANCEL_STATUS;
                     }
@@ -77,7 +77,7 @@ public String getId() {
      */
     @Override
     public void run() {
-        getViewer().expandAll();
+        getView().expandAll();
     }
 
 }
@@ -0,0 +1,263 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view.actions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.FileSingleNodeContainerPersistor;
+import org.knime.core.node.workflow.WorkflowPersistor;
+
+/**
+ * Writes a download into the local workspace while it is received. Archives are unzipped entry by entry into a hidden
+ * staging directory next to the target; plain files are written into a hidden staging file. Once the download is
+ * complete, {@link #moveIntoTarget()} moves the result to the target by renaming it, so the download is neither
+ * stored in a temporary file nor copied a second time.
+ *
+ * <p>
+ * The element that ends up in the target is chosen as in {@link TempExtractArchive#unpackWorkflowIntoLocalDir()}: if
+ * the archive contains exactly one workflow, template or workflow group at its top level, that element becomes the
+ * target, otherwise the entire archive content does.
+ */
+final class StreamingArchiveExtractor {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(StreamingArchiveExtractor.class);
+
+    private static final int BUFFSIZE = 1024 * 1024;
+
+    /**
+     * Thrown if the archive can't be extracted while it is streamed, e.g. because entries can only be read with the
+     * information in the central directory at the end of the archive.
+     */
+    static final class RandomAccessRequiredException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private RandomAccessRequiredException(final String message, final Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final File m_target;
+
+    private final boolean m_isArchive;
+
+    /** The staging directory (archives) or file (plain files), null until {@link #extract} is called. */
+    private File m_staging;
+
+    /**
+     * @param target the local file or directory the download is stored in
+     * @param isArchive true if the download is a zipped workflow, template or group; false for plain files
+     */
+    StreamingArchiveExtractor(final File target, final boolean isArchive) {
+        m_target = target;
+        m_isArchive = isArchive;
+    }
+
+    /**
+     * @return the staging location (for logging), null before {@link #extract} is called
+     */
+    File getStagingLocation() {
+        return m_staging;
+    }
+
+    /**
+     * Reads the download stream completely and stores its content in the staging location.
+     *
+     * @param in the download stream, not closed by this method
+     * @param monitor to report the extracted entries to, may be null
+     * @throws RandomAccessRequiredException if the archive can't be read sequentially
+     * @throws IOException if reading or writing fails
+     */
+    void extract(final InputStream in, final IProgressMonitor monitor) throws IOException {
+        final Path parent = m_target.getAbsoluteFile().toPath().getParent();
+        Files.createDirectories(parent);
+        final String prefix = "." + m_target.getName() + "."; //$NON-NLS-1$ //$NON-NLS-2$
+        final byte[] buffer = new byte[BUFFSIZE];
+        if (!m_isArchive) {
+            m_staging = Files.createTempFile(parent, prefix, ".part").toFile(); //$NON-NLS-1$
+            try (OutputStream out = Files.newOutputStream(m_staging.toPath())) {
+                copy(in, out, buffer);
+            }
+            return;
+        }
+
+        m_staging = Files.createTempDirectory(parent, prefix).toFile();
+        final Path stagingPath = m_staging.toPath();
+        final ZipInputStream zipIn = new ZipInputStream(in);
+        int entryCount = 0;
+        try {
+            ZipEntry entry;
+            while ((entry = zipIn.getNextEntry()) != null) {
+                final Path dest = stagingPath.resolve(entry.getName()).normalize();
+                if (!dest.startsWith(stagingPath) || dest.equals(stagingPath)) {
+                    throw new IOException("Illegal entry in downloaded archive: " + entry.getName()); //$NON-NLS-1$
+                }
+                if (monitor != null) {
+                    monitor.subTask(Messages.getString("WorkflowDownload.46") + entry.getName()); //$NON-NLS-1$
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(dest);
+                } else {
+                    Files.createDirectories(dest.getParent());
+                    try (OutputStream out = Files.newOutputStream(dest)) {
+                        copy(zipIn, out, buffer);
+                    }
+                }
+                entryCount++;
+            }
+        } catch (ZipException e) {
+            throw new RandomAccessRequiredException(e.getMessage(), e);
+        }
+        if (entryCount == 0) {
+            // no local headers at the start of the stream, e.g. data preceding the archive
+            throw new RandomAccessRequiredException("No entries found in the downloaded stream", null); //$NON-NLS-1$
+        }
+        LOGGER.debug("Extracted " + entryCount + " entries into " + m_staging.getAbsolutePath()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Moves the extracted content to the target, merging it with the target if that exists already.
+     *
+     * @throws IOException if moving fails
+     */
+    void moveIntoTarget() throws IOException {
+        final Path target = m_target.getAbsoluteFile().toPath();
+        if (!m_isArchive) {
+            Files.move(m_staging.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        final Path root = findImportRoot(m_staging.toPath());
+        LOGGER.debug("Moving " + root + " to " + target); //$NON-NLS-1$ //$NON-NLS-2$
+        moveTree(root, target);
+    }
+
+    /**
+     * Deletes whatever is left in the staging location.
+     */
+    void dispose() {
+        if (m_staging != null) {
+            FileUtils.deleteQuietly(m_staging);
+        }
+    }
+
+    private static void copy(final InputStream in, final OutputStream out, final byte[] buffer) throws IOException {
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    /**
+     * @return the single workflow, template or group at the top level of the archive, or the archive root if there is
+     *         none or more than one (or if the root itself is a workflow or template)
+     */
+    private static Path findImportRoot(final Path staging) throws IOException {
+        if (isWorkflowOrTemplate(childNames(staging))) {
+            return staging;
+        }
+        final List<Path> elements = new ArrayList<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(staging)) {
+            for (Path child : children) {
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS) && isImportElement(childNames(child))) {
+                    elements.add(child);
+                }
+            }
+        }
+        return elements.size() == 1 ? elements.get(0) : staging;
+    }
+
+    private static boolean isWorkflowOrTemplate(final Set<String> names) {
+        return names.contains(WorkflowPersistor.WORKFLOW_FILE) || names.contains(WorkflowPersistor.TEMPLATE_FILE);
+    }
+
+    /** Same classification as the archive import: workflows, templates and groups, but not e.g. node folders. */
+    private static boolean isImportElement(final Set<String> names) {
+        return isWorkflowOrTemplate(names) || names.contains(WorkflowPersistor.METAINFO_FILE)
+            || !names.contains(FileSingleNodeContainerPersistor.SETTINGS_FILE_NAME);
+    }
+
+    private static Set<String> childNames(final Path dir) throws IOException {
+        final Set<String> names = new HashSet<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                names.add(child.getFileName().toString());
+            }
+        }
+        return names;
+    }
+
+    private static void moveTree(final Path source, final Path dest) throws IOException {
+        if (!Files.exists(dest, LinkOption.NOFOLLOW_LINKS)) {
+            Files.move(source, dest);
+        } else if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)
+            && Files.isDirectory(dest, LinkOption.NOFOLLOW_LINKS)) {
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(source)) {
+                for (Path child : children) {
+                    moveTree(child, dest.resolve(child.getFileName().toString()));
+                }
+            }
+        } else {
+            Files.move(source, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
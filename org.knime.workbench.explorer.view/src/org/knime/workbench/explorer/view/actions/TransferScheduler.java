@@ -0,0 +1,414 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view.actions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.knime.core.node.NodeLogger;
+import org.knime.workbench.explorer.ExplorerActivator;
+import org.knime.workbench.explorer.view.AbstractContentProvider.AfterRunCallback;
+import org.knime.workbench.explorer.view.ExplorerJob;
+
+/**
+ * Runs the transfers of a batch copy or move with a bounded number of concurrent transfers per mount point. The
+ * transfers are started by a single job, which reports the progress of the whole batch and cancels all running
+ * transfers when it is canceled itself. Failed remote transfers are retried a few times before they are given up.
+ *
+ * <p>
+ * A transfer is started asynchronously (e.g. by
+ * {@link org.knime.workbench.explorer.view.AbstractContentProvider#performDownloadAsync}) and reports its completion
+ * through the passed callback. The jobs scheduled while a transfer is started, and the jobs these jobs schedule in turn,
+ * are attributed to the transfer, so they can be canceled and a transfer whose job is canceled before it runs is still
+ * counted as completed.
+ *
+ * <p>
+ * The number of concurrent transfers defaults to {@value #DEFAULT_PARALLELISM} and can be set with the system property
+ * {@value #PARALLELISM_PROPERTY} or, for a single mount point, with {@value #PARALLELISM_PROPERTY}<code>.</code>
+ * <i>mountID</i>. The number of retries is read from {@value #RETRIES_PROPERTY}.
+ */
+final class TransferScheduler {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TransferScheduler.class);
+
+    /** System property for the number of concurrent transfers per mount point. */
+    static final String PARALLELISM_PROPERTY = "knime.explorer.transfer.parallelism"; //$NON-NLS-1$
+
+    /** System property for the number of times a failed remote transfer is retried. */
+    static final String RETRIES_PROPERTY = "knime.explorer.transfer.retries"; //$NON-NLS-1$
+
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private static final int DEFAULT_RETRIES = 2;
+
+    /** Delay before the first retry, doubled for every further retry. */
+    private static final long RETRY_DELAY_MS = 1000;
+
+    /** How often cancellation is checked while waiting for transfers to complete. */
+    private static final long POLL_INTERVAL_MS = 100;
+
+    /** Starts a single transfer. */
+    @FunctionalInterface
+    interface Transfer {
+
+        /**
+         * Starts the transfer. The callback is called when the transfer is completed, also if it fails after it has
+         * been started. As the callbacks of content providers are optional, a transfer also counts as completed once
+         * all jobs it scheduled are done.
+         *
+         * @param done the callback to report the completion to, never null
+         * @throws CoreException if the transfer can't be started
+         */
+        void start(AfterRunCallback done) throws CoreException;
+    }
+
+    private final String m_name;
+
+    private final int m_maxRetries;
+
+    private final List<Item> m_items = new ArrayList<>();
+
+    private final BlockingQueue<Completion> m_completions = new LinkedBlockingQueue<>();
+
+    /** The running jobs (not the job of this scheduler) mapped to the transfer attempt they belong to. */
+    private final Map<Job, Attempt> m_spawnedJobs = new ConcurrentHashMap<>();
+
+    /** The attempt that is being started in the scheduler job, null otherwise. */
+    private volatile Attempt m_starting;
+
+    private volatile ExplorerJob m_job;
+
+    /**
+     * @param name the name of the job shown in the progress view
+     */
+    TransferScheduler(final String name) {
+        m_name = name;
+        m_maxRetries = Math.max(0, Integer.getInteger(RETRIES_PROPERTY, DEFAULT_RETRIES));
+    }
+
+    /**
+     * Adds a transfer to the batch. Transfers are started in the order they are added.
+     *
+     * @param mountID the ID of the mount point the transfer is limited by, usually the remote side of the transfer
+     * @param name the name of the transfer for progress and log messages
+     * @param retry true if the transfer is retried if it fails, false if it is given up immediately
+     * @param transfer starts the transfer
+     */
+    void add(final String mountID, final String name, final boolean retry, final Transfer transfer) {
+        if (m_job != null) {
+            throw new IllegalStateException("Transfers have already been scheduled"); //$NON-NLS-1$
+        }
+        m_items.add(new Item(mountID, name, retry, transfer));
+    }
+
+    /**
+     * @return true if no transfers have been added
+     */
+    boolean isEmpty() {
+        return m_items.isEmpty();
+    }
+
+    /**
+     * Schedules the job that runs the transfers. Errors of started transfers are reported by the transfers themselves;
+     * the job fails only with the errors of transfers that could not be started.
+     *
+     * @param callback called in the display thread once all transfers are completed or the job is canceled, may be
+     *            null. The throwable passed to it is the last error of a transfer that could not be completed.
+     * @return the scheduled job, e.g. to wait for the transfers to complete
+     */
+    ExplorerJob schedule(final AfterRunCallback callback) {
+        if (m_job != null) {
+            throw new IllegalStateException("Transfers have already been scheduled"); //$NON-NLS-1$
+        }
+        m_job = new ExplorerJob(m_name) {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                return runTransfers(monitor, callback);
+            }
+        };
+        m_job.schedule();
+        return m_job;
+    }
+
+    private IStatus runTransfers(final IProgressMonitor monitor, final AfterRunCallback callback) {
+        final IJobChangeListener tracker = new JobTracker();
+        Job.getJobManager().addJobChangeListener(tracker);
+        final Deque<Item> pending = new ArrayDeque<>(m_items);
+        final Map<String, Integer> running = new HashMap<>();
+        final List<IStatus> startFailures = new ArrayList<>();
+        Throwable lastError = null;
+        int remaining = m_items.size();
+        monitor.beginTask(m_name, remaining);
+        try {
+            while (remaining > 0) {
+                if (monitor.isCanceled()) {
+                    cancelRunningTransfers();
+                    AfterRunCallback.callCallbackInDisplayThread(callback, new OperationCanceledException());
+                    return Status.CANCEL_STATUS;
+                }
+                remaining -= startReadyTransfers(pending, running, startFailures, monitor);
+                final Completion completion = m_completions.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (completion == null) {
+                    continue;
+                }
+                final Item item = completion.m_item;
+                running.merge(item.m_mountID, -1, Integer::sum);
+                final Throwable t = completion.m_throwable;
+                if (t != null && item.m_retry && item.m_attempt <= m_maxRetries && isRetryable(t)) {
+                    final long delay = RETRY_DELAY_MS << (item.m_attempt - 1);
+                    LOGGER.info("Transfer of " + item.m_name + " failed, retrying in " + delay + " ms: " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                        + t.getMessage());
+                    item.m_notBefore = System.currentTimeMillis() + delay;
+                    pending.addLast(item);
+                    continue;
+                }
+                if (t != null) {
+                    lastError = t;
+                }
+                remaining--;
+                monitor.worked(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelRunningTransfers();
+            return Status.CANCEL_STATUS;
+        } finally {
+            Job.getJobManager().removeJobChangeListener(tracker);
+            monitor.done();
+        }
+        AfterRunCallback.callCallbackInDisplayThread(callback,
+            lastError instanceof Exception ? (Exception)lastError : null);
+        if (startFailures.isEmpty()) {
+            return Status.OK_STATUS;
+        } else if (startFailures.size() == 1) {
+            return startFailures.get(0);
+        } else {
+            return new MultiStatus(ExplorerActivator.PLUGIN_ID, IStatus.ERROR,
+                startFailures.toArray(new IStatus[0]), m_name + Messages.getString("CopyMove.29"), null); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Starts the pending transfers that are due and whose mount point has a free slot.
+     *
+     * @return the number of transfers that failed to start, they count as completed
+     */
+    private int startReadyTransfers(final Deque<Item> pending, final Map<String, Integer> running,
+        final List<IStatus> startFailures, final IProgressMonitor monitor) {
+        int failed = 0;
+        final long now = System.currentTimeMillis();
+        for (Iterator<Item> it = pending.iterator(); it.hasNext();) {
+            final Item item = it.next();
+            final int runningForMount = running.getOrDefault(item.m_mountID, 0);
+            if (item.m_notBefore > now || runningForMount >= getParallelism(item.m_mountID)) {
+                continue;
+            }
+            it.remove();
+            item.m_attempt++;
+            monitor.subTask(item.m_name);
+            final Attempt attempt = new Attempt(item);
+            m_starting = attempt;
+            try {
+                item.m_transfer.start(attempt::complete);
+                running.put(item.m_mountID, runningForMount + 1);
+            } catch (CoreException e) {
+                attempt.m_completed.set(true);
+                LOGGER.debug("Could not start transfer of " + item.m_name + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+                startFailures.add(e.getStatus());
+                failed++;
+                monitor.worked(1);
+            } catch (RuntimeException e) {
+                attempt.m_completed.set(true);
+                LOGGER.debug("Could not start transfer of " + item.m_name + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+                startFailures.add(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID, e.getMessage(), e));
+                failed++;
+                monitor.worked(1);
+            } finally {
+                m_starting = null;
+            }
+        }
+        return failed;
+    }
+
+    private void cancelRunningTransfers() {
+        for (Job job : m_spawnedJobs.keySet()) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * @param mountID a mount ID
+     * @return the maximum number of concurrent transfers for the mount point, at least 1
+     */
+    static int getParallelism(final String mountID) {
+        final int parallelism = Integer.getInteger(PARALLELISM_PROPERTY + "." + mountID, //$NON-NLS-1$
+            Integer.getInteger(PARALLELISM_PROPERTY, DEFAULT_PARALLELISM));
+        return Math.max(1, parallelism);
+    }
+
+    /**
+     * Cancellations and errors caused by the request itself are not retried, they would fail again.
+     */
+    private static boolean isRetryable(final Throwable t) {
+        if (t instanceof OperationCanceledException || t instanceof InterruptedException
+            || t instanceof UnsupportedOperationException || t instanceof IllegalStateException
+            || t instanceof IllegalArgumentException) {
+            return false;
+        }
+        return !(t instanceof CoreException) || ((CoreException)t).getStatus().getSeverity() != IStatus.CANCEL;
+    }
+
+    /** Attributes the jobs scheduled by a transfer (and their descendants) to it. */
+    private final class JobTracker extends JobChangeAdapter {
+
+        @Override
+        public void scheduled(final IJobChangeEvent event) {
+            // the listener is called in the thread that schedules the job
+            final Job parent = Job.getJobManager().currentJob();
+            final Attempt owner = parent == m_job ? m_starting : (parent == null ? null : m_spawnedJobs.get(parent));
+            if (owner != null && m_spawnedJobs.put(event.getJob(), owner) == null) {
+                owner.m_runningJobs.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void done(final IJobChangeEvent event) {
+            final Attempt owner = m_spawnedJobs.remove(event.getJob());
+            if (owner == null) {
+                return;
+            }
+            final int stillRunning = owner.m_runningJobs.decrementAndGet();
+            final IStatus result = event.getResult();
+            // a job canceled before it ran, failed unexpectedly or not calling the optional callback at all doesn't
+            // report the completion; if the callback has been called already, this is a no-op
+            if (result != null && result.getSeverity() == IStatus.CANCEL) {
+                owner.complete(new OperationCanceledException());
+            } else if (result != null && result.getSeverity() == IStatus.ERROR) {
+                owner.complete(new CoreException(result));
+            } else if (stillRunning == 0) {
+                // the last job of the transfer succeeded
+                owner.complete(null);
+            }
+        }
+    }
+
+    /** A transfer of the batch and the state of its attempts. */
+    private final class Item {
+
+        private final String m_mountID;
+
+        private final String m_name;
+
+        private final boolean m_retry;
+
+        private final Transfer m_transfer;
+
+        private int m_attempt;
+
+        private long m_notBefore;
+
+        private Item(final String mountID, final String name, final boolean retry, final Transfer transfer) {
+            m_mountID = mountID;
+            m_name = name;
+            m_retry = retry;
+            m_transfer = transfer;
+        }
+
+    }
+
+    /** A single attempt to run a transfer, completed only once even if several jobs report its completion. */
+    private final class Attempt {
+
+        private final Item m_item;
+
+        private final AtomicBoolean m_completed = new AtomicBoolean();
+
+        /** The number of jobs attributed to the attempt that are not done yet. */
+        private final AtomicInteger m_runningJobs = new AtomicInteger();
+
+        private Attempt(final Item item) {
+            m_item = item;
+        }
+
+        private void complete(final Throwable t) {
+            if (m_completed.compareAndSet(false, true)) {
+                m_completions.add(new Completion(m_item, t));
+            }
+        }
+    }
+
+    private static final class Completion {
+
+        private final Item m_item;
+
+        private final Throwable m_throwable;
+
+        private Completion(final Item item, final Throwable throwable) {
+            m_item = item;
+            m_throwable = throwable;
+        }
+    }
+}
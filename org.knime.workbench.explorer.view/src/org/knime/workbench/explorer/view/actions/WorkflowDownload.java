@@ -48,9 +48,16 @@
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.io.FileUtils;
@@ -59,7 +66,11 @@
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.knime.core.node.NodeLogger;
 import org.knime.workbench.explorer.ExplorerActivator;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileInfo;
@@ -83,6 +94,9 @@ public class WorkflowDownload extends TempExtractArchive {
 
     private final RemoteExplorerFileStore m_source;
 
+    /** Stream requested by {@link #schedule()} while the download job waits for the server. */
+    private RemoteDownloadStream m_requestedStream;
+
     /**
      * Creates a action with the source and parent directory.
      *
@@ -169,7 +183,9 @@ protected void extractDownloadToTarget(final File downloadedFile)
     @Override
     protected void runSyncInternal(final IProgressMonitor monitor) throws CoreException {
         String srcIdentifier = getSourceFile().getMountIDWithFullPath();
+        RemoteDownloadStream requestedStream = takeRequestedStream();
         if (!isSourceSupported()) {
+            closeRequestedStream(requestedStream);
             throw new IllegalArgumentException(Messages.getString("WorkflowDownload.3") //$NON-NLS-1$
                     + srcIdentifier
                     + Messages.getString("WorkflowDownload.4")); //$NON-NLS-1$
@@ -177,18 +193,47 @@ protected void runSyncInternal(final IProgressMonitor monitor) throws CoreExcept
         LOGGER.debug(Messages.getString("WorkflowDownload.5") + srcIdentifier //$NON-NLS-1$
                 + Messages.getString("WorkflowDownload.6") + getTargetIdentifier() + "'"); //$NON-NLS-1$ //$NON-NLS-2$
 
-        final DownloadRunnable dwnLoader = new DownloadRunnable(
-                getSourceFile());
+        final StreamingArchiveExtractor extractor = createStreamingExtractor();
+        if (extractor != null) {
+            final DownloadRunnable streamer = new DownloadRunnable(getSourceFile(), extractor, requestedStream);
+            requestedStream = null;
+            streamer.run(monitor);
+            LOGGER.info(Messages.getString("WorkflowDownload.8") + srcIdentifier + ")"); //$NON-NLS-1$ //$NON-NLS-2$
+            final boolean success = streamer.waitUntilDone();
+            if (!streamer.isRandomAccessRequired()) {
+                finishDownload(streamer, success, monitor);
+                return;
+            }
+            extractor.dispose();
+            LOGGER.debug("Download of " + srcIdentifier + " can't be extracted while streaming (" //$NON-NLS-1$ //$NON-NLS-2$
+                + streamer.getErrorMessage() + "), downloading it into a temporary file"); //$NON-NLS-1$
+        }
+
+        final DownloadRunnable dwnLoader = new DownloadRunnable(getSourceFile(), null, requestedStream);
         dwnLoader.run(monitor);
 
         // now wait for the download to finish
-        boolean success = false;
         LOGGER.info(Messages.getString("WorkflowDownload.8") + srcIdentifier + ")"); //$NON-NLS-1$ //$NON-NLS-2$
-        success = dwnLoader.waitUntilDone();
+        finishDownload(dwnLoader, dwnLoader.waitUntilDone(), monitor);
+    }
+
+    /**
+     * Extracts the finished download into the target and deletes the source if requested.
+     *
+     * @param dwnLoader the finished download
+     * @param success the result of {@link DownloadRunnable#waitUntilDone()}
+     */
+    private void finishDownload(final DownloadRunnable dwnLoader, final boolean success,
+        final IProgressMonitor monitor) throws CoreException {
+        final StreamingArchiveExtractor extractor = dwnLoader.getExtractor();
+        boolean extracted = success;
 
         // error handling if download failed
         File tmpLoc = dwnLoader.getTempFile();
-        if (tmpLoc == null || !success) {
+        if ((extractor == null ? tmpLoc == null : !dwnLoader.isExtracted()) || !success) {
+            if (extractor != null) {
+                extractor.dispose();
+            }
             int status;
             String msg = Messages.getString("WorkflowDownload.10"); //$NON-NLS-1$
             if (success) {
@@ -210,23 +255,72 @@ protected void runSyncInternal(final IProgressMonitor monitor) throws CoreExcept
         prepareTarget();
 
         try {
-            extractDownloadToTarget(tmpLoc);
+            if (extractor != null) {
+                extractor.moveIntoTarget();
+            } else {
+                extractDownloadToTarget(tmpLoc);
+            }
         } catch (Exception e) {
             LOGGER.error(Messages.getString("WorkflowDownload.14"), e); //$NON-NLS-1$
-            success = false;
+            extracted = false;
         } finally {
-            tmpLoc.delete();
+            if (extractor != null) {
+                extractor.dispose();
+            } else {
+                tmpLoc.delete();
+            }
         }
         refreshTarget();
         Status status = dwnLoader.getStatus();
         if (status != null) {
             throw new CoreException(status);
         }
-        if (success && getDeleteSource()) {
+        if (extracted && getDeleteSource()) {
             m_source.delete(EFS.NONE, monitor);
         }
     }
 
+    /**
+     * Whether the download may be written into the target while it is received, instead of being stored in a
+     * temporary file that is passed to {@link #extractDownloadToTarget(File)} afterwards. Subclasses that change how
+     * the download is extracted should return <code>false</code>.
+     *
+     * @return true by default
+     * @since 8.7
+     */
+    protected boolean isStreamingExtractionSupported() {
+        return true;
+    }
+
+    /**
+     * @return an extractor writing the download directly into the (local) target, or null if the download must be
+     *         stored in a temporary file first
+     */
+    private StreamingArchiveExtractor createStreamingExtractor() {
+        if (!isStreamingExtractionSupported()) {
+            return null;
+        }
+        AbstractExplorerFileStore source = getSourceFile();
+        AbstractExplorerFileInfo info = source.fetchInfo();
+        if (info.isSnapshot()) {
+            source = source.getParent();
+            info = source.fetchInfo();
+        }
+        final boolean isArchive = info.isWorkflow() || info.isWorkflowTemplate() || info.isWorkflowGroup();
+        if (!isArchive && !info.isFile()) {
+            // reported by extractDownloadToTarget
+            return null;
+        }
+        final File target;
+        try {
+            target = getTargetDir().toLocalFile();
+        } catch (CoreException e) {
+            LOGGER.debug("No local file for download target " + getTargetIdentifier() + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+            return null;
+        }
+        return target == null ? null : new StreamingArchiveExtractor(target, isArchive);
+    }
+
     /**
      */
     public void schedule() {
@@ -246,7 +340,69 @@ protected IStatus run(final IProgressMonitor monitor2) {
                 return Status.OK_STATUS;
             }
         };
-        j.schedule();
+        final ExplorerJob request = new ExplorerJob(j.getName()) {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                requestDownloadStream(j);
+                return Status.OK_STATUS;
+            }
+        };
+        request.setUser(false);
+        request.setSystem(true);
+        request.schedule();
+    }
+
+    /**
+     * Asks the server to pack the source and lets the download job sleep until the data is ready, so no thread is
+     * blocked while the server is busy and several pending downloads each start as soon as their data is ready.
+     * Errors are left to the download job, which repeats the request.
+     */
+    private void requestDownloadStream(final Job downloadJob) {
+        RemoteDownloadStream stream = null;
+        try {
+            if (isSourceSupported()) {
+                stream = getSourceFile().openDownloadStream();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not request download of " + getSourceFile().getMountIDWithFullPath() + ": " //$NON-NLS-1$ //$NON-NLS-2$
+                + e.getMessage(), e);
+        }
+        if (stream == null) {
+            downloadJob.schedule();
+            return;
+        }
+        synchronized (this) {
+            m_requestedStream = stream;
+        }
+        downloadJob.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(final IJobChangeEvent event) {
+                // only has an effect if the job was canceled while it was sleeping
+                closeRequestedStream(takeRequestedStream());
+            }
+        });
+        downloadJob.schedule();
+        if (downloadJob.sleep()) {
+            stream.whenReadyForDownload().whenComplete((v, t) -> downloadJob.wakeUp());
+        }
+    }
+
+    private synchronized RemoteDownloadStream takeRequestedStream() {
+        final RemoteDownloadStream stream = m_requestedStream;
+        m_requestedStream = null;
+        return stream;
+    }
+
+    private static void closeRequestedStream(final RemoteDownloadStream stream) {
+        if (stream != null) {
+            stream.whenReadyForDownload().cancel(false);
+            try {
+                // cancels the server side
+                stream.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close download stream: " + e.getMessage(), e); //$NON-NLS-1$
+            }
+        }
     }
 
     //=========================================================================
@@ -258,8 +414,15 @@ protected IStatus run(final IProgressMonitor monitor2) {
      */
     protected static class DownloadRunnable implements Runnable {
 
+        /** How often cancellation is checked while waiting for the server. */
+        private static final long CANCEL_CHECK_INTERVAL_MS = 100;
+
         private final RemoteExplorerFileStore m_source;
 
+        private final RemoteDownloadStream m_stream;
+
+        private final StreamingArchiveExtractor m_extractor;
+
         private final AtomicBoolean m_cancel = new AtomicBoolean(false);
 
         // this is also used as object to wait for the runnable to finish
@@ -271,6 +434,10 @@ protected static class DownloadRunnable implements Runnable {
 
         private MultiStatus m_status = null;
 
+        private boolean m_extracted;
+
+        private boolean m_randomAccessRequired;
+
         /**
          * Returns the collected status of the download operation. If some
          * items could not be downloaded, e.g. due to missing permissions,
@@ -288,10 +455,22 @@ public Status getStatus() {
          *
          */
         public DownloadRunnable(final RemoteExplorerFileStore source) {
+            this(source, null, null);
+        }
+
+        /**
+         * @param source the file store to download
+         * @param extractor stores the download while it is received, null to download into a temp file
+         * @param stream the already opened download stream of the source, null to open it in {@link #run()}
+         */
+        DownloadRunnable(final RemoteExplorerFileStore source, final StreamingArchiveExtractor extractor,
+            final RemoteDownloadStream stream) {
             if (source == null) {
                 throw new NullPointerException(Messages.getString("WorkflowDownload.22")); //$NON-NLS-1$
             }
             m_source = source;
+            m_extractor = extractor;
+            m_stream = stream;
         }
 
         /**
@@ -318,26 +497,18 @@ public void run(final IProgressMonitor monitor) {
                     monitor.beginTask(progMsg.toString(),
                             IProgressMonitor.UNKNOWN);
                 }
-                RemoteDownloadStream in =
-                        m_source.openDownloadStream();
+                RemoteDownloadStream in = m_stream != null ? m_stream : m_source.openDownloadStream();
                 // wait for the server to finish zipping
-                while (!in.readyForDownload()) {
-                    if (monitor != null && monitor.isCanceled()) {
-                        m_cancel.set(true);
-                    }
-                    if (m_cancel.get()) {
-                        m_tmpFile = null;
-                        m_errorMsg = Messages.getString("WorkflowDownload.25"); //$NON-NLS-1$
-                        // cancel server
-                        in.close();
-                        return;
-                    }
-                   Thread.sleep(1000);
+                if (!waitUntilReady(in, monitor)) {
+                    m_tmpFile = null;
+                    m_errorMsg = Messages.getString("WorkflowDownload.25"); //$NON-NLS-1$
+                    // cancel server
+                    in.close();
+                    return;
                 }
 
                 String size = " / <unknown>"; //$NON-NLS-1$
                 final String taskMessage = Messages.getString("WorkflowDownload.27") + m_source.getFullName()+ ": "; //$NON-NLS-1$ //$NON-NLS-2$
-                long downloaded = 0;
                 boolean useKB = false;
                 boolean useGB = false;
 
@@ -359,32 +530,27 @@ public void run(final IProgressMonitor monitor) {
                     }
                     monitor.beginTask(taskMessage + (useKB ? "0 kB" : useGB ? "0 GB" : "0 MB") + size, kbyte); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
                 }
-                m_tmpFile = File.createTempFile("KNIMEServerDownload", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
-                LOGGER.debug(Messages.getString("WorkflowDownload.38") + m_source //$NON-NLS-1$
+                final InputStream progressIn = new ProgressInputStream(in, monitor, taskMessage, size, useKB, useGB);
+                if (m_extractor != null) {
+                    try (BufferedInputStream inStream = new BufferedInputStream(progressIn, 1024 * 1024)) {
+                        m_extractor.extract(inStream, monitor);
+                    }
+                    LOGGER.debug(Messages.getString("WorkflowDownload.38") + m_source //$NON-NLS-1$
+                        + Messages.getString("WorkflowDownload.39") //$NON-NLS-1$
+                        + m_extractor.getStagingLocation().getAbsolutePath() + "'"); //$NON-NLS-1$
+                    m_extracted = true;
+                } else {
+                    m_tmpFile = File.createTempFile("KNIMEServerDownload", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+                    LOGGER.debug(Messages.getString("WorkflowDownload.38") + m_source //$NON-NLS-1$
                         + Messages.getString("WorkflowDownload.39") //$NON-NLS-1$
                         + m_tmpFile.getAbsolutePath() + "'"); //$NON-NLS-1$
 
-                try (BufferedInputStream inStream = new BufferedInputStream(in, 1024 * 1024);
-                        FileOutputStream outStream = new FileOutputStream(m_tmpFile)) {
-                    int b;
-                    byte[] buffer = new byte[1024 * 1024];
-                    while ((b = inStream.read(buffer)) >= 0) {
-                        outStream.write(buffer, 0, b);
-                        if (monitor != null) {
-                            monitor.worked(b >> 10);
-                            downloaded += b;
-                            monitor.setTaskName(taskMessage
-                                + (useKB ? (downloaded >> 10) + " kB" : getDecimalSize(downloaded >> 10, useGB)) //$NON-NLS-1$
-                                + size);
-                            if (monitor.isCanceled()) {
-                                m_cancel.set(true);
-                            }
-                        }
-                        if (m_cancel.get()) {
-                            m_tmpFile.delete();
-                            m_tmpFile = null;
-                            m_errorMsg = Messages.getString("WorkflowDownload.42"); //$NON-NLS-1$
-                            return;
+                    try (BufferedInputStream inStream = new BufferedInputStream(progressIn, 1024 * 1024);
+                            FileOutputStream outStream = new FileOutputStream(m_tmpFile)) {
+                        int b;
+                        byte[] buffer = new byte[1024 * 1024];
+                        while ((b = inStream.read(buffer)) >= 0) {
+                            outStream.write(buffer, 0, b);
                         }
                     }
                 }
@@ -409,6 +575,15 @@ public void run(final IProgressMonitor monitor) {
                             Messages.getString("WorkflowDownload.44") //$NON-NLS-1$
                             + Messages.getString("WorkflowDownload.45"), null); //$NON-NLS-1$
                 }
+            } catch (OperationCanceledException e) {
+                if (m_tmpFile != null) {
+                    m_tmpFile.delete();
+                    m_tmpFile = null;
+                }
+                m_errorMsg = Messages.getString("WorkflowDownload.42"); //$NON-NLS-1$
+            } catch (StreamingArchiveExtractor.RandomAccessRequiredException e) {
+                m_randomAccessRequired = true;
+                m_errorMsg = e.getMessage();
             } catch (Throwable e) {
                 m_tmpFile = null;
                 m_errorMsg = e.getMessage();
@@ -417,6 +592,94 @@ public void run(final IProgressMonitor monitor) {
             }
         }
 
+        /**
+         * Waits until the server is ready to provide the data.
+         *
+         * @return false if the download was canceled while waiting
+         */
+        private boolean waitUntilReady(final RemoteDownloadStream in, final IProgressMonitor monitor)
+            throws Exception {
+            final CompletableFuture<Void> ready = in.whenReadyForDownload();
+            while (true) {
+                if (monitor != null && monitor.isCanceled()) {
+                    m_cancel.set(true);
+                }
+                if (m_cancel.get()) {
+                    ready.cancel(false);
+                    return false;
+                }
+                try {
+                    ready.get(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    return true;
+                } catch (TimeoutException e) {
+                    // check for cancellation and continue waiting
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+                }
+            }
+        }
+
+        /**
+         * Counts the downloaded bytes for the progress monitor and aborts the download if it is canceled.
+         */
+        private final class ProgressInputStream extends FilterInputStream {
+
+            private final IProgressMonitor m_monitor;
+
+            private final String m_taskMessage;
+
+            private final String m_size;
+
+            private final boolean m_useKB;
+
+            private final boolean m_useGB;
+
+            private long m_downloaded;
+
+            private ProgressInputStream(final InputStream in, final IProgressMonitor monitor,
+                final String taskMessage, final String size, final boolean useKB, final boolean useGB) {
+                super(in);
+                m_monitor = monitor;
+                m_taskMessage = taskMessage;
+                m_size = size;
+                m_useKB = useKB;
+                m_useGB = useGB;
+            }
+
+            @Override
+            public int read() throws IOException {
+                final byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : (b[0] & 0xFF);
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int read = super.read(b, off, len);
+                if (read > 0 && m_monitor != null) {
+                    final long kbBefore = m_downloaded >> 10;
+                    m_downloaded += read;
+                    m_monitor.worked((int)((m_downloaded >> 10) - kbBefore));
+                    m_monitor.setTaskName(m_taskMessage
+                        + (m_useKB ? (m_downloaded >> 10) + " kB" : getDecimalSize(m_downloaded >> 10, m_useGB)) //$NON-NLS-1$
+                        + m_size);
+                    if (m_monitor.isCanceled()) {
+                        m_cancel.set(true);
+                    }
+                }
+                if (m_cancel.get()) {
+                    throw new OperationCanceledException();
+                }
+                return read;
+            }
+
+            @Override
+            public long skip(final long n) throws IOException {
+                final byte[] buffer = new byte[(int)Math.min(n, 8192)];
+                final int read = read(buffer, 0, buffer.length);
+                return Math.max(read, 0);
+            }
+        }
+
         /**
          * Gets the size of the file with the first decimal digit.
          *
@@ -495,6 +758,32 @@ public File getTempFile() {
             }
         }
 
+        /**
+         * @return the extractor the download is written to while it is received, null if it is stored in a temp file
+         */
+        StreamingArchiveExtractor getExtractor() {
+            return m_extractor;
+        }
+
+        /**
+         * @return true if the download has been written completely by the extractor
+         */
+        boolean isExtracted() {
+            synchronized (m_done) {
+                return m_done.get() && m_extracted;
+            }
+        }
+
+        /**
+         * @return true if the extractor failed because the archive can't be extracted while it is received; nothing
+         *         has been written to the target then and the download needs to be repeated into a temp file
+         */
+        boolean isRandomAccessRequired() {
+            synchronized (m_done) {
+                return m_done.get() && m_randomAccessRequired;
+            }
+        }
+
         /**
          * Should contain something if {@link #getTempFile()} returns null.
          *
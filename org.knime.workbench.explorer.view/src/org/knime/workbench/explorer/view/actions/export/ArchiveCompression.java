@@ -0,0 +1,106 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view.actions.export;
+
+import java.util.zip.Deflater;
+
+/**
+ * Compression settings for workflow export archives.
+ *
+ * @since 8.7
+ */
+public enum ArchiveCompression {
+
+    /** Best compression (deflate level 9), the behavior of previous versions. */
+    BEST(Deflater.BEST_COMPRESSION, false),
+
+    /**
+     * Fast compression (deflate level 1); files that are already compressed (such as the zipped tables in port
+     * folders) are stored as they are.
+     */
+    FAST(Deflater.BEST_SPEED, true),
+
+    /** No compression at all; all entries are stored. */
+    STORE(Deflater.NO_COMPRESSION, true);
+
+    private final int m_level;
+
+    private final boolean m_storeCompressedFiles;
+
+    private ArchiveCompression(final int level, final boolean storeCompressedFiles) {
+        m_level = level;
+        m_storeCompressedFiles = storeCompressedFiles;
+    }
+
+    /**
+     * @return the deflate level, {@link Deflater#NO_COMPRESSION} if entries are not deflated at all
+     */
+    public int getLevel() {
+        return m_level;
+    }
+
+    /**
+     * @return true if files that are known to hold compressed data are stored instead of deflated again
+     */
+    public boolean storesCompressedFiles() {
+        return m_storeCompressedFiles;
+    }
+
+    /**
+     * Returns the constant with the given name, or {@link #BEST} if the name is null or unknown (used when reading
+     * dialog settings).
+     *
+     * @param name the name of the constant
+     * @return the matching constant, never null
+     */
+    public static ArchiveCompression fromName(final String name) {
+        for (ArchiveCompression c : values()) {
+            if (c.name().equals(name)) {
+                return c;
+            }
+        }
+        return BEST;
+    }
+}
@@ -69,6 +69,7 @@
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Group;
@@ -99,6 +100,8 @@ public class WorkflowExportPage extends WizardPage {
 
     private Button m_excludeData;
 
+    private Combo m_compression;
+
     private AbstractExplorerFileStore m_selection;
 
     private ExplorerFileStoreProvider m_provider;
@@ -212,6 +215,15 @@ public void widgetSelected(final SelectionEvent e) {
         m_excludeData.setSelection(true);
         m_excludeData.setText(Messages.getString("WorkflowExportPage.13")); //$NON-NLS-1$
 
+        final Composite compressionComp = new Composite(group, SWT.NONE);
+        compressionComp.setLayout(new GridLayout(2, false));
+        new Label(compressionComp, SWT.NONE).setText(Messages.getString("WorkflowExportPage.39")); //$NON-NLS-1$
+        m_compression = new Combo(compressionComp, SWT.READ_ONLY | SWT.DROP_DOWN);
+        // same order as the ArchiveCompression constants
+        m_compression.setItems(new String[]{Messages.getString("WorkflowExportPage.40"), //$NON-NLS-1$
+            Messages.getString("WorkflowExportPage.41"), Messages.getString("WorkflowExportPage.42")}); //$NON-NLS-1$ //$NON-NLS-2$
+        m_compression.select(ArchiveCompression.BEST.ordinal());
+
         createTreeViewer(container);
 
         initialize();
@@ -288,6 +300,7 @@ private void initialize() {
             if (lastSelected != null && !lastSelected.isEmpty()) {
                 lastSelectedTargetLocation = lastSelected;
             }
+            m_compression.select(ArchiveCompression.fromName(settings.get(KEY_COMPRESSION)).ordinal());
         }
         if (sel != null) {
             m_containerText.setText(sel.getMountIDWithFullPath());
@@ -391,6 +404,13 @@ boolean excludeData() {
         return m_excludeData.getSelection();
     }
 
+    /**
+     * @return the selected compression of the archive
+     */
+    ArchiveCompression getCompression() {
+        return ArchiveCompression.values()[Math.max(0, m_compression.getSelectionIndex())];
+    }
+
     /**
      * Uses the standard file selection dialog to choose the export file name.
      */
@@ -553,6 +573,8 @@ public String getFileName() {
 
     private static final String KEY_LOC = "destination-location"; //$NON-NLS-1$
 
+    private static final String KEY_COMPRESSION = "compression"; //$NON-NLS-1$
+
     /**
      * Saves the last selected location (the parent of the last export file).
      *
@@ -563,6 +585,7 @@ public void saveDialogSettings() {
         IDialogSettings settings = getDialogSettings();
         if (settings != null) {
             settings.put(KEY_LOC, lastSelectedTargetLocation);
+            settings.put(KEY_COMPRESSION, getCompression().name());
         }
     }
 
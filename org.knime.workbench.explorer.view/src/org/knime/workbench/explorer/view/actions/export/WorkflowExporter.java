@@ -88,6 +88,8 @@ public final class WorkflowExporter {
 
     private final File m_exportFile;
 
+    private final ArchiveCompression m_compression;
+
     /**
      * @param exportFile
      * @param commonParent
@@ -96,10 +98,25 @@ public final class WorkflowExporter {
      */
     public WorkflowExporter(final File exportFile, final AbstractExplorerFileStore commonParent,
         final Collection<AbstractExplorerFileStore> elementsToExport, final boolean excludeData) {
+        this(exportFile, commonParent, elementsToExport, excludeData, ArchiveCompression.BEST);
+    }
+
+    /**
+     * @param exportFile
+     * @param commonParent
+     * @param elementsToExport
+     * @param excludeData
+     * @param compression how the archive entries are compressed
+     * @since 8.7
+     */
+    public WorkflowExporter(final File exportFile, final AbstractExplorerFileStore commonParent,
+        final Collection<AbstractExplorerFileStore> elementsToExport, final boolean excludeData,
+        final ArchiveCompression compression) {
         m_commonParent = CheckUtils.checkArgumentNotNull(commonParent);
         m_exportFile = CheckUtils.checkArgumentNotNull(exportFile);
         m_excludeData = CheckUtils.checkArgumentNotNull(excludeData);
         m_elementsToExport = CheckUtils.checkArgumentNotNull(elementsToExport);
+        m_compression = CheckUtils.checkArgumentNotNull(compression);
     }
 
     /**
@@ -133,7 +150,7 @@ public void doFinish(final IProgressMonitor monitor) throws CoreException {
                 // keep the common workflow group (if exists) in the archive
                 stripOff = stripOff - 1;
             }
-            Zipper.zipFiles(resourceList, m_exportFile, stripOff, sub);
+            Zipper.zipFiles(resourceList, m_exportFile, stripOff, m_compression, sub);
 
         } catch (final IOException t) {
             LOGGER.debug(Messages.getString("WorkflowExporter.4") + t.getMessage(), t); //$NON-NLS-1$
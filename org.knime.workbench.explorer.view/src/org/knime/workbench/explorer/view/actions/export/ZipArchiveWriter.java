@@ -0,0 +1,402 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view.actions.export;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes a standard zip archive (including the zip64 extensions if sizes, offsets or the number of entries require
+ * them) from entries whose data has been compressed elsewhere. Entry data is appended as it arrives; the sizes and
+ * checksum of entries that are written in several pieces are patched into their local header afterwards, so the
+ * archive needs no data descriptors and can be read by {@link java.util.zip.ZipInputStream} as well as by
+ * {@link java.util.zip.ZipFile}.
+ */
+final class ZipArchiveWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+
+    private static final int END_SIG = 0x06054b50;
+
+    private static final int ZIP64_END_SIG = 0x06064b50;
+
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final int VERSION_DEFAULT = 20;
+
+    private static final int VERSION_ZIP64 = 45;
+
+    /** Names and comments are UTF-8 encoded (language encoding flag). */
+    private static final int FLAG_UTF8 = 0x0800;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    /**
+     * Entries with at least this many bytes get zip64 sizes in their local header; leaves head room for data that
+     * doesn't shrink when deflated.
+     */
+    private static final long ZIP64_ENTRY_THRESHOLD = 0xF0000000L;
+
+    private static final int BUFFSIZE = 1024 * 1024;
+
+    private final FileChannel m_channel;
+
+    private final ByteBuffer m_buffer = ByteBuffer.allocate(BUFFSIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private final List<Entry> m_entries = new ArrayList<>();
+
+    /** Number of bytes written to the archive so far, including the ones still in the buffer. */
+    private long m_position;
+
+    /** The entry that has been started with {@link #beginEntry} but not finished yet. */
+    private Entry m_openEntry;
+
+    private static final class Entry {
+        private final byte[] m_name;
+
+        private final int m_method;
+
+        private final int m_dosTime;
+
+        private final long m_offset;
+
+        private final boolean m_zip64Local;
+
+        private long m_crc;
+
+        private long m_compressedSize;
+
+        private long m_size;
+
+        private Entry(final byte[] name, final int method, final int dosTime, final long offset,
+            final boolean zip64Local) {
+            m_name = name;
+            m_method = method;
+            m_dosTime = dosTime;
+            m_offset = offset;
+            m_zip64Local = zip64Local;
+        }
+
+        private boolean needsZip64() {
+            return m_zip64Local || m_size >= ZIP64_MAGIC || m_compressedSize >= ZIP64_MAGIC
+                || m_offset >= ZIP64_MAGIC;
+        }
+    }
+
+    /**
+     * Creates (or truncates) the archive file.
+     *
+     * @param outputFile the archive to write
+     * @throws IOException if the file can't be opened for writing
+     */
+    ZipArchiveWriter(final File outputFile) throws IOException {
+        m_channel = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes an entry whose data is completely known.
+     *
+     * @param name the entry name, with a trailing slash for directories
+     * @param time the modification time in milliseconds
+     * @param method {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     * @param crc the CRC-32 of the uncompressed data
+     * @param size the number of uncompressed bytes
+     * @param data the (possibly compressed) entry data
+     * @param length the number of valid bytes in <code>data</code>
+     * @throws IOException if writing fails
+     */
+    void writeEntry(final String name, final long time, final int method, final long crc, final long size,
+        final byte[] data, final int length) throws IOException {
+        beginEntry(name, time, method, size);
+        m_openEntry.m_crc = crc;
+        m_openEntry.m_size = size;
+        m_openEntry.m_compressedSize = length;
+        writeLocalHeader(m_openEntry);
+        write(data, length);
+        m_openEntry = null;
+    }
+
+    /**
+     * Starts an entry whose data is passed in several pieces by {@link #writeData(byte[], int)}; must be followed by
+     * {@link #endEntry(long, long)}.
+     *
+     * @param name the entry name
+     * @param time the modification time in milliseconds
+     * @param method {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     * @param expectedSize the expected number of uncompressed bytes, decides whether zip64 sizes are needed
+     * @throws IOException if writing fails
+     */
+    void beginEntry(final String name, final long time, final int method, final long expectedSize)
+        throws IOException {
+        if (m_openEntry != null) {
+            throw new IllegalStateException("Previous entry has not been finished"); //$NON-NLS-1$
+        }
+        m_openEntry = new Entry(name.getBytes(StandardCharsets.UTF_8), method, toDosTime(time), m_position,
+            expectedSize >= ZIP64_ENTRY_THRESHOLD);
+    }
+
+    /**
+     * Appends data of the entry started by {@link #beginEntry}. The local header is written with the first piece.
+     *
+     * @param data the (possibly compressed) data
+     * @param length the number of valid bytes in <code>data</code>
+     * @throws IOException if writing fails
+     */
+    void writeData(final byte[] data, final int length) throws IOException {
+        if (m_position == m_openEntry.m_offset) {
+            writeLocalHeader(m_openEntry);
+        }
+        m_openEntry.m_compressedSize += length;
+        write(data, length);
+    }
+
+    /**
+     * Finishes the entry started by {@link #beginEntry} and patches checksum and sizes into its local header.
+     *
+     * @param crc the CRC-32 of the uncompressed data
+     * @param size the number of uncompressed bytes
+     * @throws IOException if writing fails or the entry turned out to be larger than announced
+     */
+    void endEntry(final long crc, final long size) throws IOException {
+        final Entry e = m_openEntry;
+        if (m_position == e.m_offset) {
+            writeLocalHeader(e);
+        }
+        e.m_crc = crc;
+        e.m_size = size;
+        if (!e.m_zip64Local && (size >= ZIP64_MAGIC || e.m_compressedSize >= ZIP64_MAGIC)) {
+            throw new IOException("Entry exceeds the announced size: " //$NON-NLS-1$
+                + new String(e.m_name, StandardCharsets.UTF_8));
+        }
+        flushBuffer();
+        ByteBuffer patch = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        patch.putInt((int)crc);
+        if (e.m_zip64Local) {
+            patch.putInt((int)ZIP64_MAGIC).putInt((int)ZIP64_MAGIC);
+        } else {
+            patch.putInt((int)e.m_compressedSize).putInt((int)size);
+        }
+        patch.flip();
+        writeFully(patch, e.m_offset + 14);
+        if (e.m_zip64Local) {
+            // the zip64 extra field directly follows the name: id, length, size, compressed size
+            patch = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            patch.putLong(size).putLong(e.m_compressedSize).flip();
+            writeFully(patch, e.m_offset + 30 + e.m_name.length + 4);
+        }
+        m_openEntry = null;
+    }
+
+    /**
+     * Writes the central directory and closes the archive.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            final long cdOffset = m_position;
+            for (Entry e : m_entries) {
+                writeCentralHeader(e);
+            }
+            final long cdSize = m_position - cdOffset;
+            final int count = m_entries.size();
+            final boolean zip64 = count >= ZIP64_MAGIC_COUNT || cdOffset >= ZIP64_MAGIC || cdSize >= ZIP64_MAGIC;
+            if (zip64) {
+                final long zip64EndOffset = m_position;
+                ensureCapacity(56 + 20);
+                m_buffer.putInt(ZIP64_END_SIG).putLong(44L).putShort((short)VERSION_ZIP64)
+                    .putShort((short)VERSION_ZIP64).putInt(0).putInt(0).putLong(count).putLong(count).putLong(cdSize)
+                    .putLong(cdOffset);
+                m_buffer.putInt(ZIP64_LOCATOR_SIG).putInt(0).putLong(zip64EndOffset).putInt(1);
+                m_position += 56 + 20;
+            }
+            ensureCapacity(22);
+            m_buffer.putInt(END_SIG).putShort((short)0).putShort((short)0);
+            final short shortCount = (short)(zip64 ? ZIP64_MAGIC_COUNT : count);
+            m_buffer.putShort(shortCount).putShort(shortCount);
+            m_buffer.putInt((int)(zip64 ? ZIP64_MAGIC : cdSize)).putInt((int)(zip64 ? ZIP64_MAGIC : cdOffset));
+            m_buffer.putShort((short)0);
+            m_position += 22;
+            flushBuffer();
+        } finally {
+            m_channel.close();
+        }
+    }
+
+    /**
+     * Closes the underlying file without writing the central directory (after errors).
+     */
+    void abort() {
+        try {
+            m_channel.close();
+        } catch (IOException e) {
+            // ignore, the file is deleted anyway
+        }
+    }
+
+    private void writeLocalHeader(final Entry e) throws IOException {
+        m_entries.add(e);
+        final int extraLength = e.m_zip64Local ? 20 : 0;
+        ensureCapacity(30 + e.m_name.length + extraLength);
+        m_buffer.putInt(LOCAL_HEADER_SIG);
+        m_buffer.putShort((short)(e.m_zip64Local ? VERSION_ZIP64 : VERSION_DEFAULT));
+        m_buffer.putShort((short)FLAG_UTF8);
+        m_buffer.putShort((short)e.m_method);
+        m_buffer.putInt(e.m_dosTime);
+        m_buffer.putInt((int)e.m_crc);
+        if (e.m_zip64Local) {
+            m_buffer.putInt((int)ZIP64_MAGIC).putInt((int)ZIP64_MAGIC);
+        } else {
+            m_buffer.putInt((int)e.m_compressedSize).putInt((int)e.m_size);
+        }
+        m_buffer.putShort((short)e.m_name.length);
+        m_buffer.putShort((short)extraLength);
+        m_buffer.put(e.m_name);
+        if (e.m_zip64Local) {
+            m_buffer.putShort((short)ZIP64_EXTRA_ID).putShort((short)16).putLong(e.m_size)
+                .putLong(e.m_compressedSize);
+        }
+        m_position += 30 + e.m_name.length + extraLength;
+    }
+
+    private void writeCentralHeader(final Entry e) throws IOException {
+        final boolean zip64 = e.needsZip64();
+        final boolean sizes64 = e.m_zip64Local || e.m_size >= ZIP64_MAGIC || e.m_compressedSize >= ZIP64_MAGIC;
+        final boolean offset64 = e.m_offset >= ZIP64_MAGIC;
+        final int extraDataLength = (sizes64 ? 16 : 0) + (offset64 ? 8 : 0);
+        final int extraLength = extraDataLength > 0 ? 4 + extraDataLength : 0;
+        final short version = (short)(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        ensureCapacity(46 + e.m_name.length + extraLength);
+        m_buffer.putInt(CENTRAL_HEADER_SIG);
+        m_buffer.putShort(version).putShort(version);
+        m_buffer.putShort((short)FLAG_UTF8);
+        m_buffer.putShort((short)e.m_method);
+        m_buffer.putInt(e.m_dosTime);
+        m_buffer.putInt((int)e.m_crc);
+        m_buffer.putInt((int)(sizes64 ? ZIP64_MAGIC : e.m_compressedSize));
+        m_buffer.putInt((int)(sizes64 ? ZIP64_MAGIC : e.m_size));
+        m_buffer.putShort((short)e.m_name.length);
+        m_buffer.putShort((short)extraLength);
+        m_buffer.putShort((short)0); // comment length
+        m_buffer.putShort((short)0); // disk number
+        m_buffer.putShort((short)0); // internal attributes
+        m_buffer.putInt(0); // external attributes
+        m_buffer.putInt((int)(offset64 ? ZIP64_MAGIC : e.m_offset));
+        m_buffer.put(e.m_name);
+        if (extraLength > 0) {
+            m_buffer.putShort((short)ZIP64_EXTRA_ID).putShort((short)extraDataLength);
+            if (sizes64) {
+                m_buffer.putLong(e.m_size).putLong(e.m_compressedSize);
+            }
+            if (offset64) {
+                m_buffer.putLong(e.m_offset);
+            }
+        }
+        m_position += 46 + e.m_name.length + extraLength;
+    }
+
+    private void write(final byte[] data, final int length) throws IOException {
+        if (length > m_buffer.remaining()) {
+            flushBuffer();
+        }
+        if (length > m_buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(data, 0, length), -1);
+        } else {
+            m_buffer.put(data, 0, length);
+        }
+        m_position += length;
+    }
+
+    private void ensureCapacity(final int length) throws IOException {
+        if (length > m_buffer.remaining()) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        m_buffer.flip();
+        writeFully(m_buffer, -1);
+        m_buffer.clear();
+    }
+
+    /** Writes all remaining bytes, at the given position or at the channel's position if it is negative. */
+    private void writeFully(final ByteBuffer buffer, final long position) throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            if (pos < 0) {
+                m_channel.write(buffer);
+            } else {
+                pos += m_channel.write(buffer, pos);
+            }
+        }
+    }
+
+    private static int toDosTime(final long time) {
+        final LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        if (t.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((t.getYear() - 1980) << 25) | (t.getMonthValue() << 21) | (t.getDayOfMonth() << 16)
+            | (t.getHour() << 11) | (t.getMinute() << 5) | (t.getSecond() >> 1);
+    }
+}
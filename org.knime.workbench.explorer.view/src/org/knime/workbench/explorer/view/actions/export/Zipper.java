@@ -47,16 +47,29 @@
  */
 package org.knime.workbench.explorer.view.actions.export;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IPath;
@@ -65,17 +78,35 @@
 import org.eclipse.core.runtime.Path;
 
 /**
+ * Creates zip archives. Files are split into chunks that are read and compressed by a pool of worker threads; the
+ * results are written into the archive in the original order by the calling thread. Each chunk of a large file is
+ * deflated with the tail of the preceding chunk as preset dictionary and ends on a byte boundary (sync flush), so the
+ * concatenated chunks form one regular deflate stream.
  *
  * @author ohl, University of Konstanz
  */
 final class Zipper {
 
-    private static final int BUFFSIZE = 1024 * 2048;
+    /** Size of the pieces files are split into; each piece is compressed by a separate task. */
+    private static final int CHUNK_SIZE = 1024 * 1024;
 
-    private static final int COMPR_LEVEL = 9;
+    /** Size of the deflate window, i.e. the number of preceding bytes a chunk is primed with. */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    /** System property for the number of compression threads; defaults to the number of processors. */
+    private static final String THREADS_PROPERTY = "knime.explorer.export.threads"; //$NON-NLS-1$
+
+    /** Extensions of files whose content is compressed already (zipped tables in port folders, images, ...). */
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList("zip", "gz", "bz2", "xz", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        "7z", "jar", "knwf", "knar", "png", "jpg", "jpeg", "gif")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+
+    private static final byte[] NO_DATA = new byte[0];
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 
     /**
-     * Compresses multiple files into one archive. Allows for removing leading path segments of each file's path.
+     * Compresses multiple files into one archive with the best compression. Allows for removing leading path segments
+     * of each file's path.
      *
      * @param files files to add to the archive. Directories containing the files don't need to be part of this list
      *            unless the directories are empty and empty dirs shoul be part of the archive.
@@ -85,32 +116,51 @@ final class Zipper {
      * @param mon to report progress and check for cancellation (can be null)
      * @throws IOException if an an I/O error occurred, the user canceled, one of the specified didn't exist or anything
      *             else went wrong. It tries to delete the partially created output file before then.
+     * @see #zipFiles(Collection, File, int, ArchiveCompression, IProgressMonitor)
      */
     public static void zipFiles(final Collection<File> files, final File outputFile, final int stripOff,
         final IProgressMonitor mon) throws IOException {
+        zipFiles(files, outputFile, stripOff, ArchiveCompression.BEST, mon);
+    }
+
+    /**
+     * Compresses multiple files into one archive. Allows for removing leading path segments of each file's path.
+     *
+     * @param files files to add to the archive. Directories containing the files don't need to be part of this list
+     *            unless the directories are empty and empty dirs shoul be part of the archive.
+     * @param outputFile the compressed output archive
+     * @param stripOff number of segments in the path of each file that are stripped off before storing (if zero or
+     *            negative nothing is stripped off). The device is always removed.
+     * @param compression how the entries are compressed
+     * @param mon to report progress and check for cancellation (can be null)
+     * @throws IOException if an an I/O error occurred, the user canceled, one of the specified didn't exist or anything
+     *             else went wrong. It tries to delete the partially created output file before then.
+     */
+    public static void zipFiles(final Collection<File> files, final File outputFile, final int stripOff,
+        final ArchiveCompression compression, final IProgressMonitor mon) throws IOException {
 
         IProgressMonitor monitor = mon;
         if (monitor == null) {
             monitor = new NullProgressMonitor();
         }
 
-        byte[] buf = new byte[BUFFSIZE];
         IOException ioException = null;
+        ZipArchiveWriter zout = null;
+        ExecutorService pool = null;
 
-        try (FileOutputStream outStream = new FileOutputStream(outputFile);
-                ZipOutputStream zout = new ZipOutputStream(new BufferedOutputStream(outStream, BUFFSIZE))) {
+        try {
+            zout = new ZipArchiveWriter(outputFile);
             if (files.size() == 0) {
-                // cleanup done in the finally block
+                zout.close();
                 return;
             }
 
-            zout.setLevel(COMPR_LEVEL);
             if (mon != null) {
                 // set the overall progress to the overall megabyte
                 int wrk = 0;
                 int nrFiles = 0;
                 for (File f : files) {
-                    if (!f.isDirectory()) {
+                    if (f != null && !f.isDirectory()) {
                         int megaBytes = (int)(f.length() >>> 20);
                         wrk += megaBytes + 1;
                         nrFiles += 1;
@@ -118,11 +168,29 @@ public static void zipFiles(final Collection<File> files, final File outputFile,
                 }
                 monitor.beginTask(Messages.getString("Zipper.0") + nrFiles + Messages.getString("Zipper.1"), wrk); //$NON-NLS-1$ //$NON-NLS-2$
             }
-            for (File f : files) {
-                if (f == null) {
-                    ioException = new IOException(Messages.getString("Zipper.2")); //$NON-NLS-1$
-                    // cleanup done in the finally block
-                    return;
+
+            final int nrThreads = Math.max(1,
+                Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+            pool = Executors.newFixedThreadPool(nrThreads, r -> {
+                Thread t = new Thread(r, "KNIME Export Compressor-" + THREAD_COUNT.incrementAndGet()); //$NON-NLS-1$
+                t.setDaemon(true);
+                return t;
+            });
+            // bounds the memory held by compressed chunks waiting to be written
+            final int maxPending = 2 * nrThreads;
+            final Deque<Chunk> pending = new ArrayDeque<>(maxPending);
+            final ChunkSource source = new ChunkSource(files.iterator(), stripOff, compression);
+
+            long entryCrc = 0;
+            long entrySize = 0;
+            Chunk next = source.next();
+            while (next != null || !pending.isEmpty()) {
+                while (next != null && pending.size() < maxPending) {
+                    if (next.m_length > 0) {
+                        next.m_result = pool.submit(next);
+                    }
+                    pending.add(next);
+                    next = source.next();
                 }
                 if (monitor.isCanceled()) {
                     ioException = new IOException(Messages.getString("Zipper.3")); //$NON-NLS-1$
@@ -130,53 +198,310 @@ public static void zipFiles(final Collection<File> files, final File outputFile,
                     return;
                 }
 
-                IPath path = new Path(f.getAbsolutePath()).setDevice(null);
-                if (stripOff > 0 && path.segmentCount() > stripOff) {
-                    path = path.removeFirstSegments(stripOff);
-                }
-                String entryName = path.makeRelative().toString();
-                if (f.isDirectory()) {
-                    // mostly for empty directories (but non-empty dirs are accepted also)
-                    zout.putNextEntry(new ZipEntry(StringUtils.appendIfMissing(entryName, "/"))); //$NON-NLS-1$
-                    zout.closeEntry();
-                } else if (f.length() == 0) {
-                    // this is mainly for the .knimeLock file of open workflows; the file is locked and windows forbids
-                    // mmap-ing locked files but FileInputStream seems to mmap files which leads to exceptions while
-                    // reading the (non-existing) contents of the file
-                    zout.putNextEntry(new ZipEntry(entryName));
-                    zout.closeEntry();
-                } else {
-                    try (InputStream in = new BufferedInputStream(new FileInputStream(f), BUFFSIZE)) {
-                        zout.putNextEntry(new ZipEntry(entryName));
-                        int read;
-                        while ((read = in.read(buf)) >= 0) {
-                            if (monitor.isCanceled()) {
-                                ioException = new IOException(Messages.getString("Zipper.5")); //$NON-NLS-1$
-                                // cleanup done in the finally block
-                                return;
-                            }
-                            zout.write(buf, 0, read);
-                        }
-                    } catch (IOException ioe) {
+                final Chunk c = pending.poll();
+                if (c.m_result != null) {
+                    try {
+                        c.m_result.get();
+                    } catch (ExecutionException ee) {
+                        Throwable cause = ee.getCause();
                         ioException = new IOException(String.format("Unable to add file \"%s\" to archive \"%s\": %s", //$NON-NLS-1$
-                            f.getAbsolutePath(), outputFile.getAbsoluteFile(), ioe.getMessage()), ioe);
+                            c.m_file.getAbsolutePath(), outputFile.getAbsoluteFile(), cause.getMessage()), cause);
+                        // cleanup done in the finally block
+                        return;
+                    }
+                }
 
-                    } finally {
-                        zout.closeEntry();
+                if (c.m_result == null) {
+                    // directories (mostly empty ones) and empty files; the latter mainly for the .knimeLock file of
+                    // open workflows, which is locked and can't be read on windows
+                    zout.writeEntry(c.m_entryName, c.m_time, ZipEntry.STORED, 0, 0, NO_DATA, 0);
+                } else if (c.isFirst() && c.isLast()) {
+                    zout.writeEntry(c.m_entryName, c.m_time, c.m_method, c.m_crc, c.m_length, c.m_data,
+                        c.m_dataLength);
+                } else {
+                    if (c.isFirst()) {
+                        zout.beginEntry(c.m_entryName, c.m_time, c.m_method, c.m_fileLength);
+                        entryCrc = c.m_crc;
+                        entrySize = c.m_length;
+                    } else {
+                        entryCrc = crc32Combine(entryCrc, c.m_crc, c.m_length);
+                        entrySize += c.m_length;
+                    }
+                    zout.writeData(c.m_data, c.m_dataLength);
+                    if (c.isLast()) {
+                        zout.endEntry(entryCrc, entrySize);
                     }
                 }
-                int megaBytes = (int)(f.length() >>> 20);
-                monitor.worked(megaBytes + 1);
+                if (c.isLast()) {
+                    int megaBytes = (int)(c.m_fileLength >>> 20);
+                    monitor.worked(megaBytes + 1);
+                }
             }
+            zout.close();
+            zout = null;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            ioException = new IOException(Messages.getString("Zipper.5"), ie); //$NON-NLS-1$
         } catch (IOException ioe) {
             ioException = ioe; // catch it to have variable assigned for finally block
         } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
             monitor.done();
             if (ioException != null) {
+                if (zout != null) {
+                    zout.abort();
+                }
                 outputFile.delete();
                 throw ioException;
             }
         }
+    }
+
+    /** Iterates the chunks of all files in archive order. */
+    private static final class ChunkSource {
+
+        private final Iterator<File> m_files;
+
+        private final int m_stripOff;
+
+        private final ArchiveCompression m_compression;
+
+        /** The chunk that was returned last, or null if the next chunk starts a new file. */
+        private Chunk m_previous;
+
+        private ChunkSource(final Iterator<File> files, final int stripOff, final ArchiveCompression compression) {
+            m_files = files;
+            m_stripOff = stripOff;
+            m_compression = compression;
+        }
+
+        /** @return the next chunk, or null if all files are done */
+        private Chunk next() throws IOException {
+            final Chunk p = m_previous;
+            if (p != null && !p.isLast()) {
+                final long offset = p.m_offset + p.m_length;
+                m_previous = new Chunk(p.m_file, p.m_entryName, p.m_time, p.m_method, p.m_level, p.m_fileLength,
+                    offset, (int)Math.min(CHUNK_SIZE, p.m_fileLength - offset));
+                return m_previous;
+            }
+            if (!m_files.hasNext()) {
+                return null;
+            }
+            final File f = m_files.next();
+            if (f == null) {
+                throw new IOException(Messages.getString("Zipper.2")); //$NON-NLS-1$
+            }
+
+            IPath path = new Path(f.getAbsolutePath()).setDevice(null);
+            if (m_stripOff > 0 && path.segmentCount() > m_stripOff) {
+                path = path.removeFirstSegments(m_stripOff);
+            }
+            String entryName = path.makeRelative().toString();
+            long time = f.lastModified();
+            if (time == 0) {
+                time = System.currentTimeMillis();
+            }
+            if (f.isDirectory()) {
+                // mostly for empty directories (but non-empty dirs are accepted also)
+                m_previous = new Chunk(f, StringUtils.appendIfMissing(entryName, "/"), time, ZipEntry.STORED, 0, //$NON-NLS-1$
+                    0, 0, 0);
+                return m_previous;
+            }
+            final long length = f.length();
+            int level = m_compression.getLevel();
+            if (m_compression.storesCompressedFiles() && isCompressed(f)) {
+                level = Deflater.NO_COMPRESSION;
+            }
+            final int method = level == Deflater.NO_COMPRESSION ? ZipEntry.STORED : ZipEntry.DEFLATED;
+            m_previous = new Chunk(f, entryName, time, method, level, length, 0, (int)Math.min(CHUNK_SIZE, length));
+            return m_previous;
+        }
+
+        private static boolean isCompressed(final File f) {
+            final String name = f.getName();
+            final int dot = name.lastIndexOf('.');
+            return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * A piece of a file (or a complete directory or empty file entry with length 0). Calling it reads the piece and
+     * computes its checksum and, if deflated, its compressed data.
+     */
+    private static final class Chunk implements Callable<Chunk> {
+
+        private final File m_file;
+
+        private final String m_entryName;
+
+        private final long m_time;
+
+        private final int m_method;
+
+        private final int m_level;
+
+        private final long m_fileLength;
+
+        private final long m_offset;
+
+        private final int m_length;
+
+        /** Set when submitted; null for entries without data. */
+        private Future<Chunk> m_result;
+
+        private long m_crc;
+
+        private byte[] m_data;
+
+        private int m_dataLength;
+
+        private Chunk(final File file, final String entryName, final long time, final int method, final int level,
+            final long fileLength, final long offset, final int length) {
+            m_file = file;
+            m_entryName = entryName;
+            m_time = time;
+            m_method = method;
+            m_level = level;
+            m_fileLength = fileLength;
+            m_offset = offset;
+            m_length = length;
+        }
+
+        private boolean isFirst() {
+            return m_offset == 0;
+        }
+
+        private boolean isLast() {
+            return m_offset + m_length >= m_fileLength;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Chunk call() throws IOException {
+            final int dictLength = m_method == ZipEntry.DEFLATED ? (int)Math.min(m_offset, DICTIONARY_SIZE) : 0;
+            final byte[] in = new byte[dictLength + m_length];
+            try (FileChannel channel = FileChannel.open(m_file.toPath(), StandardOpenOption.READ)) {
+                final ByteBuffer buf = ByteBuffer.wrap(in);
+                long pos = m_offset - dictLength;
+                while (buf.hasRemaining()) {
+                    int read = channel.read(buf, pos);
+                    if (read < 0) {
+                        throw new EOFException("File was truncated while being archived"); //$NON-NLS-1$
+                    }
+                    pos += read;
+                }
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(in, dictLength, m_length);
+            m_crc = crc.getValue();
+            if (m_method == ZipEntry.STORED) {
+                m_data = in;
+                m_dataLength = m_length;
+            } else {
+                deflate(in, dictLength);
+            }
+            return this;
+        }
+
+        private void deflate(final byte[] in, final int dictLength) {
+            final Deflater deflater = new Deflater(m_level, true);
+            try {
+                if (dictLength > 0) {
+                    deflater.setDictionary(in, 0, dictLength);
+                }
+                deflater.setInput(in, dictLength, m_length);
+                final boolean last = isLast();
+                if (last) {
+                    deflater.finish();
+                }
+                byte[] out = new byte[m_length + (m_length >> 6) + 64];
+                int length = 0;
+                while (true) {
+                    if (length == out.length) {
+                        out = Arrays.copyOf(out, 2 * out.length);
+                    }
+                    final int space = out.length - length;
+                    final int written = last ? deflater.deflate(out, length, space)
+                        : deflater.deflate(out, length, space, Deflater.SYNC_FLUSH);
+                    length += written;
+                    // a sync flush is complete once it doesn't fill the output buffer
+                    if (last ? deflater.finished() : written < space) {
+                        break;
+                    }
+                }
+                m_data = out;
+                m_dataLength = length;
+            } finally {
+                deflater.end();
+            }
+        }
+    }
 
+    /**
+     * Combines the CRC-32 of two consecutive blocks of data (as zlib's crc32_combine).
+     *
+     * @param crc1 checksum of the first block
+     * @param crc2 checksum of the second block
+     * @param length2 length of the second block
+     * @return the checksum of both blocks
+     */
+    static long crc32Combine(final long crc1, final long crc2, final long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        final long[] even = new long[32]; // even-power-of-two zeros operator
+        final long[] odd = new long[32]; // odd-power-of-two zeros operator
+
+        // put operator for one zero bit in odd
+        odd[0] = 0xEDB88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // put operator for two zero bits in even, then four zero bits in odd
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+
+        // apply len2 zeros to crc1 (first square will put the operator for one zero byte, eight zero bits, in even)
+        long crc = crc1;
+        long len = length2;
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len & 1) != 0) {
+                crc = gf2MatrixTimes(even, crc);
+            }
+            len >>= 1;
+            if (len == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len & 1) != 0) {
+                crc = gf2MatrixTimes(odd, crc);
+            }
+            len >>= 1;
+        } while (len != 0);
+        return crc ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(final long[] mat, final long vec) {
+        long sum = 0;
+        long v = vec;
+        for (int i = 0; v != 0; i++, v >>>= 1) {
+            if ((v & 1) != 0) {
+                sum ^= mat[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(final long[] square, final long[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
     }
 }
@@ -55,6 +55,7 @@
 import org.knime.core.node.NodeLogger;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
 import org.knime.workbench.explorer.view.AbstractContentProvider;
+import org.knime.workbench.explorer.view.ContentDelegator;
 import org.knime.workbench.explorer.view.ContentObject;
 
 /**
@@ -78,6 +79,7 @@ private DragAndDropUtils() {
      * @return a map of content providers to explorer file stores or null if
      *      the selection includes any object other than
      *      {@link ContentObject} or {@link AbstractContentProvider}.
+     *      Placeholders for children being loaded are skipped.
      */
     public static Map<AbstractContentProvider, List<AbstractExplorerFileStore>>
             getProviderMap(final IStructuredSelection selection) {
@@ -109,6 +111,9 @@ private DragAndDropUtils() {
                             new ArrayList<AbstractExplorerFileStore>());
                 }
                 providers.get(provider).add(fs);
+            } else if (ContentDelegator.isPlaceholder(nextObject)) {
+                // children being loaded, nothing to transfer
+                continue;
             } else {
                 return null;
             }
@@ -138,6 +143,9 @@ public static List<AbstractExplorerFileStore> getExplorerFileStores(
             } else if (nextObject instanceof AbstractContentProvider) {
                 fileStores.add(((AbstractContentProvider)nextObject)
                         .getRootStore());
+            } else if (ContentDelegator.isPlaceholder(nextObject)) {
+                // children being loaded
+                continue;
             } else {
                 return null;
             }
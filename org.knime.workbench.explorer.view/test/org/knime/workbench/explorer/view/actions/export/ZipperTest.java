@@ -0,0 +1,278 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view.actions.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Reads archives written by {@link Zipper} and {@link ZipArchiveWriter} back with {@link ZipFile} and
+ * {@link ZipInputStream}.
+ */
+public class ZipperTest extends TestCase {
+
+    /** Larger than the chunks files are compressed in, so that the entry consists of several deflate chunks. */
+    private static final int LARGE_FILE_SIZE = 2 * 1024 * 1024 + 12345;
+
+    private Path m_tempDir;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        m_tempDir = Files.createTempDirectory("zipper-test");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(m_tempDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+        super.tearDown();
+    }
+
+    /**
+     * Checks the combined checksum of two pieces against the checksum of the concatenated data.
+     */
+    public void testCrc32Combine() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            byte[] data = new byte[random.nextInt(100000)];
+            random.nextBytes(data);
+            int split = data.length == 0 ? 0 : random.nextInt(data.length + 1);
+            CRC32 first = new CRC32();
+            first.update(data, 0, split);
+            CRC32 second = new CRC32();
+            second.update(data, split, data.length - split);
+            CRC32 all = new CRC32();
+            all.update(data);
+            assertEquals("Wrong combined checksum for split " + split + " of " + data.length, all.getValue(),
+                Zipper.crc32Combine(first.getValue(), second.getValue(), data.length - split));
+        }
+    }
+
+    /**
+     * Archives an empty file, an empty directory, small files and a file larger than one chunk with all compression
+     * levels.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void testRoundTrip() throws IOException {
+        Path src = Files.createDirectory(m_tempDir.resolve("workflow"));
+        Map<String, byte[]> expected = new HashMap<>();
+        expected.put("workflow/empty.txt", createFile(src.resolve("empty.txt"), new byte[0]));
+        expected.put("workflow/workflow.knime",
+            createFile(src.resolve("workflow.knime"), "<config/>".getBytes(StandardCharsets.UTF_8)));
+        expected.put("workflow/node/data.bin", createFile(Files.createDirectory(src.resolve("node")).resolve(
+            "data.bin"), createLargeContent()));
+        byte[] image = new byte[5000];
+        new Random(1).nextBytes(image);
+        expected.put("workflow/node/image.png", createFile(src.resolve("node").resolve("image.png"), image));
+        Files.createDirectory(src.resolve("emptyDir"));
+
+        List<File> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(src)) {
+            paths.filter(p -> !p.equals(src) && !p.equals(src.resolve("node"))).forEach(p -> files.add(p.toFile()));
+        }
+        for (ArchiveCompression compression : ArchiveCompression.values()) {
+            File archive = m_tempDir.resolve("archive-" + compression + ".zip").toFile();
+            Zipper.zipFiles(files, archive, m_tempDir.getNameCount(), compression, null);
+
+            try (ZipFile zip = new ZipFile(archive)) {
+                assertEquals(compression + ": wrong number of entries", expected.size() + 1, zip.size());
+                assertTrue(compression + ": empty directory missing", zip.getEntry("workflow/emptyDir/").isDirectory());
+                for (Map.Entry<String, byte[]> e : expected.entrySet()) {
+                    ZipEntry entry = zip.getEntry(e.getKey());
+                    assertNotNull(compression + ": entry missing: " + e.getKey(), entry);
+                    assertEquals(compression + ": wrong size of " + e.getKey(), e.getValue().length, entry.getSize());
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        assertTrue(compression + ": wrong content of " + e.getKey(),
+                            Arrays.equals(e.getValue(), readFully(in)));
+                    }
+                }
+            }
+            // the local headers must be complete as well, there are no data descriptors
+            Map<String, byte[]> streamed = readEntries(archive);
+            assertEquals(compression + ": wrong number of streamed entries", expected.size() + 1, streamed.size());
+            for (Map.Entry<String, byte[]> e : expected.entrySet()) {
+                assertTrue(compression + ": wrong streamed content of " + e.getKey(),
+                    Arrays.equals(e.getValue(), streamed.get(e.getKey())));
+            }
+        }
+    }
+
+    /**
+     * Writes more entries than fit into the end of central directory record, which requires the zip64 end records.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void testManyEntries() throws IOException {
+        final int count = 70000;
+        File archive = m_tempDir.resolve("many.zip").toFile();
+        try (ZipArchiveWriter writer = new ZipArchiveWriter(archive)) {
+            for (int i = 0; i < count; i++) {
+                byte[] data = Integer.toString(i).getBytes(StandardCharsets.UTF_8);
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                writer.writeEntry("entry" + i, System.currentTimeMillis(), ZipEntry.STORED, crc.getValue(),
+                    data.length, data, data.length);
+            }
+        }
+        try (ZipFile zip = new ZipFile(archive)) {
+            assertEquals("Wrong number of entries", count, zip.size());
+            for (int i : new int[]{0, 65535, 65536, count - 1}) {
+                try (InputStream in = zip.getInputStream(zip.getEntry("entry" + i))) {
+                    assertEquals("Wrong content of entry " + i, Integer.toString(i),
+                        new String(readFully(in), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        assertEquals("Wrong number of streamed entries", count, readEntries(archive).size());
+    }
+
+    /**
+     * Writes an entry announced as large enough to need zip64 sizes in its local header; the sizes are patched into
+     * the zip64 extra field when the entry is finished.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void testZip64Sizes() throws IOException {
+        byte[] content = createLargeContent();
+        File archive = m_tempDir.resolve("zip64.zip").toFile();
+        try (ZipArchiveWriter writer = new ZipArchiveWriter(archive)) {
+            writer.writeEntry("first", System.currentTimeMillis(), ZipEntry.STORED, 0, 0, new byte[0], 0);
+            // the threshold for zip64 local headers
+            writer.beginEntry("large", System.currentTimeMillis(), ZipEntry.DEFLATED, 0xF0000000L);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(content);
+            deflater.finish();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                writer.writeData(buffer, length);
+            }
+            deflater.end();
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            writer.endEntry(crc.getValue(), content.length);
+            writer.writeEntry("last", System.currentTimeMillis(), ZipEntry.STORED, 0, 0, new byte[0], 0);
+        }
+        try (ZipFile zip = new ZipFile(archive)) {
+            assertEquals("Wrong number of entries", 3, zip.size());
+            ZipEntry entry = zip.getEntry("large");
+            assertEquals("Wrong size", content.length, entry.getSize());
+            try (InputStream in = zip.getInputStream(entry)) {
+                assertTrue("Wrong content", Arrays.equals(content, readFully(in)));
+            }
+        }
+        Map<String, byte[]> streamed = readEntries(archive);
+        assertTrue("Wrong streamed content", Arrays.equals(content, streamed.get("large")));
+        assertEquals("Entry after the zip64 entry missing", 0, streamed.get("last").length);
+    }
+
+    /** Compressible text followed by random bytes, larger than one chunk. */
+    private static byte[] createLargeContent() {
+        byte[] content = new byte[LARGE_FILE_SIZE];
+        byte[] text = "KNIME workflow export, repeated to be compressible. ".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < content.length / 2; i++) {
+            content[i] = text[i % text.length];
+        }
+        byte[] random = new byte[content.length - content.length / 2];
+        new Random(0).nextBytes(random);
+        System.arraycopy(random, 0, content, content.length / 2, random.length);
+        return content;
+    }
+
+    private static byte[] createFile(final Path file, final byte[] content) throws IOException {
+        Files.write(file, content);
+        return content;
+    }
+
+    private static Map<String, byte[]> readEntries(final File archive) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive.toPath()))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), readFully(in));
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] readFully(final InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.knime.core.node.NodeFactory.NodeType;
+import org.knime.core.node.NodeLogger;
+import org.knime.workbench.repository.model.AbstractContainerObject;
+import org.knime.workbench.repository.model.AbstractNodeTemplate;
+import org.knime.workbench.repository.model.Category;
+import org.knime.workbench.repository.model.DefaultNodeTemplate;
+import org.knime.workbench.repository.model.DynamicNodeTemplate;
+import org.knime.workbench.repository.model.IRepositoryObject;
+import org.knime.workbench.repository.model.NodeTemplate;
+import org.knime.workbench.repository.model.Root;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Persists the categories and node templates of a repository {@link Root} in a compact binary snapshot in the
+ * plug-in's state location, so that subsequent starts don't need to walk all node extensions and instantiate all node
+ * factories. The snapshot is keyed on a fingerprint of all installed bundles (symbolic name, version and modification
+ * time) and is ignored as soon as the fingerprint changes. Restored node templates load their factory classes lazily
+ * on first use.
+ *
+ * <p>
+ * Metanode templates are not part of the snapshot, they are always read from their extension point.
+ * </p>
+ *
+ * <p>
+ * The cache can be disabled with the system property <code>knime.repository.cache.disabled=true</code>.
+ * </p>
+ *
+ * <p>
+ * The snapshot is memory-mapped when read and a mapped file can't be replaced on Windows as long as the mapping exists
+ * (i.e. until it's garbage collected). Therefore the header is checked before the file is mapped and a new snapshot
+ * never overwrites an existing one: each snapshot is written to a new generation file
+ * <code>&lt;name&gt;.bin.&lt;n&gt;</code>, the latest generation is read and older ones are deleted when possible.
+ * </p>
+ */
+final class RepositoryCache {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(RepositoryCache.class);
+
+    private static final boolean DISABLED = Boolean.getBoolean("knime.repository.cache.disabled");
+
+    /** "KNRC" */
+    private static final int MAGIC = 0x4b4e5243;
+
+    /** Must be incremented whenever the file layout changes. */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte TYPE_CATEGORY = 'C';
+
+    private static final byte TYPE_NODE = 'N';
+
+    private static final byte TYPE_DYNAMIC_NODE = 'D';
+
+    private final String m_name;
+
+    private String m_fingerprint;
+
+    /**
+     * @param name the name of the snapshot file (without extension)
+     */
+    RepositoryCache(final String name) {
+        m_name = name;
+    }
+
+    /**
+     * @return the base path of the snapshot files, which is also the file used before snapshots had generations
+     */
+    private Path getBaseFile() {
+        KNIMERepositoryPlugin plugin = KNIMERepositoryPlugin.getDefault();
+        if (plugin == null) {
+            return null;
+        }
+        return plugin.getStateLocation().append(m_name + ".bin").toFile().toPath();
+    }
+
+    private static Path getGenerationFile(final Path base, final long generation) {
+        return base.resolveSibling(base.getFileName() + "." + generation);
+    }
+
+    /**
+     * @return the generations of the snapshot files next to the base path
+     */
+    private static List<Long> getGenerations(final Path base) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        Path dir = base.getParent();
+        if ((dir == null) || !Files.isDirectory(dir)) {
+            return generations;
+        }
+        String prefix = base.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path f : files) {
+                try {
+                    generations.add(Long.parseLong(f.getFileName().toString().substring(prefix.length())));
+                } catch (NumberFormatException ex) {
+                    // not a snapshot
+                }
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * @return the latest generation, -1 if there is no snapshot
+     */
+    private static long getLatestGeneration(final Path base) throws IOException {
+        long latest = -1;
+        for (long g : getGenerations(base)) {
+            latest = Math.max(latest, g);
+        }
+        return latest;
+    }
+
+    /**
+     * Deletes the generations older than the given one and the snapshot without generation. Files that are still
+     * mapped (on Windows) are deleted next time.
+     */
+    private static void deleteOlderGenerations(final Path base, final long generation) throws IOException {
+        List<Path> outdated = new ArrayList<>();
+        outdated.add(base);
+        for (long g : getGenerations(base)) {
+            if (g < generation) {
+                outdated.add(getGenerationFile(base, g));
+            }
+        }
+        for (Path p : outdated) {
+            try {
+                Files.deleteIfExists(p);
+            } catch (IOException ex) {
+                LOGGER.debug("Could not delete outdated node repository cache '" + p + "': " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads exactly as many bytes as the buffer has remaining.
+     *
+     * @return <code>false</code> if the end of the file has been reached before
+     */
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Restores the snapshot into the given (empty) root.
+     *
+     * @param root the root to add the categories and nodes to
+     * @return <code>true</code> if the snapshot has been restored, <code>false</code> if it doesn't exist, is outdated
+     *         or couldn't be read; in this case the root is left empty
+     */
+    boolean restore(final Root root) {
+        Path base = DISABLED ? null : getBaseFile();
+        if (base == null) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        Path file = null;
+        try {
+            long generation = getLatestGeneration(base);
+            if (generation < 0) {
+                return false;
+            }
+            file = getGenerationFile(base, generation);
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // check the header before mapping, an outdated snapshot isn't mapped at all
+                ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES);
+                if (!readFully(channel, header) || (header.getInt() != MAGIC)
+                    || (header.getInt() != FORMAT_VERSION)) {
+                    LOGGER.debug("Node repository cache '" + file + "' has an unknown format, ignoring it");
+                    return false;
+                }
+                byte[] expected = getFingerprint().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer fingerprint = ByteBuffer.allocate(expected.length);
+                if ((header.getInt() != expected.length) || !readFully(channel, fingerprint)
+                    || !Arrays.equals(expected, fingerprint.array())) {
+                    LOGGER.debug("Installed bundles have changed, node repository cache '" + file + "' is outdated");
+                    return false;
+                }
+                // the mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, channel.position(),
+                    channel.size() - channel.position());
+            }
+            readChildren(buffer, root);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Could not read node repository cache '" + file + "': " + ex.getMessage(), ex);
+            root.removeAllChildren();
+            return false;
+        }
+        LOGGER.debug("Restored node repository from cache '" + file + "' in "
+            + (System.currentTimeMillis() - start) + "ms");
+        return true;
+    }
+
+    /**
+     * Writes a snapshot of the given root as new generation and deletes the older snapshots if they aren't in use
+     * anymore.
+     *
+     * @param root a completely read repository root
+     */
+    void write(final Root root) {
+        Path base = DISABLED ? null : getBaseFile();
+        if (base == null) {
+            return;
+        }
+        Path file = base;
+        try {
+            long generation = getLatestGeneration(base) + 1;
+            file = getGenerationFile(base, generation);
+            Path tempFile = Files.createTempFile(base.getParent(), m_name, ".tmp");
+            try {
+                try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    writeString(out, getFingerprint());
+                    writeChildren(out, root);
+                }
+                // a new file, the previous snapshot may still be mapped
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            deleteOlderGenerations(base, generation);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Could not write node repository cache '" + file + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    private static void writeChildren(final DataOutputStream out, final AbstractContainerObject container)
+        throws IOException {
+        List<IRepositoryObject> children = new ArrayList<>();
+        for (IRepositoryObject child : container.getChildren()) {
+            // metanodes are always read from their extension point
+            if ((child instanceof Category) || (child instanceof DefaultNodeTemplate)
+                || (child instanceof DynamicNodeTemplate)) {
+                children.add(child);
+            }
+        }
+        out.writeInt(children.size());
+        for (IRepositoryObject child : children) {
+            if (child instanceof Category) {
+                Category cat = (Category)child;
+                out.writeByte(TYPE_CATEGORY);
+                writeString(out, cat.getID());
+                writeString(out, cat.getName());
+                writeString(out, cat.getContributingPlugin());
+                out.writeBoolean(cat.isLocked());
+                writeString(out, cat.getDescription());
+                writeString(out, cat.getAfterID());
+                writeString(out, cat.getPath());
+                writeString(out, cat.getIconPath());
+                writeChildren(out, cat);
+            } else if (child instanceof DefaultNodeTemplate) {
+                DefaultNodeTemplate node = (DefaultNodeTemplate)child;
+                out.writeByte(TYPE_NODE);
+                writeString(out, node.getID());
+                writeString(out, node.getFactoryCanonicalName());
+                writeNode(out, node);
+            } else {
+                DynamicNodeTemplate node = (DynamicNodeTemplate)child;
+                out.writeByte(TYPE_DYNAMIC_NODE);
+                writeString(out, node.getID());
+                writeString(out, node.getFactoryId());
+                writeNode(out, node);
+            }
+        }
+    }
+
+    private static void writeNode(final DataOutputStream out, final NodeTemplate node) throws IOException {
+        writeString(out, node.getName());
+        writeString(out, node.getContributingPlugin());
+        writeString(out, node.getCategoryPath());
+        writeString(out, (node.getType() == null) ? null : node.getType().name());
+        writeString(out, node.getAfterID());
+        writeString(out, (node.getIconURL() == null) ? null : node.getIconURL().toExternalForm());
+        out.writeBoolean(node.isDeprecated());
+    }
+
+    private static void readChildren(final ByteBuffer in, final AbstractContainerObject container)
+        throws MalformedURLException {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            byte type = in.get();
+            if (type == TYPE_CATEGORY) {
+                Category cat = new Category(readString(in), readString(in), readString(in), in.get() != 0);
+                cat.setDescription(readString(in));
+                cat.setAfterID(readString(in));
+                cat.setPath(readString(in));
+                RepositoryFactory.setCategoryIcon(cat, readString(in));
+                container.addChild(cat);
+                readChildren(in, cat);
+            } else if (type == TYPE_NODE) {
+                String id = readString(in);
+                String canonicalName = readString(in);
+                String name = readString(in);
+                String plugin = readString(in);
+                String categoryPath = readString(in);
+                DefaultNodeTemplate node =
+                    new DefaultNodeTemplate(id, canonicalName, name, plugin, categoryPath, readNodeType(in));
+                readNodeProperties(in, node);
+                container.addChild(node);
+            } else if (type == TYPE_DYNAMIC_NODE) {
+                String id = readString(in);
+                String factoryId = readString(in);
+                String name = readString(in);
+                String plugin = readString(in);
+                String categoryPath = readString(in);
+                DynamicNodeTemplate node =
+                    new DynamicNodeTemplate(id, plugin, factoryId, name, categoryPath, readNodeType(in));
+                readNodeProperties(in, node);
+                container.addChild(node);
+            } else {
+                throw new IllegalStateException("Unknown entry type " + type);
+            }
+        }
+    }
+
+    private static NodeType readNodeType(final ByteBuffer in) {
+        String type = readString(in);
+        return (type == null) ? null : NodeType.valueOf(type);
+    }
+
+    private static void readNodeProperties(final ByteBuffer in, final NodeTemplate node)
+        throws MalformedURLException {
+        node.setAfterID(readString(in));
+        String iconURL = readString(in);
+        RepositoryFactory.setNodeIcon(node, (iconURL == null) ? null : new URL(iconURL));
+        node.setDeprecated(in.get() != 0);
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(final ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes a fingerprint of all installed bundles. Since development builds keep the same version qualifier, the
+     * bundles' last modification times are part of the fingerprint, too.
+     */
+    private synchronized String getFingerprint() {
+        if (m_fingerprint == null) {
+            Bundle[] bundles = FrameworkUtil.getBundle(getClass()).getBundleContext().getBundles();
+            Bundle[] sorted = Arrays.copyOf(bundles, bundles.length);
+            // bundle ids depend on the installation order, hence sort by name and version
+            Arrays.sort(sorted, Comparator.comparing((Bundle b) -> String.valueOf(b.getSymbolicName()))
+                .thenComparing(b -> b.getVersion().toString()));
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-1");
+                for (Bundle b : sorted) {
+                    String key = b.getSymbolicName() + ":" + b.getVersion() + ":" + b.getLastModified() + ";";
+                    digest.update(key.getBytes(StandardCharsets.UTF_8));
+                }
+                StringBuilder buf = new StringBuilder();
+                for (byte by : digest.digest()) {
+                    buf.append(String.format("%02x", by));
+                }
+                m_fingerprint = buf.toString();
+            } catch (NoSuchAlgorithmException ex) {
+                // SHA-1 must be supported by every JVM
+                throw new IllegalStateException(ex);
+            }
+        }
+        return m_fingerprint;
+    }
+}
@@ -78,6 +78,7 @@
 import org.knime.core.ui.wrapper.WorkflowManagerWrapper;
 import org.knime.workbench.core.util.ImageRepository;
 import org.knime.workbench.core.util.ImageRepository.SharedImages;
+import org.knime.workbench.repository.model.AbstractNodeTemplate;
 import org.knime.workbench.repository.model.Category;
 import org.knime.workbench.repository.model.DefaultNodeTemplate;
 import org.knime.workbench.repository.model.DynamicNodeTemplate;
@@ -109,8 +110,24 @@ private RepositoryFactory() {
      * @throws InvalidNodeFactoryExtensionException if the element is not compatible (e.g.
      *             wrong attributes, or factory class not found)
      */
-    @SuppressWarnings("unchecked")
     public static DefaultNodeTemplate createNode(final NodeFactoryExtension nodeFactoryExtension)
+        throws InvalidNodeFactoryExtensionException {
+        return createNode(nodeFactoryExtension, true);
+    }
+
+    /**
+     * Creates a new node repository object, optionally without loading its icon image. Templates created without
+     * icon only know the icon's URL, the image can be loaded later with {@link #loadNodeIcon(AbstractNodeTemplate)}.
+     * Creating templates without icons is safe to be done concurrently.
+     *
+     * @param nodeFactoryExtension from {@link NodeFactoryExtensionManager}.
+     * @param loadIcon whether the icon image should be loaded
+     * @return NodeTemplate object to be used within the repository.
+     * @throws InvalidNodeFactoryExtensionException if the element is not compatible (e.g.
+     *             wrong attributes, or factory class not found)
+     */
+    @SuppressWarnings("unchecked")
+    static DefaultNodeTemplate createNode(final NodeFactoryExtension nodeFactoryExtension, final boolean loadIcon)
         throws InvalidNodeFactoryExtensionException {
         // Try to load the node factory class...
         NodeFactory<? extends NodeModel> factory = nodeFactoryExtension.createFactory();
@@ -120,14 +137,43 @@ public static DefaultNodeTemplate createNode(final NodeFactoryExtension nodeFact
         DefaultNodeTemplate node = new DefaultNodeTemplate((Class<NodeFactory<? extends NodeModel>>)factory.getClass(),
             factory.getNodeName(), pluginID, categoryPath, factory.getType());
         node.setAfterID(nodeFactoryExtension.getAfterID());
+        node.setDeprecated(nodeFactoryExtension.isDeprecated());
+        node.setIconURL(factory.getIcon());
+        if (loadIcon) {
+            loadNodeIcon(node);
+        }
 
+        return node;
+    }
+
+    /**
+     * Loads the icon image of a node template from its icon URL (unless running headless).
+     *
+     * @param node the node template
+     */
+    static void loadNodeIcon(final AbstractNodeTemplate node) {
+        setNodeIcon(node, node.getIconURL());
+    }
+
+    /**
+     * Sets the icon of a node template. The icon image is only loaded if not running headless. Node icons are
+     * reference counted (see {@link ImageRepository#acquireIconImage(URL)}), the template holds one reference which is
+     * released when its icon is set again.
+     *
+     * @param node the node template
+     * @param iconURL the URL of the icon as provided by the node factory, <code>null</code> for the default icon
+     */
+    static void setNodeIcon(final AbstractNodeTemplate node, final URL iconURL) {
+        node.setIconURL(iconURL);
         if (!Boolean.getBoolean("java.awt.headless")) {
             // Load images from declaring plugin
-            Image icon = ImageRepository.getIconImage(factory);
+            Image icon = (iconURL == null) ? ImageRepository.getIconImage(SharedImages.DefaultNodeIcon)
+                : ImageRepository.acquireIconImage(iconURL);
+            Image previous = node.getIcon();
             node.setIcon(icon);
+            // no-op for the default icon, which isn't reference counted
+            ImageRepository.releaseImage(previous);
         }
-
-        return node;
     }
 
     /**
@@ -236,22 +282,7 @@ public static Category createCategory(final Root root,
         cat.setAfterID(str(element.getAttribute("after"), ""));
         String path = str(element.getAttribute("path"), "/");
         cat.setPath(path);
-        if (!Boolean.getBoolean("java.awt.headless")) {
-            String iconPath = element.getAttribute("icon");
-            Image img;
-            if (iconPath == null) {
-                img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
-
-            } else {
-                img = ImageRepository.getIconImage(pluginID, iconPath);
-                if (img == null) {
-                    LOGGER.coding("Icon '" + element.getAttribute("icon") + "' for category " + cat.getPath() + "/"
-                        + cat.getName() + " does not exist");
-                    img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
-                }
-            }
-            cat.setIcon(img);
-        }
+        setCategoryIcon(cat, element.getAttribute("icon"));
 
         //
         // Insert in proper location, create all categories on the path
@@ -317,8 +348,23 @@ private static String str(final String s, final String defaultString) {
      */
     public static Collection<DynamicNodeTemplate> createNodeSet(
             final NodeSetFactoryExtension set, final Root root, final boolean isIncludeDeprecated) {
-        String iconPath = set.getDefaultCategoryIconPath().orElse(null);
+        Collection<DynamicNodeTemplate> dynamicNodeTemplates = createNodeSet(set, isIncludeDeprecated, true);
+        addNodeSetCategories(set, dynamicNodeTemplates, root);
+        return dynamicNodeTemplates;
+    }
 
+    /**
+     * Creates the set of dynamic node templates without adding any categories to a repository root. Templates created
+     * without icons only know the icon's URL, see {@link #loadNodeIcon(AbstractNodeTemplate)}. Creating templates
+     * without icons is safe to be done concurrently.
+     *
+     * @param set the node set factory extension to load the nodes from
+     * @param isIncludeDeprecated if deprecated nodes are to be included in the result collection
+     * @param loadIcons whether the icon images should be loaded
+     * @return the created dynamic node templates
+     */
+    static Collection<DynamicNodeTemplate> createNodeSet(final NodeSetFactoryExtension set,
+        final boolean isIncludeDeprecated, final boolean loadIcons) {
         // Try to load the node set factory class...
         NodeSetFactory nodeSet = set.getNodeSetFactory();
         if (nodeSet.isHidden()) {
@@ -351,16 +397,31 @@ public static Collection<DynamicNodeTemplate> createNodeSet(
                 factory.getNodeName(), categoryPath, nodeType);
 
             node.setAfterID(nodeSet.getAfterID(factoryId));
-
-            if (!Boolean.getBoolean("java.awt.headless")) {
-                Image icon = ImageRepository.getIconImage(factory);
-                node.setIcon(icon);
+            node.setDeprecated(set.isDeprecated() || factory.isDeprecated());
+            node.setIconURL(factory.getIcon());
+            if (loadIcons) {
+                loadNodeIcon(node);
             }
 
             dynamicNodeTemplates.add(node);
+        } // for node sets
 
-            String pluginID = set.getPlugInSymbolicName();
+        return dynamicNodeTemplates;
+    }
 
+    /**
+     * Adds the categories of the given dynamic node templates that don't exist yet to the repository root.
+     *
+     * @param set the node set factory extension the nodes have been loaded from
+     * @param dynamicNodeTemplates the nodes
+     * @param root the root to add the missing categories in
+     */
+    static void addNodeSetCategories(final NodeSetFactoryExtension set,
+        final Collection<DynamicNodeTemplate> dynamicNodeTemplates, final Root root) {
+        String iconPath = set.getDefaultCategoryIconPath().orElse(null);
+        String pluginID = set.getPlugInSymbolicName();
+
+        for (DynamicNodeTemplate node : dynamicNodeTemplates) {
             //
             // Insert in proper location, create all categories on
             // the path
@@ -391,11 +452,7 @@ public static Collection<DynamicNodeTemplate> createNodeSet(
                 // continue at this level
                 container = (IContainerObject)obj;
             }
-
-        } // for node sets
-
-        return dynamicNodeTemplates;
-
+        }
     }
 
     /* Little helper to create a category */
@@ -409,21 +466,33 @@ private static Category createCategory(final String pluginID,
         cat.setAfterID(str(afterID, ""));
         String path = str(categoryPath, "/");
         cat.setPath(path);
+        setCategoryIcon(cat, icon);
+
+        return cat;
+    }
+
+    /**
+     * Sets the icon of a category. The icon image is only loaded if not running headless.
+     *
+     * @param cat the category
+     * @param iconPath the icon's path relative to the category's contributing plug-in, <code>null</code> for the
+     *            default icon
+     */
+    static void setCategoryIcon(final Category cat, final String iconPath) {
+        cat.setIconPath(iconPath);
         if (!Boolean.getBoolean("java.awt.headless")) {
             Image img;
-            if (icon == null) {
+            if (iconPath == null) {
                 img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
             } else {
-                img = ImageRepository.getIconImage(pluginID, icon);
+                img = ImageRepository.getIconImage(cat.getContributingPlugin(), iconPath);
                 if (img == null) {
                     LOGGER.coding(
-                        "Icon '" + icon + "' for category " + cat.getPath() + "/" + cat.getName() + " does not exist");
+                        "Icon '" + iconPath + "' for category " + cat.getPath() + "/" + cat.getName() + " does not exist");
                     img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
                 }
             }
             cat.setIcon(img);
         }
-
-        return cat;
     }
 }
@@ -55,7 +55,15 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
@@ -75,12 +83,14 @@
 import org.knime.core.node.workflow.FileNativeNodeContainerPersistor;
 import org.knime.workbench.repository.model.AbstractContainerObject;
 import org.knime.workbench.repository.model.Category;
+import org.knime.workbench.repository.model.DefaultNodeTemplate;
 import org.knime.workbench.repository.model.DynamicNodeTemplate;
 import org.knime.workbench.repository.model.IContainerObject;
 import org.knime.workbench.repository.model.IRepositoryObject;
 import org.knime.workbench.repository.model.MetaNodeTemplate;
 import org.knime.workbench.repository.model.NodeTemplate;
 import org.knime.workbench.repository.model.Root;
+import org.knime.workbench.repository.util.BigramIndex;
 import org.osgi.framework.Bundle;
 
 /**
@@ -139,6 +149,13 @@ public interface Listener {
     private static final String ID_META_NODE
             = "org.knime.workbench.repository.metanode";
 
+    /**
+     * Number of threads used to instantiate node factories while reading the repository, can be set with the system
+     * property <code>knime.repository.loadingThreads</code>; a value of 1 reads the repository sequentially.
+     */
+    private static final int LOADING_PARALLELISM =
+        Math.max(1, Integer.getInteger("knime.repository.loadingThreads", Runtime.getRuntime().availableProcessors()));
+
     private final List<Listener> m_loadListeners =
             new CopyOnWriteArrayList<Listener>();
 
@@ -147,8 +164,29 @@ public interface Listener {
     private final Map<String, NodeTemplate> m_nodesById =
             new HashMap<String, NodeTemplate>();
 
+    /**
+     * Read-only copy of {@link #m_nodesById}, published after each completed read so that lookups don't need to
+     * synchronize; <code>null</code> as long as no repository has been read.
+     */
+    private volatile Map<String, NodeTemplate> m_publishedNodesById;
+
+    /** Set once {@link #m_root} has been read completely, readers don't need to synchronize afterwards. */
+    private volatile boolean m_rootPublished;
+
+    /** Set once {@link #m_completeRoot} has been read completely, readers don't need to synchronize afterwards. */
+    private volatile boolean m_completeRootPublished;
+
+    private final Map<String, AtomicLong> m_bundleLoadTimes = new ConcurrentHashMap<String, AtomicLong>();
+
     private final Root m_completeRoot = new Root();
 
+    private final RepositoryCache m_repositoryCache = new RepositoryCache("node-repository");
+
+    private final RepositoryCache m_completeRepositoryCache = new RepositoryCache("node-repository-complete");
+
+    /** Bigram index over the names of all nodes and categories, (re-)built after each repository load. */
+    private volatile BigramIndex m_searchIndex;
+
     /**
      * Creates the repository model. This instantiates all contributed
      * category/node extensions found in the global Eclipse PluginRegistry, and
@@ -159,48 +197,114 @@ private RepositoryManager() {
 
     private void readRepository(final IProgressMonitor monitor) {
         assert !m_root.hasChildren();
-        readCategories(monitor, m_root);
-        if (monitor.isCanceled()) {
-            return;
-        }
-        readNodes(monitor, m_root, false);
-        if (monitor.isCanceled()) {
-            return;
-        }
-        readNodeSets(monitor, m_root, false);
-        if (monitor.isCanceled()) {
-            return;
+        final boolean restored = m_repositoryCache.restore(m_root);
+        if (restored) {
+            registerRestoredObjects(m_root, m_root);
+        } else {
+            readCategories(monitor, m_root);
+            if (monitor.isCanceled()) {
+                return;
+            }
+            readNodes(monitor, m_root, false);
+            if (monitor.isCanceled()) {
+                return;
+            }
+            readNodeSets(monitor, m_root, false);
+            if (monitor.isCanceled()) {
+                return;
+            }
         }
         readMetanodes(monitor, m_root);
         if (monitor.isCanceled()) {
             return;
         }
         removeEmptyCategories(m_root);
+        if (!restored) {
+            m_repositoryCache.write(m_root);
+            logBundleLoadTimes();
+        }
+        m_searchIndex = createSearchIndex();
+        m_publishedNodesById = Collections.unmodifiableMap(new HashMap<String, NodeTemplate>(m_nodesById));
+        m_rootPublished = true;
         m_loadListeners.clear();
     }
 
     private void readCompleteRepository(final IProgressMonitor monitor) {
         assert !m_completeRoot.hasChildren();
-        readCategories(monitor, m_completeRoot);
-        if (monitor.isCanceled()) {
-            return;
-        }
-        readNodes(monitor, m_completeRoot, true);
-        if (monitor.isCanceled()) {
-            return;
-        }
-        readNodeSets(monitor, m_completeRoot, true);
-        if (monitor.isCanceled()) {
-            return;
+        final boolean restored = m_completeRepositoryCache.restore(m_completeRoot);
+        if (restored) {
+            registerRestoredObjects(m_completeRoot, m_completeRoot);
+        } else {
+            readCategories(monitor, m_completeRoot);
+            if (monitor.isCanceled()) {
+                return;
+            }
+            readNodes(monitor, m_completeRoot, true);
+            if (monitor.isCanceled()) {
+                return;
+            }
+            readNodeSets(monitor, m_completeRoot, true);
+            if (monitor.isCanceled()) {
+                return;
+            }
         }
         readMetanodes(monitor, m_completeRoot);
         if (monitor.isCanceled()) {
             return;
         }
         removeEmptyCategories(m_completeRoot);
+        if (!restored) {
+            m_completeRepositoryCache.write(m_completeRoot);
+            logBundleLoadTimes();
+        }
+        m_searchIndex = createSearchIndex();
+        m_publishedNodesById = Collections.unmodifiableMap(new HashMap<String, NodeTemplate>(m_nodesById));
+        m_completeRootPublished = true;
         m_loadListeners.clear();
     }
 
+    /**
+     * Registers the nodes of a root restored from the {@link RepositoryCache} and notifies the load listeners just as
+     * if the categories and nodes had been read from their extensions.
+     */
+    private void registerRestoredObjects(final Root root, final IContainerObject container) {
+        for (IRepositoryObject object : container.getChildren()) {
+            if (object instanceof Category) {
+                for (Listener l : m_loadListeners) {
+                    l.newCategory(root, (Category)object);
+                }
+                registerRestoredObjects(root, (Category)object);
+            } else if (object instanceof NodeTemplate) {
+                NodeTemplate node = (NodeTemplate)object;
+                for (Listener l : m_loadListeners) {
+                    l.newNode(root, node);
+                }
+                m_nodesById.put(node.getID(), node);
+            }
+        }
+    }
+
+    private BigramIndex createSearchIndex() {
+        List<String> names = new ArrayList<String>(2 * m_nodesById.size());
+        collectNames(m_root, names);
+        collectNames(m_completeRoot, names);
+        BigramIndex index = BigramIndex.create(names);
+        LOGGER.debugWithFormat("Built search index over %d distinct node and category names", index.size());
+        return index;
+    }
+
+    private static void collectNames(final IContainerObject container, final List<String> names) {
+        for (IRepositoryObject object : container.getChildren()) {
+            names.add(object.getName());
+            if (object instanceof MetaNodeTemplate) {
+                names.add(((MetaNodeTemplate)object).getManager().getName());
+            }
+            if (object instanceof IContainerObject) {
+                collectNames((IContainerObject)object, names);
+            }
+        }
+    }
+
     private void readMetanodes(final IProgressMonitor monitor, final Root root) {
         // iterate over the meta node config elements
         // and create meta node templates
@@ -350,86 +454,120 @@ private void readNodes(final IProgressMonitor monitor, final Root root, final bo
             uncategorized = root;
         }
 
+        List<NodeFactoryExtension> extensions = new ArrayList<NodeFactoryExtension>();
         for (NodeFactoryExtension nodeFactoryExtension : NodeFactoryExtensionManager.getInstance()
             .getNodeFactoryExtensions()) {
-            if (monitor.isCanceled()) {
-                return;
+            if (nodeFactoryExtension.isDeprecated() && !isIncludeDeprecated) { // deprecate nodes are hidden
+                continue;
             }
+            if (nodeFactoryExtension.isHidden()) {
+                continue;
+            }
+            extensions.add(nodeFactoryExtension);
+        }
 
-            try {
-                if (nodeFactoryExtension.isDeprecated() && !isIncludeDeprecated) { // deprecate nodes are hidden
-                    continue;
-                }
-                if (nodeFactoryExtension.isHidden()) {
-                    continue;
+        // instantiating the factories is the expensive part, it's done in parallel; the templates are then added
+        // to the tree in the order of the extensions so that the result doesn't depend on the scheduling
+        List<DefaultNodeTemplate> nodes = loadInParallel(extensions, monitor,
+            NodeFactoryExtension::getPlugInSymbolicName, ext -> {
+                try {
+                    return RepositoryFactory.createNode(ext, false);
+                } catch (InvalidNodeFactoryExtensionException t) {
+                    LOGGER.error(t.getMessage(), t);
+                    return null;
                 }
+            });
+        if (nodes == null) {
+            return;
+        }
 
-                NodeTemplate node = RepositoryFactory.createNode(nodeFactoryExtension);
-
-                LOGGER.debugWithFormat("Found node extension '%s': %s", node.getID(), node.getName());
-                for (Listener l : m_loadListeners) {
-                    l.newNode(root, node);
-                }
+        for (int i = 0; i < nodes.size(); i++) {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            NodeFactoryExtension nodeFactoryExtension = extensions.get(i);
+            NodeTemplate node = nodes.get(i);
+            if (node == null) {
+                // error has already been logged
+                continue;
+            }
+            RepositoryFactory.loadNodeIcon(node);
 
-                m_nodesById.put(node.getID(), node);
-                String nodeName = node.getID();
-                nodeName = nodeName.substring(nodeName.lastIndexOf('.') + 1);
+            LOGGER.debugWithFormat("Found node extension '%s': %s", node.getID(), node.getName());
+            for (Listener l : m_loadListeners) {
+                l.newNode(root, node);
+            }
 
-                // Ask the root to lookup the category-container located at
-                // the given path
-                IContainerObject parentContainer =
-                        root.findContainer(node.getCategoryPath());
+            m_nodesById.put(node.getID(), node);
+            String nodeName = node.getID();
+            nodeName = nodeName.substring(nodeName.lastIndexOf('.') + 1);
+
+            // Ask the root to lookup the category-container located at
+            // the given path
+            IContainerObject parentContainer =
+                    root.findContainer(node.getCategoryPath());
+
+            // If parent category is illegal, log an error and append
+            // the node to the repository root.
+            if (parentContainer == null) {
+                LOGGER.coding("Unknown category for node " + node.getID() + " (plugin: "
+                        + node.getContributingPlugin() + "): " + node.getCategoryPath()
+                        + ". Node will be added to 'Uncategorized' instead");
+                uncategorized.addChild(node);
+            } else {
+                String nodePluginId = nodeFactoryExtension.getPlugInSymbolicName();
+                String categoryPluginId = parentContainer.getContributingPlugin();
+                if (categoryPluginId == null) {
+                    categoryPluginId = "";
+                }
+                int secondDotIndex = nodePluginId.indexOf('.', nodePluginId.indexOf('.') + 1);
+                if (secondDotIndex == -1) {
+                    secondDotIndex = 0;
+                }
 
-                // If parent category is illegal, log an error and append
-                // the node to the repository root.
-                if (parentContainer == null) {
-                    LOGGER.coding("Unknown category for node " + node.getID() + " (plugin: "
-                            + node.getContributingPlugin() + "): " + node.getCategoryPath()
-                            + ". Node will be added to 'Uncategorized' instead");
-                    uncategorized.addChild(node);
+                if (!parentContainer.isLocked() ||
+                        nodePluginId.equals(categoryPluginId) ||
+                        nodePluginId.startsWith("org.knime.") ||
+                        nodePluginId.startsWith("com.knime.") ||
+                        nodePluginId.regionMatches(0, categoryPluginId, 0, secondDotIndex)) {
+                    // container not locked, or node and category from same plug-in
+                    // or the vendor is the same (comparing the first two parts of the plug-in ids)
+                    parentContainer.addChild(node);
                 } else {
-                    String nodePluginId = nodeFactoryExtension.getPlugInSymbolicName();
-                    String categoryPluginId = parentContainer.getContributingPlugin();
-                    if (categoryPluginId == null) {
-                        categoryPluginId = "";
-                    }
-                    int secondDotIndex = nodePluginId.indexOf('.', nodePluginId.indexOf('.') + 1);
-                    if (secondDotIndex == -1) {
-                        secondDotIndex = 0;
-                    }
-
-                    if (!parentContainer.isLocked() ||
-                            nodePluginId.equals(categoryPluginId) ||
-                            nodePluginId.startsWith("org.knime.") ||
-                            nodePluginId.startsWith("com.knime.") ||
-                            nodePluginId.regionMatches(0, categoryPluginId, 0, secondDotIndex)) {
-                        // container not locked, or node and category from same plug-in
-                        // or the vendor is the same (comparing the first two parts of the plug-in ids)
-                        parentContainer.addChild(node);
-                    } else {
-                        LOGGER.coding("Locked category for node " + node.getID() + ": " + node.getCategoryPath()
-                                    + ". Node will be added to 'Uncategorized' instead");
-                        uncategorized.addChild(node);
-                    }
+                    LOGGER.coding("Locked category for node " + node.getID() + ": " + node.getCategoryPath()
+                                + ". Node will be added to 'Uncategorized' instead");
+                    uncategorized.addChild(node);
                 }
-
-            } catch (InvalidNodeFactoryExtensionException t) {
-                LOGGER.error(t.getMessage(), t);
             }
-
         } // for configuration elements
     }
 
 
     private void readNodeSets(final IProgressMonitor monitor, final Root root, final boolean isIncludeDeprecated) {
+        List<NodeSetFactoryExtension> sets = new ArrayList<NodeSetFactoryExtension>();
         for (NodeSetFactoryExtension set : NodeFactoryExtensionManager.getInstance().getNodeSetFactoryExtensions()) {
-            Collection<DynamicNodeTemplate> dynamicNodeTemplates =
-                    RepositoryFactory.createNodeSet(set, root, isIncludeDeprecated);
+            sets.add(set);
+        }
+        // same as for single nodes: create the templates in parallel, add them (and their categories) in order
+        List<Collection<DynamicNodeTemplate>> nodeSets = loadInParallel(sets, monitor,
+            NodeSetFactoryExtension::getPlugInSymbolicName,
+            set -> RepositoryFactory.createNodeSet(set, isIncludeDeprecated, false));
+        if (nodeSets == null) {
+            return;
+        }
+
+        for (int i = 0; i < nodeSets.size(); i++) {
+            Collection<DynamicNodeTemplate> dynamicNodeTemplates = nodeSets.get(i);
+            if (dynamicNodeTemplates == null) {
+                continue;
+            }
+            RepositoryFactory.addNodeSetCategories(sets.get(i), dynamicNodeTemplates, root);
 
             for (DynamicNodeTemplate node : dynamicNodeTemplates) {
                 if (monitor.isCanceled()) {
                     return;
                 }
+                RepositoryFactory.loadNodeIcon(node);
                 for (Listener l : m_loadListeners) {
                     l.newNode(root, node);
                 }
@@ -456,6 +594,67 @@ private void readNodeSets(final IProgressMonitor monitor, final Root root, final
         }
     }
 
+    /**
+     * Applies the loader to all extensions on a dedicated fork-join pool and returns the results in the order of the
+     * extensions. Exceptions thrown by the loader are logged and result in a <code>null</code> entry. The time spent
+     * per contributing bundle is accumulated in {@link #getBundleLoadTimes()}.
+     *
+     * @return the loaded objects or <code>null</code> if loading has been canceled
+     */
+    private <E, T> List<T> loadInParallel(final List<E> extensions, final IProgressMonitor monitor,
+        final Function<E, String> bundleName, final Function<E, T> loader) {
+        final Function<E, T> timedLoader = ext -> {
+            if (monitor.isCanceled()) {
+                return null;
+            }
+            long start = System.nanoTime();
+            try {
+                return loader.apply(ext);
+            } catch (RuntimeException | LinkageError ex) {
+                LOGGER.error("Could not load node(s) from plug-in '" + bundleName.apply(ext) + "': "
+                    + ex.getMessage(), ex);
+                return null;
+            } finally {
+                m_bundleLoadTimes.computeIfAbsent(bundleName.apply(ext), k -> new AtomicLong())
+                    .addAndGet(System.nanoTime() - start);
+            }
+        };
+
+        List<T> result;
+        if (LOADING_PARALLELISM <= 1) {
+            result = extensions.stream().map(timedLoader).collect(Collectors.toList());
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(LOADING_PARALLELISM);
+            try {
+                result = pool.submit(() -> extensions.parallelStream().map(timedLoader).collect(Collectors.toList()))
+                    .get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException ex) {
+                // exceptions are already handled by the loader, this can't happen
+                throw new IllegalStateException(ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return monitor.isCanceled() ? null : result;
+    }
+
+    private void logBundleLoadTimes() {
+        if (!LOGGER.isDebugEnabled()) {
+            return;
+        }
+        Map<String, Long> times = getBundleLoadTimes();
+        List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(times.entrySet());
+        entries.sort(Map.Entry.<String, Long> comparingByValue().reversed());
+        StringBuilder buf = new StringBuilder("Slowest plug-ins while reading the node repository:");
+        for (Map.Entry<String, Long> e : entries.subList(0, Math.min(10, entries.size()))) {
+            buf.append("\n  ").append(e.getKey()).append(": ").append(e.getValue()).append("ms");
+        }
+        LOGGER.debug(buf.toString());
+    }
+
     /**
      * Returns the extensions for a given extension point.
      *
@@ -549,11 +748,16 @@ private static void removeEmptyCategories(
      *
      * @return the root object
      */
-    public synchronized Root getRoot(final IProgressMonitor monitor) {
-        if (!m_root.hasChildren()) {
-            readRepository(monitor);
+    public Root getRoot(final IProgressMonitor monitor) {
+        if (m_rootPublished) {
+            return m_root;
+        }
+        synchronized (this) {
+            if (!m_root.hasChildren()) {
+                readRepository(monitor);
+            }
+            return m_root;
         }
-        return m_root;
     }
 
     /**
@@ -563,7 +767,7 @@ public synchronized Root getRoot(final IProgressMonitor monitor) {
      *
      * @return the root object
      */
-    public synchronized Root getRoot() {
+    public Root getRoot() {
         return getRoot(new NullProgressMonitor());
     }
 
@@ -580,11 +784,16 @@ public synchronized Root getRoot() {
      *
      * @return the root object
      */
-    public synchronized Root getCompleteRoot(final IProgressMonitor monitor) {
-        if (!m_completeRoot.hasChildren()) {
-            readCompleteRepository(monitor);
+    public Root getCompleteRoot(final IProgressMonitor monitor) {
+        if (m_completeRootPublished) {
+            return m_completeRoot;
+        }
+        synchronized (this) {
+            if (!m_completeRoot.hasChildren()) {
+                readCompleteRepository(monitor);
+            }
+            return m_completeRoot;
         }
-        return m_completeRoot;
     }
 
     /**
@@ -598,7 +807,7 @@ public synchronized Root getCompleteRoot(final IProgressMonitor monitor) {
      *
      * @return the root object
      */
-    public synchronized Root getCompleteRoot() {
+    public Root getCompleteRoot() {
         return getCompleteRoot(new NullProgressMonitor());
     }
 
@@ -622,11 +831,43 @@ public void addLoadListener(final Listener listener) {
      * @return a node template or <code>null</code>
      * @since 2.4
      */
-    public synchronized NodeTemplate getNodeTemplate(final String id) {
-        if (!m_root.hasChildren() && !m_completeRoot.hasChildren()) {
-            readRepository(new NullProgressMonitor());
+    public NodeTemplate getNodeTemplate(final String id) {
+        Map<String, NodeTemplate> nodesById = m_publishedNodesById;
+        if (nodesById != null) {
+            return nodesById.get(id);
         }
-        return m_nodesById.get(id);
+        synchronized (this) {
+            if (!m_root.hasChildren() && !m_completeRoot.hasChildren()) {
+                readRepository(new NullProgressMonitor());
+            }
+            return m_nodesById.get(id);
+        }
+    }
+
+    /**
+     * Returns the accumulated time spent on instantiating the node factories (and node set factories) of each
+     * contributing plug-in while reading the repository. Useful to find extensions that slow down the startup.
+     *
+     * @return a map from plug-in symbolic names to load times in milliseconds, sorted by plug-in name
+     * @since 4.2
+     */
+    public Map<String, Long> getBundleLoadTimes() {
+        Map<String, Long> times = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> e : m_bundleLoadTimes.entrySet()) {
+            times.put(e.getKey(), TimeUnit.NANOSECONDS.toMillis(e.getValue().get()));
+        }
+        return times;
+    }
+
+    /**
+     * Returns the bigram index over the names of all nodes, metanodes and categories in the repository. The index is
+     * built once the repository has been read and is used by the fuzzy search in the node repository view.
+     *
+     * @return the search index or <code>null</code> if the repository has not been read yet
+     * @since 4.2
+     */
+    public BigramIndex getSearchIndex() {
+        return m_searchIndex;
     }
 
     /**
@@ -47,6 +47,8 @@
  */
 package org.knime.workbench.repository.model;
 
+import java.net.URL;
+
 import org.eclipse.swt.graphics.Image;
 
 /**
@@ -60,6 +62,8 @@ public abstract class AbstractNodeTemplate extends AbstractRepositoryObject {
 
     private Image m_icon;
 
+    private URL m_iconURL;
+
     /**
      * Creates a new abstract node template.
      *
@@ -82,6 +86,7 @@ protected AbstractNodeTemplate(final String id, final String name, final String
     protected AbstractNodeTemplate(final AbstractNodeTemplate copy) {
         super(copy);
         this.m_icon = copy.m_icon;
+        this.m_iconURL = copy.m_iconURL;
         this.m_categoryPath = copy.m_categoryPath;
     }
 
@@ -100,6 +105,22 @@ public void setIcon(final Image icon) {
         m_icon = icon;
     }
 
+    /**
+     * @return the URL the icon has been loaded from, <code>null</code> if the default icon is used or unknown
+     * @since 4.2
+     */
+    public URL getIconURL() {
+        return m_iconURL;
+    }
+
+    /**
+     * @param iconURL the URL the icon has been loaded from, <code>null</code> if the default icon is used
+     * @since 4.2
+     */
+    public void setIconURL(final URL iconURL) {
+        m_iconURL = iconURL;
+    }
+
     /**
      * @return Returns the categoryPath.
      */
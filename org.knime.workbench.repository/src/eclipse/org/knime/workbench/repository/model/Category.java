@@ -68,6 +68,8 @@ public class Category extends AbstractContainerObject {
 
     private Image m_icon;
 
+    private String m_iconPath;
+
     /**
      * Creates a new category that is a copy of the given category.
      *
@@ -78,6 +80,7 @@ protected Category(final Category copy) {
         this.m_description = copy.m_description;
         this.m_path = copy.m_path;
         this.m_icon = copy.m_icon;
+        this.m_iconPath = copy.m_iconPath;
     }
 
     /**
@@ -159,6 +162,26 @@ public void setIcon(final Image icon) {
         m_icon = icon;
     }
 
+    /**
+     * Returns the path of the category's icon relative to the contributing plug-in.
+     *
+     * @return the icon path or <code>null</code> if the default icon is used
+     * @since 4.2
+     */
+    public String getIconPath() {
+        return m_iconPath;
+    }
+
+    /**
+     * Sets the path of the category's icon relative to the contributing plug-in.
+     *
+     * @param iconPath the icon path or <code>null</code> if the default icon is used
+     * @since 4.2
+     */
+    public void setIconPath(final String iconPath) {
+        m_iconPath = iconPath;
+    }
+
     /**
      * {@inheritDoc}
      */
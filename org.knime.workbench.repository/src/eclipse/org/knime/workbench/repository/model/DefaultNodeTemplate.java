@@ -50,6 +50,7 @@
 import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeFactory.NodeType;
 import org.knime.core.node.NodeModel;
+import org.knime.core.node.workflow.FileNativeNodeContainerPersistor;
 
 /**
  * Class that realizes a (contributed) node in the repository tree. This is used
@@ -65,7 +66,10 @@
  */
 public class DefaultNodeTemplate extends NodeTemplate {
 
-    private final Class<? extends NodeFactory<? extends NodeModel>> m_factory;
+    /** The factory class, resolved on first use if the template has been restored from the repository cache. */
+    private volatile Class<? extends NodeFactory<? extends NodeModel>> m_factory;
+
+    private final String m_factoryCanonicalName;
 
     /**
      * Creates a copy of the given node template.
@@ -75,6 +79,7 @@ public class DefaultNodeTemplate extends NodeTemplate {
     protected DefaultNodeTemplate(final DefaultNodeTemplate copy) {
         super(copy);
         this.m_factory = copy.m_factory;
+        this.m_factoryCanonicalName = copy.m_factoryCanonicalName;
     }
 
     /**
@@ -90,11 +95,55 @@ public DefaultNodeTemplate(final Class<NodeFactory<? extends NodeModel>> factory
         final String contributingPlugin, final String categoryPath, final NodeType nodeType) {
         super(factoryClass.getName(), name, contributingPlugin, categoryPath, nodeType);
         m_factory = factoryClass;
+        m_factoryCanonicalName = factoryClass.getCanonicalName();
     }
 
+    /**
+     * Constructs a new node template whose factory class is only loaded when it is first needed, e.g. when the
+     * template has been restored from a persisted repository.
+     *
+     * @param factoryClassName the factory's (binary) class name
+     * @param factoryCanonicalName the factory's canonical class name
+     * @param name a human-readable name for this node
+     * @param contributingPlugin the contributing plug-in's ID
+     * @param categoryPath category path as per ext point
+     * @param nodeType Node's type.
+     * @since 4.2
+     */
+    public DefaultNodeTemplate(final String factoryClassName, final String factoryCanonicalName, final String name,
+        final String contributingPlugin, final String categoryPath, final NodeType nodeType) {
+        super(factoryClassName, name, contributingPlugin, categoryPath, nodeType);
+        m_factoryCanonicalName = factoryCanonicalName;
+    }
+
+    @SuppressWarnings("unchecked")
     @Override
     public Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
-        return m_factory;
+        Class<? extends NodeFactory<? extends NodeModel>> factory = m_factory;
+        if (factory == null) {
+            synchronized (this) {
+                factory = m_factory;
+                if (factory == null) {
+                    try {
+                        factory = (Class<? extends NodeFactory<? extends NodeModel>>)FileNativeNodeContainerPersistor
+                            .loadNodeFactory(getID()).getClass();
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(
+                            "Could not load node factory '" + getID() + "': " + ex.getMessage(), ex);
+                    }
+                    m_factory = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * @return the canonical class name of the factory, available without loading the factory class
+     * @since 4.2
+     */
+    public String getFactoryCanonicalName() {
+        return m_factoryCanonicalName;
     }
 
     /**
@@ -104,13 +153,13 @@ public Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
     @Override
     public NodeFactory<? extends NodeModel> createFactoryInstance()
             throws Exception {
-        return m_factory.newInstance();
+        return getFactory().newInstance();
     }
 
     @Override
     public int hashCode() {
         // see equals method for comment on this
-        return m_factory.getCanonicalName().hashCode();
+        return m_factoryCanonicalName.hashCode();
     }
 
     @Override
@@ -128,7 +177,7 @@ public boolean equals(final Object obj) {
         // to be sure only check for the full class name
         // seems that different built versions of the class have led to
         // duplicates
-        return m_factory.getCanonicalName().equals(((NodeTemplate)obj).getFactory().getCanonicalName());
+        return m_factoryCanonicalName.equals(((DefaultNodeTemplate)obj).m_factoryCanonicalName);
     }
 
     /**
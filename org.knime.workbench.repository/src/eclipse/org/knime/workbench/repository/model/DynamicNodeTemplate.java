@@ -52,6 +52,7 @@
 import org.knime.core.node.NodeFactory.NodeType;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSetFactory;
+import org.knime.core.node.extension.NodeFactoryExtensionManager;
 import org.knime.core.node.extension.NodeSetFactoryExtension;
 
 /**
@@ -70,9 +71,11 @@ public class DynamicNodeTemplate extends NodeTemplate {
      */
     private static final String NODE_NAME_SEP = "#";
 
-    private final NodeSetFactoryExtension m_nodeSetFactoryExtension;
+    /** Resolved on first use if the template has been restored from the repository cache. */
+    private volatile NodeSetFactoryExtension m_nodeSetFactoryExtension;
 
-    private final Class<? extends NodeFactory<? extends NodeModel>> m_factoryClass;
+    /** Resolved on first use if the template has been restored from the repository cache. */
+    private volatile Class<? extends NodeFactory<? extends NodeModel>> m_factoryClass;
 
     private final String m_factoryId;
 
@@ -97,6 +100,24 @@ public DynamicNodeTemplate(final NodeSetFactoryExtension nodeSetFactoryExtension
         m_nodeSetFactoryExtension = nodeSetFactoryExtension;
     }
 
+    /**
+     * Constructs a new DynamicNodeTemplate whose node set factory extension and node factory class are only resolved
+     * when they are first needed, e.g. when the template has been restored from a persisted repository.
+     *
+     * @param id the template's id, <code>&#60;node-factory class name&#62;#&#60;node name&#62;</code>
+     * @param contributingPlugin the symbolic name of the plug-in contributing the node set
+     * @param factoryId The id of the NodeFactory, must not be <code>null</code>
+     * @param name the name of this repository entry, must not be <code>null</code>
+     * @param categoryPath category path as per {@link NodeSetFactory#getCategoryPath(String)}
+     * @param nodeType type as per node's (runtime generated) factory xml descriptin.
+     * @since 4.2
+     */
+    public DynamicNodeTemplate(final String id, final String contributingPlugin, final String factoryId,
+        final String name, final String categoryPath, final NodeType nodeType) {
+        super(id, name, contributingPlugin, categoryPath, nodeType);
+        m_factoryId = factoryId;
+    }
+
     /**
      * Creates a copy of the given object.
      *
@@ -109,19 +130,63 @@ protected DynamicNodeTemplate(final DynamicNodeTemplate copy) {
         m_factoryId = copy.m_factoryId;
     }
 
+    /**
+     * @return the id of the node factory within its node set
+     * @since 4.2
+     */
+    public String getFactoryId() {
+        return m_factoryId;
+    }
+
+    @SuppressWarnings("unchecked")
     @Override
     public Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
-        return m_factoryClass;
+        Class<? extends NodeFactory<? extends NodeModel>> factoryClass = m_factoryClass;
+        if (factoryClass == null) {
+            synchronized (this) {
+                factoryClass = m_factoryClass;
+                if (factoryClass == null) {
+                    factoryClass = (Class<? extends NodeFactory<? extends NodeModel>>)createFactory().getClass();
+                    m_factoryClass = factoryClass;
+                }
+            }
+        }
+        return factoryClass;
+    }
+
+    private synchronized NodeSetFactoryExtension getNodeSetFactoryExtension() {
+        if (m_nodeSetFactoryExtension == null) {
+            for (NodeSetFactoryExtension set : NodeFactoryExtensionManager.getInstance()
+                .getNodeSetFactoryExtensions()) {
+                if (set.getPlugInSymbolicName().equals(getContributingPlugin())) {
+                    for (String factoryId : set.getNodeFactoryIds()) {
+                        if (factoryId.equals(m_factoryId)) {
+                            m_nodeSetFactoryExtension = set;
+                            return set;
+                        }
+                    }
+                }
+            }
+            throw new IllegalStateException(String.format(
+                "No node set factory extension in plug-in %s provides the node with id \"%s\"",
+                getContributingPlugin(), m_factoryId));
+        }
+        return m_nodeSetFactoryExtension;
     }
 
     @Override
     public NodeFactory<? extends NodeModel> createFactoryInstance() throws Exception {
+        return createFactory();
+    }
+
+    private NodeFactory<? extends NodeModel> createFactory() {
         // exception is unexpected here as the constructor was called with a concrete instance already
         // (which for some reason we never re-use but create a new factory instead)
-        return m_nodeSetFactoryExtension.createNodeFactory(m_factoryId).orElseThrow(//
+        final NodeSetFactoryExtension nodeSetFactoryExtension = getNodeSetFactoryExtension();
+        return nodeSetFactoryExtension.createNodeFactory(m_factoryId).orElseThrow(//
             () -> new RuntimeException(
                 String.format("Can't create node for id \"%s\" from node set factory extension %s", m_factoryId,
-                    m_nodeSetFactoryExtension)));
+                    nodeSetFactoryExtension)));
     }
 
     /**
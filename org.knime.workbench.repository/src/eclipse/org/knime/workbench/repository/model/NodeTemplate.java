@@ -69,6 +69,8 @@ public abstract class NodeTemplate extends AbstractNodeTemplate {
 
     private NodeType m_type;
 
+    private boolean m_deprecated;
+
     /**
      * Creates a copy of the given node template.
      *
@@ -77,6 +79,7 @@ public abstract class NodeTemplate extends AbstractNodeTemplate {
     protected NodeTemplate(final NodeTemplate copy) {
         super(copy);
         this.m_type = copy.m_type;
+        this.m_deprecated = copy.m_deprecated;
     }
 
     /**
@@ -113,6 +116,22 @@ public final NodeType getType() {
         return m_type;
     }
 
+    /**
+     * @return <code>true</code> if the node is deprecated, <code>false</code> otherwise
+     * @since 4.2
+     */
+    public boolean isDeprecated() {
+        return m_deprecated;
+    }
+
+    /**
+     * @param deprecated whether the node is deprecated
+     * @since 4.2
+     */
+    public void setDeprecated(final boolean deprecated) {
+        m_deprecated = deprecated;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hashCode(m_type);
@@ -63,10 +63,16 @@
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.IOUtils;
@@ -146,6 +152,15 @@ public class Nodalizer implements IApplication {
     private static final String DEFAULT_OWNER = "-defaultOwner";
     private static final String FEATURES = "-features";
     private static final String BLACKLIST = "-blacklist";
+    private static final String THREADS = "-threads";
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /* parses the nodes and writes the JSON files */
+    private ExecutorService m_executor;
+
+    /* the parsed nodes in the order in which they have been encountered, null for skipped nodes */
+    private final List<Future<ParsedNode>> m_parsedNodes = new ArrayList<>();
 
     /**
      * {@inheritDoc}
@@ -170,6 +185,8 @@ public class Nodalizer implements IApplication {
      * <li>-blacklist &lt;path-to-blacklist-file&gt;, a file in which each line contains a <b>regex rule</b> for an
      * extension which should be "blacklisted" (not parsed). Also if a blacklist file is provided it may be written to
      * if an extension is found which does not have a category path AND contains no nodes</li>
+     * <li>-threads &lt;number-of-threads&gt;, the number of threads used for parsing the nodes and writing the JSON
+     * files. Defaults to the number of available processors.</li>
      * </ul>
      */
     @Override
@@ -188,6 +205,7 @@ public Object start(final IApplicationContext context) throws Exception {
         List<String> features = null;
         Path blacklistFile = null;
         List<String> blacklist = null;
+        int threads = Runtime.getRuntime().availableProcessors();
         if (args instanceof String[]) {
             final String[] params = (String[])args;
             for (int i = 0; i < params.length; i++) {
@@ -245,6 +263,13 @@ public Object start(final IApplicationContext context) throws Exception {
                         LOGGER.warn("Invalid blacklist file: " + blacklistFile.toString());
                     }
                 }
+                if (params[i].equalsIgnoreCase(THREADS) && (params.length > (i + 1))) {
+                    try {
+                        threads = Math.max(1, Integer.parseInt(params[i + 1]));
+                    } catch (final NumberFormatException ex) {
+                        LOGGER.warn("Invalid number of threads: " + params[i + 1] + ". Using " + threads + " threads.");
+                    }
+                }
             }
         }
 
@@ -320,9 +345,21 @@ public Object start(final IApplicationContext context) throws Exception {
         }
         final Root root = RepositoryManager.INSTANCE.getCompleteRoot();
 
-        parseNodesInRoot(root, null, nodeDir, extensions, bundles);
-        if (factoryList != null) {
-            parseDeprecatedNodeList(factoryList, nodeDir, extensions, bundles);
+        m_executor = Executors.newFixedThreadPool(threads, r -> {
+            final Thread t = new Thread(r, "KNIME Nodalizer-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            parseNodesInRoot(root, null, nodeDir, extensions, bundles);
+            if (factoryList != null) {
+                parseDeprecatedNodeList(factoryList, nodeDir, extensions, bundles);
+            }
+            writeParsedNodes();
+        } finally {
+            m_executor.shutdownNow();
+            m_executor = null;
+            m_parsedNodes.clear();
         }
 
         // Write extensions
@@ -382,8 +419,15 @@ private void parseNodesInRoot(final IRepositoryObject object, final List<String>
                 final NodeTemplate template = (NodeTemplate)object;
                 final NodeFactory<? extends NodeModel> fac = template.createFactoryInstance();
                 final NodeAndBundleInformation nodeAndBundleInfo = NodeAndBundleInformationPersistor.create(fac);
-                parseNodeAndPrint(fac, fac.getClass().getName(), path, template.getCategoryPath(), template.getName(),
-                    nodeAndBundleInfo, fac.isDeprecated(), directory, extensions, bundles);
+                m_parsedNodes.add(m_executor.submit(() -> {
+                    try {
+                        return parseNode(fac, fac.getClass().getName(), path, template.getCategoryPath(),
+                            template.getName(), nodeAndBundleInfo, fac.isDeprecated(), directory, extensions, bundles);
+                    } catch (final Throwable e) {
+                        LOGGER.error("Failed to read node: " + object.getName() + ".", e);
+                        return null;
+                    }
+                }));
             } catch (final Throwable e) {
                 LOGGER.error("Failed to read node: " + object.getName() + ".", e);
             }
@@ -403,7 +447,7 @@ private void parseNodesInRoot(final IRepositoryObject object, final List<String>
         }
     }
 
-    private static void parseDeprecatedNodeList(final Path factoryListFile, final File directory,
+    private void parseDeprecatedNodeList(final Path factoryListFile, final File directory,
         final Map<String, ExtensionInfo> extensions, final List<String> bundles) {
         if (factoryListFile == null) {
             return;
@@ -439,8 +483,15 @@ private static void parseDeprecatedNodeList(final Path factoryListFile, final Fi
                     // always pass true for isDeprecated, even though the factory may not say it is deprecated
                     // pass the factory name in the file, not the name of the loaded class - due to factory class
                     // mapping these may not match
-                    parseNodeAndPrint(fac, parts[0], path, categoryPath, fac.getNodeName(), b, true, directory,
-                        extensions, bundles);
+                    m_parsedNodes.add(m_executor.submit(() -> {
+                        try {
+                            return parseNode(fac, parts[0], path, categoryPath, fac.getNodeName(), b, true, directory,
+                                extensions, bundles);
+                        } catch (final Throwable e) {
+                            LOGGER.warn("Failed to read factory from list: " + factory + ". ", e);
+                            return null;
+                        }
+                    }));
                 } else {
                     if (!b.getBundleName().isPresent()) {
                         LOGGER.warn("Bundle name is missing! " + factory);
@@ -459,7 +510,12 @@ private static void parseDeprecatedNodeList(final Path factoryListFile, final Fi
         }
     }
 
-    private static void parseNodeAndPrint(final NodeFactory<?> fac, final String factoryString, final List<String> path,
+    /**
+     * Parses a single node, called concurrently for different nodes.
+     *
+     * @return the parsed node, or {@code null} if the node should be skipped
+     */
+    private static ParsedNode parseNode(final NodeFactory<?> fac, final String factoryString, final List<String> path,
         final String categoryPath, final String name, final NodeAndBundleInformation nodeAndBundleInfo,
         final boolean isDeprecated, final File directory, final Map<String, ExtensionInfo> extensions,
         final List<String> bundles) throws Exception {
@@ -487,12 +543,12 @@ private static void parseNodeAndPrint(final NodeFactory<?> fac, final String fac
             } else if (!nabi.getFeatureSymbolicName().isPresent()
                 && bundles.contains(nabi.getBundleSymbolicName().orElse(null))) {
                 LOGGER.warn(fac.getClass() + " does not contain extension information, skipping ...");
-                return;
+                return null;
             } else {
                 // Node doesn't belong to this update site, so skip. With any KNIME installation there will be
                 // around 500 nodes installed. So it is not worth printing all the nodes that don't belong
                 // to the update site being read.
-                return;
+                return null;
             }
         }
 
@@ -532,7 +588,7 @@ private static void parseNodeAndPrint(final NodeFactory<?> fac, final String fac
         Document nodeHTML = null;
         if (nodeXML == null) {
             LOGGER.warn("Node factory XML not found for " + fac.getClass() + ". Skipping ...");
-            return;
+            return null;
         }
         final String s = NodeFactoryHTMLCreator.instance.readFullDescription(nodeXML);
         nodeHTML = Jsoup.parse(s);
@@ -621,8 +677,34 @@ private static void parseNodeAndPrint(final NodeFactory<?> fac, final String fac
             nInfo.setDynOutPorts(dynOutports);
         }
 
-        // Write to file
-        writeFile(directory, categoryPath + "/" + name, nInfo);
+        return new ParsedNode(directory, categoryPath + "/" + name, nInfo);
+    }
+
+    /**
+     * Writes the JSON files of all parsed nodes. The file names are assigned in the order in which the nodes have been
+     * encountered, so that they are the same as when parsing sequentially; the files themselves are written
+     * concurrently.
+     */
+    private void writeParsedNodes() throws Exception {
+        final Set<File> reservedFiles = new HashSet<>();
+        final List<Future<?>> writes = new ArrayList<>();
+        for (final Future<ParsedNode> parsed : m_parsedNodes) {
+            final ParsedNode node = parsed.get();
+            if (node == null) {
+                continue;
+            }
+            final File f = reserveFile(node.m_directory, node.m_baseFileName, reservedFiles);
+            writes.add(m_executor.submit(() -> {
+                try {
+                    writeFile(f, node.m_nodeInfo);
+                } catch (final Throwable e) {
+                    LOGGER.error("Failed to write node: " + node.m_nodeInfo.getTitle() + ".", e);
+                }
+            }));
+        }
+        for (final Future<?> write : writes) {
+            write.get();
+        }
     }
 
     private static List<DynamicPortGroup> parseDynamicPorts(final Element nodeXML, final String xmlTag,
@@ -996,21 +1078,35 @@ private static String getColorAsHex(final int color) {
     }
 
     private static void writeFile(final File outputDir, final String baseFileName, final Object pojoToWrite)
+        throws JsonProcessingException, FileNotFoundException, UnsupportedEncodingException {
+        writeFile(reserveFile(outputDir, baseFileName, Collections.emptySet()), pojoToWrite);
+    }
+
+    private static void writeFile(final File f, final Object pojoToWrite)
         throws JsonProcessingException, FileNotFoundException, UnsupportedEncodingException {
         final ObjectMapper map = new ObjectMapper();
         map.setSerializationInclusion(Include.NON_ABSENT);
         map.enable(SerializationFeature.INDENT_OUTPUT);
         final String json = map.writeValueAsString(pojoToWrite);
+        try (final PrintWriter pw = new PrintWriter(f, StandardCharsets.UTF_8.displayName())) {
+            pw.write(json);
+        }
+    }
+
+    /**
+     * Returns the first file for the given base name which neither exists nor has been reserved before, and adds it to
+     * the reserved files.
+     */
+    private static File reserveFile(final File outputDir, final String baseFileName, final Set<File> reservedFiles) {
         String fileName = baseFileName.replaceAll("\\W+", "_");
         File f = new File(outputDir, fileName + ".json");
         int count = 2;
-        while (f.exists()) {
+        while (f.exists() || reservedFiles.contains(f)) {
             f = new File(outputDir, fileName + count + ".json");
             count++;
         }
-        try (final PrintWriter pw = new PrintWriter(f, StandardCharsets.UTF_8.displayName())) {
-            pw.write(json);
-        }
+        reservedFiles.add(f);
+        return f;
     }
 
     private static String cleanSymbolicName(final String symbolicName) {
@@ -1019,4 +1115,20 @@ private static String cleanSymbolicName(final String symbolicName) {
         }
         return symbolicName;
     }
+
+    /** A parsed node together with the location of its JSON file. */
+    private static final class ParsedNode {
+
+        private final File m_directory;
+
+        private final String m_baseFileName;
+
+        private final NodeInfo m_nodeInfo;
+
+        ParsedNode(final File directory, final String baseFileName, final NodeInfo nodeInfo) {
+            m_directory = directory;
+            m_baseFileName = baseFileName;
+            m_nodeInfo = nodeInfo;
+        }
+    }
 }
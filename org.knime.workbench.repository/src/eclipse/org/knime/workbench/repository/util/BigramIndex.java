@@ -0,0 +1,269 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An inverted index over the character bigrams of a fixed set of terms (e.g. the names of all nodes and categories in
+ * the node repository). Bigrams are stored as packed <code>int</code> codes (first character in the upper, second
+ * character in the lower 16 bits) and all terms are upper-cased. The index is built once and is immutable afterwards,
+ * so it can be queried concurrently.
+ *
+ * <p>
+ * For a query, {@link #score(String)} only visits the terms that share at least one bigram with the query and computes
+ * their Tanimoto distance once; the returned {@link Scores} can then be used for both, filtering and sorting.
+ * </p>
+ *
+ * @since 4.2
+ */
+public final class BigramIndex {
+    /** Distance of two terms that don't have any bigram in common. */
+    private static final double MAX_DISTANCE = 1.0;
+
+    private static final int[] NO_GRAMS = new int[0];
+
+    private final String[] m_terms;
+
+    private final Map<String, Integer> m_termIds;
+
+    /** Number of distinct bigrams per term, indexed by term id. */
+    private final int[] m_gramCounts;
+
+    /** All distinct bigram codes of all terms, sorted ascending. */
+    private final int[] m_grams;
+
+    /** The ids of the terms containing the bigram at the same position in {@link #m_grams}, sorted ascending. */
+    private final int[][] m_postings;
+
+    private BigramIndex(final Collection<String> terms) {
+        Set<String> distinctTerms = new LinkedHashSet<>();
+        for (String t : terms) {
+            if (t != null) {
+                distinctTerms.add(t.toUpperCase());
+            }
+        }
+        m_terms = distinctTerms.toArray(new String[distinctTerms.size()]);
+        m_termIds = new HashMap<>(m_terms.length * 2);
+        m_gramCounts = new int[m_terms.length];
+
+        int[][] termGrams = new int[m_terms.length][];
+        Map<Integer, Integer> postingSizes = new HashMap<>();
+        for (int id = 0; id < m_terms.length; id++) {
+            m_termIds.put(m_terms[id], id);
+            termGrams[id] = bigrams(m_terms[id]);
+            m_gramCounts[id] = termGrams[id].length;
+            for (int g : termGrams[id]) {
+                postingSizes.merge(g, 1, Integer::sum);
+            }
+        }
+
+        m_grams = new int[postingSizes.size()];
+        int i = 0;
+        for (Integer g : postingSizes.keySet()) {
+            m_grams[i++] = g;
+        }
+        Arrays.sort(m_grams);
+
+        m_postings = new int[m_grams.length][];
+        int[] fill = new int[m_grams.length];
+        for (int k = 0; k < m_grams.length; k++) {
+            m_postings[k] = new int[postingSizes.get(m_grams[k])];
+        }
+        // term ids are visited in ascending order, hence the posting lists end up sorted
+        for (int id = 0; id < m_terms.length; id++) {
+            for (int g : termGrams[id]) {
+                int k = Arrays.binarySearch(m_grams, g);
+                m_postings[k][fill[k]++] = id;
+            }
+        }
+    }
+
+    /**
+     * Creates a new index over the given terms. <code>null</code> terms are ignored, duplicates (ignoring case) are
+     * indexed only once.
+     *
+     * @param terms the terms to index
+     * @return a new index
+     */
+    public static BigramIndex create(final Collection<String> terms) {
+        return new BigramIndex(terms);
+    }
+
+    /**
+     * @return the number of distinct terms in this index
+     */
+    public int size() {
+        return m_terms.length;
+    }
+
+    /**
+     * Computes the Tanimoto bigram distances of all indexed terms to the given query. Only the terms sharing at least
+     * one bigram with the query are visited, all others implicitly have the maximum distance of 1.
+     *
+     * @param query the query, case is ignored
+     * @return the scores for the query, never <code>null</code>
+     */
+    public Scores score(final String query) {
+        final int[] queryGrams = bigrams(query.toUpperCase());
+        final int[] intersections = new int[m_terms.length];
+        for (int g : queryGrams) {
+            int k = Arrays.binarySearch(m_grams, g);
+            if (k >= 0) {
+                for (int id : m_postings[k]) {
+                    intersections[id]++;
+                }
+            }
+        }
+
+        final double[] distances = new double[m_terms.length];
+        for (int id = 0; id < distances.length; id++) {
+            distances[id] = tanimotoDistance(intersections[id], m_gramCounts[id], queryGrams.length);
+        }
+        return new Scores(queryGrams, distances);
+    }
+
+    /**
+     * Computes the Tanimoto bigram distance between the two strings without using any index, ignoring case.
+     *
+     * @param textA the first string
+     * @param textB the second string
+     * @return the distance between 0 (same bigram sets) and 1 (no common bigrams)
+     */
+    public static double computeDistance(final String textA, final String textB) {
+        return computeDistance(bigrams(textA.toUpperCase()), bigrams(textB.toUpperCase()));
+    }
+
+    private static double computeDistance(final int[] gramsA, final int[] gramsB) {
+        // both arrays are sorted, so a single merge pass yields the intersection
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < gramsA.length && j < gramsB.length) {
+            if (gramsA[i] < gramsB[j]) {
+                i++;
+            } else if (gramsA[i] > gramsB[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return tanimotoDistance(intersection, gramsA.length, gramsB.length);
+    }
+
+    private static double tanimotoDistance(final int intersection, final int countA, final int countB) {
+        // union = |A| + |B| - |A n B|
+        double denominator = countA + countB - intersection;
+        if (intersection > 0 && denominator > 0) {
+            return 1.0 - intersection / denominator;
+        } else {
+            return MAX_DISTANCE;
+        }
+    }
+
+    /**
+     * Returns the sorted, distinct, packed bigram codes of the given string.
+     *
+     * @param s the string, expected to be upper-cased already
+     * @return the bigram codes, sorted ascending
+     */
+    static int[] bigrams(final String s) {
+        if (s.length() < 2) {
+            return NO_GRAMS;
+        }
+        int[] grams = new int[s.length() - 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (s.charAt(i) << 16) | s.charAt(i + 1);
+        }
+        Arrays.sort(grams);
+        int n = 1;
+        for (int i = 1; i < grams.length; i++) {
+            if (grams[i] != grams[n - 1]) {
+                grams[n++] = grams[i];
+            }
+        }
+        return (n == grams.length) ? grams : Arrays.copyOf(grams, n);
+    }
+
+    /**
+     * The Tanimoto distances of all terms to a single query. Distances of terms that are not part of the index are
+     * computed on first request and cached, hence instances can be shared between threads.
+     */
+    public final class Scores {
+        private final int[] m_queryGrams;
+
+        private final double[] m_distances;
+
+        private final Map<String, Double> m_unindexed = new ConcurrentHashMap<>();
+
+        private Scores(final int[] queryGrams, final double[] distances) {
+            m_queryGrams = queryGrams;
+            m_distances = distances;
+        }
+
+        /**
+         * Returns the Tanimoto bigram distance of the given term to the query.
+         *
+         * @param term any term, case is ignored
+         * @return the distance between 0 (same bigram sets) and 1 (no common bigrams)
+         */
+        public double getDistance(final String term) {
+            String upper = term.toUpperCase();
+            Integer id = m_termIds.get(upper);
+            if (id != null) {
+                return m_distances[id];
+            }
+            return m_unindexed.computeIfAbsent(upper, t -> computeDistance(bigrams(t), m_queryGrams));
+        }
+    }
+}
@@ -62,6 +62,15 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.transform.TransformerException;
 
@@ -96,6 +105,8 @@ public class NodeDocuGenerator implements IApplication {
 
     private static final String PLUGIN_ARG = "-plugin";
 
+    private static final String THREADS_ARG = "-threads";
+
     private static void printUsage() {
         System.err.println("Usage: NodeDocuGenerator options");
         System.err.println("Allowed options are:");
@@ -105,6 +116,8 @@ private static void printUsage() {
                 .println("\t-plugin plugin-id : Only nodes of the specified plugin will be considered. If not all available plugins will be processed.\n");
         System.err
                 .println("\t-category category-path (e.g. /community) : Only nodes within the specified category path will be considered. If not specified '/' is used.\n");
+        System.err
+                .println("\t-threads n : Number of threads used for generating the node descriptions. If not specified the number of available processors is used.\n");
 
     }
 
@@ -124,7 +137,17 @@ private static void printUsage() {
 
     private String m_nodeRepositoryTemplate;
 
-    private StringBuilder m_nodeRepository = new StringBuilder();
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /* parts of the node repository menu, either strings or futures of node entries that are still being generated */
+    private final List<Object> m_nodeRepository = new ArrayList<>();
+
+    /* the last node task per node file name, tasks writing the same file run in the order of the repository */
+    private final Map<String, Future<String>> m_nodeTasks = new HashMap<>();
+
+    private ExecutorService m_executor;
+
+    private int m_threads = Runtime.getRuntime().availableProcessors();
 
     private String m_pluginId = null;
 
@@ -146,6 +169,17 @@ public Object start(final IApplicationContext context) throws Exception {
                     m_catPath = args[i + 1];
                 } else if (args[i].equals(PLUGIN_ARG)) {
                     m_pluginId = args[i + 1];
+                } else if (args[i].equals(THREADS_ARG)) {
+                    try {
+                        m_threads = Integer.parseInt(args[i + 1]);
+                    } catch (NumberFormatException ex) {
+                        m_threads = 0;
+                    }
+                    if (m_threads < 1) {
+                        System.err.println("Invalid number of threads: '" + args[i + 1] + "'");
+                        printUsage();
+                        return 1;
+                    }
                 } else if (args[i].equals("-help")) {
                     printUsage();
                     return EXIT_OK;
@@ -190,7 +224,8 @@ private void generate() throws Exception {
         // copy static html files
         copyFiles(FILES_TO_COPY);
 
-        m_nodeRepository.setLength(0);
+        m_nodeRepository.clear();
+        m_nodeTasks.clear();
 
         // write css file
         Writer css = createDocumentWriter("style.css", m_directory);
@@ -230,11 +265,24 @@ private void generate() throws Exception {
         m_catPath = m_catPath.replaceAll("/", ".");
 
         // recursively generate the node reference and the node description
-        // pages
-        generate(m_directory, root, null);
+        // pages; the node pages are generated concurrently, the menu is
+        // assembled in repository order afterwards
+        m_executor = Executors.newFixedThreadPool(m_threads, r -> {
+            Thread t = new Thread(r, "KNIME Node Documentation Generator-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        String menu;
+        try {
+            generate(m_directory, root, null);
+            menu = collectNodeRepository();
+        } finally {
+            m_executor.shutdownNow();
+            m_executor = null;
+        }
 
         // complete and write repository template
-        String nodeRepo = m_nodeRepositoryTemplate.replace("[NODE_REPOSITORY]", m_nodeRepository.toString());
+        String nodeRepo = m_nodeRepositoryTemplate.replace("[NODE_REPOSITORY]", menu);
         Writer out = createDocumentWriter("node_repository.html", m_directory);
         out.write(nodeRepo);
         out.close();
@@ -249,6 +297,38 @@ private void generate() throws Exception {
 
     }
 
+    /**
+     * Waits for all node tasks and concatenates the menu entries in the order of the node repository.
+     *
+     * @return the content of the node repository menu
+     * @throws Exception the first failure of any of the node tasks
+     */
+    private String collectNodeRepository() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        for (Object part : m_nodeRepository) {
+            if (part instanceof Future) {
+                buf.append(getResult((Future<?>)part));
+            } else {
+                buf.append(part);
+            }
+        }
+        return buf.toString();
+    }
+
+    private static Object getResult(final Future<?> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw ex;
+        }
+    }
+
     /**
      * Cleans node template ID for file name, by replacing all non word characters with "_".
      * @param nodeTemplate Node template with ID to clean.
@@ -274,9 +354,9 @@ private String cleanNodeIdForFileName(final NodeTemplate nodeTemplate) {
      */
     private boolean generate(final File directory, final IRepositoryObject current, final IRepositoryObject parent)
             throws TransformerException, Exception {
-        // current length of the repository string to be able to revert it to
+        // current number of menu parts to be able to revert it to
         // the current state
-        int currentLength = m_nodeRepository.length();
+        int currentLength = m_nodeRepository.size();
 
         if (current instanceof NodeTemplate) {
 
@@ -295,42 +375,19 @@ private boolean generate(final File directory, final IRepositoryObject current,
                 }
             }
 
-            String nodeIdentifier = cleanNodeIdForFileName((NodeTemplate)current);//((NodeTemplate)current).getID();
-
-            // write icon to disc
-            URL iconURL = ((NodeTemplate)current).createFactoryInstance().getIcon();
-            String nodeIcon;
-            if (iconURL != null) {
-                writeStreamToFile(iconURL.openStream(), nodeIdentifier + ".png");
-                nodeIcon = nodeIdentifier + ".png";
-            } else {
-                nodeIcon = "knime_default_icon.png";
-            }
-
-            // the node repository-like menu
-            m_nodeRepository.append("<li style=\"list-style-image: url(");
-            m_nodeRepository.append(nodeIcon);
-            m_nodeRepository.append(");\" class=\"knime-node\"><span class=\"childs\"><a href=\"");
-            m_nodeRepository.append(current.getID());
-            m_nodeRepository.append(".html\" target=\"Node Description\">");
-            m_nodeRepository.append(((NodeTemplate)current).getName());
-            m_nodeRepository.append("</a></span></li>\n");
-
-            // create page with node description and return, as no more
-            // children
-            // are available
-            Writer nodeDoc = createDocumentWriter(cleanNodeIdForFileName((NodeTemplate)current) + ".html", directory);
-            String nodeDescription =
-                    NodeFactoryHTMLCreator.instance.readFullDescription(((NodeTemplate)current).createFactoryInstance()
-                            .getXMLDescription());
-            // extract the body of the node description html-document
-            nodeDescription =
-                    nodeDescription
-                            .substring(nodeDescription.indexOf("<body>") + 6, nodeDescription.indexOf("</body>"));
-            nodeDescription = m_nodeDescriptionTemplate.replace("[NODE_DESCRIPTION]", nodeDescription);
-            nodeDoc.write(nodeDescription);
-            nodeDoc.flush();
-            nodeDoc.close();
+            final NodeTemplate template = (NodeTemplate)current;
+            final String nodeIdentifier = cleanNodeIdForFileName(template);//((NodeTemplate)current).getID();
+            // nodes with the same cleaned id write the same files; let them run in repository order
+            // so that the last one wins, as it would when generating sequentially
+            final Future<String> predecessor = m_nodeTasks.get(nodeIdentifier);
+            Future<String> task = m_executor.submit(() -> {
+                if (predecessor != null) {
+                    getResult(predecessor);
+                }
+                return generateNode(directory, template, nodeIdentifier);
+            });
+            m_nodeTasks.put(nodeIdentifier, task);
+            m_nodeRepository.add(task);
 
             return true;
         } else if (current instanceof Category || current instanceof Root) {
@@ -352,12 +409,8 @@ private boolean generate(final File directory, final IRepositoryObject current,
                     catIcon = "knime_default_icon.png";
                 }
 
-                m_nodeRepository.append("<li class=\"knime-category\">");
-                m_nodeRepository.append("<img width=\"16px\" src=\"");
-                m_nodeRepository.append(catIcon);
-                m_nodeRepository.append("\"/>&nbsp;");
-                m_nodeRepository.append(((Category)current).getName());
-                m_nodeRepository.append("</span><ul>");
+                m_nodeRepository.add("<li class=\"knime-category\"><img width=\"16px\" src=\"" + catIcon
+                    + "\"/>&nbsp;" + ((Category)current).getName() + "</span><ul>");
             }
 
             boolean hasChildren = false;
@@ -366,11 +419,11 @@ private boolean generate(final File directory, final IRepositoryObject current,
             }
 
             if (hasChildren) {
-                m_nodeRepository.append("</ul></li>");
+                m_nodeRepository.add("</ul></li>");
                 return true;
             } else {
                 // revert all entries done so far
-                m_nodeRepository.setLength(currentLength);
+                m_nodeRepository.subList(currentLength, m_nodeRepository.size()).clear();
                 return false;
             }
 
@@ -383,6 +436,52 @@ private boolean generate(final File directory, final IRepositoryObject current,
 
     }
 
+    /**
+     * Writes the icon and the description page of a single node. Called concurrently for different nodes.
+     *
+     * @return the node's entry in the node repository menu
+     */
+    private String generateNode(final File directory, final NodeTemplate template, final String nodeIdentifier)
+            throws Exception {
+        // write icon to disc
+        URL iconURL = template.createFactoryInstance().getIcon();
+        String nodeIcon;
+        if (iconURL != null) {
+            writeStreamToFile(iconURL.openStream(), nodeIdentifier + ".png");
+            nodeIcon = nodeIdentifier + ".png";
+        } else {
+            nodeIcon = "knime_default_icon.png";
+        }
+
+        // the node repository-like menu
+        StringBuilder entry = new StringBuilder();
+        entry.append("<li style=\"list-style-image: url(");
+        entry.append(nodeIcon);
+        entry.append(");\" class=\"knime-node\"><span class=\"childs\"><a href=\"");
+        entry.append(template.getID());
+        entry.append(".html\" target=\"Node Description\">");
+        entry.append(template.getName());
+        entry.append("</a></span></li>\n");
+
+        // create page with node description and return, as no more
+        // children
+        // are available
+        Writer nodeDoc = createDocumentWriter(nodeIdentifier + ".html", directory);
+        String nodeDescription =
+                NodeFactoryHTMLCreator.instance.readFullDescription(template.createFactoryInstance()
+                        .getXMLDescription());
+        // extract the body of the node description html-document
+        nodeDescription =
+                nodeDescription
+                        .substring(nodeDescription.indexOf("<body>") + 6, nodeDescription.indexOf("</body>"));
+        nodeDescription = m_nodeDescriptionTemplate.replace("[NODE_DESCRIPTION]", nodeDescription);
+        nodeDoc.write(nodeDescription);
+        nodeDoc.flush();
+        nodeDoc.close();
+
+        return entry.toString();
+    }
+
     /*
      * Helper to compose the category names/identifier of the super-categories
      * and the current one
@@ -56,10 +56,12 @@
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -83,7 +85,12 @@ public final class NodeFactoryHTMLCreator {
 
     private static final String HOWTO_FILE = "node_description_howto.html";
 
-    private Map<String, Transformer> m_transformers = new HashMap<String, Transformer>();
+    /** Compiled stylesheets per namespace, they are thread-safe and shared by all threads. */
+    private final Map<String, Templates> m_templates = new ConcurrentHashMap<String, Templates>();
+
+    /** Transformers are not thread-safe, therefore each thread gets its own ones (per namespace). */
+    private final ThreadLocal<Map<String, Transformer>> m_transformers =
+        ThreadLocal.withInitial(() -> new HashMap<String, Transformer>());
 
     private static final Pattern NAMESPACE_PATTERN = Pattern.compile("http://knime.org/(.*)node(?:2012|/v(\\d+\\.\\d+))");
 
@@ -132,44 +139,60 @@ public String readFullDescription(final Element knimeNode) throws FileNotFoundEx
         }
 
         String namespaceUri = knimeNode.getNamespaceURI();
-        Transformer transformer = m_transformers.get(namespaceUri);
+        Map<String, Transformer> transformers = m_transformers.get();
+        Transformer transformer = transformers.get(namespaceUri);
         if (transformer == null) {
-            Matcher matcher = NAMESPACE_PATTERN.matcher(namespaceUri);
-            if (!matcher.matches()) {
-                throw new IllegalArgumentException("Unsupported namespace for knime node: " + namespaceUri);
-            }
-            final String version;
-            if (matcher.group(2) != null) {
-                version = matcher.group(2);
-            } else {
-                version = "2.7";
-            }
-            String nodeType = matcher.group(1);
-            if (nodeType != null && nodeType.length() > 0) {
-                nodeType = "_" + nodeType;
-            } else {
-                nodeType = "";
-            }
-            String styleFile = "FullNodeDescription" + nodeType + "_v" + version + ".xslt";
-
-            InputStream is = getClass().getResourceAsStream(styleFile);
-            if (is == null) {
-                throw new FileNotFoundException("Could not find stylesheet '" + styleFile + "'");
-            }
-            StreamSource stylesheet = new StreamSource(is);
-            transformer = TransformerFactory.newInstance().newTemplates(stylesheet).newTransformer();
+            transformer = getTemplates(namespaceUri).newTransformer();
             transformer.setParameter("css", m_css);
             transformer.setOutputProperty(OutputKeys.METHOD, "xml");
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            m_transformers.put(namespaceUri, transformer);
+            transformers.put(namespaceUri, transformer);
         }
 
         StreamResult result = new StreamResult(new StringWriter());
         DOMSource source = new DOMSource(knimeNode);
-        transformer.transform(source, result);
+        // DOM implementations are not thread-safe, not even for reading
+        Object lock = (knimeNode.getOwnerDocument() != null) ? knimeNode.getOwnerDocument() : knimeNode;
+        synchronized (lock) {
+            transformer.transform(source, result);
+        }
         return result.getWriter().toString();
     }
 
+    private Templates getTemplates(final String namespaceUri) throws FileNotFoundException, TransformerException {
+        Templates templates = m_templates.get(namespaceUri);
+        if (templates != null) {
+            return templates;
+        }
+        Matcher matcher = NAMESPACE_PATTERN.matcher(namespaceUri);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported namespace for knime node: " + namespaceUri);
+        }
+        final String version;
+        if (matcher.group(2) != null) {
+            version = matcher.group(2);
+        } else {
+            version = "2.7";
+        }
+        String nodeType = matcher.group(1);
+        if (nodeType != null && nodeType.length() > 0) {
+            nodeType = "_" + nodeType;
+        } else {
+            nodeType = "";
+        }
+        String styleFile = "FullNodeDescription" + nodeType + "_v" + version + ".xslt";
+
+        InputStream is = getClass().getResourceAsStream(styleFile);
+        if (is == null) {
+            throw new FileNotFoundException("Could not find stylesheet '" + styleFile + "'");
+        }
+        StreamSource stylesheet = new StreamSource(is);
+        templates = TransformerFactory.newInstance().newTemplates(stylesheet);
+        // if another thread was faster use its templates, both are equivalent
+        Templates existing = m_templates.putIfAbsent(namespaceUri, templates);
+        return (existing != null) ? existing : templates;
+    }
+
     private String getXMLDescriptionHowTo() {
         BufferedReader buffer = null;
         try {
@@ -64,9 +64,10 @@
  */
 class AdditionalInfoViewFilter extends ViewerFilter{
 
-    private boolean m_doFilter;
+    private volatile boolean m_doFilter;
     private TextualViewFilter m_delegate;
     private String[] m_additionalInfoKeys;
+    private volatile FilterMatches m_matches;
 
     /**
      * @param delegate another filter that is to be used before
@@ -84,6 +85,17 @@ public AdditionalInfoViewFilter(final TextualViewFilter delegate, final String..
      */
     @Override
     public boolean select(final Viewer viewer, final Object parentElement, final Object element) {
+        final FilterMatches matches = m_matches;
+        if ((matches != null) && matches.isValidFor(m_delegate.getQueryString(), m_doFilter)) {
+            Boolean selected = matches.select(parentElement, element);
+            if (selected != null) {
+                return selected;
+            }
+        }
+        return doSelect(viewer, parentElement, element);
+    }
+
+    private boolean doSelect(final Viewer viewer, final Object parentElement, final Object element) {
         if (m_doFilter) {
             if (element instanceof AbstractNodeTemplate) {
                 AbstractNodeTemplate nT = (AbstractNodeTemplate)element;
@@ -107,7 +119,7 @@ public boolean select(final Viewer viewer, final Object parentElement, final Obj
                 Category category = (Category)element;
                 IRepositoryObject[] children = category.getChildren();
                 for (int i = 0; i < children.length; i++) {
-                    if (select(viewer, element, children[i])) {
+                    if (doSelect(viewer, element, children[i])) {
                         //return true if first matching child is found
                         return true;
                     }
@@ -129,6 +141,41 @@ public void setDoFilter(final boolean doFilter) {
         m_doFilter = doFilter;
     }
 
+    /**
+     * @return whether the additional info filtering is active
+     */
+    boolean isDoFilter() {
+        return m_doFilter;
+    }
+
+    /**
+     * Creates an independent copy of this filter with the given query, e.g. in order to evaluate the query off the UI
+     * thread.
+     *
+     * @param query the query for the copy
+     * @return a new filter or <code>null</code> if the delegate filter doesn't support copies
+     */
+    AdditionalInfoViewFilter copyWithQuery(final String query) {
+        TextualViewFilter delegate = m_delegate.newInstance();
+        if (delegate == null) {
+            return null;
+        }
+        delegate.setQueryString(query);
+        AdditionalInfoViewFilter copy = new AdditionalInfoViewFilter(delegate, m_additionalInfoKeys);
+        copy.setDoFilter(m_doFilter);
+        return copy;
+    }
+
+    /**
+     * Sets precomputed filter decisions. They are only used as long as the query and the additional info filtering
+     * flag haven't changed since they have been computed.
+     *
+     * @param matches the matches, may be <code>null</code>
+     */
+    void setPrecomputedMatches(final FilterMatches matches) {
+        m_matches = matches;
+    }
+
     /**
      * @return the underlying filter used additional to the info filtering
      */
@@ -0,0 +1,167 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.view;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.viewers.ViewerFilter;
+import org.knime.workbench.repository.model.IContainerObject;
+import org.knime.workbench.repository.model.IRepositoryObject;
+
+/**
+ * The result of evaluating a filter for a certain query against all elements of a repository tree. It is computed off
+ * the UI thread (see {@link #compute(ViewerFilter, String, boolean, Object, IProgressMonitor)}) so that the viewer
+ * filter only needs to look up the precomputed decision when the tree is refreshed.
+ *
+ * <p>
+ * Elements are recorded twice: once as shown in the category tree (i.e. with their actual parent) and once as shown in
+ * the flat node list (i.e. with the repository root as parent), see {@link ListRepositoryContentProvider}.
+ * </p>
+ */
+final class FilterMatches {
+    private final String m_query;
+
+    private final boolean m_doFilter;
+
+    private final Object m_input;
+
+    private final Set<Object> m_known = newIdentitySet();
+
+    private final Set<Object> m_selectedInTree = newIdentitySet();
+
+    private final Set<Object> m_selectedInList = newIdentitySet();
+
+    private FilterMatches(final String query, final boolean doFilter, final Object input) {
+        m_query = query;
+        m_doFilter = doFilter;
+        m_input = input;
+    }
+
+    private static Set<Object> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    }
+
+    /**
+     * Evaluates the given filter for all elements below the input.
+     *
+     * @param filter a filter that is not used by any viewer (i.e. its state doesn't change during the computation)
+     * @param query the (upper case) query the filter has been configured with
+     * @param doFilter whether the additional info filtering was active
+     * @param input the viewer's input
+     * @param monitor for cancellation
+     * @return the matches or <code>null</code> if the computation has been canceled
+     */
+    static FilterMatches compute(final ViewerFilter filter, final String query, final boolean doFilter,
+        final Object input, final IProgressMonitor monitor) {
+        FilterMatches matches = new FilterMatches(query, doFilter, input);
+        if ((input instanceof IContainerObject) && !matches.walk(filter, (IContainerObject)input, monitor)) {
+            return null;
+        }
+        return matches;
+    }
+
+    private boolean walk(final ViewerFilter filter, final IContainerObject container, final IProgressMonitor monitor) {
+        // getChildren returns a copy, hence we work on a snapshot of the tree
+        for (IRepositoryObject child : container.getChildren()) {
+            if (monitor.isCanceled()) {
+                return false;
+            }
+            m_known.add(child);
+            boolean selected = filter.select(null, container, child);
+            if (selected) {
+                m_selectedInTree.add(child);
+            }
+            if (child instanceof IContainerObject) {
+                if (!walk(filter, (IContainerObject)child, monitor)) {
+                    return false;
+                }
+            } else if ((container == m_input) ? selected : filter.select(null, m_input, child)) {
+                m_selectedInList.add(child);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param query the filter's current query
+     * @param doFilter the filter's current additional info filtering flag
+     * @return <code>true</code> if these matches have been computed for the given filter state
+     */
+    boolean isValidFor(final String query, final boolean doFilter) {
+        return Objects.equals(m_query, query) && (m_doFilter == doFilter);
+    }
+
+    /**
+     * Returns the precomputed filter decision.
+     *
+     * @param parentElement the parent element as passed to {@link ViewerFilter#select}
+     * @param element the element as passed to {@link ViewerFilter#select}
+     * @return the decision or <code>null</code> if the element is unknown (e.g. the tree has changed in the meantime)
+     */
+    Boolean select(final Object parentElement, final Object element) {
+        if (!m_known.contains(element)) {
+            return null;
+        }
+        if ((parentElement == m_input) && !(element instanceof IContainerObject)) {
+            return m_selectedInList.contains(element);
+        }
+        return m_selectedInTree.contains(element);
+    }
+
+    /**
+     * @param other other matches, may be <code>null</code>
+     * @return <code>true</code> if both would show exactly the same elements of the same input with the same additional
+     *         info filtering
+     */
+    boolean showsSameElements(final FilterMatches other) {
+        return (other != null) && (other.m_input == m_input) && (other.m_doFilter == m_doFilter)
+            && other.m_known.equals(m_known)
+            && other.m_selectedInTree.equals(m_selectedInTree) && other.m_selectedInList.equals(m_selectedInList);
+    }
+}
@@ -60,6 +60,14 @@
  */
 public class RepositoryViewFilter extends TextualViewFilter {
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected TextualViewFilter newInstance() {
+        return new RepositoryViewFilter();
+    }
+
     /**
      *  An element is selected if itself, a parent or a
      * child contains the query string in its name.
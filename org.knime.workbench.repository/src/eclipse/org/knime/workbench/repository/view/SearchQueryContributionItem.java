@@ -48,15 +48,22 @@
 package org.knime.workbench.repository.view;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.ControlContribution;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.ITreeSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.FocusAdapter;
 import org.eclipse.swt.events.FocusEvent;
@@ -74,10 +81,12 @@
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.workflow.NodeID;
 import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.util.KNIMEJob;
 import org.knime.workbench.core.nodeprovider.NodeProvider;
 import org.knime.workbench.repository.NodeUsageRegistry;
 import org.knime.workbench.repository.model.MetaNodeTemplate;
 import org.knime.workbench.repository.model.NodeTemplate;
+import org.osgi.framework.FrameworkUtil;
 
 /**
  * Contribution Item within the RepositoryView. It's essentially the text box to type the search query.
@@ -113,16 +122,20 @@ class SearchQueryContributionItem extends ControlContribution implements KeyList
     private TreeItem[] m_treeItems;
 
     /**
-     * Flag that indicates whether the thread that delays
-     * the actual processing of the search query is running.
+     * The job that evaluates the current search query off the UI thread; a new key event cancels a pending or running
+     * job and schedules it again, which also delays the processing while typing.
      */
-    private final AtomicBoolean m_isDelayThreadRunning = new AtomicBoolean(false);
+    private Job m_queryJob;
 
     /**
-     * Flag that indicates whether the 'delay thread' should continue
-     * delaying the processing of the search query a bit further.
+     * Incremented with every key event; results of queries that have been superseded in the meantime are discarded.
      */
-    private final AtomicBoolean m_continueDelay = new AtomicBoolean(true);
+    private final AtomicLong m_queryGeneration = new AtomicLong();
+
+    /**
+     * The matches currently shown in the viewer, used to skip updating the tree if a new query doesn't change them.
+     */
+    private FilterMatches m_shownMatches;
 
     /**
      * The listener to appropriately update the node repository view in reaction to search results.
@@ -282,38 +295,60 @@ public void keyReleased(final KeyEvent e) {
 
         m_lastKey = e.character;
 
-        if (!m_isDelayThreadRunning.getAndSet(true)) {
-            //if the thread to delay the actually
-            //processing of the search query is not running, start a new one
-            delayQueryProcessing();
-        } else {
-            //if delay thread is already running
-            //and a new key event arrives,
-            //just continue delaying the actual
-            //processing of the search query a bit further
-            m_continueDelay.set(true);
-        }
+        scheduleQueryProcessing();
 
         //undo the selection of a node in the list since the search query probably has been changed
         m_viewer.setSelection(StructuredSelection.EMPTY);
     }
 
-    private void delayQueryProcessing() {
-        new Thread(new Runnable() {
+    /**
+     * (Re-)schedules the evaluation of the current search query. This must be called on the SWT thread.
+     */
+    private void scheduleQueryProcessing() {
+        if (m_queryJob != null) {
+            // stale query, a new key has been typed
+            m_queryJob.cancel();
+        }
+        final long generation = m_queryGeneration.incrementAndGet();
+        final String searchString = (m_lastKey == SWT.ESC) ? "" : m_text.getText();
+        final Object input = m_viewer.getInput();
+        final List<AdditionalInfoViewFilter> filters = new ArrayList<>();
+        for (ViewerFilter f : m_viewer.getFilters()) {
+            if (f instanceof AdditionalInfoViewFilter) {
+                filters.add((AdditionalInfoViewFilter)f);
+            }
+        }
+
+        m_queryJob = new KNIMEJob("Node Repository Search", FrameworkUtil.getBundle(getClass())) {
             @Override
-            public void run() {
-                //delay the processing a bit
-                try {
-                    while (m_continueDelay.getAndSet(false)) {
-                        Thread.sleep(DELAY);
+            protected IStatus run(final IProgressMonitor monitor) {
+                // evaluate the query on copies of the filters against the current repository tree
+                final Map<AdditionalInfoViewFilter, FilterMatches> matches = new HashMap<>();
+                for (AdditionalInfoViewFilter filter : filters) {
+                    AdditionalInfoViewFilter copy = filter.copyWithQuery(searchString);
+                    if (copy != null) {
+                        FilterMatches m = FilterMatches.compute(copy, copy.getDelegateFilter().getQueryString(),
+                            copy.isDoFilter(), input, monitor);
+                        if (m == null) {
+                            return Status.CANCEL_STATUS;
+                        }
+                        matches.put(filter, m);
                     }
-                    //do the actual work in the UI thread
-                    Display.getDefault().asyncExec(() -> updateRepositoryTree());
-                } catch (InterruptedException ex) {
-                    // do nothing, just return
                 }
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                //do the actual viewer update in the UI thread
+                Display.getDefault().asyncExec(() -> {
+                    if ((generation == m_queryGeneration.get()) && !m_text.isDisposed()) {
+                        updateRepositoryTree(matches);
+                    }
+                });
+                return Status.OK_STATUS;
             }
-        }).start();
+        };
+        m_queryJob.setSystem(true);
+        m_queryJob.schedule(DELAY);
     }
 
     /**
@@ -337,6 +372,7 @@ void setQueryChangedCallback(final Runnable c) {
      */
     void setFilter(final TextualViewFilter filter) {
         m_treeItems = null;
+        m_shownMatches = null;
         m_filter = filter;
     }
 
@@ -383,10 +419,7 @@ static private void createNode(final Object o) {
         }
     }
 
-    private void updateRepositoryTree() {
-        m_continueDelay.set(true);
-        m_isDelayThreadRunning.set(false);
-
+    private void updateRepositoryTree(final Map<AdditionalInfoViewFilter, FilterMatches> precomputedMatches) {
         //clear the tree items since the search query possibly has been changed
         m_treeItems = null;
 
@@ -409,13 +442,28 @@ private void updateRepositoryTree() {
             }
         }
 
-        //update the filter and inform the callback object
+        //update the filter, install the precomputed matches and inform the callback object
         m_filter.setQueryString(searchString);
+        FilterMatches activeMatches = null;
+        for (Map.Entry<AdditionalInfoViewFilter, FilterMatches> e : precomputedMatches.entrySet()) {
+            e.getKey().setPrecomputedMatches(e.getValue());
+            if (e.getKey().getDelegateFilter() == m_filter) {
+                activeMatches = e.getValue();
+            }
+        }
         if (m_callback != null) {
             m_callback.run();
         }
 
         update = update || searchString.isEmpty();
+        if (update && !searchString.isEmpty() && (activeMatches != null)
+            && activeMatches.showsSameElements(m_shownMatches)) {
+            // the query changed but not the elements to show, no need to refresh (and expand) the whole tree
+            m_treeUpdateListener.treeDidUpdate(m_viewer.getTree().getItemCount());
+            return;
+        }
+        m_shownMatches = update ? activeMatches : null;
+
         //update the tree view itself
         TreeViewerUpdater.collapseAndUpdate(m_viewer, m_treeUpdateListener, update, searchString.isEmpty(),
             !searchString.isEmpty());
@@ -45,16 +45,17 @@
 
 package org.knime.workbench.repository.view;
 
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Set;
 
 import org.eclipse.jface.viewers.Viewer;
+import org.knime.workbench.repository.RepositoryManager;
 import org.knime.workbench.repository.model.AbstractNodeTemplate;
 import org.knime.workbench.repository.model.Category;
 import org.knime.workbench.repository.model.IRepositoryObject;
 import org.knime.workbench.repository.model.MetaNodeTemplate;
 import org.knime.workbench.repository.model.Root;
+import org.knime.workbench.repository.util.BigramIndex;
 
 /**
  * A filter for items which computes the tanimoto distance to a given query and filters all nodes which have a distance
@@ -68,6 +69,17 @@ final class TanimotoTextualViewFilter extends TextualViewFilter {
      */
     private static final double UPPER_DISTANCE_BOUND = 0.85;
 
+    /** The distances of all indexed names to the current query, <code>null</code> if the query is empty. */
+    private volatile BigramIndex.Scores m_scores;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected TextualViewFilter newInstance() {
+        return new TanimotoTextualViewFilter();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -137,6 +149,27 @@ protected boolean doSelect(final Object parentElement, final Object element, fin
         return false;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Additionally computes the distances of all indexed node and category names to the new query, which are then
+     * used for both, matching and sorting.
+     */
+    @Override
+    public void setQueryString(final String query) {
+        super.setQueryString(query);
+        if (hasNonEmptyQuery()) {
+            BigramIndex index = RepositoryManager.INSTANCE.getSearchIndex();
+            if (index == null) {
+                // repository not read yet, fall back to an empty index (distances are computed on demand)
+                index = BigramIndex.create(Collections.<String> emptyList());
+            }
+            m_scores = index.score(getQueryString());
+        } else {
+            m_scores = null;
+        }
+    }
+
     /**
      * @param test String to test
      * @return <code>true</code> if the test is contained in the m_query String (ignoring case)
@@ -148,64 +181,18 @@ protected boolean match(final String test) {
         }
         boolean contains = test.toUpperCase().contains(getQueryString());
         if (!contains) {
-            return computeTanimotoBiGramDistance(test, getQueryString()) < UPPER_DISTANCE_BOUND;
+            return getDistance(test) < UPPER_DISTANCE_BOUND;
         } else {
             return true;
         }
     }
 
-
-    /**
-     * Copied from the Tanimoto BiGram distance from the distmatrix package.
-     */
-    private static double computeTanimotoBiGramDistance(final String textA, final String textB) {
-
-        String a = textA.toUpperCase();
-        String b = textB.toUpperCase();
-
-        Set<String> gramsA = split(a, 2);
-        Set<String> gramsB = split(b, 2);
-
-        int nominator = cardinalityOfIntersection(gramsA, gramsB);
-        int inAButNotInB = cardinalityOfRelativeComplement(gramsA, gramsB);
-        int inBButNotInA = cardinalityOfRelativeComplement(gramsB, gramsA);
-
-        double denominator = nominator + inAButNotInB + inBButNotInA;
-
-        if (denominator > 0) {
-            return 1.0 - nominator / denominator;
-        } else {
-            return 1.0;
-        }
-    }
-
-    private static int cardinalityOfIntersection(final Set<String> a, final Set<String> b) {
-        int toReturn = 0;
-        for (String gram : a) {
-            if (b.contains(gram)) {
-                toReturn++;
-            }
-        }
-        return toReturn;
-    }
-
-    private static int cardinalityOfRelativeComplement(final Set<String> a, final Set<String> b) {
-        int toReturn = 0;
-        for (String gram : a) {
-            if (!b.contains(gram)) {
-                toReturn++;
-            }
-        }
-        return toReturn;
-    }
-
-    private static Set<String> split(final String a, final int count) {
-        Set<String> toReturn = new HashSet<String>(a.length() > 1 ? a.length() - 1 : 12);
-
-        for (int i = 0; i < a.length() - count + 1; i++) {
-            toReturn.add(a.substring(i, i + count));
+    private double getDistance(final String test) {
+        final BigramIndex.Scores scores = m_scores;
+        if (scores != null) {
+            return scores.getDistance(test);
         }
-        return toReturn;
+        return BigramIndex.computeDistance(test, getQueryString());
     }
 
     /**
@@ -216,16 +203,14 @@ private static Set<String> split(final String a, final int count) {
     public Comparator<String> createComparator() {
         // Actually there seems to be a concurrent execution somewhere,
         // so i decided to use a thread safe implementation.
-        if (hasNonEmptyQuery()) {
-            final String currentQuery = getQueryString();
-
+        // The scores are immutable (besides an internal concurrent cache) and computed once per query.
+        final BigramIndex.Scores scores = m_scores;
+        if (hasNonEmptyQuery() && scores != null) {
             return new Comparator<String>() {
 
                 @Override
                 public int compare(final String o1, final String o2) {
-                    double computeTanimotoBiGramDistanceO1 = computeTanimotoBiGramDistance(currentQuery, o1);
-                    double computeTanimotoBiGramDistanceO2 = computeTanimotoBiGramDistance(currentQuery, o2);
-                    return Double.compare(computeTanimotoBiGramDistanceO1, computeTanimotoBiGramDistanceO2);
+                    return Double.compare(scores.getDistance(o1), scores.getDistance(o2));
                 }
             };
 
@@ -56,7 +56,7 @@
  *
  */
 public abstract class TextualViewFilter extends ViewerFilter {
-    private String m_query;
+    private volatile String m_query;
 
     /**
      * {@inheritDoc}
@@ -128,6 +128,17 @@ public boolean hasNonEmptyQuery() {
         return (m_query != null) && (m_query.length() > 0);
     }
 
+    /**
+     * Creates a new, independent filter of the same kind without a query. It is used to evaluate queries off the UI
+     * thread without changing the state of this filter. The default implementation returns <code>null</code>, i.e.
+     * queries are only evaluated by the filter itself.
+     *
+     * @return a new filter instance or <code>null</code>
+     */
+    protected TextualViewFilter newInstance() {
+        return null;
+    }
+
     /**
      * @return a comparator that determines the sorting of the items, <code>null</code> if no comparator should be used
      *         and the default sorting retained. The default implementation returns <code>null</code>.
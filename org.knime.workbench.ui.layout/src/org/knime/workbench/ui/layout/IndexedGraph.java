@@ -0,0 +1,312 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.ui.layout;
+
+import java.util.Arrays;
+
+import org.knime.workbench.ui.layout.Graph.Edge;
+import org.knime.workbench.ui.layout.Graph.Node;
+
+/**
+ * An array-backed snapshot of a {@link Graph} for the layout algorithms. Nodes and edges are numbered densely from
+ * 0 in the order of {@link Graph#nodes()} and {@link Graph#edges()}, so per-node and per-edge data can be kept in
+ * plain <code>int[]</code> and <code>double[]</code> arrays. The incoming and outgoing edges of each node are stored
+ * in compressed sparse row form, i.e. in one array of edge ids per direction with an offset array marking where the
+ * edges of each node start.
+ *
+ * <p>
+ * The snapshot copies the coordinates of the nodes; they are changed in the snapshot only and are transferred back
+ * to the graph by {@link #writeCoordinates()}. The structure of the snapshot is fixed, the graph must not be changed
+ * while the snapshot is in use.
+ *
+ * @since 4.2
+ */
+public final class IndexedGraph {
+
+    private final Node[] m_nodes;
+
+    private final Edge[] m_edges;
+
+    /** the id of each node by {@link Node#index()}, -1 for nodes not in the graph. */
+    private final int[] m_idByIndex;
+
+    private final int[] m_source;
+
+    private final int[] m_target;
+
+    /** the incoming edges of node v are m_inEdges[m_inStart[v]] .. m_inEdges[m_inStart[v + 1] - 1]. */
+    private final int[] m_inStart;
+
+    private final int[] m_inEdges;
+
+    /** the outgoing edges of node v are m_outEdges[m_outStart[v]] .. m_outEdges[m_outStart[v + 1] - 1]. */
+    private final int[] m_outStart;
+
+    private final int[] m_outEdges;
+
+    private final double[] m_x;
+
+    private final double[] m_y;
+
+    private final Graph m_g;
+
+    /**
+     * creates a snapshot of the given graph.
+     *
+     * @param g the graph
+     */
+    public IndexedGraph(final Graph g) {
+        m_g = g;
+        final int n = g.n();
+        final int m = g.m();
+        m_nodes = new Node[n];
+        m_x = new double[n];
+        m_y = new double[n];
+        int maxIndex = -1;
+        int v = 0;
+        for (Node node : g.nodes()) {
+            m_nodes[v] = node;
+            m_x[v] = g.getX(node);
+            m_y[v] = g.getY(node);
+            maxIndex = Math.max(maxIndex, node.index());
+            v++;
+        }
+        m_idByIndex = new int[maxIndex + 1];
+        Arrays.fill(m_idByIndex, -1);
+        for (v = 0; v < n; v++) {
+            m_idByIndex[m_nodes[v].index()] = v;
+        }
+
+        m_edges = new Edge[m];
+        m_source = new int[m];
+        m_target = new int[m];
+        m_inStart = new int[n + 1];
+        m_outStart = new int[n + 1];
+        int e = 0;
+        for (Edge edge : g.edges()) {
+            m_edges[e] = edge;
+            m_source[e] = id(edge.source());
+            m_target[e] = id(edge.target());
+            m_outStart[m_source[e] + 1]++;
+            m_inStart[m_target[e] + 1]++;
+            e++;
+        }
+        for (v = 0; v < n; v++) {
+            m_outStart[v + 1] += m_outStart[v];
+            m_inStart[v + 1] += m_inStart[v];
+        }
+        // fill in edge order, which keeps the order of creation within each node
+        m_outEdges = new int[m];
+        m_inEdges = new int[m];
+        final int[] outFill = Arrays.copyOf(m_outStart, n);
+        final int[] inFill = Arrays.copyOf(m_inStart, n);
+        for (e = 0; e < m; e++) {
+            m_outEdges[outFill[m_source[e]]++] = e;
+            m_inEdges[inFill[m_target[e]]++] = e;
+        }
+    }
+
+    /**
+     * @return the graph this snapshot was created from
+     */
+    public Graph graph() {
+        return m_g;
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int n() {
+        return m_nodes.length;
+    }
+
+    /**
+     * @return the number of edges
+     */
+    public int m() {
+        return m_edges.length;
+    }
+
+    /**
+     * @param v a node id
+     * @return the node with the given id
+     */
+    public Node node(final int v) {
+        return m_nodes[v];
+    }
+
+    /**
+     * @param node a node of the graph
+     * @return the id of the node, or -1 if the node was not in the graph when the snapshot was created
+     */
+    public int id(final Node node) {
+        final int index = node.index();
+        return index < m_idByIndex.length ? m_idByIndex[index] : -1;
+    }
+
+    /**
+     * @param e an edge id
+     * @return the edge with the given id
+     */
+    public Edge edge(final int e) {
+        return m_edges[e];
+    }
+
+    /**
+     * @param e an edge id
+     * @return the id of the edge's source node
+     */
+    public int source(final int e) {
+        return m_source[e];
+    }
+
+    /**
+     * @param e an edge id
+     * @return the id of the edge's target node
+     */
+    public int target(final int e) {
+        return m_target[e];
+    }
+
+    /**
+     * @param e an edge id
+     * @param v the id of one of the edge's nodes
+     * @return the id of the edge's other node
+     */
+    public int opposite(final int e, final int v) {
+        return m_source[e] == v ? m_target[e] : m_source[e];
+    }
+
+    /**
+     * @param v a node id
+     * @return the number of incoming edges of the node
+     */
+    public int inDegree(final int v) {
+        return m_inStart[v + 1] - m_inStart[v];
+    }
+
+    /**
+     * @param v a node id
+     * @param i the index of the edge, 0 &lt;= i &lt; inDegree(v)
+     * @return the id of the i-th incoming edge of the node (in order of creation)
+     */
+    public int inEdge(final int v, final int i) {
+        return m_inEdges[m_inStart[v] + i];
+    }
+
+    /**
+     * @param v a node id
+     * @return the number of outgoing edges of the node
+     */
+    public int outDegree(final int v) {
+        return m_outStart[v + 1] - m_outStart[v];
+    }
+
+    /**
+     * @param v a node id
+     * @param i the index of the edge, 0 &lt;= i &lt; outDegree(v)
+     * @return the id of the i-th outgoing edge of the node (in order of creation)
+     */
+    public int outEdge(final int v, final int i) {
+        return m_outEdges[m_outStart[v] + i];
+    }
+
+    /**
+     * @param v a node id
+     * @return the x-coordinate of the node
+     */
+    public double getX(final int v) {
+        return m_x[v];
+    }
+
+    /**
+     * @param v a node id
+     * @return the y-coordinate of the node
+     */
+    public double getY(final int v) {
+        return m_y[v];
+    }
+
+    /**
+     * @param v a node id
+     * @param x the new x-coordinate of the node
+     */
+    public void setX(final int v, final double x) {
+        m_x[v] = x;
+    }
+
+    /**
+     * @param v a node id
+     * @param y the new y-coordinate of the node
+     */
+    public void setY(final int v, final double y) {
+        m_y[v] = y;
+    }
+
+    /**
+     * transfers the coordinates of all nodes to the graph this snapshot was created from.
+     */
+    public void writeCoordinates() {
+        for (int v = 0; v < m_nodes.length; v++) {
+            m_g.setCoordinates(m_nodes[v], m_x[v], m_y[v]);
+        }
+    }
+
+    /**
+     * @param nodes nodes of the graph
+     * @return the ids of the given nodes, in the same order
+     */
+    public int[] ids(final Iterable<Node> nodes) {
+        int[] ids = new int[8];
+        int size = 0;
+        for (Node node : nodes) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+            }
+            ids[size++] = id(node);
+        }
+        return Arrays.copyOf(ids, size);
+    }
+}
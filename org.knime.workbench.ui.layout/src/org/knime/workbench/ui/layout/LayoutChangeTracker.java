@@ -0,0 +1,244 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.ui.layout;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.knime.core.node.workflow.ConnectionContainer;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.WorkflowEvent;
+import org.knime.core.node.workflow.WorkflowListener;
+import org.knime.core.node.workflow.WorkflowManager;
+
+/**
+ * Keeps track of the nodes of a workflow that were inserted or (re-)connected since they were last auto laid out.
+ * If enabled (see {@link #INCREMENTAL_PROPERTY}) the auto layout uses them to re-layout only the neighborhood of these
+ * nodes instead of the whole workflow; all other nodes keep their positions.
+ *
+ * @since 4.2
+ */
+public final class LayoutChangeTracker implements WorkflowListener {
+
+    /**
+     * System property that enables the incremental layout if set to <code>true</code>. By default auto layout without
+     * selection lays out the whole workflow.
+     */
+    public static final String INCREMENTAL_PROPERTY = "knime.layout.incremental"; //$NON-NLS-1$
+
+    /** the number of connection hops around a changed node that are laid out with it. */
+    private static final int RADIUS = 1;
+
+    private static final Map<WorkflowManager, LayoutChangeTracker> TRACKERS =
+        new WeakHashMap<WorkflowManager, LayoutChangeTracker>();
+
+    private final Set<NodeID> m_changedNodes = new LinkedHashSet<NodeID>();
+
+    private LayoutChangeTracker() {
+    }
+
+    /**
+     * Returns the tracker of the given workflow. The tracker is registered with the workflow on the first call, only
+     * changes after that are tracked.
+     *
+     * @param wfm the workflow
+     * @return the tracker of the workflow, never null
+     */
+    public static LayoutChangeTracker forWorkflow(final WorkflowManager wfm) {
+        synchronized (TRACKERS) {
+            LayoutChangeTracker tracker = TRACKERS.get(wfm);
+            if (tracker == null) {
+                tracker = new LayoutChangeTracker();
+                TRACKERS.put(wfm, tracker);
+                wfm.addListener(tracker);
+            }
+            return tracker;
+        }
+    }
+
+    /**
+     * @return true if auto layout without selection should lay out only the changed nodes, see
+     *         {@link #INCREMENTAL_PROPERTY}
+     */
+    public static boolean isIncrementalLayoutEnabled() {
+        return Boolean.getBoolean(INCREMENTAL_PROPERTY);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void workflowChanged(final WorkflowEvent event) {
+        switch (event.getType()) {
+            case NODE_ADDED:
+                addChanged(event.getID());
+                break;
+            case NODE_REMOVED:
+                removeChanged(Collections.singleton(event.getID()));
+                break;
+            case CONNECTION_ADDED:
+                addChanged((ConnectionContainer)event.getNewValue());
+                break;
+            case CONNECTION_REMOVED:
+                addChanged((ConnectionContainer)event.getOldValue());
+                break;
+            default:
+                // positions and states don't affect the layout region
+        }
+    }
+
+    private void addChanged(final ConnectionContainer cc) {
+        if (cc != null) {
+            addChanged(cc.getSource());
+            addChanged(cc.getDest());
+        }
+    }
+
+    private synchronized void addChanged(final NodeID id) {
+        m_changedNodes.add(id);
+    }
+
+    /**
+     * @return true if nodes were inserted or (re-)connected since the last layout
+     */
+    public synchronized boolean hasChanges() {
+        return !m_changedNodes.isEmpty();
+    }
+
+    /**
+     * Computes the nodes to lay out in an incremental layout: the changed nodes and the nodes connected to them, split
+     * into connected components. Each component is laid out on its own, at its current position, so that changes in
+     * distant parts of the workflow are not pulled together. All nodes connected to a region from outside stay where
+     * they are.
+     *
+     * @param wfm the workflow the tracker is registered with
+     * @return the connected components of the region, each with the ids of its nodes in the order they were found
+     */
+    public List<Collection<NodeID>> getLayoutRegions(final WorkflowManager wfm) {
+        Set<NodeID> region = getLayoutRegion(wfm);
+        List<Collection<NodeID>> components = new ArrayList<Collection<NodeID>>();
+        Set<NodeID> assigned = new HashSet<NodeID>();
+        for (NodeID start : region) {
+            if (!assigned.add(start)) {
+                continue;
+            }
+            // only connections within the region join nodes into one component
+            Set<NodeID> component = new LinkedHashSet<NodeID>();
+            List<NodeID> stack = new ArrayList<NodeID>();
+            stack.add(start);
+            while (!stack.isEmpty()) {
+                NodeID id = stack.remove(stack.size() - 1);
+                component.add(id);
+                for (ConnectionContainer cc : wfm.getIncomingConnectionsFor(id)) {
+                    if (region.contains(cc.getSource()) && assigned.add(cc.getSource())) {
+                        stack.add(cc.getSource());
+                    }
+                }
+                for (ConnectionContainer cc : wfm.getOutgoingConnectionsFor(id)) {
+                    if (region.contains(cc.getDest()) && assigned.add(cc.getDest())) {
+                        stack.add(cc.getDest());
+                    }
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+
+    private Set<NodeID> getLayoutRegion(final WorkflowManager wfm) {
+        List<NodeID> seeds;
+        synchronized (this) {
+            seeds = new ArrayList<NodeID>(m_changedNodes);
+        }
+        Set<NodeID> region = new LinkedHashSet<NodeID>();
+        for (NodeID id : seeds) {
+            // the workflow itself is the source/destination of metanode port connections
+            if (!id.equals(wfm.getID()) && wfm.containsNodeContainer(id)) {
+                region.add(id);
+            }
+        }
+        Collection<NodeID> frontier = new ArrayList<NodeID>(region);
+        for (int hop = 0; hop < RADIUS && !frontier.isEmpty(); hop++) {
+            Set<NodeID> next = new HashSet<NodeID>();
+            for (NodeID id : frontier) {
+                for (ConnectionContainer cc : wfm.getIncomingConnectionsFor(id)) {
+                    addNeighbor(wfm, cc.getSource(), region, next);
+                }
+                for (ConnectionContainer cc : wfm.getOutgoingConnectionsFor(id)) {
+                    addNeighbor(wfm, cc.getDest(), region, next);
+                }
+            }
+            frontier = next;
+        }
+        return region;
+    }
+
+    private static void addNeighbor(final WorkflowManager wfm, final NodeID id, final Set<NodeID> region,
+        final Set<NodeID> next) {
+        if (!id.equals(wfm.getID()) && region.add(id)) {
+            next.add(id);
+        }
+    }
+
+    /**
+     * Forgets the changes of the given nodes, called after they have been laid out.
+     *
+     * @param ids the laid out nodes, null if the whole workflow was laid out
+     */
+    public synchronized void removeChanged(final Collection<NodeID> ids) {
+        if (ids == null) {
+            m_changedNodes.clear();
+        } else {
+            m_changedNodes.removeAll(ids);
+        }
+    }
+}
@@ -52,10 +52,23 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.draw2d.geometry.Point;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.workflow.ConnectionID;
@@ -79,6 +92,17 @@ public class LayoutManager {
     private static final NodeLogger LOGGER = NodeLogger
             .getLogger(LayoutManager.class);
 
+    /**
+     * System property for the number of random seeds tried by {@link #computeLayout(IProgressMonitor)}.
+     *
+     * @since 4.2
+     */
+    public static final String SEEDS_PROPERTY = "knime.layout.seeds"; //$NON-NLS-1$
+
+    private static final int DEFAULT_SEEDS = 4;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
     private WorkflowManagerUI m_wfm;
 
     private long m_initPlacementSeed;
@@ -106,6 +130,25 @@ public class LayoutManager {
 
     private Graph m_g;
 
+    /* the snapshot taken by prepareLayout */
+    private List<NodeContainerUI> m_allNodes;
+
+    // all connections from/to the nodes being laid out, flag is true if cluster internal
+    private HashMap<ConnectionContainerUI, Boolean> m_allConns;
+
+    // the fixed nodes, null if there are none
+    private Map<Node, Boolean> m_anchorNodes;
+
+    private boolean m_snapToGrid;
+
+    private int m_xStretch;
+
+    private int m_yStretch;
+
+    private int m_minX;
+
+    private int m_minY;
+
     private HashMap<NodeID, NodeUIInformation> m_oldCoordinates;
 
     private HashMap<ConnectionID, ConnectionUIInformation> m_oldBendpoints;
@@ -131,28 +174,47 @@ public LayoutManager(final WorkflowManagerUI wfManager,
     }
 
     /**
+     * Lays out the given nodes in the calling thread. Same as calling {@link #prepareLayout(Collection)},
+     * {@link #computeLayout(IProgressMonitor)} and {@link #applyLayout()} in sequence.
+     *
      * @param nodes the nodes that should be laid out. If null, all nodes of the
      *            workflow manager passed to the constructor are laid out.
      *
      */
     public void doLayout(final Collection<NodeContainerUI> nodes) {
+        prepareLayout(nodes);
+        computeLayout(null);
+        applyLayout();
+    }
 
-        int X_STRETCH = 100;
-        int Y_STRETCH = 120;
+    /**
+     * Takes a snapshot of the positions and connections of the given nodes and of the editor's grid settings. Must
+     * be called in the UI thread, before {@link #computeLayout(IProgressMonitor)}.
+     *
+     * @param nodes the nodes that should be laid out. If null, all nodes of the
+     *            workflow manager passed to the constructor are laid out.
+     * @since 4.2
+     */
+    public void prepareLayout(final Collection<NodeContainerUI> nodes) {
 
-        if (WorkflowEditor.getActiveEditorSnapToGrid()) {
+        m_snapToGrid = WorkflowEditor.getActiveEditorSnapToGrid();
+        m_xStretch = 100;
+        m_yStretch = 120;
+
+        if (m_snapToGrid) {
             if (WorkflowEditor.getActiveEditorGridX() >= 70) {
-                X_STRETCH = WorkflowEditor.getActiveEditorGridX();
+                m_xStretch = WorkflowEditor.getActiveEditorGridX();
             } else {
-                X_STRETCH = WorkflowEditor.getActiveEditorGridXOffset(X_STRETCH);
+                m_xStretch = WorkflowEditor.getActiveEditorGridXOffset(m_xStretch);
             }
-            Y_STRETCH = WorkflowEditor.getActiveEditorGridYOffset(Y_STRETCH);
+            m_yStretch = WorkflowEditor.getActiveEditorGridYOffset(m_yStretch);
         }
         // add all nodes that should be laid out to the graph
         Collection<NodeContainerUI> allNodes = nodes;
         if (allNodes == null || allNodes.size() <= 1) {
             allNodes = m_wfm.getNodeContainers();
         }
+        m_allNodes = new ArrayList<NodeContainerUI>(allNodes);
         // keep the left upper corner of the node cluster.
         // Nodes laid out are placed right and below
         int minX = Integer.MAX_VALUE;
@@ -164,17 +226,20 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
             NodeUIInformation ui = nc.getUIInformation();
             minX = (ui.getBounds()[0] < minX) ? ui.getBounds()[0] : minX;
             minY = (ui.getBounds()[1] < minY) ? ui.getBounds()[1] : minY;
-            if (WorkflowEditor.getActiveEditorSnapToGrid()) {
+            if (m_snapToGrid) {
                 Point nextGridLocation = WorkflowEditor.getActiveEditorNextGridLocation(new Point(minX, minY));
                 minX = nextGridLocation.x;
                 minY = nextGridLocation.y;
             }
         }
 
+        m_minX = minX;
+        m_minY = minY;
+
         // find all connections that connect from/to our nodes,
         // keep a flag that states: isClusterInternal
-        HashMap<ConnectionContainerUI, Boolean> allConns =
-                new HashMap<ConnectionContainerUI, Boolean>();
+        m_allConns = new HashMap<ConnectionContainerUI, Boolean>();
+        HashMap<ConnectionContainerUI, Boolean> allConns = m_allConns;
         for (ConnectionContainerUI conn : m_wfm.getConnectionContainers()) {
             Node src = null;
             if (!conn.getSource().equals(m_wfm.getID())) {
@@ -211,7 +276,7 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
                 if (srcGraphNode == null) {
                     srcGraphNode =
                             m_g.createNode("Incoming " + portIdx, 0, portIdx
-                                    * Y_STRETCH);
+                                    * m_yStretch);
                     m_workbenchWFMInports.put(portIdx, srcGraphNode);
                 }
             } else {
@@ -233,7 +298,7 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
                 if (destGraphNode == null) {
                     destGraphNode =
                             m_g.createNode("Outgoing " + portIdx, 250, portIdx
-                                    * Y_STRETCH);
+                                    * m_yStretch);
                     m_workbenchWFMOutports.put(portIdx, destGraphNode);
                 }
             } else {
@@ -282,15 +347,72 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
             anchorsExist = true;
             anchorNodes.put(n, Boolean.TRUE);
         }
+        m_anchorNodes = anchorsExist ? anchorNodes : null;
+    }
 
-        SimpleLayeredLayouter layouter = new SimpleLayeredLayouter(m_initPlacementSeed);
-        layouter.setBalanceBranchings(!WorkflowEditor.getActiveEditorSnapToGrid());
-        if (anchorsExist) {
-            layouter.doLayout(m_g, anchorNodes);
-        } else {
-            layouter.doLayout(m_g, null);
+    /**
+     * Computes the layout of the snapshot taken by {@link #prepareLayout(Collection)}. Doesn't touch the workflow
+     * and may be called in any thread. If more than one seed is configured (system property
+     * {@value #SEEDS_PROPERTY}, default 4) the layout is computed for each of them in parallel
+     * and the one with the fewest edge crossings is kept; ties go to the seeds tried first, starting with the
+     * initial placement seed passed to the constructor.
+     *
+     * @param monitor the progress monitor, can be null
+     * @throws OperationCanceledException if the monitor was canceled
+     * @since 4.2
+     */
+    public void computeLayout(final IProgressMonitor monitor) {
+        final int nrSeeds = getNumberOfSeeds();
+        final SubMonitor progress = SubMonitor.convert(monitor, nrSeeds);
+        if (nrSeeds == 1) {
+            createLayouter(m_initPlacementSeed).doLayout(m_g, m_anchorNodes);
+            progress.worked(1);
+            return;
+        }
+        final long[] seeds = new long[nrSeeds];
+        seeds[0] = m_initPlacementSeed;
+        Random rnd = new Random(m_initPlacementSeed);
+        for (int i = 1; i < nrSeeds; i++) {
+            seeds[i] = rnd.nextLong();
         }
+        final int nrThreads = Math.min(nrSeeds, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(nrThreads, r -> {
+            Thread t = new Thread(r, "KNIME Auto Layout-" + THREAD_COUNT.incrementAndGet()); //$NON-NLS-1$
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<LayoutCandidate>> futures = new ArrayList<Future<LayoutCandidate>>(nrSeeds);
+            for (long seed : seeds) {
+                futures.add(pool.submit(() -> layoutCopy(seed, progress)));
+            }
+            LayoutCandidate best = null;
+            for (Future<LayoutCandidate> f : futures) {
+                LayoutCandidate c = waitFor(f, progress);
+                if (c == null) {
+                    // canceled before it was started
+                    throw new OperationCanceledException();
+                }
+                if (best == null || c.m_crossings < best.m_crossings) {
+                    best = c;
+                }
+                progress.worked(1);
+            }
+            LOGGER.debug("Auto layout: best of " + nrSeeds + " seeds has " + best.m_crossings + " crossings");
+            best.transferTo(m_g);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
+    /**
+     * Transfers the computed layout to the nodes and connections and keeps their previous coordinates and bend
+     * points for undo. Nodes and connections removed from the workflow since {@link #prepareLayout(Collection)} are
+     * skipped. Must be called in the UI thread, can be called repeatedly (e.g. for redo).
+     *
+     * @since 4.2
+     */
+    public void applyLayout() {
         // preserver the old stuff for undoers
         m_oldBendpoints = new HashMap<ConnectionID, ConnectionUIInformation>();
         m_oldCoordinates = new HashMap<NodeID, NodeUIInformation>();
@@ -301,25 +423,28 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
         // start at 0.
         double coordOffsetX = Integer.MAX_VALUE;
         double coordOffsetY = Integer.MAX_VALUE;
-        for (NodeContainerUI nc : allNodes) {
+        for (NodeContainerUI nc : m_allNodes) {
             Node gNode = m_workbenchToGraphNodes.get(nc);
             coordOffsetX = Math.min(coordOffsetX, m_g.getX(gNode));
             coordOffsetY = Math.min(coordOffsetY, m_g.getY(gNode));
         }
-        for (NodeContainerUI nc : allNodes) {
-
+        for (NodeContainerUI nc : m_allNodes) {
+            if (!m_wfm.containsNodeContainer(nc.getID())) {
+                // removed while the layout was computed
+                continue;
+            }
             NodeUIInformation uiInfo = nc.getUIInformation();
             if (uiInfo != null) {
                 Node gNode = m_workbenchToGraphNodes.get(nc);
                 int[] b = uiInfo.getBounds();
                 int x = (int)Math.round((m_g.getX(gNode) - coordOffsetX)
-                        * X_STRETCH) + minX;
+                        * m_xStretch) + m_minX;
                 int y = (int)Math.round((m_g.getY(gNode) - coordOffsetY)
-                        * Y_STRETCH) + minY;
+                        * m_yStretch) + m_minY;
                 NodeUIInformation newCoord = NodeUIInformation.builder()
                         .setNodeLocation(x, y, b[2], b[3])
                         .setHasAbsoluteCoordinates(uiInfo.hasAbsoluteCoordinates())
-                        .setSnapToGrid(WorkflowEditor.getActiveEditorSnapToGrid()).build();
+                        .setSnapToGrid(m_snapToGrid).build();
                 LOGGER.debug("Node " + nc + " gets auto-layout coordinates "
                         + newCoord);
                 // save old coordinates for undo
@@ -330,7 +455,15 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
         }
 
         // delete old bendpoints - transfer new ones
-        for (ConnectionContainerUI conn : allConns.keySet()) {
+        Set<ConnectionID> currentConns = new HashSet<ConnectionID>();
+        for (ConnectionContainerUI conn : m_wfm.getConnectionContainers()) {
+            currentConns.add(conn.getID());
+        }
+        for (ConnectionContainerUI conn : m_allConns.keySet()) {
+            if (!currentConns.contains(conn.getID())) {
+                // removed while the layout was computed
+                continue;
+            }
 
             // store old bendpoint for undo
             ConnectionUIInformation ui = conn.getUIInfo();
@@ -357,8 +490,8 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
                 int extraY = 24;
                 for (int i = 0; i < newBends.size(); i++) {
                     Point2D b = newBends.get(i);
-                    newUIBuilder.addBendpoint((int)Math.round((b.getX() - coordOffsetX) * X_STRETCH) + extraX + minX,
-                            (int)Math.round((b.getY() - coordOffsetY) * Y_STRETCH) + extraY + minY, i);
+                    newUIBuilder.addBendpoint((int)Math.round((b.getX() - coordOffsetX) * m_xStretch) + extraX + m_minX,
+                            (int)Math.round((b.getY() - coordOffsetY) * m_yStretch) + extraY + m_minY, i);
                 }
             }
             ConnectionUIInformation newUI = newUIBuilder.build();
@@ -374,7 +507,115 @@ public void doLayout(final Collection<NodeContainerUI> nodes) {
                 parConn.setUIInfo(parUI);
             }
         }
+    }
+
+    private SimpleLayeredLayouter createLayouter(final long seed) {
+        SimpleLayeredLayouter layouter = new SimpleLayeredLayouter(seed);
+        layouter.setBalanceBranchings(!m_snapToGrid);
+        return layouter;
+    }
+
+    /**
+     * Lays out a copy of the graph with the given seed.
+     */
+    private LayoutCandidate layoutCopy(final long seed, final IProgressMonitor monitor) {
+        if (monitor.isCanceled()) {
+            return null;
+        }
+        Graph copy = m_g.copy();
+        LayoutCandidate candidate = new LayoutCandidate(copy);
+        Map<Node, Boolean> anchorNodes = null;
+        if (m_anchorNodes != null) {
+            anchorNodes = copy.createBoolNodeMap();
+            int i = 0;
+            for (Node n : m_g.nodes()) {
+                if (Boolean.TRUE.equals(m_anchorNodes.get(n))) {
+                    anchorNodes.put(candidate.m_nodes.get(i), Boolean.TRUE);
+                }
+                i++;
+            }
+        }
+        SimpleLayeredLayouter layouter = createLayouter(seed);
+        layouter.doLayout(copy, anchorNodes);
+        candidate.m_crossings = layouter.getNumberOfCrossings();
+        return candidate;
+    }
 
+    /**
+     * Waits for the layout of one seed, checking the monitor for cancellation meanwhile.
+     */
+    private static LayoutCandidate waitFor(final Future<LayoutCandidate> future, final IProgressMonitor monitor) {
+        while (true) {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            try {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check the monitor again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private static int getNumberOfSeeds() {
+        String value = System.getProperty(SEEDS_PROPERTY);
+        if (value != null) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value for " + SEEDS_PROPERTY + ": " + value); //$NON-NLS-1$
+            }
+        }
+        return DEFAULT_SEEDS;
+    }
+
+    /**
+     * A graph copy laid out with one seed. Nodes and edges are kept in the order of the original graph as the layout
+     * reorders the edges of the copy.
+     */
+    private static final class LayoutCandidate {
+        private final List<Node> m_nodes = new ArrayList<Node>();
+
+        private final List<Edge> m_edges = new ArrayList<Edge>();
+
+        private final Graph m_copy;
+
+        private int m_crossings;
+
+        LayoutCandidate(final Graph copy) {
+            m_copy = copy;
+            for (Node n : copy.nodes()) {
+                m_nodes.add(n);
+            }
+            for (Edge e : copy.edges()) {
+                m_edges.add(e);
+            }
+        }
+
+        /** Transfers coordinates and bend points to the corresponding nodes and edges of the original graph. */
+        void transferTo(final Graph g) {
+            int i = 0;
+            for (Node n : g.nodes()) {
+                Node c = m_nodes.get(i++);
+                g.setCoordinates(n, m_copy.getX(c), m_copy.getY(c));
+            }
+            i = 0;
+            for (Edge e : g.edges()) {
+                g.bends(e).clear();
+                for (Point2D b : m_copy.bends(m_edges.get(i++))) {
+                    g.addBend(e, b.getX(), b.getY());
+                }
+            }
+        }
     }
 
     /**
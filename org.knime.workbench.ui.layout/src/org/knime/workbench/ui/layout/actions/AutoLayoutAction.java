@@ -48,16 +48,29 @@
  */
 package org.knime.workbench.ui.layout.actions;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.gef.commands.CompoundCommand;
 import org.eclipse.gef.ui.parts.ScrollingGraphicalViewer;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.PlatformUI;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.WorkflowManager;
 import org.knime.core.ui.node.workflow.NodeContainerUI;
+import org.knime.core.ui.node.workflow.WorkflowManagerUI;
+import org.knime.core.ui.wrapper.WorkflowManagerWrapper;
 import org.knime.workbench.core.util.ImageRepository;
 import org.knime.workbench.editor2.WorkflowEditor;
 import org.knime.workbench.editor2.actions.AbstractNodeAction;
 import org.knime.workbench.editor2.editparts.NodeContainerEditPart;
 import org.knime.workbench.ui.layout.Activator;
+import org.knime.workbench.ui.layout.LayoutChangeTracker;
 import org.knime.workbench.ui.layout.commands.AutoLayoutCommand;
 
 /**
@@ -67,6 +80,8 @@
  */
 public class AutoLayoutAction extends AbstractNodeAction {
 
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(AutoLayoutAction.class);
+
     /** unique ID for this action. */
     public static final String ID = "knime.action.autolayout"; //$NON-NLS-1$
 
@@ -75,6 +90,10 @@ public class AutoLayoutAction extends AbstractNodeAction {
      */
     public AutoLayoutAction(final WorkflowEditor editor) {
         super(editor);
+        if (LayoutChangeTracker.isIncrementalLayoutEnabled()) {
+            // start tracking changes for the incremental layout
+            editor.getWorkflowManager().ifPresent(LayoutChangeTracker::forWorkflow);
+        }
     }
 
     /**
@@ -129,8 +148,80 @@ public synchronized void runOnNodes(final NodeContainerEditPart[] parts) {
                 nodes.add(p.getNodeContainer());
             }
         }
-        AutoLayoutCommand alc = new AutoLayoutCommand(getManager(), nodes);
-        getCommandStack().execute(alc); // enables undo
+        final WorkflowManager wfm = getManager();
+        final boolean incremental = LayoutChangeTracker.isIncrementalLayoutEnabled();
+        final LayoutChangeTracker tracker = incremental ? LayoutChangeTracker.forWorkflow(wfm) : null;
+        // the node sets laid out on their own
+        final List<Collection<NodeContainerUI>> clusters = new ArrayList<Collection<NodeContainerUI>>();
+        // null if the whole workflow is laid out
+        List<NodeID> laidOut = null;
+        if ((nodes == null || nodes.size() <= 1) && incremental && tracker.hasChanges()) {
+            // no selection: only lay out the nodes inserted or reconnected since the last layout, each connected
+            // part of them at its own position
+            WorkflowManagerUI wfmUI = WorkflowManagerWrapper.wrap(wfm);
+            List<NodeID> region = new ArrayList<NodeID>();
+            for (Collection<NodeID> component : tracker.getLayoutRegions(wfm)) {
+                region.addAll(component);
+                if (component.size() > 1) {
+                    List<NodeContainerUI> cluster = new ArrayList<NodeContainerUI>(component.size());
+                    for (NodeID id : component) {
+                        cluster.add(wfmUI.getNodeContainer(id));
+                    }
+                    clusters.add(cluster);
+                }
+            }
+            if (!clusters.isEmpty()) {
+                // single unconnected nodes have nothing to be laid out with
+                laidOut = region;
+            }
+        } else if (nodes != null && nodes.size() > 1) {
+            laidOut = new ArrayList<NodeID>(nodes.size());
+            for (NodeContainerUI nc : nodes) {
+                laidOut.add(nc.getID());
+            }
+        }
+        if (clusters.isEmpty()) {
+            // the selection, or the whole workflow if nothing is selected
+            clusters.add(nodes);
+        }
+        final List<AutoLayoutCommand> commands = new ArrayList<AutoLayoutCommand>(clusters.size());
+        for (Collection<NodeContainerUI> cluster : clusters) {
+            // compute the layout of a snapshot outside the UI thread, then apply it with a single command
+            AutoLayoutCommand alc = new AutoLayoutCommand(wfm, cluster);
+            alc.prepareLayout();
+            commands.add(alc);
+        }
+        try {
+            PlatformUI.getWorkbench().getProgressService().busyCursorWhile(monitor -> {
+                SubMonitor progress = SubMonitor.convert(monitor, Messages.AutoLayoutAction_4, commands.size());
+                try {
+                    for (AutoLayoutCommand alc : commands) {
+                        alc.computeLayout(progress.newChild(1));
+                    }
+                } catch (OperationCanceledException e) {
+                    throw new InterruptedException();
+                } finally {
+                    monitor.done();
+                }
+            });
+        } catch (InvocationTargetException e) {
+            LOGGER.error(Messages.AutoLayoutAction_5 + e.getCause().getMessage(), e.getCause());
+            return;
+        } catch (InterruptedException e) {
+            // canceled by user, leave the workflow unchanged
+            return;
+        }
+        if (commands.size() == 1) {
+            getCommandStack().execute(commands.get(0)); // enables undo
+        } else {
+            // undone in one step
+            CompoundCommand compound = new CompoundCommand();
+            commands.forEach(compound::add);
+            getCommandStack().execute(compound);
+        }
+        if (tracker != null) {
+            tracker.removeChanged(laidOut);
+        }
 
         // update the actions
         getEditor().updateActions();
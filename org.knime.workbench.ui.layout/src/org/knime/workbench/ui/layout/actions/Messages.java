@@ -59,6 +59,10 @@ public class Messages extends NLS {
 
     public static String AutoLayoutAction_3;
 
+    public static String AutoLayoutAction_4;
+
+    public static String AutoLayoutAction_5;
+
     public static String HorizAlignLayoutAction_3;
 
     public static String VerticAlignLayoutAction_3;
@@ -51,6 +51,8 @@
 import java.util.Map;
 import java.util.Random;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.knime.core.node.workflow.ConnectionContainer;
 import org.knime.core.node.workflow.ConnectionID;
 import org.knime.core.node.workflow.ConnectionUIInformation;
@@ -75,7 +77,8 @@ public class AutoLayoutCommand extends AbstractKNIMECommand {
 
     private LayoutManager m_layoutMgr;
 
-    private long m_seed;
+    // true if the layout was computed before the command was executed
+    private boolean m_computed;
 
     private final Random m_random = new Random();
 
@@ -95,13 +98,37 @@ public AutoLayoutCommand(final WorkflowManager wfm,
      */
     @Override
     public void execute() {
-        m_seed = m_random.nextLong();
-        doLayout(m_seed);
+        if (!m_computed) {
+            prepareLayout();
+            computeLayout(null);
+        }
+        m_layoutMgr.applyLayout();
     }
 
-    private void doLayout(final long seed) {
-        m_layoutMgr = new LayoutManager(WorkflowManagerWrapper.wrap(m_wfm), seed);
-        m_layoutMgr.doLayout(m_nodes);
+    /**
+     * Takes a snapshot of the nodes to lay out. Must be called in the UI thread. Together with
+     * {@link #computeLayout(IProgressMonitor)} this allows to compute the layout outside the UI thread before the
+     * command is executed; otherwise the layout is computed on execution.
+     *
+     * @since 4.2
+     */
+    public void prepareLayout() {
+        m_layoutMgr = new LayoutManager(WorkflowManagerWrapper.wrap(m_wfm), m_random.nextLong());
+        m_layoutMgr.prepareLayout(m_nodes);
+        m_computed = false;
+    }
+
+    /**
+     * Computes the layout of the snapshot taken by {@link #prepareLayout()}. Doesn't modify the workflow and may be
+     * called in any thread.
+     *
+     * @param monitor the progress monitor, can be null
+     * @throws OperationCanceledException if the monitor was canceled
+     * @since 4.2
+     */
+    public void computeLayout(final IProgressMonitor monitor) {
+        m_layoutMgr.computeLayout(monitor);
+        m_computed = true;
     }
 
     /**
@@ -109,7 +136,7 @@ private void doLayout(final long seed) {
      */
     @Override
     public void redo() {
-        doLayout(m_seed);
+        m_layoutMgr.applyLayout();
     }
 
     /**
@@ -48,31 +48,76 @@
 package org.knime.workbench.ui.layout.layeredlayout;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 
 import org.knime.workbench.ui.layout.Graph;
-import org.knime.workbench.ui.layout.Graph.Edge;
 import org.knime.workbench.ui.layout.Graph.Node;
+import org.knime.workbench.ui.layout.IndexedGraph;
 
 /**
  * reduces crossings of a given layering according to the average median
  * heuristic followed by a greedy switch (see, e.g., Eades and Wormald, 1994;
- * Mäkinen 1990).
+ * Mkinen 1990).
  * 
  * @author Martin Mader, University of Konstanz
  */
 public class CrossingMinimizer {
-    private Graph m_g;
+    private IndexedGraph m_g;
 
-    private ArrayList<ArrayList<Node>> m_layers;
+    /** the layers, each containing node ids; reordered in place. */
+    private int[][] m_layers;
 
-    private ArrayList<Node> m_fixedSources;
+    private boolean m_fixedSources;
 
-    private ArrayList<Node> m_fixedSinks;
+    private boolean m_fixedSinks;
+
+    /** the layers passed to the {@link Graph} based constructor, or null. */
+    private ArrayList<ArrayList<Node>> m_nodeLayers;
+
+    /*
+     * Index arrays, all indexed by node id, precomputed once as the layer of a node doesn't change during
+     * crossing minimization.
+     */
+    /** the layer of each node, -1 for nodes not in any layer. */
+    private int[] m_layerOf;
+
+    /**
+     * the neighbors in the previous layer (one entry per edge) of node v are m_prevNeighbors[m_prevStart[v]] ..
+     * m_prevNeighbors[m_prevStart[v + 1] - 1].
+     */
+    private int[] m_prevStart;
+
+    private int[] m_prevNeighbors;
+
+    /** the neighbors in the next layer, same layout as the neighbors in the previous layer. */
+    private int[] m_nextStart;
+
+    private int[] m_nextNeighbors;
+
+    /** scratch array for the ranks of the nodes in a layer. */
+    private int[] m_rank;
+
+    /** scratch arrays for the crossing count. */
+    private int[] m_tree = new int[0];
+
+    private int[] m_ends = new int[0];
+
+    private int[] m_sortedCur;
+
+    private int[] m_sortedPrev;
+
+    private double[] m_neighborYs = new double[0];
+
+    /** the sorted y-coordinates of the neighbors in the previous layer, same layout as m_prevNeighbors. */
+    private double[] m_prevYs;
+
+    /** the number of crossings of the final layering. */
+    private int m_crossings;
 
     /**
-     * initializes the needed information for crossing minimization.
+     * initializes the needed information for crossing minimization. The
+     * layers are reordered and the y-coordinates of the nodes are set to their
+     * position in the layer when {@link #run()} is done.
      * 
      * @param g the graph to work on
      * @param layers layering information
@@ -82,30 +127,149 @@ public class CrossingMinimizer {
     public CrossingMinimizer(final Graph g,
             final ArrayList<ArrayList<Node>> layers,
             final ArrayList<Node> fixedSources, final ArrayList<Node> fixedSinks) {
+        this(new IndexedGraph(g), layers, fixedSources != null,
+                fixedSinks != null);
+    }
+
+    private CrossingMinimizer(final IndexedGraph g,
+            final ArrayList<ArrayList<Node>> layers,
+            final boolean fixedSources, final boolean fixedSinks) {
+        this(g, Util.toIds(g, layers), fixedSources, fixedSinks);
+        m_nodeLayers = layers;
+    }
+
+    /**
+     * initializes the needed information for crossing minimization. The
+     * layer arrays are reordered in place and the y-coordinates of the nodes
+     * in the indexed graph are set to their position in the layer.
+     *
+     * @param g the graph to work on
+     * @param layers layering information, the node ids of each layer
+     * @param fixedSources true if the first layer consists of fixed sources
+     * @param fixedSinks true if the last layer consists of fixed sinks
+     * @since 4.2
+     */
+    public CrossingMinimizer(final IndexedGraph g, final int[][] layers,
+            final boolean fixedSources, final boolean fixedSinks) {
         m_g = g;
         m_layers = layers;
         m_fixedSources = fixedSources;
         m_fixedSinks = fixedSinks;
+        initIndexArrays();
+    }
+
+    /**
+     * computes the layer of each node and the neighbors of each node in the adjacent layers.
+     */
+    private void initIndexArrays() {
+        int n = m_g.n();
+        m_layerOf = new int[n];
+        Arrays.fill(m_layerOf, -1);
+        int maxLayerSize = 0;
+        for (int l = 0; l < m_layers.length; l++) {
+            for (int v : m_layers[l]) {
+                m_layerOf[v] = l;
+            }
+            maxLayerSize = Math.max(maxLayerSize, m_layers[l].length);
+        }
+        m_prevStart = new int[n + 1];
+        m_nextStart = new int[n + 1];
+        // count the neighbors in the adjacent layers ...
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < m_g.inDegree(v); i++) {
+                addNeighbor(v, m_g.source(m_g.inEdge(v, i)), null, null);
+            }
+            for (int i = 0; i < m_g.outDegree(v); i++) {
+                addNeighbor(v, m_g.target(m_g.outEdge(v, i)), null, null);
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            m_prevStart[v + 1] += m_prevStart[v];
+            m_nextStart[v + 1] += m_nextStart[v];
+        }
+        // ... and store them
+        m_prevNeighbors = new int[m_prevStart[n]];
+        m_nextNeighbors = new int[m_nextStart[n]];
+        int[] prevFill = Arrays.copyOf(m_prevStart, n);
+        int[] nextFill = Arrays.copyOf(m_nextStart, n);
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < m_g.inDegree(v); i++) {
+                addNeighbor(v, m_g.source(m_g.inEdge(v, i)), prevFill, nextFill);
+            }
+            for (int i = 0; i < m_g.outDegree(v); i++) {
+                addNeighbor(v, m_g.target(m_g.outEdge(v, i)), prevFill, nextFill);
+            }
+        }
+        m_prevYs = new double[m_prevNeighbors.length];
+        m_rank = new int[n];
+        m_sortedCur = new int[maxLayerSize];
+        m_sortedPrev = new int[maxLayerSize];
+    }
+
+    /**
+     * counts (if the fill arrays are null) or stores neighbor u of node v if it is in an adjacent layer.
+     */
+    private void addNeighbor(final int v, final int u, final int[] prevFill, final int[] nextFill) {
+        int l = m_layerOf[v];
+        if (l < 0) {
+            return;
+        }
+        if (m_layerOf[u] == l - 1) {
+            if (prevFill == null) {
+                m_prevStart[v + 1]++;
+            } else {
+                m_prevNeighbors[prevFill[v]++] = u;
+            }
+        } else if (m_layerOf[u] == l + 1) {
+            if (nextFill == null) {
+                m_nextStart[v + 1]++;
+            } else {
+                m_nextNeighbors[nextFill[v]++] = u;
+            }
+        }
     }
 
     /**
      * runs crossing minimization.
      */
     public void run() {
-        if (m_layers.size() < 2) { // nothing to do
-            return;
+        if (m_layers.length >= 2) {
+            minimizeCrossings();
+        }
+        if (m_nodeLayers != null) {
+            // transfer the result to the graph and layers of the constructor
+            for (int l = 0; l < m_layers.length; l++) {
+                ArrayList<Node> layer = m_nodeLayers.get(l);
+                layer.clear();
+                for (int v : m_layers[l]) {
+                    layer.add(m_g.node(v));
+                }
+            }
+            m_g.writeCoordinates();
         }
+    }
+
+    /**
+     * @return the number of crossings between adjacent layers of the layering
+     *         computed by {@link #run()}
+     * @since 4.2
+     */
+    public int getNumberOfCrossings() {
+        return m_crossings;
+    }
+
+    private void minimizeCrossings() {
         int oldCrossings = Integer.MAX_VALUE;
         int crossings = numberOfCrossings();
         int sourceOffset = 0;
         int sinkOffset = 0;
-        if (m_fixedSources != null) {
+        if (m_fixedSources) {
             sourceOffset = 1;
         }
-        if (m_fixedSinks != null) {
+        if (m_fixedSinks) {
             sinkOffset = 1;
         }
-        ArrayList<ArrayList<Node>> lastLayering;
+        int[][] lastLayering;
         // do layer by layer sweep; if we either have fixed sources or fixed
         // sinks, perform only once, since every other run will yield the same
         // result
@@ -113,24 +277,27 @@ public void run() {
             // store last layering
             lastLayering = copyLayering();
             // rightward sweep
-            for (int i = 1; i < m_layers.size() - sinkOffset; i++) {
-                orderByMedian(m_layers.get(i), m_layers.get(i - 1));
+            for (int i = 1; i < m_layers.length - sinkOffset; i++) {
+                orderByMedian(m_layers[i], true);
             }
             // leftward sweep
-            for (int i = m_layers.size() - 2; i >= sourceOffset; i--) {
-                orderByMedian(m_layers.get(i), m_layers.get(i + 1));
+            for (int i = m_layers.length - 2; i >= sourceOffset; i--) {
+                orderByMedian(m_layers[i], false);
             }
             // greedy switch
             greedySwitch(sourceOffset, sinkOffset);
             oldCrossings = crossings;
             crossings = numberOfCrossings();
-        } while (crossings < oldCrossings && m_fixedSources != null
-                && m_fixedSinks != null);
+        } while (crossings < oldCrossings && m_fixedSources && m_fixedSinks);
         // if crossing number got worse use the next-to-last layering
         if (crossings > oldCrossings) {
-            m_layers = lastLayering;
+            for (int l = 0; l < m_layers.length; l++) {
+                System.arraycopy(lastLayering[l], 0, m_layers[l], 0,
+                        m_layers[l].length);
+            }
         }
-        for (ArrayList<Node> curLayer : m_layers) {
+        m_crossings = Math.min(crossings, oldCrossings);
+        for (int[] curLayer : m_layers) {
             updateY(curLayer);
         }
     }
@@ -140,60 +307,71 @@ public void run() {
      * 
      * @return
      */
-    private ArrayList<ArrayList<Node>> copyLayering() {
-        ArrayList<ArrayList<Node>> layers = new ArrayList<ArrayList<Node>>();
-        for (ArrayList<Node> layer : m_layers) {
-            ArrayList<Node> layerCopy = new ArrayList<Graph.Node>();
-            layers.add(layerCopy);
-            for (Node n : layer) {
-                layerCopy.add(n);
-            }
+    private int[][] copyLayering() {
+        int[][] layers = new int[m_layers.length][];
+        for (int l = 0; l < m_layers.length; l++) {
+            layers[l] = m_layers[l].clone();
         }
         return layers;
     }
 
     /**
      * order the current layer by means of the average median of neighbors of
-     * each node in the previous layer.
+     * each node in the previous (or next) layer.
      * 
      * @param curLayer
-     * @param prevLayer
+     * @param prev true to use the neighbors in the previous layer, false to use the ones in the next layer
      */
-    private void orderByMedian(final ArrayList<Node> curLayer,
-            final ArrayList<Node> prevLayer) {
-        for (Node v : curLayer) {
-            // get sorted list of neighbors in the previous layer
-            ArrayList<Node> neighbors = getNeighbors(v, prevLayer);
-            Collections.sort(neighbors, new Util.NodeByYComparator(m_g));
+    private void orderByMedian(final int[] curLayer, final boolean prev) {
+        final int[] start = prev ? m_prevStart : m_nextStart;
+        final int[] neighbors = prev ? m_prevNeighbors : m_nextNeighbors;
+        for (int v : curLayer) {
+            // get sorted y-coordinates of neighbors in the other layer
+            int size = start[v + 1] - start[v];
+            if (m_neighborYs.length < size) {
+                m_neighborYs = new double[Math.max(size, 2 * m_neighborYs.length)];
+            }
+            for (int i = 0; i < size; i++) {
+                m_neighborYs[i] = m_g.getY(neighbors[start[v] + i]);
+            }
+            Arrays.sort(m_neighborYs, 0, size);
             // set median position, or average of two medians if degree is even
-            int size = neighbors.size();
             int m1 = (int)Math.ceil(size / 2.0) - 1;
             int m2 = m1 + 1; // needed for even degree
             if (size > 0) {
                 // median heuristic
-                // m_g.setY(v, m_g.getY(neighbors.get(m1)));
+                // m_g.setY(v, neighborYs[m1]);
 
                 // average median heuristic
                 if (size % 2 == 1) {
                     // odd degree
-                    m_g.setY(v, m_g.getY(neighbors.get(m1)));
+                    m_g.setY(v, m_neighborYs[m1]);
                 } else {
                     // even degree
-                    double y1 = m_g.getY(neighbors.get(m1));
-                    double y2 = m_g.getY(neighbors.get(m2));
+                    double y1 = m_neighborYs[m1];
+                    double y2 = m_neighborYs[m2];
                     m_g.setY(v, (y1 + y2) / 2);
                 }
             }
         }
-        // sort current layer by medians
-        Collections.sort(curLayer, new LayerSortComparator(prevLayer));
+        // sort current layer by medians; if two nodes have equal median,
+        // preference is given to odd-degree nodes
+        Util.sort(curLayer, 0, curLayer.length, (o1, o2) -> {
+            int c = Double.compare(m_g.getY(o1), m_g.getY(o2));
+            if (c != 0) {
+                return c;
+            }
+            boolean odd1 = (start[o1 + 1] - start[o1]) % 2 != 0;
+            boolean odd2 = (start[o2 + 1] - start[o2]) % 2 != 0;
+            return Boolean.compare(odd2, odd1);
+        });
         // set corresponding y-coordinates
         updateY(curLayer);
     }
 
-    private void updateY(final ArrayList<Node> curLayer) {
+    private void updateY(final int[] curLayer) {
         double y = 0;
-        for (Node n : curLayer) {
+        for (int n : curLayer) {
             m_g.setY(n, y);
             y++;
         }
@@ -202,59 +380,87 @@ private void updateY(final ArrayList<Node> curLayer) {
     /**
      * perform a greedy switch going from first to last layer. In each layer,
      * switch consecutive nodes if crossing number is reduced. Fixed layers are
-     * excluded by given offsets.
+     * excluded by given offsets. Switching two nodes only changes the
+     * crossings between their own edges, so instead of counting all crossings
+     * of the layer after each switch only these are counted.
      * 
      * @param sourceOffset
      * @param sinkOffset
      */
     private void greedySwitch(final int sourceOffset, final int sinkOffset) {
-        for (int i = sourceOffset; i < m_layers.size() - sinkOffset; i++) {
-            ArrayList<Node> curLayer = m_layers.get(i);
+        for (int i = sourceOffset; i < m_layers.length - sinkOffset; i++) {
+            int[] curLayer = m_layers[i];
+            // the previous layer doesn't change while this layer is processed
+            for (int v : curLayer) {
+                for (int k = m_prevStart[v]; k < m_prevStart[v + 1]; k++) {
+                    m_prevYs[k] = m_g.getY(m_prevNeighbors[k]);
+                }
+                Arrays.sort(m_prevYs, m_prevStart[v], m_prevStart[v + 1]);
+            }
             int oldCross = Integer.MAX_VALUE;
             int cross = numberOfCrossingsPrevLayer(i);
             int crossTemp = cross;
             do {
-                for (int j = 0; j < curLayer.size() - 1; j++) {
-                    Node u = curLayer.get(j);
-                    Node v = curLayer.get(j + 1);
-                    switchNodes(u, v, curLayer, j);
+                for (int j = 0; j < curLayer.length - 1; j++) {
+                    int u = curLayer[j];
+                    int v = curLayer[j + 1];
                     // if switch produces less crossings keep it
-                    // i.e., if switch produces equal or more crossings, switch
-                    // back
-                    int c = numberOfCrossingsPrevLayer(i);
-                    if (c >= crossTemp) {
-                        switchNodes(v, u, curLayer, j);
-                    } else {
+                    int c = crossTemp - crossings(u, v) + crossings(v, u);
+                    if (c < crossTemp) {
+                        switchNodes(curLayer, j);
                         // crossing number is reduced -> store new crossing
                         // number
                         crossTemp = c;
                     }
                 }
                 oldCross = cross;
-                cross = numberOfCrossingsPrevLayer(i);
+                cross = crossTemp;
             } while (cross < oldCross);
-            Collections.sort(curLayer, new Util.NodeByYComparator(m_g));
+            Util.sort(curLayer, 0, curLayer.length,
+                    (o1, o2) -> Double.compare(m_g.getY(o1), m_g.getY(o2)));
         }
     }
 
     /**
-     * switch y-coordinates of nodes u and v, and their places in the respective
-     * layer. Node u must be at index i, node v is at index i+1.
-     * 
+     * counts the crossings between the edges of u and v to the previous layer
+     * if u is placed above v, i.e. the pairs of neighbors a of u and b of v
+     * with a placed below b.
+     *
      * @param u
      * @param v
+     * @return
+     */
+    private int crossings(final int u, final int v) {
+        int cross = 0;
+        int vStart = m_prevStart[v];
+        int vEnd = m_prevStart[v + 1];
+        int b = vStart;
+        for (int a = m_prevStart[u]; a < m_prevStart[u + 1]; a++) {
+            while (b < vEnd && m_prevYs[b] < m_prevYs[a]) {
+                b++;
+            }
+            cross += b - vStart;
+        }
+        return cross;
+    }
+
+    /**
+     * switch y-coordinates of the nodes at index i and i+1 of the given layer,
+     * and their places in the layer.
+     * 
      * @param layer
      * @param i
      */
-    private void switchNodes(final Node u, final Node v,
-            final ArrayList<Node> layer, final int i) {
+    private void switchNodes(final int[] layer, final int i) {
+        int u = layer[i];
+        int v = layer[i + 1];
         // coordinates
         double temp = m_g.getY(u);
         m_g.setY(u, m_g.getY(v));
         m_g.setY(v, temp);
         // order in layer
-        layer.set(i, v);
-        layer.set(i + 1, u);
+        layer[i] = v;
+        layer[i + 1] = u;
     }
 
     /**
@@ -264,10 +470,8 @@ private void switchNodes(final Node u, final Node v,
      */
     private int numberOfCrossings() {
         int cross = 0;
-        for (int i = 1; i < m_layers.size(); i++) {
-            ArrayList<Node> curLayer = m_layers.get(i);
-            ArrayList<Node> prevLayer = m_layers.get(i - 1);
-            cross += numberCrossingTwoLayer(curLayer, prevLayer);
+        for (int i = 1; i < m_layers.length; i++) {
+            cross += numberCrossingTwoLayer(m_layers[i], m_layers[i - 1]);
         }
         return cross;
     }
@@ -280,132 +484,113 @@ private int numberOfCrossings() {
      * @return
      */
     private int numberOfCrossingsPrevLayer(final int i) {
-        ArrayList<Node> curLayer = m_layers.get(i);
-        ArrayList<Node> prevLayer;
-        // ArrayList<Node> nextLayer;
         int cross = 0;
         if (i > 0) {
-            prevLayer = m_layers.get(i - 1);
-            cross += numberCrossingTwoLayer(curLayer, prevLayer);
+            cross += numberCrossingTwoLayer(m_layers[i], m_layers[i - 1]);
         }
-        // if (i < m_layers.size() - 1) {
-        // nextLayer = m_layers.get(i + 1);
-        // cross += numberCrossingTwoLayer(nextLayer, curLayer);
-        // }
         return cross;
     }
 
     /**
-     * counts the number of crossings between the two given layers. THIS IS
-     * REALLY BRUTE FORCE AND CAN BE MADE MORE EFFICIENT! (e.g., modifying
-     * mergesort to count inversions)
-     * 
+     * counts the number of crossings between the two given layers, prevLayer
+     * must be the layer preceding curLayer. The edges are sorted by the
+     * position of their end in prevLayer and the crossings are counted as
+     * inversions of the positions of their end in curLayer using an
+     * accumulator tree (see Barth, Juenger and Mutzel, 2002), which takes
+     * O(E log V).
+     *
      * @param curLayer
      * @param prevLayer
      * @return
      */
-    private int numberCrossingTwoLayer(final ArrayList<Node> curLayer,
-            final ArrayList<Node> prevLayer) {
-        int cross = 0;
-        for (Node u1 : prevLayer) {
-            for (Node v1 : getNeighbors(u1, curLayer)) {
-                // inspect edge from prev layer to cur layer (u1,v1)
-                // now check against all other edges ending at curLayer at
-                // other nodes than u1 or v1
-                for (Node v2 : curLayer) {
-                    if (v1 != v2) {
-                        for (Node u2 : getNeighbors(v2, prevLayer)) {
-                            if (u2 != u1) {
-                                // check if e1 and e2 are crossing
-                                cross += checkCrossing(u1, v1, u2, v2);
-                            }
-                        }
-                    }
-                }
+    private int numberCrossingTwoLayer(final int[] curLayer,
+            final int[] prevLayer) {
+        // rank nodes of the current layer by y-coordinate, equal coordinates
+        // get equal ranks (edges ending in nodes at the same position don't
+        // cross)
+        int[] cur = sortedByY(curLayer, m_sortedCur);
+        int curRanks = 0;
+        for (int k = 0; k < curLayer.length; k++) {
+            if (k > 0 && m_g.getY(cur[k]) > m_g.getY(cur[k - 1])) {
+                curRanks++;
             }
+            m_rank[cur[k]] = curRanks;
         }
-        // all crossings have been counted twice!
-        return cross / 2;
-    }
-
-    /**
-     * check whether to edges (u1,v1) and (u2,v2) create a crossing.
-     * 
-     * @param u1 node of first edge on first layer
-     * @param v1 node of first edge on second layer
-     * @param u2 node of second edge on first layer
-     * @param v2 node of second edge on second layer
-     * @return 1 if edges cross, 0 otherwise
-     */
-    private int checkCrossing(final Node u1, final Node v1, final Node u2,
-            final Node v2) {
-        if (m_g.getY(u1) < m_g.getY(u2) && m_g.getY(v1) > m_g.getY(v2)) {
-            return 1;
-        } else if (m_g.getY(u1) > m_g.getY(u2) && m_g.getY(v1) < m_g.getY(v2)) {
-            return 1;
+        curRanks++;
+        // accumulator tree over the ranks (leaves) of the current layer
+        int firstLeaf = 1;
+        while (firstLeaf < curRanks) {
+            firstLeaf *= 2;
+        }
+        int treeSize = 2 * firstLeaf - 1;
+        if (m_tree.length < treeSize) {
+            m_tree = new int[treeSize];
         } else {
-            return 0;
+            Arrays.fill(m_tree, 0, treeSize, 0);
         }
-    }
+        int[] tree = m_tree;
+        firstLeaf--;
 
-    /**
-     * return the neighbors of a node n on the given layer.
-     * 
-     * @param n
-     * @param layer
-     * @return
-     */
-    private ArrayList<Node> getNeighbors(final Node n,
-            final ArrayList<Node> layer) {
-        ArrayList<Node> neighbors = new ArrayList<Graph.Node>();
-        for (Edge e : m_g.edges(n)) {
-            Node m = e.opposite(n);
-            if (layer.contains(m)) {
-                neighbors.add(m);
+        int[] prev = sortedByY(prevLayer, m_sortedPrev);
+        int cross = 0;
+        int k = 0;
+        while (k < prevLayer.length) {
+            // collect the edges of all nodes at the same position, in
+            // ascending order of their other end
+            int groupEnd = k + 1;
+            while (groupEnd < prevLayer.length
+                    && m_g.getY(prev[groupEnd]) == m_g.getY(prev[k])) {
+                groupEnd++;
             }
+            int nrEnds = 0;
+            for (int u = k; u < groupEnd; u++) {
+                int p = prev[u];
+                for (int i = m_nextStart[p]; i < m_nextStart[p + 1]; i++) {
+                    if (nrEnds == m_ends.length) {
+                        m_ends = Arrays.copyOf(m_ends, Math.max(8, 2 * nrEnds));
+                    }
+                    m_ends[nrEnds++] = m_rank[m_nextNeighbors[i]];
+                }
+            }
+            int[] ends = m_ends;
+            Arrays.sort(ends, 0, nrEnds);
+            // each edge crosses all previously inserted edges ending at a
+            // larger rank
+            for (int e = 0; e < nrEnds; e++) {
+                int index = ends[e] + firstLeaf;
+                tree[index]++;
+                while (index > 0) {
+                    if (index % 2 == 1) {
+                        // left child, count entries of the right sibling
+                        cross += tree[index + 1];
+                    }
+                    index = (index - 1) / 2;
+                    tree[index]++;
+                }
+            }
+            k = groupEnd;
         }
-        return neighbors;
+        return cross;
     }
 
     /**
-     * used to compare two nodes on a layer, after each nodes y-coordinate is
-     * set to the median of its neighbors. If two nodes have equal median,
-     * preference is given to odd-degree nodes.
-     * 
-     * @author mader, University of Konstanz
+     * returns the nodes of a layer sorted by y-coordinate. Usually the layer
+     * is sorted already, then the layer itself is returned, otherwise a
+     * sorted copy in the given scratch array.
+     *
+     * @param layer
+     * @param scratch array to sort a copy of the layer in
+     * @return
      */
-    public class LayerSortComparator implements
-            Comparator<org.knime.workbench.ui.layout.Graph.Node> {
-
-        private ArrayList<Node> m_otherLayer;
-
-        /**
-         * constructor.
-         * 
-         * @param otherLayer if medians are equal decision is made by degree of
-         *            a node with respect to this layer
-         */
-        public LayerSortComparator(final ArrayList<Node> otherLayer) {
-            m_otherLayer = otherLayer;
-        }
-
-        @Override
-        public int compare(final Node o1, final Node o2) {
-            if (m_g.getY(o1) < m_g.getY(o2)) {
-                return -1;
-            } else if (m_g.getY(o1) > m_g.getY(o2)) {
-                return 1;
-            } else {
-                // both have same median
-                // if o1 has odd degree choose this one
-                if (getNeighbors(o1, m_otherLayer).size() % 2 != 0) {
-                    return -1;
-                } else if (getNeighbors(o2, m_otherLayer).size() % 2 != 0) {
-                    return 1;
-                } else {
-                    return 0;
-                }
+    private int[] sortedByY(final int[] layer, final int[] scratch) {
+        for (int i = 1; i < layer.length; i++) {
+            if (m_g.getY(layer[i]) < m_g.getY(layer[i - 1])) {
+                System.arraycopy(layer, 0, scratch, 0, layer.length);
+                Util.sort(scratch, 0, layer.length,
+                        (o1, o2) -> Double.compare(m_g.getY(o1), m_g.getY(o2)));
+                return scratch;
             }
         }
+        return layer;
     }
 }
@@ -48,11 +48,9 @@
 package org.knime.workbench.ui.layout.layeredlayout;
 
 import java.util.ArrayList;
-import java.util.Map;
+import java.util.Arrays;
 
-import org.knime.workbench.ui.layout.Graph;
-import org.knime.workbench.ui.layout.Graph.Edge;
-import org.knime.workbench.ui.layout.Graph.Node;
+import org.knime.workbench.ui.layout.IndexedGraph;
 
 /**
  * assigns layers to the nodes of a graph by topological sorting.
@@ -67,25 +65,32 @@ public class Layerer {
      * whether they are sources or sinks.
      * 
      * @param g the graph to be layered
-     * @param nodeLayer a map storing the layer of each node
-     * @param fixedSources a list of sources to fix on the first layer, or null
+     * @param nodeLayer an array storing the layer of each node (by id)
+     * @param fixedSources the ids of the sources to fix on the first layer, or
+     *            null if none exist
+     * @param fixedSinks the ids of the sinks to fix on the last layer, or null
      *            if none exist
-     * @param fixedSinks a list of sinks to fix on the last layer, or null if
-     *            none exist
-     * @return the list of layers, each layer containing an array list of nodes
+     * @return the layers, each layer containing the ids of its nodes
      */
-    static ArrayList<ArrayList<Node>> assignLayers(final Graph g,
-            final Map<Node, Integer> nodeLayer,
-            final ArrayList<Node> fixedSources, final ArrayList<Node> fixedSinks) {
+    static ArrayList<int[]> assignLayers(final IndexedGraph g,
+            final int[] nodeLayer, final int[] fixedSources,
+            final int[] fixedSinks) {
 
         // initialize residual degrees, and find first sources
-        ArrayList<ArrayList<Node>> layers = new ArrayList<ArrayList<Node>>();
-        Map<Node, Integer> residualDegree = g.createIntNodeMap();
-        ArrayList<Node> sources = new ArrayList<Node>();
-        for (Node n : g.nodes()) {
-            residualDegree.put(n, n.inDegree());
-            if (n.inDegree() == 0) {
-                sources.add(n);
+        ArrayList<int[]> layers = new ArrayList<int[]>();
+        int[] residualDegree = new int[g.n()];
+        boolean[] isFixedSource = new boolean[g.n()];
+        if (fixedSources != null) {
+            for (int n : fixedSources) {
+                isFixedSource[n] = true;
+            }
+        }
+        int[] sources = new int[g.n()];
+        int nrSources = 0;
+        for (int n = 0; n < g.n(); n++) {
+            residualDegree[n] = g.inDegree(n);
+            if (residualDegree[n] == 0 && !isFixedSource[n]) {
+                sources[nrSources++] = n;
             }
         }
 
@@ -93,38 +98,47 @@ static ArrayList<ArrayList<Node>> assignLayers(final Graph g,
         int layer = 0;
         // handle fixed sources, if any
         if (fixedSources != null) {
-            layers.add(fixedSources);
-            for (Node n : fixedSources) {
-                sources.remove(n);
-                nodeLayer.put(n, layer);
+            layers.add(fixedSources.clone());
+            for (int n : fixedSources) {
+                nodeLayer[n] = layer;
                 // check if any of the outgoing neighbors becomes a source
-                updateSources(g, n, sources, residualDegree);
+                nrSources = updateSources(g, n, sources, nrSources,
+                        residualDegree);
             }
             layer++;
         }
 
         // handle regular nodes
-        while (!sources.isEmpty()) {
-            ArrayList<Node> nextSources = new ArrayList<Node>();
+        int[] nextSources = new int[g.n()];
+        while (nrSources > 0) {
+            int nrNextSources = 0;
             // put all of the current sources on the current layer
-            layers.add(sources);
-            for (Node n : sources) {
-                nodeLayer.put(n, layer);
-                updateSources(g, n, nextSources, residualDegree);
+            layers.add(Arrays.copyOf(sources, nrSources));
+            for (int i = 0; i < nrSources; i++) {
+                nodeLayer[sources[i]] = layer;
+                nrNextSources = updateSources(g, sources[i], nextSources,
+                        nrNextSources, residualDegree);
             }
             // advance to the next layer
+            int[] temp = sources;
             sources = nextSources;
+            nextSources = temp;
+            nrSources = nrNextSources;
             layer++;
         }
 
         // handle fixed sinks by putting them on the last layer
         if (fixedSinks != null) {
+            boolean[] isFixedSink = new boolean[g.n()];
+            for (int n : fixedSinks) {
+                isFixedSink[n] = true;
+            }
             // check if there are non-fixed sinks on the current last layer
             boolean lastLayerValid = true;
             int lastlayer = layers.size() - 1;
 
-            for (Node n : layers.get(lastlayer)) {
-                if (!fixedSinks.contains(n)) {
+            for (int n : layers.get(lastlayer)) {
+                if (!isFixedSink[n]) {
                     lastLayerValid = false;
                 }
             }
@@ -133,17 +147,33 @@ static ArrayList<ArrayList<Node>> assignLayers(final Graph g,
             // sinks to this layer, otherwise introduce new last layer
             if (!lastLayerValid) {
                 lastlayer++;
-                layers.add(new ArrayList<Graph.Node>());
+                layers.add(new int[0]);
+            }
+            // remove the fixed sinks from their layers ...
+            for (int l = 0; l < lastlayer; l++) {
+                layers.set(l, removeFixedSinks(layers.get(l), isFixedSink));
             }
-            for (Node n : fixedSinks) {
-                layers.get(nodeLayer.get(n)).remove(n);
-                nodeLayer.put(n, lastlayer);
-                layers.get(lastlayer).add(n);
+            // ... and put them on the last layer in the given order
+            layers.set(lastlayer, fixedSinks.clone());
+            for (int n : fixedSinks) {
+                nodeLayer[n] = lastlayer;
             }
         }
         return layers;
     }
 
+    private static int[] removeFixedSinks(final int[] layer,
+            final boolean[] isFixedSink) {
+        int size = 0;
+        int[] result = new int[layer.length];
+        for (int n : layer) {
+            if (!isFixedSink[n]) {
+                result[size++] = n;
+            }
+        }
+        return size == layer.length ? layer : Arrays.copyOf(result, size);
+    }
+
     /**
      * check the outgoing edges of a given node n for becoming a new source
      * after n is processed.
@@ -151,16 +181,21 @@ static ArrayList<ArrayList<Node>> assignLayers(final Graph g,
      * @param g
      * @param n
      * @param sources
+     * @param nrSources the number of nodes in sources
      * @param residualDegree
+     * @return the new number of nodes in sources
      */
-    private static void updateSources(final Graph g, Node n,
-            ArrayList<Node> sources, Map<Node, Integer> residualDegree) {
-        for (Edge e : g.outEdges(n)) {
-            Node t = e.target();
-            int newDegree = residualDegree.get(t).intValue() - 1;
-            residualDegree.put(t, newDegree);
-            if (newDegree == 0)
-                sources.add(t);
+    private static int updateSources(final IndexedGraph g, final int n,
+            final int[] sources, final int nrSources,
+            final int[] residualDegree) {
+        int size = nrSources;
+        for (int i = 0; i < g.outDegree(n); i++) {
+            int t = g.target(g.outEdge(n, i));
+            residualDegree[t]--;
+            if (residualDegree[t] == 0) {
+                sources[size++] = t;
+            }
         }
+        return size;
     }
 }
@@ -56,6 +56,7 @@
 import org.knime.workbench.ui.layout.Graph;
 import org.knime.workbench.ui.layout.Graph.Edge;
 import org.knime.workbench.ui.layout.Graph.Node;
+import org.knime.workbench.ui.layout.IndexedGraph;
 
 /**
  * computes a layered layout for a directed acyclic graph. Following the
@@ -75,6 +76,8 @@ public class SimpleLayeredLayouter {
 
     private boolean m_balanceBranching = true;
 
+    private int m_crossings;
+
     /**
      * constructor initializing an arbitrary random instance for shuffling
      * layers.
@@ -110,6 +113,16 @@ public void setBalanceBranchings(final boolean balance) {
         m_balanceBranching = balance;
     }
 
+    /**
+     * @return the number of edge crossings between adjacent layers (including
+     *         dummy nodes) of the last layout computed by
+     *         {@link #doLayout(Graph, Map)}
+     * @since 4.2
+     */
+    public int getNumberOfCrossings() {
+        return m_crossings;
+    }
+
     /**
      * computes an hierarchical layout of the given graph. If nodes are fixed by
      * means of the given map, they will end up on the first or last layer,
@@ -124,6 +137,9 @@ public void setBalanceBranchings(final boolean balance) {
     public void doLayout(final Graph g, final Map<Node, Boolean> fixedNodes)
             throws RuntimeException {
 
+        // the layering runs on an indexed snapshot of the graph
+        IndexedGraph ig = new IndexedGraph(g);
+
         // create lists for fixed sources and sinks if necessary
         ArrayList<Node> fixedSources = null;
         ArrayList<Node> fixedSinks = null;
@@ -148,22 +164,29 @@ public void doLayout(final Graph g, final Map<Node, Boolean> fixedNodes)
         }
 
         // get layering of the graph
-        Map<Node, Integer> nodeLayer = g.createIntNodeMap();
+        int[] nodeLayer = new int[ig.n()];
+        ArrayList<int[]> layerIds = Layerer.assignLayers(ig, nodeLayer,
+                fixedSources == null ? null : ig.ids(fixedSources),
+                fixedSinks == null ? null : ig.ids(fixedSinks));
         ArrayList<ArrayList<Node>> layers =
-                Layerer.assignLayers(g, nodeLayer, fixedSources, fixedSinks);
+                new ArrayList<ArrayList<Node>>(layerIds.size());
+        for (int[] ids : layerIds) {
+            ArrayList<Node> layer = new ArrayList<Graph.Node>(ids.length);
+            for (int n : ids) {
+                layer.add(ig.node(n));
+            }
+            layers.add(layer);
+        }
 
         // add dummy vertices for edges spanning several layers
         ArrayList<Edge> hiddenEdges = new ArrayList<Graph.Edge>();
         ArrayList<Node> dummyNodes = new ArrayList<Graph.Node>();
-        ArrayList<Edge> dummyEdges = new ArrayList<Graph.Edge>();
         HashMap<Edge, ArrayList<Node>> hiddenEdgeToDummyVertices =
                 new HashMap<Graph.Edge, ArrayList<Node>>();
-        for (Edge e : g.edges()) {
-            int startLayer = nodeLayer.get(e.source()).intValue();
-            int endLayer = nodeLayer.get(e.target()).intValue();
-            int span = endLayer - startLayer;
+        for (int e = 0; e < ig.m(); e++) {
+            int span = nodeLayer[ig.target(e)] - nodeLayer[ig.source(e)];
             if (span > 1) {
-                hiddenEdges.add(e);
+                hiddenEdges.add(ig.edge(e));
             }
         }
         // cannot modify graph in for-loop above, since it would create
@@ -171,8 +194,8 @@ public void doLayout(final Graph g, final Map<Node, Boolean> fixedNodes)
         for (Edge e : hiddenEdges) {
             // list for this edges dummy nodes
             ArrayList<Node> eDummyNodes = new ArrayList<Graph.Node>();
-            int startLayer = nodeLayer.get(e.source()).intValue();
-            int endLayer = nodeLayer.get(e.target()).intValue();
+            int startLayer = nodeLayer[ig.id(e.source())];
+            int endLayer = nodeLayer[ig.id(e.target())];
             int span = endLayer - startLayer;
             Node last = e.source();
             for (int i = 1; i < span; i++) {
@@ -180,11 +203,9 @@ public void doLayout(final Graph g, final Map<Node, Boolean> fixedNodes)
                         g.createNode("bend " + e + ", " + i, startLayer + i,
                                 g.getY(last));
                 // add dummy to its layer
-                nodeLayer.put(current, startLayer + i);
                 layers.get(startLayer + i).add(current);
                 // add dummy edge to graph
-                Edge dEdge = g.createEdge(last, current);
-                dummyEdges.add(dEdge);
+                g.createEdge(last, current);
                 // add dummy vertex to the list of dummies for the original edge
                 eDummyNodes.add(current);
                 // proceed
@@ -231,17 +252,27 @@ public void doLayout(final Graph g, final Map<Node, Boolean> fixedNodes)
             layer++;
         }
 
+        // crossing minimization and vertical placement run on an indexed
+        // snapshot of the graph including the dummy nodes
+        IndexedGraph dg = new IndexedGraph(g);
+        int[][] dLayers = Util.toIds(dg, layers);
+        boolean[] dummy = new boolean[dg.n()];
+        for (Node n : dummyNodes) {
+            dummy[dg.id(n)] = true;
+        }
+
         /* Do crossing minimization */
-        CrossingMinimizer cm =
-                new CrossingMinimizer(g, layers, fixedSources, fixedSinks);
+        CrossingMinimizer cm = new CrossingMinimizer(dg, dLayers,
+                fixedSources != null, fixedSinks != null);
         cm.run();
+        m_crossings = cm.getNumberOfCrossings();
 
         /* Do vertical placement */
         VerticalCoordinateAssigner vca =
-                new VerticalCoordinateAssigner(g, layers, dummyNodes,
-                        dummyEdges);
+                new VerticalCoordinateAssigner(dg, dLayers, dummy);
         vca.setBalanceBranchings(m_balanceBranching);
         vca.run();
+        dg.writeCoordinates();
 
         /*
          * Reinsert hidden edges with bendpoints, and remove dummy nodes and
@@ -47,10 +47,14 @@
  */
 package org.knime.workbench.ui.layout.layeredlayout;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 import org.knime.workbench.ui.layout.Graph;
 import org.knime.workbench.ui.layout.Graph.Node;
+import org.knime.workbench.ui.layout.IndexedGraph;
 
 /**
  * 
@@ -68,4 +72,103 @@ public int compare(Node o1, Node o2) {
                     .getY(o2)));
         }
     }
+
+    /**
+     * converts a layering of nodes to the node ids of an indexed graph.
+     *
+     * @param g the indexed graph of the nodes
+     * @param layers the layers
+     * @return the ids of the nodes in each layer, in the same order
+     */
+    static int[][] toIds(final IndexedGraph g,
+            final List<? extends List<Node>> layers) {
+        int[][] ids = new int[layers.size()][];
+        for (int l = 0; l < ids.length; l++) {
+            ids[l] = g.ids(layers.get(l));
+        }
+        return ids;
+    }
+
+    /**
+     * compares two node (or edge) ids of an {@link IndexedGraph}.
+     */
+    @FunctionalInterface
+    interface IdComparator {
+        /**
+         * @param a an id
+         * @param b another id
+         * @return negative, zero or positive if a is less than, equal to or
+         *         greater than b
+         */
+        int compare(int a, int b);
+    }
+
+    /**
+     * sorts the ids in the given range with a stable merge sort, so ids that
+     * compare equal keep their order (as with {@link Collections#sort}).
+     *
+     * @param ids the array to sort
+     * @param from first index of the range (inclusive)
+     * @param to last index of the range (exclusive)
+     * @param c the comparator
+     */
+    static void sort(final int[] ids, final int from, final int to,
+            final IdComparator c) {
+        if (to - from < 2) {
+            return;
+        }
+        if (isSorted(ids, from, to, c)) {
+            // common case: layers are mostly kept in order
+            return;
+        }
+        mergeSort(ids, Arrays.copyOfRange(ids, from, to), from, to, from, c);
+    }
+
+    private static boolean isSorted(final int[] ids, final int from,
+            final int to, final IdComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            if (c.compare(ids[i - 1], ids[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * sorts src[from..to) into dest[from..to); src is a copy of dest with an
+     * offset of srcOff, both are used alternately as buffer.
+     */
+    private static void mergeSort(final int[] dest, final int[] src,
+            final int from, final int to, final int srcOff,
+            final IdComparator c) {
+        final int length = to - from;
+        if (length < 8) {
+            // insertion sort on small ranges
+            for (int i = from; i < to; i++) {
+                final int v = dest[i];
+                int j = i;
+                while (j > from && c.compare(dest[j - 1], v) > 0) {
+                    dest[j] = dest[j - 1];
+                    j--;
+                }
+                dest[j] = v;
+            }
+            return;
+        }
+        final int mid = (from + to) >>> 1;
+        // sort both halves into src, then merge them into dest
+        mergeSort(src, dest, from - srcOff, mid - srcOff, -srcOff, c);
+        mergeSort(src, dest, mid - srcOff, to - srcOff, -srcOff, c);
+        int p = from - srcOff;
+        int q = mid - srcOff;
+        final int pEnd = q;
+        final int qEnd = to - srcOff;
+        for (int i = from; i < to; i++) {
+            if (q >= qEnd || (p < pEnd && c.compare(src[p], src[q]) <= 0)) {
+                dest[i] = src[p++];
+            } else {
+                dest[i] = src[q++];
+            }
+        }
+    }
 }
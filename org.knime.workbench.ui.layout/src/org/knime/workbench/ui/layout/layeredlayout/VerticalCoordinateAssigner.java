@@ -49,56 +49,73 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 
 import org.knime.workbench.ui.layout.Graph;
 import org.knime.workbench.ui.layout.Graph.Edge;
 import org.knime.workbench.ui.layout.Graph.Node;
+import org.knime.workbench.ui.layout.IndexedGraph;
 
 /**
  * handles vertical assignment of coordinates within layers, see
- * "Brandes, Köpf: Fast and simple horizontal coordinate assignment (GD 2001)".
+ * "Brandes, Kpf: Fast and simple horizontal coordinate assignment (GD 2001)".
  *
  * @author Martin Mader, University of Konstanz
  */
 public class VerticalCoordinateAssigner {
 
-    private static final Double DELTA = 1.0;
+    private static final double DELTA = 1.0;
 
-    private Graph m_g;
+    private static final int NONE = -1;
 
-    private ArrayList<ArrayList<Node>> m_layers;
+    private IndexedGraph m_g;
 
-    // all variables named as close as possible to the above mentioned article
+    private int[][] m_layers;
 
-    private HashMap<Node, Integer> m_pos = new HashMap<Graph.Node, Integer>();
+    /** true if the nodes are to be transferred back to a {@link Graph}. */
+    private boolean m_writeCoordinates;
 
-    private HashMap<Node, Node> m_pred = new HashMap<Graph.Node, Graph.Node>();
+    // all variables named as close as possible to the above mentioned article,
+    // node arrays are indexed by node id, edge arrays by edge id
 
-    private HashMap<Edge, Boolean> m_innerSegment =
-            new HashMap<Graph.Edge, Boolean>();
+    private int[] m_pos;
 
-    private HashMap<Edge, Boolean> m_marked =
-            new HashMap<Graph.Edge, Boolean>();
+    private int[] m_pred;
 
-    private HashMap<Node, Node> m_align = new HashMap<Graph.Node, Graph.Node>();
+    private boolean[] m_innerSegment;
 
-    private HashMap<Node, Node> m_root = new HashMap<Graph.Node, Graph.Node>();
+    private boolean[] m_marked;
 
-    private HashMap<Node, Node> m_sink = new HashMap<Graph.Node, Graph.Node>();
+    private int[] m_align;
 
-    private HashMap<Node, Double> m_shift = new HashMap<Graph.Node, Double>();
+    private int[] m_root;
 
-    private HashMap<Node, Double> m_y = new HashMap<Graph.Node, Double>();
+    private int[] m_sink;
 
-    private HashMap<Node, Double> m_yLT = new HashMap<Graph.Node, Double>();
+    private double[] m_shift;
 
-    private HashMap<Node, Double> m_yLB = new HashMap<Graph.Node, Double>();
+    private double[] m_y;
 
-    private HashMap<Node, Double> m_yRT = new HashMap<Graph.Node, Double>();
+    /** the coordinates of the four alignments (left/right, top/bottom). */
+    private double[] m_yLT;
 
-    private HashMap<Node, Double> m_yRB = new HashMap<Graph.Node, Double>();
+    private double[] m_yLB;
+
+    private double[] m_yRT;
+
+    private double[] m_yRB;
+
+    /**
+     * the incoming (left) and outgoing (right) edges of each node, sorted by
+     * the y-coordinate of the opposite node, in the CSR layout of
+     * {@link IndexedGraph}.
+     */
+    private int[] m_leftStart;
+
+    private int[] m_leftEdges;
+
+    private int[] m_rightStart;
+
+    private int[] m_rightEdges;
 
     private boolean m_balanceBranching = true;
 
@@ -108,46 +125,89 @@ public class VerticalCoordinateAssigner {
      * @param g the graph to work on
      * @param layers the layering information
      * @param dummyNodes list of dummy nodes
-     * @param dummyEdges list of dummy edges
+     * @param dummyEdges list of dummy edges (not needed anymore, the inner
+     *            segments are the edges between two dummy nodes)
      */
     public VerticalCoordinateAssigner(final Graph g,
             final ArrayList<ArrayList<Node>> layers,
             final ArrayList<Node> dummyNodes, final ArrayList<Edge> dummyEdges) {
+        this(new IndexedGraph(g), layers, dummyNodes);
+    }
+
+    private VerticalCoordinateAssigner(final IndexedGraph g,
+            final ArrayList<ArrayList<Node>> layers,
+            final ArrayList<Node> dummyNodes) {
+        this(g, Util.toIds(g, layers), isDummy(g, dummyNodes));
+        m_writeCoordinates = true;
+    }
+
+    /**
+     * initializes data structures needed for vertical coordinate assignment.
+     * The result is stored in the y-coordinates of the indexed graph.
+     *
+     * @param g the graph to work on
+     * @param layers the layering information, the node ids of each layer
+     * @param dummy true for the (ids of the) dummy nodes
+     * @since 4.2
+     */
+    public VerticalCoordinateAssigner(final IndexedGraph g,
+            final int[][] layers, final boolean[] dummy) {
         m_g = g;
         m_layers = layers;
+        int n = g.n();
         // initialize pos and pred
-        for (int i = 0; i < m_layers.size(); i++) {
-            ArrayList<Node> layer = m_layers.get(i);
-            for (int pos = 0; pos < layer.size(); pos++) {
-                m_pos.put(layer.get(pos), pos);
-                if (pos == 0) {
-                    m_pred.put(layer.get(pos), null);
-                } else {
-                    m_pred.put(layer.get(pos), layer.get(pos - 1));
-                }
+        m_pos = new int[n];
+        m_pred = new int[n];
+        for (int[] layer : m_layers) {
+            for (int pos = 0; pos < layer.length; pos++) {
+                m_pos[layer[pos]] = pos;
+                m_pred[layer[pos]] = pos == 0 ? NONE : layer[pos - 1];
             }
         }
         // initialize edge maps
-        for (Edge e : m_g.edges()) {
-            m_marked.put(e, false);
-            // initialize inner segments, corrected later
-            m_innerSegment.put(e, false);
+        m_marked = new boolean[g.m()];
+        m_innerSegment = new boolean[g.m()];
+        // determine inner segments
+        for (int e = 0; e < g.m(); e++) {
+            m_innerSegment[e] = dummy[g.source(e)] && dummy[g.target(e)];
         }
         // initialize node maps
-        for (Node n : m_g.nodes()) {
-            m_align.put(n, n);
-            m_root.put(n, n);
-            m_sink.put(n, n);
-            m_shift.put(n, Double.POSITIVE_INFINITY);
-            m_y.put(n, Double.NaN);
-        }
-        // determine inner segments
-        for (Edge e : dummyEdges) {
-            if (dummyNodes.contains(e.source())
-                    && dummyNodes.contains(e.target())) {
-                m_innerSegment.put(e, true);
+        m_align = new int[n];
+        m_root = new int[n];
+        m_sink = new int[n];
+        m_shift = new double[n];
+        m_y = new double[n];
+        initNodeMaps();
+        // sort the neighbors once, their coordinates don't change
+        m_leftStart = new int[n + 1];
+        m_rightStart = new int[n + 1];
+        m_leftEdges = new int[g.m()];
+        m_rightEdges = new int[g.m()];
+        for (int v = 0; v < n; v++) {
+            m_leftStart[v + 1] = m_leftStart[v] + g.inDegree(v);
+            m_rightStart[v + 1] = m_rightStart[v] + g.outDegree(v);
+            for (int i = 0; i < g.inDegree(v); i++) {
+                m_leftEdges[m_leftStart[v] + i] = g.inEdge(v, i);
+            }
+            for (int i = 0; i < g.outDegree(v); i++) {
+                m_rightEdges[m_rightStart[v] + i] = g.outEdge(v, i);
             }
+            Util.sort(m_leftEdges, m_leftStart[v], m_leftStart[v + 1],
+                    (e1, e2) -> Double.compare(g.getY(g.source(e1)),
+                            g.getY(g.source(e2))));
+            Util.sort(m_rightEdges, m_rightStart[v], m_rightStart[v + 1],
+                    (e1, e2) -> Double.compare(g.getY(g.target(e1)),
+                            g.getY(g.target(e2))));
+        }
+    }
+
+    private static boolean[] isDummy(final IndexedGraph g,
+            final ArrayList<Node> dummyNodes) {
+        boolean[] dummy = new boolean[g.n()];
+        for (Node n : dummyNodes) {
+            dummy[g.id(n)] = true;
         }
+        return dummy;
     }
 
     /**
@@ -169,39 +229,30 @@ public void run() {
         // run alignment and compaction 4 times, once for each directional
         // choice
         initNodeMaps();
-        horizontalAlignmentLeftTopmost();
+        horizontalAlignment(true, true);
         verticalCompaction();
-        storeCoordinates(m_yLT);
+        m_yLT = m_y.clone();
         initNodeMaps();
-        horizontalAlignmentLeftBottommost();
+        horizontalAlignment(true, false);
         verticalCompaction();
-        storeCoordinates(m_yLB);
+        m_yLB = m_y.clone();
         initNodeMaps();
-        horizontalAlignmentRightTopmost();
+        horizontalAlignment(false, true);
         verticalCompaction();
-        storeCoordinates(m_yRT);
+        m_yRT = m_y.clone();
         initNodeMaps();
-        horizontalAlignmentRightBottommost();
+        horizontalAlignment(false, false);
         verticalCompaction();
-        storeCoordinates(m_yRB);
+        m_yRB = m_y.clone();
         initNodeMaps();
         // balance between 4 alignments
         balance();
         // set final coordinates
-        for (Node n : m_g.nodes()) {
-            m_g.setY(n, m_y.get(n));
+        for (int v = 0; v < m_g.n(); v++) {
+            m_g.setY(v, m_y[v]);
         }
-
-    }
-
-    /**
-     * stores current y-coordinates of each node in the graph to the given map.
-     *
-     * @param y
-     */
-    private void storeCoordinates(final HashMap<Node, Double> y) {
-        for (Node n : m_g.nodes()) {
-            y.put(n, m_y.get(n));
+        if (m_writeCoordinates) {
+            m_g.writeCoordinates();
         }
     }
 
@@ -209,13 +260,13 @@ private void storeCoordinates(final HashMap<Node, Double> y) {
      * initialize node maps needed for alignment and compaction phases.
      */
     private void initNodeMaps() {
-        for (Node n : m_g.nodes()) {
-            m_align.put(n, n);
-            m_root.put(n, n);
-            m_sink.put(n, n);
-            m_shift.put(n, Double.POSITIVE_INFINITY);
-            m_y.put(n, Double.NaN);
+        for (int v = 0; v < m_g.n(); v++) {
+            m_align[v] = v;
+            m_root[v] = v;
+            m_sink[v] = v;
         }
+        Arrays.fill(m_shift, Double.POSITIVE_INFINITY);
+        Arrays.fill(m_y, Double.NaN);
     }
 
     /*
@@ -226,33 +277,31 @@ private void initNodeMaps() {
      * mark conflicting edges.
      */
     private void markConflicts() {
-        if (m_layers.size() < 4) {
+        if (m_layers.length < 4) {
             // no conflicts possible since there cannot be any inner segments
             return;
         }
         // inner segments cannot occur between first and second layer, and
         // next-to-last and last layer
-        for (int i = 1; i < m_layers.size() - 2; i++) {
+        for (int i = 1; i < m_layers.length - 2; i++) {
             int k0 = 0;
             int l = 0;
-            for (int l1 = 0; l1 < m_layers.get(i + 1).size(); l1++) {
-                Node vl1 = m_layers.get(i + 1).get(l1);
-                Edge innerSegment = getInnerSegmentIncidentTo(vl1);
-                if (l1 == m_layers.get(i + 1).size() - 1
-                        || innerSegment != null) {
-                    int k1 = m_layers.get(i).size() - 1;
-                    if (innerSegment != null) {
-                        k1 =
-                                m_layers.get(i).indexOf(
-                                        innerSegment.opposite(vl1));
+            int[] nextLayer = m_layers[i + 1];
+            for (int l1 = 0; l1 < nextLayer.length; l1++) {
+                int vl1 = nextLayer[l1];
+                int innerSegment = getInnerSegmentIncidentTo(vl1);
+                if (l1 == nextLayer.length - 1 || innerSegment != NONE) {
+                    int k1 = m_layers[i].length - 1;
+                    if (innerSegment != NONE) {
+                        k1 = m_pos[m_g.source(innerSegment)];
                     }
                     while (l <= l1) {
-                        Node vl = m_layers.get(i + 1).get(l);
-                        for (Edge e : m_g.inEdges(vl)) {
-                            Node vk = e.opposite(vl);
-                            int k = m_layers.get(i).indexOf(vk);
+                        int vl = nextLayer[l];
+                        for (int j = 0; j < m_g.inDegree(vl); j++) {
+                            int e = m_g.inEdge(vl, j);
+                            int k = m_pos[m_g.source(e)];
                             if (k < k0 || k > k1) {
-                                m_marked.put(e, true);
+                                m_marked[e] = true;
                             }
                         }
                         l++;
@@ -269,17 +318,18 @@ private void markConflicts() {
      * exists.
      *
      * @param node
-     * @return
+     * @return the edge id or {@link #NONE}
      */
-    private Edge getInnerSegmentIncidentTo(final Node node) {
-        for (Edge e : m_g.inEdges(node)) {
+    private int getInnerSegmentIncidentTo(final int node) {
+        for (int j = 0; j < m_g.inDegree(node); j++) {
             // if node is incident to inner segment this will be the only
             // incoming edge
-            if (m_innerSegment.get(e)) {
+            int e = m_g.inEdge(node, j);
+            if (m_innerSegment[e]) {
                 return e;
             }
         }
-        return null;
+        return NONE;
     }
 
     /*
@@ -287,124 +337,37 @@ private Edge getInnerSegmentIncidentTo(final Node node) {
      */
 
     /**
-     * alignment by left median neighbors, resolving conflicts in a topmost
-     * fashion.
-     */
-    private void horizontalAlignmentLeftTopmost() {
-        for (int i = 0; i < m_layers.size(); i++) {
-            int r = -1;
-            for (int k = 0; k < m_layers.get(i).size(); k++) {
-                Node vk = m_layers.get(i).get(k);
-                ArrayList<Node> neighbors = getNeighbors(vk, true);
-                if (!neighbors.isEmpty()) {
-                    int d = neighbors.size();
-                    int m1 = (int)Math.floor((d + 1) / 2.0) - 1;
-                    int m2 = (int)Math.ceil((d + 1) / 2.0) - 1;
-                    for (int m = m1; m <= m2; m++) {
-                        if (m_align.get(vk) == vk) {
-                            Node um = neighbors.get(m);
-                            if (!m_marked.get(um.getEdge(vk))
-                                    && r < m_pos.get(um)) {
-                                m_align.put(um, vk);
-                                m_root.put(vk, m_root.get(um));
-                                m_align.put(vk, m_root.get(vk));
-                                r = m_pos.get(um);
-                            }
-                        }
-                    }
-                }
-
-            }
-        }
-    }
-
-    /**
-     * alignment by left median neighbors, resolving conflicts in a bottommost
-     * fashion.
-     */
-    private void horizontalAlignmentLeftBottommost() {
-        for (int i = 0; i < m_layers.size(); i++) {
-            int r = m_layers.size();
-            for (int k = m_layers.get(i).size() - 1; k >= 0; k--) {
-                Node vk = m_layers.get(i).get(k);
-                ArrayList<Node> neighbors = getNeighbors(vk, true);
-                if (!neighbors.isEmpty()) {
-                    int d = neighbors.size();
-                    int m1 = (int)Math.floor((d + 1) / 2.0) - 1;
-                    int m2 = (int)Math.ceil((d + 1) / 2.0) - 1;
-                    for (int m = m2; m >= m1; m--) {
-                        if (m_align.get(vk) == vk) {
-                            Node um = neighbors.get(m);
-                            if (!m_marked.get(um.getEdge(vk))
-                                    && r > m_pos.get(um)) {
-                                m_align.put(um, vk);
-                                m_root.put(vk, m_root.get(um));
-                                m_align.put(vk, m_root.get(vk));
-                                r = m_pos.get(um);
-                            }
-                        }
-                    }
-                }
-
-            }
-        }
-    }
-
-    /**
-     * alignment by right median neighbors, resolving conflicts in a topmost
-     * fashion.
-     */
-    private void horizontalAlignmentRightTopmost() {
-        for (int i = m_layers.size() - 1; i >= 0; i--) {
-            int r = -1;
-            for (int k = 0; k < m_layers.get(i).size(); k++) {
-                Node vk = m_layers.get(i).get(k);
-                ArrayList<Node> neighbors = getNeighbors(vk, false);
-                if (!neighbors.isEmpty()) {
-                    int d = neighbors.size();
-                    int m1 = (int)Math.floor((d + 1) / 2.0) - 1;
-                    int m2 = (int)Math.ceil((d + 1) / 2.0) - 1;
-                    for (int m = m1; m <= m2; m++) {
-                        if (m_align.get(vk) == vk) {
-                            Node um = neighbors.get(m);
-                            if (!m_marked.get(um.getEdge(vk))
-                                    && r < m_pos.get(um)) {
-                                m_align.put(um, vk);
-                                m_root.put(vk, m_root.get(um));
-                                m_align.put(vk, m_root.get(vk));
-                                r = m_pos.get(um);
-                            }
-                        }
-                    }
-                }
-
-            }
-        }
-    }
-
-    /**
-     * alignment by right median neighbors, resolving conflicts in a bottommost
-     * fashion.
+     * alignment by left or right median neighbors, resolving conflicts in a
+     * topmost or bottommost fashion.
+     *
+     * @param left true to align by left (incoming) neighbors, false to align
+     *            by right (outgoing) neighbors
+     * @param top true to resolve conflicts in a topmost fashion, false for
+     *            bottommost
      */
-    private void horizontalAlignmentRightBottommost() {
-        for (int i = m_layers.size() - 1; i >= 0; i--) {
-            int r = m_layers.size();
-            for (int k = m_layers.get(i).size() - 1; k >= 0; k--) {
-                Node vk = m_layers.get(i).get(k);
-                ArrayList<Node> neighbors = getNeighbors(vk, false);
-                if (!neighbors.isEmpty()) {
-                    int d = neighbors.size();
+    private void horizontalAlignment(final boolean left, final boolean top) {
+        int[] start = left ? m_leftStart : m_rightStart;
+        int[] edges = left ? m_leftEdges : m_rightEdges;
+        for (int li = 0; li < m_layers.length; li++) {
+            int[] layer = m_layers[left ? li : m_layers.length - 1 - li];
+            int r = top ? -1 : m_layers.length;
+            for (int ki = 0; ki < layer.length; ki++) {
+                int vk = layer[top ? ki : layer.length - 1 - ki];
+                int d = start[vk + 1] - start[vk];
+                if (d > 0) {
                     int m1 = (int)Math.floor((d + 1) / 2.0) - 1;
                     int m2 = (int)Math.ceil((d + 1) / 2.0) - 1;
-                    for (int m = m2; m >= m1; m--) {
-                        if (m_align.get(vk) == vk) {
-                            Node um = neighbors.get(m);
-                            if (!m_marked.get(um.getEdge(vk))
-                                    && r > m_pos.get(um)) {
-                                m_align.put(um, vk);
-                                m_root.put(vk, m_root.get(um));
-                                m_align.put(vk, m_root.get(vk));
-                                r = m_pos.get(um);
+                    for (int mi = m1; mi <= m2; mi++) {
+                        int m = top ? mi : m1 + m2 - mi;
+                        if (m_align[vk] == vk) {
+                            int e = edges[start[vk] + m];
+                            int um = m_g.opposite(e, vk);
+                            if (!m_marked[e]
+                                    && (top ? r < m_pos[um] : r > m_pos[um])) {
+                                m_align[um] = vk;
+                                m_root[vk] = m_root[um];
+                                m_align[vk] = m_root[vk];
+                                r = m_pos[um];
                             }
                         }
                     }
@@ -414,30 +377,6 @@ private void horizontalAlignmentRightBottommost() {
         }
     }
 
-    /**
-     * get either left or right neighbors of a node, sorted by their current
-     * y-coordinate.
-     *
-     * @param n
-     * @param left true if left neighbors should be returned, false otherwise
-     * @return
-     */
-    private ArrayList<Node> getNeighbors(final Node n, final boolean left) {
-        ArrayList<Node> neighbors = new ArrayList<Graph.Node>();
-        Iterable<Edge> incidentEdges;
-        if (left) {
-            incidentEdges = m_g.inEdges(n);
-        } else {
-            incidentEdges = m_g.outEdges(n);
-        }
-        for (Edge e : incidentEdges) {
-            neighbors.add(e.opposite(n));
-        }
-        // sort by order in layer
-        Collections.sort(neighbors, new Util.NodeByYComparator(m_g));
-        return neighbors;
-    }
-
     /*
      * Functions needed for third phase : Compaction
      */
@@ -447,17 +386,17 @@ private ArrayList<Node> getNeighbors(final Node n, final boolean left) {
      * offsets.
      */
     private void verticalCompaction() {
-        for (Node v : m_g.nodes()) {
-            if (m_root.get(v) == v) {
+        for (int v = 0; v < m_g.n(); v++) {
+            if (m_root[v] == v) {
                 placeBlock(v);
             }
         }
-        for (Node v : m_g.nodes()) {
-            double y = m_y.get(m_root.get(v)).doubleValue();
-            m_y.put(v, y);
-            double shift = m_shift.get(m_sink.get(m_root.get(v))).doubleValue();
+        for (int v = 0; v < m_g.n(); v++) {
+            double y = m_y[m_root[v]];
+            m_y[v] = y;
+            double shift = m_shift[m_sink[m_root[v]]];
             if (shift < Double.POSITIVE_INFINITY) {
-                m_y.put(v, y + shift);
+                m_y[v] = y + shift;
             }
         }
 
@@ -468,27 +407,25 @@ private void verticalCompaction() {
      *
      * @param v
      */
-    private void placeBlock(final Node v) {
-        if (m_y.get(v).equals(Double.NaN)) {
-            m_y.put(v, 0.0);
-            Node w = v;
+    private void placeBlock(final int v) {
+        if (Double.isNaN(m_y[v])) {
+            m_y[v] = 0.0;
+            int w = v;
             do {
-                if (m_pos.get(w) > 0) {
-                    Node u = m_root.get(m_pred.get(w));
+                if (m_pos[w] > 0) {
+                    int u = m_root[m_pred[w]];
                     placeBlock(u);
-                    if (m_sink.get(v) == v) {
-                        m_sink.put(v, m_sink.get(u));
+                    if (m_sink[v] == v) {
+                        m_sink[v] = m_sink[u];
                     }
-                    if (m_sink.get(v) != m_sink.get(u)) {
-                        double shiftSinkU =
-                                Math.min(m_shift.get(m_sink.get(u)), m_y.get(v)
-                                        - m_y.get(u) - DELTA);
-                        m_shift.put(m_sink.get(u), shiftSinkU);
+                    if (m_sink[v] != m_sink[u]) {
+                        m_shift[m_sink[u]] = Math.min(m_shift[m_sink[u]],
+                                m_y[v] - m_y[u] - DELTA);
                     } else {
-                        m_y.put(v, Math.max(m_y.get(v), m_y.get(u) + DELTA));
+                        m_y[v] = Math.max(m_y[v], m_y[u] + DELTA);
                     }
                 }
-                w = m_align.get(w);
+                w = m_align[w];
             } while (w != v);
         }
 
@@ -504,43 +441,21 @@ private void placeBlock(final Node v) {
     private void balance() {
         // align to smallest height layout would come here
         // BUT it is not needed here in my opinion.
-        double[] height = new double[4];
-        height[0] = getHeight(m_yLT);
-        height[1] = getHeight(m_yLB);
-        height[2] = getHeight(m_yRT);
-        height[3] = getHeight(m_yRB);
-        // .... perform alignment ....
 
         // average median
-        for (Node n : m_g.nodes()) {
-            double[] y = new double[4];
-            y[0] = m_yLT.get(n);
-            y[1] = m_yLB.get(n);
-            y[2] = m_yRT.get(n);
-            y[3] = m_yRB.get(n);
+        double[] y = new double[4];
+        for (int v = 0; v < m_g.n(); v++) {
+            y[0] = m_yLT[v];
+            y[1] = m_yLB[v];
+            y[2] = m_yRT[v];
+            y[3] = m_yRB[v];
             Arrays.sort(y);
             if (m_balanceBranching) {
-                m_y.put(n, (y[1] + y[2]) / 2);
+                m_y[v] = (y[1] + y[2]) / 2;
             } else {
-                m_y.put(n, y[1]);
+                m_y[v] = y[1];
             }
         }
 
     }
-
-    /**
-     * get maximal height difference of coordinates given in y.
-     *
-     * @param y
-     * @return
-     */
-    private double getHeight(final HashMap<Node, Double> y) {
-        double max = 0;
-        double min = Double.POSITIVE_INFINITY;
-        for (Node n : m_g.nodes()) {
-            max = Math.max(max, y.get(n));
-            min = Math.min(min, y.get(n));
-        }
-        return max - min;
-    }
 }
@@ -0,0 +1,433 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workbench.workflowcoach;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.workbench.repository.model.DefaultNodeTemplate;
+import org.knime.workbench.repository.model.NodeTemplate;
+import org.knime.workbench.workflowcoach.NodeRecommendationManager.NodeRecommendation;
+
+/**
+ * Immutable index of the node recommendations of one {@link org.knime.workbench.workflowcoach.data.NodeTripleProvider}.
+ * Nodes are identified by interned int ids, the recommendations of every lookup key (source nodes, a node, a
+ * predecessor-node pair) are aggregated once and stored as arrays sorted by descending frequency. Lookups don't
+ * modify the index and can be done from any thread.
+ */
+final class NodeRecommendationIndex {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeRecommendationIndex.class);
+
+    /** Recommendations for one lookup key, sorted by descending frequency. */
+    static final class Entry {
+        /** the recommended nodes (template ids), by descending frequency. */
+        private final int[] m_ids;
+
+        /** the aggregated frequencies, same order as m_ids. */
+        private final int[] m_freqs;
+
+        /** the template ids in ascending order, for membership tests. */
+        private final int[] m_sortedIds;
+
+        /** the position in m_ids of the template ids in m_sortedIds. */
+        private final int[] m_positions;
+
+        /** the sum of all frequencies. */
+        private final int m_total;
+
+        private Entry(final int[] ids, final int[] freqs) {
+            m_ids = ids;
+            m_freqs = freqs;
+            long[] idPos = new long[ids.length];
+            int total = 0;
+            for (int i = 0; i < ids.length; i++) {
+                idPos[i] = ((long)ids[i] << 32) | i;
+                total += freqs[i];
+            }
+            Arrays.sort(idPos);
+            m_sortedIds = new int[ids.length];
+            m_positions = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                m_sortedIds[i] = (int)(idPos[i] >>> 32);
+                m_positions[i] = (int)idPos[i];
+            }
+            m_total = total;
+        }
+
+        /**
+         * @return the position of the given template id, -1 if it isn't recommended
+         */
+        private int indexOf(final int id) {
+            int i = Arrays.binarySearch(m_sortedIds, id);
+            return i < 0 ? -1 : m_positions[i];
+        }
+    }
+
+    private static final Entry EMPTY = new Entry(new int[0], new int[0]);
+
+    /** the recommended node templates by template id. */
+    private final NodeTemplate[] m_templates;
+
+    /** the template ids by factory class name and node name of the templates. */
+    private final Map<String, Map<String, Integer>> m_templateIds;
+
+    /** the ids of the nodes used as lookup keys by factory class name and node name, as given by the triples. */
+    private final Map<String, Map<String, Integer>> m_nodeIds;
+
+    private final Entry m_sourceNodes;
+
+    /** the recommendations based on a node only, by node id. */
+    private final Entry[] m_nodeEntries;
+
+    /** the predecessor ids (ascending) that have recommendations together with the node, by node id. */
+    private final int[][] m_pairPredecessors;
+
+    /** the recommendations based on predecessor and node, by node id, same order as m_pairPredecessors. */
+    private final Entry[][] m_pairEntries;
+
+    private NodeRecommendationIndex(final Builder b) {
+        m_templates = b.m_templates.toArray(new NodeTemplate[b.m_templates.size()]);
+        m_templateIds = b.m_templateIds;
+        m_nodeIds = b.m_nodeIds;
+        m_sourceNodes = b.m_sourceNodes.build(true);
+        int nrNodes = b.m_nrNodes;
+        m_nodeEntries = new Entry[nrNodes];
+        for (Map.Entry<Integer, Accumulator> e : b.m_nodeAccs.entrySet()) {
+            m_nodeEntries[e.getKey()] = e.getValue().build(false);
+        }
+        m_pairPredecessors = new int[nrNodes][];
+        m_pairEntries = new Entry[nrNodes][];
+        for (Map.Entry<Integer, Map<Integer, Accumulator>> e : b.m_pairAccs.entrySet()) {
+            Map<Integer, Accumulator> byPred = e.getValue();
+            int[] preds = new int[byPred.size()];
+            int i = 0;
+            for (Integer p : byPred.keySet()) {
+                preds[i++] = p;
+            }
+            Arrays.sort(preds);
+            Entry[] entries = new Entry[preds.length];
+            for (i = 0; i < preds.length; i++) {
+                entries[i] = byPred.get(preds[i]).build(false);
+            }
+            m_pairPredecessors[e.getKey()] = preds;
+            m_pairEntries[e.getKey()] = entries;
+        }
+    }
+
+    /**
+     * @param factory the factory class name
+     * @param name the node name
+     * @return the id of the node as lookup key, -1 if there are no recommendations for it
+     */
+    int getNodeId(final String factory, final String name) {
+        return lookup(m_nodeIds, factory, name);
+    }
+
+    /**
+     * @param factory the factory class name
+     * @param name the node name
+     * @return the id of the node as recommended template, -1 if it is never recommended
+     */
+    int getTemplateId(final String factory, final String name) {
+        int id = lookup(m_templateIds, factory, name);
+        if (id < 0 && factory.indexOf('$') >= 0) {
+            // templates of the repository are keyed by the canonical name of their factory (nested factory classes)
+            id = lookup(m_templateIds, factory.replace('$', '.'), name);
+        }
+        return id;
+    }
+
+    private static int lookup(final Map<String, Map<String, Integer>> ids, final String factory, final String name) {
+        Map<String, Integer> byName = ids.get(factory);
+        Integer id = byName == null ? null : byName.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param max the maximum number of recommendations
+     * @return the recommended source nodes, by descending frequency
+     */
+    List<NodeRecommendation> getSourceNodes(final int max) {
+        return topN(new Entry[]{m_sourceNodes}, 1, -1, max);
+    }
+
+    /**
+     * Determines the recommendations based on the given node and its predecessors. If a node is recommended for more
+     * than one key, the frequency of the first key counts, where the predecessor-node pairs come first (in the given
+     * order) and the node alone last. The total frequency of the result is the sum over all (not only the returned)
+     * recommendations.
+     *
+     * @param node the node id, see {@link #getNodeId(String, String)}
+     * @param predecessors the predecessor node ids, unknown (-1) ids are ignored
+     * @param self the template id of the node to exclude from the result, or -1
+     * @param max the maximum number of recommendations
+     * @return the recommendations, by descending frequency
+     */
+    List<NodeRecommendation> getRecommendations(final int node, final int[] predecessors, final int self,
+        final int max) {
+        if (node < 0) {
+            return new ArrayList<>(0);
+        }
+        Entry[] lists = new Entry[predecessors.length + 1];
+        int k = 0;
+        int[] preds = m_pairPredecessors[node];
+        if (preds != null) {
+            for (int p : predecessors) {
+                int i = p < 0 ? -1 : Arrays.binarySearch(preds, p);
+                if (i >= 0) {
+                    lists[k++] = m_pairEntries[node][i];
+                }
+            }
+        }
+        if (m_nodeEntries[node] != null) {
+            lists[k++] = m_nodeEntries[node];
+        }
+        return topN(lists, k, self, max);
+    }
+
+    /**
+     * Merges the first k of the given lists, skipping the excluded template and recommendations already contained in
+     * an earlier list, and returns the first max results.
+     */
+    private List<NodeRecommendation> topN(final Entry[] lists, final int k, final int self, final int max) {
+        int total = 0;
+        int count = 0;
+        for (int j = 0; j < k; j++) {
+            Entry e = lists[j];
+            if (j == 0) {
+                total += e.m_total;
+                count += e.m_ids.length;
+                int s = self < 0 ? -1 : e.indexOf(self);
+                if (s >= 0) {
+                    total -= e.m_freqs[s];
+                    count--;
+                }
+            } else {
+                for (int i = 0; i < e.m_ids.length; i++) {
+                    if (isVisible(lists, j, i, self)) {
+                        total += e.m_freqs[i];
+                        count++;
+                    }
+                }
+            }
+        }
+        List<NodeRecommendation> res = new ArrayList<>(Math.min(count, max));
+        // k-way merge of the lists, all sorted by descending frequency; ties go to the earlier list
+        int[] heads = new int[k];
+        while (res.size() < max) {
+            int best = -1;
+            for (int j = 0; j < k; j++) {
+                Entry e = lists[j];
+                while (heads[j] < e.m_ids.length && !isVisible(lists, j, heads[j], self)) {
+                    heads[j]++;
+                }
+                if (heads[j] < e.m_ids.length
+                    && (best < 0 || e.m_freqs[heads[j]] > lists[best].m_freqs[heads[best]])) {
+                    best = j;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            int i = heads[best]++;
+            res.add(new NodeRecommendation(m_templates[lists[best].m_ids[i]], lists[best].m_freqs[i], total));
+        }
+        return res;
+    }
+
+    /**
+     * @return true if the i-th recommendation of list j isn't the excluded template and not contained in an earlier
+     *         list
+     */
+    private static boolean isVisible(final Entry[] lists, final int j, final int i, final int self) {
+        int id = lists[j].m_ids[i];
+        if (id == self) {
+            return false;
+        }
+        for (int l = 0; l < j; l++) {
+            if (lists[l].indexOf(id) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Collects the frequencies of the nodes recommended for one key. */
+    private static final class Accumulator {
+        /** template id -> {sum of frequencies, number of occurrences}, in order of first occurrence. */
+        private final Map<Integer, int[]> m_freqs = new LinkedHashMap<>();
+
+        private void add(final int id, final int count) {
+            int[] f = m_freqs.computeIfAbsent(id, i -> new int[2]);
+            f[0] += count;
+            f[1]++;
+        }
+
+        /**
+         * @param sum true if multiple occurrences of the same node are summed up, false if their mean is taken
+         */
+        private Entry build(final boolean sum) {
+            int n = m_freqs.size();
+            if (n == 0) {
+                return EMPTY;
+            }
+            long[] order = new long[n];
+            int[] ids = new int[n];
+            int[] freqs = new int[n];
+            int i = 0;
+            for (Map.Entry<Integer, int[]> e : m_freqs.entrySet()) {
+                int[] f = e.getValue();
+                int freq = sum ? f[0] : (int)Math.round(f[0] / (double)f[1]);
+                ids[i] = e.getKey();
+                freqs[i] = freq;
+                // descending frequency, ties in order of first occurrence
+                order[i] = ((long)-freq << 32) | i;
+                i++;
+            }
+            Arrays.sort(order);
+            int[] sortedIds = new int[n];
+            int[] sortedFreqs = new int[n];
+            for (i = 0; i < n; i++) {
+                int pos = (int)order[i];
+                sortedIds[i] = ids[pos];
+                sortedFreqs[i] = freqs[pos];
+            }
+            return new Entry(sortedIds, sortedFreqs);
+        }
+    }
+
+    /** Collects the node triples of one provider, see {@link NodeRecommendationManager#loadRecommendations()}. */
+    static final class Builder {
+        private final List<NodeTemplate> m_templates = new ArrayList<>();
+
+        /** templates are unique instances in the repository. */
+        private final Map<NodeTemplate, Integer> m_templateIdsByTemplate = new IdentityHashMap<>();
+
+        private final Map<String, Map<String, Integer>> m_templateIds = new HashMap<>();
+
+        private final Map<String, Map<String, Integer>> m_nodeIds = new HashMap<>();
+
+        private int m_nrNodes;
+
+        private final Accumulator m_sourceNodes = new Accumulator();
+
+        private final Map<Integer, Accumulator> m_nodeAccs = new HashMap<>();
+
+        private final Map<Integer, Map<Integer, Accumulator>> m_pairAccs = new HashMap<>();
+
+        /**
+         * Interns the id of a node used as lookup key.
+         */
+        int nodeId(final String factory, final String name) {
+            Map<String, Integer> byName = m_nodeIds.computeIfAbsent(factory, f -> new HashMap<>());
+            Integer id = byName.get(name);
+            if (id == null) {
+                id = m_nrNodes++;
+                byName.put(name, id);
+            }
+            return id;
+        }
+
+        /**
+         * Interns the id of a recommended node template.
+         */
+        int templateId(final NodeTemplate nt) {
+            Integer id = m_templateIdsByTemplate.get(nt);
+            if (id == null) {
+                id = m_templates.size();
+                m_templates.add(nt);
+                m_templateIdsByTemplate.put(nt, id);
+                String factory = getFactoryName(nt);
+                if (factory != null) {
+                    m_templateIds.computeIfAbsent(factory, f -> new HashMap<>()).putIfAbsent(nt.getName(), id);
+                }
+            }
+            return id;
+        }
+
+        /**
+         * The factory name of a template, without loading the factory if the repository knows its name already.
+         *
+         * @return the name or <code>null</code> if the factory can't be loaded
+         */
+        private static String getFactoryName(final NodeTemplate nt) {
+            if (nt instanceof DefaultNodeTemplate) {
+                return ((DefaultNodeTemplate)nt).getFactoryCanonicalName();
+            }
+            try {
+                return nt.getFactory().getName();
+            } catch (IllegalStateException e) {
+                LOGGER.debug("Node '" + nt.getName() + "' can't be excluded from its own recommendations: " //$NON-NLS-1$ //$NON-NLS-2$
+                    + e.getMessage(), e);
+                return null;
+            }
+        }
+
+        void addSourceNode(final NodeTemplate nt, final int count) {
+            m_sourceNodes.add(templateId(nt), count);
+        }
+
+        void addForNode(final int node, final NodeTemplate nt, final int count) {
+            m_nodeAccs.computeIfAbsent(node, n -> new Accumulator()).add(templateId(nt), count);
+        }
+
+        void addForPair(final int predecessor, final int node, final NodeTemplate nt, final int count) {
+            m_pairAccs.computeIfAbsent(node, n -> new HashMap<>())
+                .computeIfAbsent(predecessor, p -> new Accumulator()).add(templateId(nt), count);
+        }
+
+        NodeRecommendationIndex build() {
+            return new NodeRecommendationIndex(this);
+        }
+    }
+}
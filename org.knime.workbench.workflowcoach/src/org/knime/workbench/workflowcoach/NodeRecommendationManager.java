@@ -50,13 +50,9 @@
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.function.BiConsumer;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.CoreException;
@@ -106,17 +102,16 @@ public interface IUpdateListener {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeRecommendationManager.class);
 
-    private static final String SOURCE_NODES_KEY = "<source_nodes>"; //$NON-NLS-1$
-
     private static final String NODE_NAME_SEP = "#"; //$NON-NLS-1$
 
     private static final String TRIPLE_PROVIDER_EXTENSION_POINT_ID = "org.knime.workbench.workflowcoach.nodetriples"; //$NON-NLS-1$
 
     private static final NodeRecommendationManager INSTANCE = new NodeRecommendationManager();
 
-    private final List<IUpdateListener> m_listeners = new ArrayList<>(1);
+    private final List<IUpdateListener> m_listeners = new CopyOnWriteArrayList<>();
 
-    private List<Map<String, List<NodeRecommendation>>> m_recommendations;
+    /** one immutable index per loaded provider; replaced as a whole on reload. */
+    private volatile List<NodeRecommendationIndex> m_recommendations;
 
 
     static {
@@ -179,63 +174,52 @@ public void removeUpdateListener(final IUpdateListener listener) {
     public void loadRecommendations() throws Exception {
         //read from multiple frequency sources
         List<NodeTripleProvider> providers = getNodeTripleProviders();
-        List<Map<String, List<NodeRecommendation>>> recommendations = new ArrayList<>(providers.size());
+        List<NodeRecommendationIndex> recommendations = new ArrayList<>(providers.size());
 
         for (NodeTripleProvider provider : providers) {
             if (provider.isEnabled() && !updateRequired(provider)) {
-                Map<String, List<NodeRecommendation>> recommendationMap = new HashMap<>();
-                recommendations.add(recommendationMap);
-
-                provider.getNodeTriples().forEach(nf -> fillRecommendationsMap(recommendationMap, nf));
-
-                //aggregate multiple occurring id's
-                //but apply a different aggregation method to source nodes
-                BiConsumer<NodeRecommendation, NodeRecommendation> avgAggr = (np1, np2) -> {
-                    np1.increaseFrequency(np2.getFrequency(), 1);
-                };
-                BiConsumer<NodeRecommendation, NodeRecommendation> sumAggr = (np1, np2) -> {
-                    np1.increaseFrequency(np2.getFrequency(), 0);
-                };
-                recommendationMap.keySet().stream().forEach(s -> {
-                    if (s.equals(SOURCE_NODES_KEY)) {
-                        aggregate(recommendationMap.get(s), sumAggr);
-                    } else {
-                        aggregate(recommendationMap.get(s), avgAggr);
-                    }
-                });
+                //multiple occurrences of the same recommendation are aggregated when the index is built:
+                //the frequencies of source nodes are summed up, all others are averaged
+                NodeRecommendationIndex.Builder builder = new NodeRecommendationIndex.Builder();
+                provider.getNodeTriples().forEach(nf -> fillIndex(builder, nf));
+                recommendations.add(builder.build());
             }
         } //end for
 
-        m_recommendations = recommendations;
+        m_recommendations = Collections.unmodifiableList(recommendations);
         m_listeners.stream().forEach(l -> l.updated());
     }
 
-    private static void fillRecommendationsMap(final Map<String, List<NodeRecommendation>> recommendationMap,
-        final NodeTriple nf) {
+    private static void fillIndex(final NodeRecommendationIndex.Builder builder, final NodeTriple nf) {
+        NodeTemplate successor = findNodeTemplate(nf.getSuccessor());
+
         /* considering the successor only, i.e. for all entries where the predecessor and the node
          * itself is not present
          */
         if (!nf.getNode().isPresent() && !nf.getPredecessor().isPresent() && isSourceNode(nf.getSuccessor())) {
-            add(recommendationMap, SOURCE_NODES_KEY, nf.getSuccessor(), nf.getCount());
+            builder.addSourceNode(successor, nf.getCount());
         }
 
         /* considering the the node itself as successor, but only for those nodes that don't have a
          * predecessor -> source nodes, i.e. nodes without an input port
          */
         if (!nf.getPredecessor().isPresent() && nf.getNode().isPresent() && isSourceNode(nf.getNode().get())) {
-            add(recommendationMap, SOURCE_NODES_KEY, nf.getNode().get(), nf.getCount());
+            builder.addSourceNode(findNodeTemplate(nf.getNode().get()), nf.getCount());
         }
 
-        /* without predecessor but with the node, if given*/
-        if (nf.getNode().isPresent()) {
-            add(recommendationMap, getKey(nf.getNode().get()), nf.getSuccessor(), nf.getCount());
-        }
+        if (nf.getNode().isPresent() && (successor != null)) {
+            NodeInfo node = nf.getNode().get();
+            int nodeId = builder.nodeId(node.getFactory(), node.getName());
+
+            /* without predecessor but with the node, if given*/
+            builder.addForNode(nodeId, successor, nf.getCount());
 
-        /* considering predecessor, if given */
-        if (nf.getPredecessor().isPresent() && nf.getNode().isPresent()) {
-            add(recommendationMap,
-                getKey(nf.getPredecessor().get()) + NODE_NAME_SEP + getKey(nf.getNode().get()),
-                nf.getSuccessor(), nf.getCount());
+            /* considering predecessor, if given */
+            if (nf.getPredecessor().isPresent()) {
+                NodeInfo pred = nf.getPredecessor().get();
+                builder.addForPair(builder.nodeId(pred.getFactory(), pred.getName()), nodeId, successor,
+                    nf.getCount());
+            }
         }
     }
 
@@ -260,19 +244,6 @@ private static boolean updateRequired(final NodeTripleProvider ntp) {
         return (ntp instanceof UpdatableNodeTripleProvider) && ((UpdatableNodeTripleProvider)ntp).updateRequired();
     }
 
-    /**
-     * Adds a new node recommendation to the map.
-     */
-    private static void add(final Map<String, List<NodeRecommendation>> recommendation, final String key,
-        final NodeInfo ni, final int count) {
-        List<NodeRecommendation> p = recommendation.computeIfAbsent(key, k -> new ArrayList<>());
-        //create the new node recommendation
-        NodeTemplate nt = findNodeTemplate(ni);
-        if (nt != null) {
-            p.add(new NodeRecommendation(nt, count));
-        }
-    }
-
     private static NodeTemplate findNodeTemplate(final NodeInfo ni) {
         NodeTemplate nt = RepositoryManager.INSTANCE.getNodeTemplate(ni.getFactory());
         if (nt == null) {
@@ -283,30 +254,6 @@ private static NodeTemplate findNodeTemplate(final NodeInfo ni) {
         return nt;
     }
 
-    /**
-     * Aggregates multiple occurring id's and takes the mean of the frequencies
-     *
-     * @param l the list is manipulated directly
-     * @param aggregationOperation the operation that aggregates the frequency of two node recommendations - important:
-     *            only the first node recommendation-object must be manipulated
-     */
-    private static void aggregate(final List<NodeRecommendation> l,
-        final BiConsumer<NodeRecommendation, NodeRecommendation> aggregationOperation) {
-        Map<String, NodeRecommendation> aggregates = new HashMap<>();
-
-        for (NodeRecommendation np : l) {
-            if (aggregates.containsKey(np.toString())) {
-                //aggregate
-                NodeRecommendation np2 = aggregates.get(np.toString());
-                aggregationOperation.accept(np2, np);
-            } else {
-                aggregates.put(np.toString(), np);
-            }
-        }
-        l.clear();
-        l.addAll(aggregates.values());
-    }
-
     /**
      * Determines lists of node recommendation based on the given nodes (e.g. that are selected in the workflow editor).
      * The {@link NodeRecommendation}s are determined based on the statistics of {@link NodeTriple}s (i.e. predecessor,
@@ -335,73 +282,71 @@ private static void aggregate(final List<NodeRecommendation> l,
      *         node statistics!
      */
     public List<NodeRecommendation>[] getNodeRecommendationFor(final NativeNodeContainerUI... nnc) {
-        if (m_recommendations == null) {
+        return getNodeRecommendationFor(Integer.MAX_VALUE, nnc);
+    }
+
+    /**
+     * Same as {@link #getNodeRecommendationFor(NativeNodeContainerUI...)}, but returns at most the given number of
+     * recommendations per provider, the ones with the highest frequencies. The total frequency of the returned
+     * recommendations still refers to all recommendations. The lists are merged from the pre-sorted index, hence this
+     * is considerably cheaper than retrieving all recommendations for small numbers.
+     *
+     * @param maxResults the maximum number of recommendations per provider
+     * @param nnc see {@link #getNodeRecommendationFor(NativeNodeContainerUI...)}
+     * @return see {@link #getNodeRecommendationFor(NativeNodeContainerUI...)}
+     * @since 4.2
+     */
+    public List<NodeRecommendation>[] getNodeRecommendationFor(final int maxResults,
+        final NativeNodeContainerUI... nnc) {
+        List<NodeRecommendationIndex> recommendations = m_recommendations;
+        if (recommendations == null) {
             return null;
         }
+        if (nnc.length > 1) {
+            throw new UnsupportedOperationException(
+                Messages.NodeRecommendationManager_8);
+        }
+        List<NativeNodeContainerUI> predecessors = nnc.length == 1 ? getPredecessors(nnc[0]) : null;
         @SuppressWarnings("unchecked")
-        List<NodeRecommendation>[] res = new List[m_recommendations.size()];
+        List<NodeRecommendation>[] res = new List[recommendations.size()];
         for (int idx = 0; idx < res.length; idx++) {
+            NodeRecommendationIndex index = recommendations.get(idx);
             if (nnc.length == 0) {
                 //recommendations if no node is given -> source nodes are recommended
-                res[idx] = m_recommendations.get(idx).get(SOURCE_NODES_KEY);
-                if (res[idx] == null) {
-                    res[idx] = Collections.emptyList();
-                }
-            } else if (nnc.length == 1) {
-                String nodeID = getKey(nnc[0]);
-                Set<NodeRecommendation> set = new HashSet<NodeRecommendationManager.NodeRecommendation>();
-
-                /* recommendations based on the given node and possible predecessors */
-                for (int i = 0; i < nnc[0].getNrInPorts(); i++) {
-                    ConnectionContainerUI cc = nnc[0].getParent().getIncomingConnectionFor(nnc[0].getID(), i);
-                    if (cc != null) {
-                        //only take the predecessor if its not leaving the workflow (e.g. the actual predecessor is outside of a metanode)
-                        if (cc.getType() != ConnectionType.WFMIN) {
-                            NodeContainerUI predecessor = nnc[0].getParent().getNodeContainer(cc.getSource());
-                            if (predecessor instanceof NativeNodeContainerUI) {
-                                List<NodeRecommendation> l = m_recommendations.get(idx)
-                                    .get(getKey((NativeNodeContainerUI)predecessor) + NODE_NAME_SEP + getKey(nnc[0]));
-                                if (l != null) {
-                                    set.addAll(l);
-                                }
-                            }
-                        }
-                    }
-                }
-
-                /* recommendation based on the given node only */
-                List<NodeRecommendation> p1 = m_recommendations.get(idx).get(nodeID);
-                if (p1 != null) {
-                    set.addAll(p1);
-                }
-
-                //add to the result list
-                res[idx] = new ArrayList<NodeRecommendationManager.NodeRecommendation>(set.size());
-                res[idx].addAll(set);
+                res[idx] = index.getSourceNodes(maxResults);
             } else {
-                throw new UnsupportedOperationException(
-                    Messages.NodeRecommendationManager_8);
-            }
-
-            /* post-process result */
-            Collections.sort(res[idx]);
-            if (nnc.length == 1) {
-                //remove the node, the recommendations have bee requested for, from the list
+                String factory = nnc[0].getNodeFactoryClassName();
+                String name = nnc[0].getName();
+                int[] predecessorIds = new int[predecessors.size()];
+                for (int i = 0; i < predecessorIds.length; i++) {
+                    NativeNodeContainerUI p = predecessors.get(i);
+                    predecessorIds[i] = index.getNodeId(p.getNodeFactoryClassName(), p.getName());
+                }
+                //the node the recommendations have been requested for is removed from the list
                 //in order to match the nodes [NodeFactory]#[NodeName] needs to be compared, otherwise it won't work with dynamically generated nodes
-                res[idx] = res[idx].stream().filter(nr -> !getKey(nr.getNodeTemplate()).equals(getKey(nnc[0])))
-                    .collect(Collectors.toList());
+                res[idx] = index.getRecommendations(index.getNodeId(factory, name), predecessorIds,
+                    index.getTemplateId(factory, name), maxResults);
             }
+        }
+        return res;
+    }
 
-            //update the total frequencies
-            int tmpFreqs = 0;
-            for (NodeRecommendation np : res[idx]) {
-                tmpFreqs += np.getFrequency();
-            }
-            for (NodeRecommendation np : res[idx]) {
-                np.setTotalFrequency(tmpFreqs);
+    /**
+     * @return the predecessors of the given node in the order of its input ports, without those outside of the
+     *         workflow (e.g. the actual predecessor is outside of a metanode)
+     */
+    private static List<NativeNodeContainerUI> getPredecessors(final NativeNodeContainerUI nnc) {
+        List<NativeNodeContainerUI> predecessors = new ArrayList<>(nnc.getNrInPorts());
+        for (int i = 0; i < nnc.getNrInPorts(); i++) {
+            ConnectionContainerUI cc = nnc.getParent().getIncomingConnectionFor(nnc.getID(), i);
+            if (cc != null && cc.getType() != ConnectionType.WFMIN) {
+                NodeContainerUI predecessor = nnc.getParent().getNodeContainer(cc.getSource());
+                if (predecessor instanceof NativeNodeContainerUI) {
+                    predecessors.add((NativeNodeContainerUI)predecessor);
+                }
             }
         }
-        return res;
+        return predecessors;
     }
 
     /**
@@ -410,38 +355,22 @@ public List<NodeRecommendation>[] getNodeRecommendationFor(final NativeNodeConta
      * @return the number of loaded providers
      */
     public int getNumLoadedProviders() {
-        if (m_recommendations == null) {
+        List<NodeRecommendationIndex> recommendations = m_recommendations;
+        if (recommendations == null) {
             return 0;
         } else {
-            return m_recommendations.size();
+            return recommendations.size();
         }
     }
 
-    /**
-     * @param nnc the native node container to create the key for
-     * @return the key to be used to look up the node recommendations
-     */
-    private static String getKey(final NativeNodeContainerUI nnc) {
-        return nnc.getNodeFactoryClassName() + NODE_NAME_SEP + nnc.getName();
-    }
-
     /**
      * @param nt the node info to create the key for
-     * @return the key to be used to look up the node recommendations
+     * @return the key to be used to look up the template of dynamically generated nodes
      */
     private static String getKey(final NodeInfo ni) {
         return ni.getFactory() + NODE_NAME_SEP + ni.getName();
     }
 
-    /**
-     * @param nt the node template to create the key for
-     * @return the key to be used to look up the node recommendations and to filter the recommendations for the same
-     *         node they were requested for
-     */
-    private static String getKey(final NodeTemplate nt) {
-        return nt.getFactory().getName() + NODE_NAME_SEP + nt.getName();
-    }
-
     /**
      * Object representing one node recommendation, including the node template itself and a frequency as a measure of a
      * certainty for the given recommendation.
@@ -449,24 +378,23 @@ private static String getKey(final NodeTemplate nt) {
      * @author Martin Horn, University of Konstanz
      */
     public static class NodeRecommendation implements Comparable<NodeRecommendation> {
-        private int m_frequency;
+        private final int m_frequency;
 
         private final NodeTemplate m_node;
 
-        private int m_totalFrequency;
-
-        private int m_num = 1;
+        private final int m_totalFrequency;
 
         /**
          * Creates a new node recommendation for the given node.
          *
          * @param node the node
          * @param frequency a frequency of usage
+         * @param totalFrequency the sum of the frequencies of all recommendations for the same node
          */
-        NodeRecommendation(final NodeTemplate node, final int frequency) {
+        NodeRecommendation(final NodeTemplate node, final int frequency, final int totalFrequency) {
             m_node = node;
             m_frequency = frequency;
-            m_totalFrequency = frequency;
+            m_totalFrequency = totalFrequency;
         }
 
         /**
@@ -476,7 +404,7 @@ public static class NodeRecommendation implements Comparable<NodeRecommendation>
          * @return the frequency
          */
         public int getFrequency() {
-            return (int)Math.round(m_frequency / (double)m_num);
+            return m_frequency;
         }
 
         /**
@@ -488,31 +416,6 @@ public int getTotalFrequency() {
             return m_totalFrequency;
         }
 
-        /**
-         * Sets the overall frequency that is needed to express the frequency as a probability later on.
-         *
-         * @param frequency
-         */
-        private void setTotalFrequency(final int frequency) {
-            m_totalFrequency = frequency;
-        }
-
-        /**
-         * Increases the frequency by the given amount. Needed in order to aggregate frequencies of node recommendations
-         * that recommend the same node (e.g. if the selected node only is taken into account and the predecessor
-         * ignored). See {@link NodeRecommendationManager#aggregate(List)}.
-         *
-         * @param freqIncrease the amount of how much to increase the frequency
-         * @param countIncrease the amount the count should be increased by which the frequency is in the end divided by
-         *            when calling the {@link #getFrequency()}-method. If 1 is passed with every frequency increase, the
-         *            mean is essentially taken when finally calling {@link #getFrequency()}. If 0 is passed every time,
-         *            {@link #getFrequency()} will return sum of all frequencies provided here.
-         */
-        private void increaseFrequency(final int freqIncrease, final int countIncrease) {
-            m_frequency += freqIncrease;
-            m_num += countIncrease;
-        }
-
         /**
          * Returns the recommended node as {@link NodeTemplate}.
          *
@@ -99,12 +99,20 @@ public abstract class AbstractFileDownloadTripleProvider implements UpdatableNod
      */
     private static final String TMP_FILE_NAME = "file_download.temp"; //$NON-NLS-1$
 
+    /** Suffix of the binary snapshot of the parsed triples, stored next to the downloaded file. */
+    private static final String SNAPSHOT_SUFFIX = ".snapshot"; //$NON-NLS-1$
+
     private final String m_url;
 
     private final Path m_file;
 
     private final Path m_tmpFile;
 
+    private final Path m_snapshotFile;
+
+    /** the triples parsed by the last {@link #checkDownloadedFile(Path)}, reused for the snapshot. */
+    private List<NodeTriple> m_checkedTriples;
+
     /**
      * Creates a new triple provider.
      *
@@ -116,6 +124,7 @@ protected AbstractFileDownloadTripleProvider(final String url, final String file
         m_url = url;
         m_file = Paths.get(KNIMEConstants.getKNIMEHomeDir(), fileName);
         m_tmpFile = Paths.get(KNIMEConstants.getKNIMEHomeDir(), TMP_FILE_NAME);
+        m_snapshotFile = Paths.get(KNIMEConstants.getKNIMEHomeDir(), fileName + SNAPSHOT_SUFFIX);
     }
 
     /**
@@ -123,7 +132,38 @@ protected AbstractFileDownloadTripleProvider(final String url, final String file
      */
     @Override
     public Stream<NodeTriple> getNodeTriples() throws IOException {
-        return NodeFrequencies.from(Files.newInputStream(m_file)).getFrequencies().stream();
+        try {
+            Stream<NodeTriple> triples = NodeTripleSnapshot.read(m_snapshotFile, m_file);
+            if (triples != null) {
+                return triples;
+            }
+        } catch (IOException ex) {
+            NodeLogger.getLogger(getClass()).debug("Could not read node triple snapshot '" + m_snapshotFile + "': " //$NON-NLS-1$ //$NON-NLS-2$
+                + ex.getMessage(), ex);
+        }
+        // no (valid) snapshot yet, e.g. the file was downloaded by a previous version
+        List<NodeTriple> triples = readTriples(m_file);
+        writeSnapshot(triples);
+        return triples.stream();
+    }
+
+    private static List<NodeTriple> readTriples(final Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return NodeFrequencies.from(in).getFrequencies();
+        }
+    }
+
+    /**
+     * Writes the snapshot of the triples of the downloaded file. Failures are only logged, the triples are read from
+     * the downloaded file again next time.
+     */
+    private void writeSnapshot(final List<NodeTriple> triples) {
+        try {
+            NodeTripleSnapshot.write(m_snapshotFile, m_file, triples);
+        } catch (IOException ex) {
+            NodeLogger.getLogger(getClass()).debug("Could not write node triple snapshot '" + m_snapshotFile + "': " //$NON-NLS-1$ //$NON-NLS-2$
+                + ex.getMessage(), ex);
+        }
     }
 
     /**
@@ -165,13 +205,23 @@ public void update() throws Exception {
         }
 
         //check the download and rename the file
+        List<NodeTriple> triples;
         try {
+            m_checkedTriples = null;
             checkDownloadedFile(m_tmpFile);
+            triples = m_checkedTriples;
             Files.move(m_tmpFile, m_file, StandardCopyOption.REPLACE_EXISTING);
         } finally {
+            m_checkedTriples = null;
             //delete temporary file
             Files.deleteIfExists(m_tmpFile);
         }
+
+        //the file is new, replace the snapshot right away instead of parsing it on the next load
+        //(if a subclass checks the file differently, the outdated snapshot is replaced on the next load)
+        if (triples != null) {
+            writeSnapshot(triples);
+        }
     }
 
     /**
@@ -185,7 +235,7 @@ public void update() throws Exception {
      */
     protected void checkDownloadedFile(final Path file) throws IOException {
         try {
-            NodeFrequencies.from(Files.newInputStream(file));
+            m_checkedTriples = readTriples(file);
         } catch (IOException e) {
             throw new IOException(Messages.AbstractFileDownloadTripleProvider_5);
         }
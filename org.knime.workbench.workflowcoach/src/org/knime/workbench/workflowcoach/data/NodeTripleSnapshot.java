@@ -0,0 +1,304 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.workbench.workflowcoach.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.knime.core.node.NodeInfo;
+import org.knime.core.node.NodeTriple;
+
+/**
+ * Compact binary snapshot of the node triples parsed from a downloaded triple file. The snapshot is memory-mapped
+ * when read and the triples are decoded lazily while the returned stream is consumed, hence loading the
+ * recommendations doesn't require parsing JSON as long as the snapshot is up to date. The snapshot records the size
+ * and modification time of the file it was created from and is ignored as soon as these don't match anymore.
+ *
+ * <p>
+ * A mapped file can't be replaced on Windows as long as the mapping exists (i.e. until it's garbage collected), hence
+ * a new snapshot never overwrites an existing one. Each snapshot is written to a new generation file
+ * <code>&lt;base&gt;.&lt;n&gt;</code>, the latest generation is read and older ones are deleted when possible.
+ * </p>
+ *
+ * <p>
+ * Format (big endian): magic, version, source file modification time and size, the string table (count, then length
+ * and UTF-8 bytes per string), the node table (count, then factory and name string index per node) and the triples
+ * (count, then predecessor, node and successor node index and the count per triple; -1 for absent nodes).
+ */
+final class NodeTripleSnapshot {
+
+    private static final int MAGIC = 0x4B4E5453; // "KNTS"
+
+    private static final int VERSION = 1;
+
+    /** ints per triple: predecessor, node, successor, count. */
+    private static final int TRIPLE_INTS = 4;
+
+    /** magic, version, source modification time and size. */
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES;
+
+    private NodeTripleSnapshot() {
+    }
+
+    /**
+     * Reads the latest snapshot.
+     *
+     * @param base the base path of the snapshot files
+     * @param source the file the snapshot was created from
+     * @return the triples, or <code>null</code> if there is no snapshot or it doesn't match the source file
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    static Stream<NodeTriple> read(final Path base, final Path source) throws IOException {
+        long generation = getLatestGeneration(base);
+        if (generation < 0) {
+            return null;
+        }
+        Path snapshot = getGenerationFile(base, generation);
+        BasicFileAttributes sourceAttrs = Files.readAttributes(source, BasicFileAttributes.class);
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            // check the header before mapping, an outdated snapshot isn't mapped at all
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Corrupt node triple snapshot " + snapshot); //$NON-NLS-1$
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return null;
+            }
+            if (header.getLong() != sourceAttrs.lastModifiedTime().toMillis()
+                || header.getLong() != sourceAttrs.size()) {
+                // the source file was replaced
+                return null;
+            }
+            // the mapping stays valid after the channel is closed
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, channel.size() - HEADER_BYTES);
+        }
+        try {
+            String[] strings = new String[buf.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            NodeInfo[] nodes = new NodeInfo[buf.getInt()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = new NodeInfo(strings[buf.getInt()], strings[buf.getInt()]);
+            }
+            final int nrTriples = buf.getInt();
+            final int offset = buf.position();
+            if (buf.remaining() != nrTriples * TRIPLE_INTS * Integer.BYTES) {
+                throw new IOException("Corrupt node triple snapshot " + snapshot); //$NON-NLS-1$
+            }
+            final ByteBuffer triples = buf;
+            return IntStream.range(0, nrTriples).mapToObj(i -> {
+                // absolute reads, the buffer position isn't touched anymore
+                int pos = offset + i * TRIPLE_INTS * Integer.BYTES;
+                int pred = triples.getInt(pos);
+                int node = triples.getInt(pos + Integer.BYTES);
+                NodeTriple triple = new NodeTriple(pred < 0 ? null : nodes[pred], node < 0 ? null : nodes[node],
+                    nodes[triples.getInt(pos + 2 * Integer.BYTES)]);
+                triple.setCount(triples.getInt(pos + 3 * Integer.BYTES));
+                return triple;
+            });
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt node triple snapshot " + snapshot, e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Writes the snapshot of the given triples as new generation. The snapshot is written to a temporary file first
+     * and then moved to its final location. Older generations are deleted afterwards if they aren't in use anymore.
+     *
+     * @param base the base path of the snapshot files
+     * @param source the file the triples were parsed from
+     * @param triples the triples
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(final Path base, final Path source, final List<NodeTriple> triples) throws IOException {
+        BasicFileAttributes sourceAttrs = Files.readAttributes(source, BasicFileAttributes.class);
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<int[]> nodes = new ArrayList<>();
+        Map<String, Map<String, Integer>> nodeIds = new HashMap<>();
+        int[] tripleData = new int[triples.size() * TRIPLE_INTS];
+        int i = 0;
+        for (NodeTriple t : triples) {
+            tripleData[i++] = t.getPredecessor().map(n -> nodeId(n, nodes, nodeIds, strings, stringIds)).orElse(-1);
+            tripleData[i++] = t.getNode().map(n -> nodeId(n, nodes, nodeIds, strings, stringIds)).orElse(-1);
+            tripleData[i++] = nodeId(t.getSuccessor(), nodes, nodeIds, strings, stringIds);
+            tripleData[i++] = t.getCount();
+        }
+
+        long generation = getLatestGeneration(base) + 1;
+        Path snapshot = getGenerationFile(base, generation);
+        Path tmp = base.resolveSibling(base.getFileName() + ".tmp"); //$NON-NLS-1$
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceAttrs.lastModifiedTime().toMillis());
+                out.writeLong(sourceAttrs.size());
+                out.writeInt(strings.size());
+                for (String s : strings) {
+                    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                out.writeInt(nodes.size());
+                for (int[] n : nodes) {
+                    out.writeInt(n[0]);
+                    out.writeInt(n[1]);
+                }
+                out.writeInt(triples.size());
+                for (int v : tripleData) {
+                    out.writeInt(v);
+                }
+            }
+            // a new file, the previous snapshot may still be mapped
+            Files.move(tmp, snapshot);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        deleteOlderGenerations(base, generation);
+    }
+
+    private static Path getGenerationFile(final Path base, final long generation) {
+        return base.resolveSibling(base.getFileName() + "." + generation); //$NON-NLS-1$
+    }
+
+    /**
+     * @return the generations of the snapshot files next to the base path
+     */
+    private static List<Long> getGenerations(final Path base) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        Path dir = base.toAbsolutePath().getParent();
+        if (!Files.isDirectory(dir)) {
+            return generations;
+        }
+        String prefix = base.getFileName() + "."; //$NON-NLS-1$
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) { //$NON-NLS-1$
+            for (Path f : files) {
+                String suffix = f.getFileName().toString().substring(prefix.length());
+                try {
+                    generations.add(Long.parseLong(suffix));
+                } catch (NumberFormatException e) {
+                    // e.g. the temporary file
+                }
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * @return the latest generation, -1 if there is no snapshot
+     */
+    private static long getLatestGeneration(final Path base) throws IOException {
+        long latest = -1;
+        for (long g : getGenerations(base)) {
+            latest = Math.max(latest, g);
+        }
+        return latest;
+    }
+
+    /**
+     * Deletes the generations older than the given one and the snapshot of the previous version (which had no
+     * generation). Files still mapped (on Windows) are deleted next time.
+     */
+    private static void deleteOlderGenerations(final Path base, final long generation) throws IOException {
+        List<Path> outdated = new ArrayList<>();
+        outdated.add(base);
+        for (long g : getGenerations(base)) {
+            if (g < generation) {
+                outdated.add(getGenerationFile(base, g));
+            }
+        }
+        for (Path p : outdated) {
+            try {
+                Files.deleteIfExists(p);
+            } catch (IOException e) {
+                // still in use
+            }
+        }
+    }
+
+    private static int nodeId(final NodeInfo n, final List<int[]> nodes, final Map<String, Map<String, Integer>> nodeIds,
+        final List<String> strings, final Map<String, Integer> stringIds) {
+        Map<String, Integer> byName = nodeIds.computeIfAbsent(n.getFactory(), f -> new HashMap<>());
+        Integer id = byName.get(n.getName());
+        if (id == null) {
+            id = nodes.size();
+            nodes.add(new int[]{stringId(n.getFactory(), strings, stringIds), stringId(n.getName(), strings, stringIds)});
+            byName.put(n.getName(), id);
+        }
+        return id;
+    }
+
+    private static int stringId(final String s, final List<String> strings, final Map<String, Integer> stringIds) {
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+}